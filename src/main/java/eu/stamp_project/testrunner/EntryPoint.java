@@ -1,32 +1,19 @@
 package eu.stamp_project.testrunner;
 
 import eu.stamp_project.testrunner.listener.*;
-import eu.stamp_project.testrunner.listener.impl.CoverageImpl;
-import eu.stamp_project.testrunner.listener.impl.CoveragePerTestMethodImpl;
-import eu.stamp_project.testrunner.listener.impl.TestResultImpl;
+import eu.stamp_project.testrunner.listener.impl.MappedCoveragePerTestMethod;
 import eu.stamp_project.testrunner.listener.junit4.JUnit4Coverage;
 import eu.stamp_project.testrunner.runner.JUnit4Runner;
-import eu.stamp_project.testrunner.runner.ParserOptions;
-import eu.stamp_project.testrunner.utils.ConstantsHelper;
-import org.apache.commons.io.FileUtils;
-import org.jacoco.core.runtime.IRuntime;
-import org.objectweb.asm.xml.Processor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import eu.stamp_project.testrunner.runner.RunnerDaemon;
+import eu.stamp_project.testrunner.runner.TestJob;
 
 import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
 import java.io.PrintStream;
-import java.lang.reflect.Method;
-import java.net.URL;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Created by Benjamin DANGLOT
@@ -42,6 +29,7 @@ import java.util.stream.Stream;
  * <li>{@link EntryPoint#runTests(String, String[], String[])} to run all the given test classes.</li>
  * <li>{@link EntryPoint#runCoverage(String, String, String[], String[])} to compute the coverage of the given test classes</li>
  * <li>{@link EntryPoint#runCoveragePerTestMethods(String, String, String[], String[])} to compute the coverage of the test methods of the given test classes</li>
+ * <li>{@link EntryPoint#runJobs(String, String, List)} to run several of the above in a single runner process</li>
  * </ul>
  * <p>
  * This class relies on {@link JUnit4Runner} and {@link eu.stamp_project.testrunner.runner.coverage.JacocoRunner}
@@ -58,7 +46,27 @@ import java.util.stream.Stream;
  * <li>outPrintStream: to redirect the standard output to a custom print stream</li>
  * <li>errPrintStream: to redirect the standard error output to a custom print stream</li>
  * <li>persistence: if enable, keeps the configuration between runs, else reset it</li>
+ * <li>useRunnerDaemon: reuse warm runner processes instead of creating a new JVM for each call</li>
+ * <li>parallelism: number of runner processes used in parallel to run the given test classes</li>
+ * <li>maxRunsPerFork, maxForkAgeInMs, recycleForkOnFailure, maxForkHeapUsage: when to recycle a warm runner process</li>
+ * <li>forkPerTestClass: to run each test class in its own runner process</li>
+ * <li>useProbeFile: to compute the coverage per test method lazily, from the raw probes shared by the runner process</li>
+ * <li>testEventListener: to receive the events of the execution while the tests are running</li>
+ * <li>captureTestOutput: to capture the output of each test method</li>
+ * <li>inProcess: to run the tests inside this JVM, using an isolated class loader</li>
+ * <li>testTimeoutInMs: integer timeout time in milliseconds for each test method</li>
+ * <li>salvagePartialResults: to keep the result of the test methods that finished before the timeout of the whole execution</li>
+ * <li>timeoutHistory: to derive timeoutInMs from the durations of the previous executions</li>
+ * <li>stackTraceMaxDepth, filterStackTrace: to keep fewer frames in the stack traces of the failures</li>
+ * <li>instrumentedClassesCacheDirectory: to reuse the classes instrumented by jacoco from one computation of the coverage to the next</li>
+ * <li>useCoverageAgent: to instrument the classes with a java agent, instead of loading the tests with a dedicated class loader, to compute the coverage</li>
+ * <li>eagerInstrumentation: to instrument all the classes at once, in parallel, instead of each class on its first load, to compute the coverage</li>
+ * <li>coverageIncludes and coverageExcludes: to restrict the classes on which the coverage is computed</li>
  * </ul>
+ * <p>
+ * Since these options are shared by the whole JVM, each call builds a {@link TestRunnerSession} from their current values, see {@link EntryPoint#createSession()}.
+ * In order to run several executions concurrently, with different options, use directly {@link TestRunnerSession}.
+ * </p>
  */
 public class EntryPoint {
 
@@ -111,6 +119,9 @@ public class EntryPoint {
      * errPrintStream,
      * workingDirectory,
      * timeoutInMs,
+     * testTimeoutInMs,
+     * timeoutHistory,
+     * testEventListener,
      */
     public static boolean persistence = true;
 
@@ -121,6 +132,176 @@ public class EntryPoint {
      */
     public static List<String> blackList = new ArrayList<>();
 
+    /**
+     * Enable the reuse of warm runner processes, see {@link RunnerDaemon}.
+     * If this boolean is true, {@link EntryPoint} starts a long-lived java process per classpath, and sends it the requests
+     * instead of creating a new JVM for each of them.
+     * If the long-lived process cannot be used, <i>e.g.</i> it dies during the execution, {@link EntryPoint} falls back on a new JVM.
+     * Started processes can be stopped using {@link EntryPoint#shutdownRunnerDaemons()}.
+     */
+    public static boolean useRunnerDaemon = false;
+
+    /**
+     * Maximum number of runner processes used in parallel by {@link EntryPoint#runTests(String, String[], String[])}.
+     * If this value is greater than 1, the given test classes are spread across several runner processes,
+     * each of them running its share of the test classes. The results are then aggregated using {@link TestResult#aggregate(TestResult)}.
+     * The test classes are distributed following their given order, so the aggregated result is deterministic.
+     * By default, it is 1, <i>i.e.</i> all the test classes are run sequentially in a single runner process.
+     */
+    public static int parallelism = 1;
+
+    /**
+     * Maximum number of requests sent to a warm runner process, see {@link EntryPoint#useRunnerDaemon}.
+     * Once it is reached, the runner process is stopped, and the next request starts a new one.
+     * By default, it is 0, <i>i.e.</i> a runner process is reused without limit.
+     */
+    public static int maxRunsPerFork = 0;
+
+    /**
+     * Maximum age in milliseconds of a warm runner process, see {@link EntryPoint#useRunnerDaemon}.
+     * A runner process older than this age is stopped instead of being reused.
+     * By default, it is 0, <i>i.e.</i> a runner process is reused whatever its age.
+     */
+    public static int maxForkAgeInMs = 0;
+
+    /**
+     * Enable this boolean to stop a warm runner process, see {@link EntryPoint#useRunnerDaemon},
+     * after a request that failed, <i>e.g.</i> the runner threw an exception, instead of reusing it.
+     */
+    public static boolean recycleForkOnFailure = false;
+
+    /**
+     * Maximum ratio between the heap used by a warm runner process after its last garbage collection and its maximum heap,
+     * see {@link EntryPoint#useRunnerDaemon}. A runner process that exceeds it, <i>e.g.</i> because the tests leak memory, is stopped instead of being reused.
+     * By default, it is 0, <i>i.e.</i> the heap usage is not checked.
+     */
+    public static double maxForkHeapUsage = 0.0D;
+
+    /**
+     * Enable this boolean to run each test class in its own runner process, in order to isolate the test classes from each other.
+     * The test classes are still spread across {@link EntryPoint#parallelism} runner processes running in parallel.
+     * It is only used by {@link EntryPoint#runTests(String, String[], String[])}.
+     * Combined with {@link EntryPoint#useRunnerDaemon}, the isolation depends on the reuse of the runner processes, see {@link EntryPoint#maxRunsPerFork}.
+     */
+    public static boolean forkPerTestClass = false;
+
+    /**
+     * Enable this boolean to let the runner process of {@link EntryPoint#runCoveragePerTestMethods(String, String, String[], String[])}
+     * write the raw jacoco probes of each test method in a memory-mapped file, under /dev/shm if it exists, instead of computing their coverage.
+     * The coverage of a test method is then computed by this JVM, when it is requested, see {@link MappedCoveragePerTestMethod}.
+     * In this mode, {@link TestEventListener#testCoverageComputed} is not called.
+     */
+    public static boolean useProbeFile = false;
+
+    /**
+     * Allows to receive the events of the execution, <i>e.g.</i> test started, test failed, while the tests are running.
+     * The runner process sends the events as they happen, through a socket on the loopback address.
+     * All the events of an execution are received before the end of the call that requested this execution.
+     * If this field is equal to null, no event is sent.
+     */
+    public static TestEventListener testEventListener = null;
+
+    /**
+     * Enable the capture of the output of each test method, printed on the standard output and the standard error.
+     * The captured output is bounded to the last bytes, and can be retrieved using {@link TestResult#getOutputOf(String)}.
+     * It is only used by {@link EntryPoint#runTests(String, String[], String[])}.
+     */
+    public static boolean captureTestOutput = false;
+
+    /**
+     * Run the tests inside this JVM, instead of creating a new JVM.
+     * The given classpath is loaded by a fresh class loader for each call, which is isolated from the class loader of the test runner,
+     * except for JUnit and the listeners of the test runner: the static state of the classes of the given classpath is not shared.
+     * The listener is returned directly, without serialization.
+     * This mode is meant for trusted test suites: a test that does not stop cannot be killed, and a test can change the state of this JVM.
+     * It is only used by {@link EntryPoint#runTests(String, String[], String[])}, and ignores {@link EntryPoint#JVMArgs},
+     * {@link EntryPoint#testEventListener} and {@link EntryPoint#captureTestOutput}.
+     */
+    public static boolean inProcess = false;
+
+    /**
+     * timeout time in milliseconds for each test method.
+     * A test method that exceeds it is interrupted, and reported as a failing test with a {@link TimeoutException}, while the other test methods are still run.
+     * If the test method ignores the interruption, its thread is stopped.
+     * By default, it is 0, <i>i.e.</i> only {@link EntryPoint#timeoutInMs} applies.
+     * It is only used by {@link EntryPoint#runTests(String, String[], String[])}, and ignored by {@link EntryPoint#inProcess}.
+     * <p>
+     * When this option is set, the runner process records a journal of the test methods,
+     * see {@link EntryPoint#salvagePartialResults}.
+     * </p>
+     */
+    public static int testTimeoutInMs = 0;
+
+    /**
+     * Enable this boolean to keep the result of the test methods that finished, when the whole requested process exceeds {@link EntryPoint#timeoutInMs}.
+     * The runner process records a journal of the test methods, from which the result is rebuilt once the process has been destroyed,
+     * and the thrown exception is a {@link PartialResultTimeoutException} that holds it.
+     * This is also the case when {@link EntryPoint#testTimeoutInMs} is set.
+     * By default, it is false: the journal is not recorded, and the thrown exception is a {@link TimeoutException}.
+     * It is only used by {@link EntryPoint#runTests(String, String[], String[])}, and ignored by {@link EntryPoint#inProcess}.
+     */
+    public static boolean salvagePartialResults = false;
+
+    /**
+     * Allows to derive the timeout of each execution from the durations of the previous executions of the same test classes,
+     * on the same classpath, see {@link TimeoutHistory}.
+     * Until there are enough durations, {@link EntryPoint#timeoutInMs} is used.
+     * The in process executions, see {@link EntryPoint#inProcess}, do not use it.
+     * If this field is equal to null, {@link EntryPoint#timeoutInMs} is always used.
+     */
+    public static TimeoutHistory timeoutHistory = null;
+
+    /**
+     * The number of frames kept per exception in the stack traces of the failures, see {@link eu.stamp_project.testrunner.runner.StackTrace}.
+     * The omitted frames are counted in the rendered stack trace. By default, it is 0, <i>i.e.</i> all the frames are kept.
+     * It is ignored by {@link EntryPoint#inProcess}.
+     */
+    public static int stackTraceMaxDepth = 0;
+
+    /**
+     * Enable this boolean to remove from the stack traces of the failures the frames of JUnit, of the reflection and of the test runner
+     * that invoked the tested code, <i>e.g.</i> the frames below the test method. The frames above the tested code, <i>e.g.</i> the assertion, are kept.
+     * It is ignored by {@link EntryPoint#inProcess}.
+     */
+    public static boolean filterStackTrace = false;
+
+    /**
+     * The path to a directory in which the classes instrumented by jacoco are cached, see {@link eu.stamp_project.testrunner.runner.coverage.InstrumentedClassCache}.
+     * The next computations of the coverage reuse the instrumented classes that did not change, instead of instrumenting all the classes again.
+     * By default, it is null, <i>i.e.</i> there is no cache.
+     */
+    public static String instrumentedClassesCacheDirectory = null;
+
+    /**
+     * Enable this boolean to compute the coverage with a java agent, see {@link eu.stamp_project.testrunner.runner.coverage.CoverageAgent}.
+     * The classes are instrumented when they are loaded, and the tests are loaded by the usual class loaders of the runner process,
+     * instead of a dedicated class loader that holds the instrumented classes. It supports the frameworks that load the classes on their own.
+     * It is ignored by {@link EntryPoint#runJobs(String, String, List)}.
+     */
+    public static boolean useCoverageAgent = false;
+
+    /**
+     * Enable this boolean to instrument all the classes at once, in parallel on all the cores, before running the tests,
+     * instead of instrumenting each class on its first load, one after the other, with the tests.
+     * It pays off when the tests use most of the classes of the project.
+     * It is ignored when {@link EntryPoint#useCoverageAgent} is enabled.
+     */
+    public static boolean eagerInstrumentation = false;
+
+    /**
+     * The patterns of the full qualified names of the classes on which the coverage is computed, see {@link eu.stamp_project.testrunner.runner.coverage.CoverageFilter},
+     * <i>e.g.</i> <code>com.example.*</code>. The other classes are neither instrumented nor analyzed.
+     * By default, it is empty, <i>i.e.</i> the coverage is computed on all the classes.
+     */
+    public static List<String> coverageIncludes = new ArrayList<>();
+
+    /**
+     * The patterns of the full qualified names of the classes on which the coverage is not computed, see {@link eu.stamp_project.testrunner.runner.coverage.CoverageFilter},
+     * <i>e.g.</i> <code>*.dto.*</code>. They take precedence over {@link EntryPoint#coverageIncludes}.
+     * By default, it is empty.
+     */
+    public static List<String> coverageExcludes = new ArrayList<>();
+
 
     /* EXECUTION OF TEST API */
 
@@ -164,36 +345,37 @@ public class EntryPoint {
     public static TestResult runTests(String classpath,
                                       String[] fullQualifiedNameOfTestClasses,
                                       String[] methodNames) throws TimeoutException {
-        final String javaCommand = String.join(ConstantsHelper.WHITE_SPACE, new String[]{
-                        getJavaCommand(),
-                        classpath +
-                                ConstantsHelper.PATH_SEPARATOR + ABSOLUTE_PATH_TO_RUNNER_CLASSES,
-                        EntryPoint.jUnit5Mode ? EntryPoint.JUNIT5_TEST_RUNNER_QUALIFIED_NAME : EntryPoint.JUNIT4_TEST_RUNNER_QUALIFIED_NAME,
-                        ParserOptions.FLAG_fullQualifiedNameOfTestClassToRun, String.join(ConstantsHelper.PATH_SEPARATOR, fullQualifiedNameOfTestClasses),
-                        methodNames.length == 0 ?  "" :
-                                ParserOptions.FLAG_testMethodNamesToRun + ConstantsHelper.WHITE_SPACE + String.join(ConstantsHelper.PATH_SEPARATOR, methodNames),
-                        EntryPoint.blackList.isEmpty() ? "" :
-                                (ParserOptions.FLAG_blackList + ConstantsHelper.WHITE_SPACE + String.join(ConstantsHelper.PATH_SEPARATOR, EntryPoint.blackList))
-                }
-        );
-        return EntryPoint.runTests(javaCommand);
-    }
-
-    private static TestResult runTests(String commandLine) throws TimeoutException {
         try {
-            runGivenCommandLine(commandLine);
-        } catch (TimeoutException e) {
-            LOGGER.warn("Timeout when running {}", commandLine);
-            throw e;
-        }
-        final TestResult load = TestResultImpl.load();
-        if (EntryPoint.verbose) {
-            LOGGER.info("Test has been run: {}",
-                    Stream.concat(load.getPassingTests().stream().map(Object::toString),
-                            load.getFailingTests().stream().map(Object::toString)
-                    ).collect(Collectors.joining(",")));
+            return EntryPoint.createSession().runTests(classpath, fullQualifiedNameOfTestClasses, methodNames);
+        } finally {
+            if (!persistence) {
+                reset();
+            }
         }
-        return load;
+    }
+
+    public static CompletableFuture<TestResult> runTestsAsync(String classpath,
+                                                              String[] fullQualifiedNameOfTestClasses,
+                                                              String[] methodNames) {
+        return EntryPoint.createSessionForAsync().runTestsAsync(classpath, fullQualifiedNameOfTestClasses, methodNames);
+    }
+
+    /**
+     * Asynchronous counterpart of {@link EntryPoint#runTests(String, String[], String[])}.
+     * No thread is blocked while the tests are running, see {@link TestRunnerSession#runTestsAsync(String, String[], String[], Executor)}.
+     *
+     * @param classpath                      the classpath required to run the given test.
+     * @param fullQualifiedNameOfTestClasses test class to be run.
+     * @param methodNames                    test methods to be run.
+     * @param executor                       the executor used to load the results
+     * @return a future completed with the result of the execution, or completed exceptionally with a {@link TimeoutException}
+     * when the execution takes longer than timeoutInMs
+     */
+    public static CompletableFuture<TestResult> runTestsAsync(String classpath,
+                                                              String[] fullQualifiedNameOfTestClasses,
+                                                              String[] methodNames,
+                                                              Executor executor) {
+        return EntryPoint.createSessionForAsync().runTestsAsync(classpath, fullQualifiedNameOfTestClasses, methodNames, executor);
     }
 
     /* COMPUTE COVERAGE API */
@@ -227,7 +409,8 @@ public class EntryPoint {
      * </p>
      *
      * @param classpath                      the classpath required to run the given tests classes.
-     * @param targetProjectClasses           path to the folder that contains binaries, i.e. .class, on which Jacoco computes the coverage.
+     * @param targetProjectClasses           paths to the folders or jars that contain binaries, i.e. .class, on which Jacoco computes the coverage,
+     *                                       followed by the path to the folder of test binaries, separated by the path separator.
      * @param fullQualifiedNameOfTestClasses test classes to be run.
      * @param methodNames                    test methods to be run. Can be empty
      * @return an instance of Coverage {@link Coverage} containing result of the execution of test classes.
@@ -237,22 +420,50 @@ public class EntryPoint {
                                        String targetProjectClasses,
                                        String[] fullQualifiedNameOfTestClasses,
                                        String[] methodNames) throws TimeoutException {
-        final String javaCommand = String.join(ConstantsHelper.WHITE_SPACE, new String[]{
-                        getJavaCommand(),
-                        classpath +
-                                ConstantsHelper.PATH_SEPARATOR + ABSOLUTE_PATH_TO_RUNNER_CLASSES +
-                                ConstantsHelper.PATH_SEPARATOR + ABSOLUTE_PATH_TO_JACOCO_DEPENDENCIES,
-                        EntryPoint.JACOCO_RUNNER_QUALIFIED_NAME,
-                        ParserOptions.FLAG_pathToCompiledClassesOfTheProject, targetProjectClasses,
-                        ParserOptions.FLAG_fullQualifiedNameOfTestClassToRun, String.join(ConstantsHelper.PATH_SEPARATOR, fullQualifiedNameOfTestClasses),
-                        methodNames.length == 0 ? "" :
-                                ParserOptions.FLAG_testMethodNamesToRun, String.join(ConstantsHelper.PATH_SEPARATOR, methodNames),
-                        EntryPoint.blackList.isEmpty() ? "" :
-                                (ParserOptions.FLAG_blackList + ConstantsHelper.WHITE_SPACE + String.join(ConstantsHelper.PATH_SEPARATOR, EntryPoint.blackList)),
-                        EntryPoint.jUnit5Mode ? ParserOptions.FLAG_isJUnit5 : ""
-                }
-        );
-        return EntryPoint.runCoverage(javaCommand);
+        try {
+            return EntryPoint.createSession().runCoverage(classpath, targetProjectClasses, fullQualifiedNameOfTestClasses, methodNames);
+        } finally {
+            if (!persistence) {
+                reset();
+            }
+        }
+    }
+
+    public static CompletableFuture<Coverage> runCoverageAsync(String classpath,
+                                                               String targetProjectClasses,
+                                                               String[] fullQualifiedNameOfTestClasses,
+                                                               String[] methodNames) {
+        return EntryPoint.createSessionForAsync().runCoverageAsync(classpath, targetProjectClasses, fullQualifiedNameOfTestClasses, methodNames);
+    }
+
+    /**
+     * Asynchronous counterpart of {@link EntryPoint#runCoverage(String, String, String[], String[])}.
+     *
+     * @param executor the executor used to load the results
+     * @return a future completed with the coverage, or completed exceptionally with a {@link TimeoutException}
+     * when the execution takes longer than timeoutInMs
+     */
+    public static CompletableFuture<Coverage> runCoverageAsync(String classpath,
+                                                               String targetProjectClasses,
+                                                               String[] fullQualifiedNameOfTestClasses,
+                                                               String[] methodNames,
+                                                               Executor executor) {
+        return EntryPoint.createSessionForAsync().runCoverageAsync(classpath, targetProjectClasses, fullQualifiedNameOfTestClasses, methodNames, executor);
+    }
+
+    /**
+     * Instrument eagerly, in parallel, the classes of the given project in {@link EntryPoint#instrumentedClassesCacheDirectory}.
+     * By default, a computation of the coverage instruments the classes on their first load, one after the other, with the tests:
+     * filling the cache beforehand, <i>e.g.</i> once the project is compiled, takes all the cores,
+     * and the next computations of the coverage only read the instrumented classes.
+     * Only the classes that are not in the cache yet are instrumented.
+     *
+     * @param targetProjectClasses the paths to the classes of the project, as given to {@link EntryPoint#runCoverage(String, String, String[], String[])}
+     * @return the number of classes instrumented
+     * @throws IllegalStateException if {@link EntryPoint#instrumentedClassesCacheDirectory} is not set
+     */
+    public static int instrumentAllClasses(String targetProjectClasses) {
+        return EntryPoint.createSession().instrumentAllClasses(targetProjectClasses);
     }
 
     /* COMPUTE COVERAGE PER TEST METHOD API */
@@ -283,20 +494,6 @@ public class EntryPoint {
         return EntryPoint.runCoveragePerTestMethods(classpath, targetProjectClasses, fullQualifiedNameOfTestClasses, new String[0]);
     }
 
-    private static Coverage runCoverage(String commandLine) throws TimeoutException {
-        try {
-            runGivenCommandLine(commandLine);
-        } catch (TimeoutException e) {
-            LOGGER.warn("Timeout when running {}", commandLine);
-            throw e;
-        }
-        final Coverage load = CoverageImpl.load();
-        if (EntryPoint.verbose) {
-            LOGGER.info("Global coverage has been computed {}", load.toString());
-        }
-        return load;
-    }
-
     /**
      * Compute of the instruction coverage using <a href=http://www.eclemma.org/jacoco/>JaCoCo</a> for various test methods inside the given test class.
      * <p>
@@ -307,7 +504,8 @@ public class EntryPoint {
      * </p>
      *
      * @param classpath                      the classpath required to run the given tests classes.
-     * @param targetProjectClasses           path to the folder that contains binaries, i.e. .class, on which Jacoco computes the coverage.
+     * @param targetProjectClasses           paths to the folders or jars that contain binaries, i.e. .class, on which Jacoco computes the coverage,
+     *                                       followed by the path to the folder of test binaries, separated by the path separator.
      * @param fullQualifiedNameOfTestClasses test classes to be run.
      * @param methodNames                    test methods to be run.
      * @return a Map that associate each test method name to its instruction coverage, as an instance of JUnit4Coverage {@link JUnit4Coverage} of test classes.
@@ -317,233 +515,143 @@ public class EntryPoint {
                                                                   String targetProjectClasses,
                                                                   String[] fullQualifiedNameOfTestClasses,
                                                                   String[] methodNames) throws TimeoutException {
-        final String javaCommand = String.join(ConstantsHelper.WHITE_SPACE, new String[]{
-                        getJavaCommand(),
-                        classpath +
-                                ConstantsHelper.PATH_SEPARATOR + ABSOLUTE_PATH_TO_RUNNER_CLASSES +
-                                ConstantsHelper.PATH_SEPARATOR + ABSOLUTE_PATH_TO_JACOCO_DEPENDENCIES,
-                        EntryPoint.JACOCO_RUNNER_PER_TEST_QUALIFIED_NAME,
-                        ParserOptions.FLAG_pathToCompiledClassesOfTheProject, targetProjectClasses,
-                        ParserOptions.FLAG_fullQualifiedNameOfTestClassToRun, String.join(ConstantsHelper.PATH_SEPARATOR, fullQualifiedNameOfTestClasses),
-                        methodNames.length == 0 ? "" :
-                                ParserOptions.FLAG_testMethodNamesToRun, String.join(ConstantsHelper.PATH_SEPARATOR, methodNames),
-                        EntryPoint.blackList.isEmpty() ? "" :
-                                (ParserOptions.FLAG_blackList + ConstantsHelper.WHITE_SPACE + String.join(ConstantsHelper.PATH_SEPARATOR, EntryPoint.blackList)),
-                        EntryPoint.jUnit5Mode ? ParserOptions.FLAG_isJUnit5 : ""
-                }
-        );
         try {
-            EntryPoint.runGivenCommandLine(javaCommand);
-        } catch (TimeoutException e) {
-            LOGGER.warn("Timeout when running {}", javaCommand);
-            throw e;
-        }
-        final CoveragePerTestMethod load = CoveragePerTestMethodImpl.load();
-        if (EntryPoint.verbose) {
-            LOGGER.info("Coverage per test methods has been computed {}{}", ConstantsHelper.LINE_SEPARATOR, load.toString());
+            return EntryPoint.createSession().runCoveragePerTestMethods(classpath, targetProjectClasses, fullQualifiedNameOfTestClasses, methodNames);
+        } finally {
+            if (!persistence) {
+                reset();
+            }
         }
-        return load;
     }
 
-    /*
-
-        INTERNAL CLASS AND METHOD
+    public static CompletableFuture<CoveragePerTestMethod> runCoveragePerTestMethodsAsync(String classpath,
+                                                                                          String targetProjectClasses,
+                                                                                          String[] fullQualifiedNameOfTestClasses,
+                                                                                          String[] methodNames) {
+        return EntryPoint.createSessionForAsync().runCoveragePerTestMethodsAsync(classpath, targetProjectClasses, fullQualifiedNameOfTestClasses, methodNames);
+    }
 
+    /**
+     * Asynchronous counterpart of {@link EntryPoint#runCoveragePerTestMethods(String, String, String[], String[])}.
+     *
+     * @param executor the executor used to load the results
+     * @return a future completed with the coverage per test method, or completed exceptionally with a {@link TimeoutException}
+     * when the execution takes longer than timeoutInMs
      */
-    private static class RunnableProcess implements Runnable {
-
-        private Process process;
-
-        private String commandLine;
-
-        public RunnableProcess(Process process, String commandLine) {
-            this.process = process;
-            this.commandLine = commandLine;
-        }
-
-        @Override
-        public void run() {
-            try {
-
-                if (EntryPoint.verbose) {
-                    new ThreadToReadInputStream(
-                            EntryPoint.outPrintStream != null ? EntryPoint.outPrintStream : System.out,
-                            process.getInputStream()
-                    ).start();
-                    new ThreadToReadInputStream(EntryPoint.errPrintStream != null ? EntryPoint.errPrintStream : System.err
-                            , process.getErrorStream()
-                    ).start();
-                }
-                process.waitFor();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        }
+    public static CompletableFuture<CoveragePerTestMethod> runCoveragePerTestMethodsAsync(String classpath,
+                                                                                          String targetProjectClasses,
+                                                                                          String[] fullQualifiedNameOfTestClasses,
+                                                                                          String[] methodNames,
+                                                                                          Executor executor) {
+        return EntryPoint.createSessionForAsync().runCoveragePerTestMethodsAsync(classpath, targetProjectClasses, fullQualifiedNameOfTestClasses, methodNames, executor);
     }
 
-    private static void runGivenCommandLine(String commandLine) throws TimeoutException {
-        if (EntryPoint.verbose) {
-            LOGGER.info("Run: {}", commandLine);
-        }
-        if (workingDirectory != null && !workingDirectory.exists()) {
-            LOGGER.warn("The specified working directory does not exist: {}." +
-                            "{} Inherit from this process: {}." +
-                            " Reset workingDirectory variable.",
-                    workingDirectory.getAbsolutePath(),
-                    new File(".").getAbsolutePath()
-            );
-            workingDirectory = null;
-        }
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-        Process process = null;
-        try {
-            process = Runtime.getRuntime().exec(commandLine, null, workingDirectory);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
-        final Future<?> submit = executor.submit(new RunnableProcess(process, commandLine));
+    /* BATCH API */
+
+    /**
+     * Run the given jobs in a single runner process, one after the other.
+     * Each job selects test methods of test classes, and tells what to compute: the result of the tests, the coverage, or the coverage per test method.
+     * See {@link TestRunnerSession#runJobsAsync(String, String, List, Executor)}.
+     *
+     * @param classpath            the classpath required to run the given jobs.
+     * @param targetProjectClasses path to the folders that contain binaries, i.e. .class, on which Jacoco computes the coverage.
+     *                             It is only used by the jobs that compute the coverage, and can be null otherwise.
+     * @param jobs                 the jobs to run.
+     * @return the results of the jobs, following the order of the jobs: each one holds a {@link TestResult}, a {@link Coverage} or a {@link CoveragePerTestMethod},
+     * depending on the mode of the job, or the error of the job if it could not be run, see {@link TestJobResult}.
+     * @throws TimeoutException when the execution takes longer than timeoutInMs
+     */
+    public static List<TestJobResult> runJobs(String classpath,
+                                              String targetProjectClasses,
+                                              List<TestJob> jobs) throws TimeoutException {
         try {
-            submit.get(timeoutInMs, TimeUnit.MILLISECONDS);
-        } catch (TimeoutException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+            return EntryPoint.createSession().runJobs(classpath, targetProjectClasses, jobs);
         } finally {
-            if (process != null) {
-                process.destroyForcibly();
-            }
-            submit.cancel(true);
-            executor.shutdownNow();
             if (!persistence) {
                 reset();
             }
         }
     }
 
-    private static void reset() {
-        EntryPoint.JVMArgs = null;
-        EntryPoint.workingDirectory = null;
-        EntryPoint.timeoutInMs = EntryPoint.DEFAULT_TIMEOUT;
-        EntryPoint.outPrintStream = null;
-        EntryPoint.errPrintStream = null;
-        EntryPoint.blackList.clear();
+    public static CompletableFuture<List<TestJobResult>> runJobsAsync(String classpath,
+                                                                      String targetProjectClasses,
+                                                                      List<TestJob> jobs) {
+        return EntryPoint.createSessionForAsync().runJobsAsync(classpath, targetProjectClasses, jobs);
     }
 
-    private static class ThreadToReadInputStream extends Thread {
-
-        private final PrintStream output;
-        private final InputStream input;
-
-        ThreadToReadInputStream(PrintStream output, InputStream input) {
-            this.output = output;
-            this.input = input;
-        }
-
-        @Override
-        public synchronized void start() {
-            int read;
-            try {
-                while ((read = this.input.read()) != -1) {
-                    this.output.print((char) read);
-                }
-            } catch (Exception ignored) {
-                //ignored
-            } finally {
-                this.interrupt();
-            }
-        }
+    public static CompletableFuture<List<TestJobResult>> runJobsAsync(String classpath,
+                                                                      String targetProjectClasses,
+                                                                      List<TestJob> jobs,
+                                                                      Executor executor) {
+        return EntryPoint.createSessionForAsync().runJobsAsync(classpath, targetProjectClasses, jobs, executor);
     }
 
-    /*
-        FIELDS
+    /**
+     * Stop all the runner processes started when {@link EntryPoint#useRunnerDaemon} is enabled.
+     * The runner processes are also stopped when this JVM exits.
      */
+    public static void shutdownRunnerDaemons() {
+        RunnerDaemonProcess.shutdownAll();
+    }
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(EntryPoint.class);
-
-    private static final String JAVA_COMMAND = "java";
-
-    private static final String CLASSPATH_OPT = "-classpath";
-
-    private static final String JUNIT4_TEST_RUNNER_QUALIFIED_NAME = "eu.stamp_project.testrunner.runner.JUnit4Runner";
-
-    private static final String JUNIT5_TEST_RUNNER_QUALIFIED_NAME = "eu.stamp_project.testrunner.runner.JUnit5Runner";
-
-    private static final String JACOCO_RUNNER_QUALIFIED_NAME = "eu.stamp_project.testrunner.runner.coverage.JacocoRunner";
-
-    private static final String JACOCO_RUNNER_PER_TEST_QUALIFIED_NAME = "eu.stamp_project.testrunner.runner.coverage.JacocoRunnerPerTestMethod";
-
-    private static final String ABSOLUTE_PATH_TO_RUNNER_CLASSES = initAbsolutePathToRunnerClasses();
-
-    private static final int DEFAULT_TIMEOUT = 10000;
-
-    static String getJavaCommand() {
-        if (EntryPoint.JVMArgs != null) {
-            return JAVA_COMMAND + ConstantsHelper.WHITE_SPACE + EntryPoint.JVMArgs + ConstantsHelper.WHITE_SPACE + CLASSPATH_OPT;
-        } else {
-            return JAVA_COMMAND + ConstantsHelper.WHITE_SPACE + CLASSPATH_OPT;
-        }
+    /**
+     * @return a new {@link TestRunnerSession}, configured with the current values of the static fields of {@link EntryPoint}.
+     */
+    public static TestRunnerSession createSession() {
+        return TestRunnerSession.builder()
+                .jUnit5Mode(EntryPoint.jUnit5Mode)
+                .verbose(EntryPoint.verbose)
+                .timeoutInMs(EntryPoint.timeoutInMs)
+                .workingDirectory(EntryPoint.workingDirectory)
+                .JVMArgs(EntryPoint.JVMArgs)
+                .outPrintStream(EntryPoint.outPrintStream)
+                .errPrintStream(EntryPoint.errPrintStream)
+                .blackList(EntryPoint.blackList)
+                .useRunnerDaemon(EntryPoint.useRunnerDaemon)
+                .parallelism(EntryPoint.parallelism)
+                .maxRunsPerFork(EntryPoint.maxRunsPerFork)
+                .maxForkAgeInMs(EntryPoint.maxForkAgeInMs)
+                .recycleForkOnFailure(EntryPoint.recycleForkOnFailure)
+                .maxForkHeapUsage(EntryPoint.maxForkHeapUsage)
+                .forkPerTestClass(EntryPoint.forkPerTestClass)
+                .useProbeFile(EntryPoint.useProbeFile)
+                .testEventListener(EntryPoint.testEventListener)
+                .captureTestOutput(EntryPoint.captureTestOutput)
+                .inProcess(EntryPoint.inProcess)
+                .testTimeoutInMs(EntryPoint.testTimeoutInMs)
+                .salvagePartialResults(EntryPoint.salvagePartialResults)
+                .stackTraceMaxDepth(EntryPoint.stackTraceMaxDepth)
+                .filterStackTrace(EntryPoint.filterStackTrace)
+                .instrumentedClassesCacheDirectory(EntryPoint.instrumentedClassesCacheDirectory)
+                .useCoverageAgent(EntryPoint.useCoverageAgent)
+                .eagerInstrumentation(EntryPoint.eagerInstrumentation)
+                .coverageIncludes(EntryPoint.coverageIncludes)
+                .coverageExcludes(EntryPoint.coverageExcludes)
+                .timeoutHistory(EntryPoint.timeoutHistory)
+                .build();
     }
 
-    private static String RemoveWinFileSeparator(String string) {
-        if (!"/".equals(ConstantsHelper.FILE_SEPARATOR) && string.startsWith(ConstantsHelper.FILE_SEPARATOR)) {
-            return string.substring(1);
-        } else {
-            return string;
+    /*
+        The session holds a copy of the configuration, so it can be reset before the end of the execution.
+     */
+    private static TestRunnerSession createSessionForAsync() {
+        final TestRunnerSession session = EntryPoint.createSession();
+        if (!persistence) {
+            reset();
         }
+        return session;
     }
 
-    private static final Function<List<Class<?>>, String> CLASSES_TO_PATH_OF_DEPENDENCIES = classes ->
-            classes.stream()
-                    .map(clazz -> clazz.getProtectionDomain().getCodeSource().getLocation())
-                    .map(URL::getPath)
-                    .map(path -> path.startsWith("file:") ? path.substring("file:".length()) : path)
-                    .map(path -> path.split("!")[0])
-                    .map(path -> path.replace("/", ConstantsHelper.FILE_SEPARATOR))
-                    .map(EntryPoint::RemoveWinFileSeparator)
-                    .map(path -> {
-                        LOGGER.info("{}", path);
-                        return path;
-                    })
-                    .collect(Collectors.joining(ConstantsHelper.PATH_SEPARATOR));
-
-    private static final List<Class<?>> JACOCO_DEPENDENCIES = Arrays.asList(
-            IRuntime.class,
-            Processor.class,
-            FileUtils.class
-    );
-
-    private static final String ABSOLUTE_PATH_TO_JACOCO_DEPENDENCIES = CLASSES_TO_PATH_OF_DEPENDENCIES.apply(JACOCO_DEPENDENCIES);
-
-    private static String initAbsolutePathToRunnerClasses() {
-        URL resource = ClassLoader.getSystemClassLoader().getResource("runner-classes/");
-
-        //this is the way to make it work from a jenkins plugin
-        if (resource == null) {
-            resource = EntryPoint.class.getClassLoader().getResource("runner-classes/");
-        }
-        // if the resource is null, this is because of the usage of a custom class loader.
-        // For example, if we use the test-runner within a maven plugin, the resource must be find using
-        // ClassRealm#findResource(String)
-        // to not add every dependencies to each case, we use here reflection
-        if (resource == null) {
-            // for now, we use specifically ClassRealm.
-            // If we encounter new problems of the same type, i.e. class loading problem
-            // we will extends this support other cases, but for now, we implement the way for maven plugin.
-            try {
-                final Class<? extends ClassLoader> aClass = EntryPoint.class.getClassLoader().getClass();
-                final Method findResources = aClass.getMethod("findResource", String.class);
-                resource = (URL) findResources.invoke(EntryPoint.class.getClassLoader(), "runner-classes/");
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        }
-        String path = resource.getPath();
-        if (path.contains("!") && path.startsWith("file:")) {
-            path = path.substring("file:".length()).split("!")[0];
-        }
-        path = RemoveWinFileSeparator(path.replace("/", ConstantsHelper.FILE_SEPARATOR));
-        LOGGER.info("Path to runner Classes: {}", path);
-        return path;
+    private static void reset() {
+        EntryPoint.JVMArgs = null;
+        EntryPoint.workingDirectory = null;
+        EntryPoint.timeoutInMs = TestRunnerSession.DEFAULT_TIMEOUT;
+        EntryPoint.testTimeoutInMs = 0;
+        EntryPoint.timeoutHistory = null;
+        EntryPoint.outPrintStream = null;
+        EntryPoint.errPrintStream = null;
+        EntryPoint.testEventListener = null;
+        EntryPoint.blackList.clear();
     }
 
 }
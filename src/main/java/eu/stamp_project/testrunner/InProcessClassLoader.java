@@ -0,0 +1,42 @@
+package eu.stamp_project.testrunner;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * This class loader loads the classes of the tests run in process, see {@link EntryPoint#inProcess}.
+ * Its parent is the platform class loader, so the classes of the given classpath are always loaded by this class loader,
+ * even if the test runner can load them too: their static state is not shared with the test runner, nor between two runs.
+ * Only JUnit and the listeners and the runners of the test runner are loaded by the class loader of the test runner,
+ * so the test classes and the listener use the same JUnit classes, and the listener can be returned directly.
+ */
+class InProcessClassLoader extends URLClassLoader {
+
+    private static final String[] SHARED_PACKAGES = new String[]{
+            "junit.",
+            "org.junit.",
+            "org.hamcrest.",
+            "org.opentest4j.",
+            "org.apiguardian.",
+            "eu.stamp_project.testrunner.listener.",
+            "eu.stamp_project.testrunner.runner."
+    };
+
+    private final ClassLoader testRunnerClassLoader;
+
+    InProcessClassLoader(URL[] urls, ClassLoader testRunnerClassLoader) {
+        super(urls, ClassLoader.getSystemClassLoader().getParent());
+        this.testRunnerClassLoader = testRunnerClassLoader;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        for (String sharedPackage : SHARED_PACKAGES) {
+            if (name.startsWith(sharedPackage)) {
+                return this.testRunnerClassLoader.loadClass(name);
+            }
+        }
+        return super.loadClass(name, resolve);
+    }
+
+}
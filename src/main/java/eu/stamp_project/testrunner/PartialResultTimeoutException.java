@@ -0,0 +1,29 @@
+package eu.stamp_project.testrunner;
+
+import eu.stamp_project.testrunner.listener.TestResult;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This exception is thrown when the execution of the tests takes longer than {@link EntryPoint#timeoutInMs}.
+ * It holds the result of the test methods that finished before the runner process has been destroyed,
+ * the test method that was running being reported as a failing test. See {@link eu.stamp_project.testrunner.listener.event.TestEventJournal}.
+ */
+public class PartialResultTimeoutException extends TimeoutException {
+
+    private static final long serialVersionUID = -3148561587460417291L;
+
+    private final TestResult partialResult;
+
+    public PartialResultTimeoutException(TestResult partialResult) {
+        super("The execution has been stopped after the timeout, " + partialResult.getRunningTests().size() + " test methods have been run.");
+        this.partialResult = partialResult;
+    }
+
+    /**
+     * @return the result of the test methods that have been run before the timeout
+     */
+    public TestResult getPartialResult() {
+        return partialResult;
+    }
+}
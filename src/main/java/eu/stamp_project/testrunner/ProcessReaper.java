@@ -0,0 +1,179 @@
+package eu.stamp_project.testrunner;
+
+import eu.stamp_project.testrunner.utils.BoundedOutputBuffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class watches the runner processes, using a single thread for all of them.
+ * It completes the future of a process when this process exits, or completes it exceptionally with a {@link TimeoutException},
+ * after destroying the process, when it takes longer than its timeout.
+ * It also drains the standard output and the standard error of the processes, without blocking,
+ * so a process never stalls because of a full pipe. The last bytes of this output are kept in a {@link BoundedOutputBuffer}.
+ * <p>
+ * This is the counterpart of <code>Process.onExit()</code>, which is not available in Java 8.
+ * </p>
+ */
+class ProcessReaper {
+
+    private static final long POLL_INTERVAL_IN_MS = 10L;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final List<WatchedProcess> WATCHED_PROCESSES = new ArrayList<>();
+
+    private static Thread thread;
+
+    /**
+     * Watch the given process.
+     *
+     * @param process        the process to watch
+     * @param timeoutInMs    the time given to the process to exit
+     * @param outPrintStream where to print the standard output of the process, can be null to discard it
+     * @param errPrintStream where to print the standard error of the process, can be null to discard it
+     * @param capture        where to keep the last bytes of both the standard output and the standard error of the process
+     * @return a future completed when the process exits. If this future is cancelled, the process is destroyed.
+     */
+    static CompletableFuture<Void> watch(Process process,
+                                         long timeoutInMs,
+                                         PrintStream outPrintStream,
+                                         PrintStream errPrintStream,
+                                         BoundedOutputBuffer capture) {
+        final WatchedProcess watchedProcess = new WatchedProcess(process,
+                System.currentTimeMillis() + timeoutInMs, outPrintStream, errPrintStream, capture);
+        synchronized (WATCHED_PROCESSES) {
+            WATCHED_PROCESSES.add(watchedProcess);
+            if (thread == null) {
+                thread = new Thread(ProcessReaper::reap, "process-reaper");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            WATCHED_PROCESSES.notifyAll();
+        }
+        return watchedProcess.future;
+    }
+
+    private static void reap() {
+        final List<WatchedProcess> watchedProcesses = new ArrayList<>();
+        while (true) {
+            synchronized (WATCHED_PROCESSES) {
+                try {
+                    while (WATCHED_PROCESSES.isEmpty()) {
+                        WATCHED_PROCESSES.wait();
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                watchedProcesses.clear();
+                watchedProcesses.addAll(WATCHED_PROCESSES);
+            }
+            final List<WatchedProcess> doneProcesses = new ArrayList<>();
+            for (WatchedProcess watchedProcess : watchedProcesses) {
+                if (watchedProcess.poll()) {
+                    doneProcesses.add(watchedProcess);
+                }
+            }
+            synchronized (WATCHED_PROCESSES) {
+                WATCHED_PROCESSES.removeAll(doneProcesses);
+            }
+            // complete the futures outside of the lock, since it runs the dependant actions
+            doneProcesses.forEach(WatchedProcess::complete);
+            try {
+                Thread.sleep(POLL_INTERVAL_IN_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private static class WatchedProcess {
+
+        private final Process process;
+
+        private final long deadline;
+
+        private final PrintStream outPrintStream;
+
+        private final PrintStream errPrintStream;
+
+        private final BoundedOutputBuffer capture;
+
+        private final CompletableFuture<Void> future;
+
+        private final byte[] buffer;
+
+        private boolean timedOut;
+
+        private WatchedProcess(Process process,
+                               long deadline,
+                               PrintStream outPrintStream,
+                               PrintStream errPrintStream,
+                               BoundedOutputBuffer capture) {
+            this.process = process;
+            this.deadline = deadline;
+            this.outPrintStream = outPrintStream;
+            this.errPrintStream = errPrintStream;
+            this.capture = capture;
+            this.future = new CompletableFuture<>();
+            this.buffer = new byte[BUFFER_SIZE];
+        }
+
+        /*
+            Drain the streams of the process, and return true if the process is over.
+         */
+        private boolean poll() {
+            final boolean alive = this.process.isAlive();
+            this.drain(this.process.getInputStream(), this.outPrintStream);
+            this.drain(this.process.getErrorStream(), this.errPrintStream);
+            if (this.future.isDone()) {
+                this.process.destroyForcibly();
+                return true;
+            }
+            if (!alive) {
+                return true;
+            }
+            if (System.currentTimeMillis() > this.deadline) {
+                this.process.destroyForcibly();
+                this.timedOut = true;
+                return true;
+            }
+            return false;
+        }
+
+        private void drain(InputStream input, PrintStream output) {
+            try {
+                int available;
+                while ((available = input.available()) > 0) {
+                    final int read = input.read(this.buffer, 0, Math.min(available, this.buffer.length));
+                    if (read < 0) {
+                        return;
+                    }
+                    this.capture.write(this.buffer, 0, read);
+                    if (output != null) {
+                        output.write(this.buffer, 0, read);
+                    }
+                }
+                if (output != null) {
+                    output.flush();
+                }
+            } catch (IOException ignored) {
+                // the process has been destroyed
+            }
+        }
+
+        private void complete() {
+            if (this.timedOut) {
+                this.future.completeExceptionally(new TimeoutException());
+            } else {
+                this.future.complete(null);
+            }
+        }
+    }
+
+}
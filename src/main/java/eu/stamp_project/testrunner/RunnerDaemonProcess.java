@@ -0,0 +1,281 @@
+package eu.stamp_project.testrunner;
+
+import eu.stamp_project.testrunner.runner.RunnerDaemon;
+import eu.stamp_project.testrunner.utils.BoundedOutputBuffer;
+import eu.stamp_project.testrunner.utils.ConstantsHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * This class is the parent side of {@link RunnerDaemon}: it starts the long-lived java process, sends it the requests
+ * and completes a future at the end of each request, from the thread that reads the output of the process,
+ * so no thread waits for the reply of the process.
+ * Idle processes are kept in a pool, indexed by their java command, classpath and working directory,
+ * in order to be reused by the next request on the same classpath.
+ * Each process counts its runs, and knows its age and its heap usage, so the caller can decide to recycle it,
+ * see {@link EntryPoint#maxRunsPerFork}.
+ */
+class RunnerDaemonProcess {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RunnerDaemonProcess.class);
+
+    private static final String END_OF_STREAM = "__END_OF_STREAM__";
+
+    private static final Map<String, Deque<RunnerDaemonProcess>> IDLE_PROCESSES = new HashMap<>();
+
+    private static final List<RunnerDaemonProcess> ALL_PROCESSES = new ArrayList<>();
+
+    private static final ScheduledExecutorService TIMEOUT_SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "runner-daemon-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(RunnerDaemonProcess::shutdownAll));
+    }
+
+    /**
+     * @param canBeReused tells whether an idle process can still be used. The idle processes that cannot are destroyed.
+     * @return an idle process started with the given parameters if any, a new process otherwise.
+     */
+    static RunnerDaemonProcess acquire(String javaCommand, String classpath, File workingDirectory,
+                                       Predicate<RunnerDaemonProcess> canBeReused) throws IOException {
+        final String key = RunnerDaemonProcess.key(javaCommand, classpath, workingDirectory);
+        synchronized (IDLE_PROCESSES) {
+            final Deque<RunnerDaemonProcess> idleProcesses = IDLE_PROCESSES.get(key);
+            while (idleProcesses != null && !idleProcesses.isEmpty()) {
+                final RunnerDaemonProcess idleProcess = idleProcesses.pop();
+                if (idleProcess.process.isAlive() && canBeReused.test(idleProcess)) {
+                    return idleProcess;
+                }
+                idleProcess.destroy();
+            }
+        }
+        return new RunnerDaemonProcess(key, javaCommand, classpath, workingDirectory);
+    }
+
+    /**
+     * Give back the given process to the pool, so it can be used by the next request.
+     */
+    static void release(RunnerDaemonProcess runnerDaemonProcess) {
+        if (!runnerDaemonProcess.process.isAlive()) {
+            runnerDaemonProcess.destroy();
+            return;
+        }
+        synchronized (IDLE_PROCESSES) {
+            IDLE_PROCESSES.computeIfAbsent(runnerDaemonProcess.key, key -> new ArrayDeque<>()).push(runnerDaemonProcess);
+        }
+    }
+
+    /**
+     * Stop every process started, idle or not.
+     */
+    static void shutdownAll() {
+        final List<RunnerDaemonProcess> processes;
+        synchronized (IDLE_PROCESSES) {
+            IDLE_PROCESSES.clear();
+            processes = new ArrayList<>(ALL_PROCESSES);
+        }
+        processes.forEach(RunnerDaemonProcess::destroy);
+    }
+
+    /**
+     * @return the number of processes started and not stopped yet, idle or not.
+     */
+    static int getNumberOfProcesses() {
+        synchronized (IDLE_PROCESSES) {
+            return ALL_PROCESSES.size();
+        }
+    }
+
+    private static String key(String javaCommand, String classpath, File workingDirectory) {
+        return javaCommand + ConstantsHelper.WHITE_SPACE + classpath + ConstantsHelper.WHITE_SPACE +
+                (workingDirectory == null ? "" : workingDirectory.getAbsolutePath());
+    }
+
+    private final String key;
+
+    private final Process process;
+
+    private final Writer input;
+
+    private volatile CompletableFuture<String> status;
+
+    private volatile boolean ended;
+
+    private volatile PrintStream outPrintStream;
+
+    private volatile PrintStream errPrintStream;
+
+    private volatile BoundedOutputBuffer capture;
+
+    private final long startTime;
+
+    private int numberOfRuns;
+
+    private volatile double heapUsage;
+
+    private RunnerDaemonProcess(String key, String javaCommand, String classpath, File workingDirectory) throws IOException {
+        this.key = key;
+        this.startTime = System.currentTimeMillis();
+        this.numberOfRuns = 0;
+        this.heapUsage = 0.0D;
+        final String commandLine = javaCommand + ConstantsHelper.WHITE_SPACE + classpath +
+                ConstantsHelper.WHITE_SPACE + RunnerDaemon.class.getName();
+        LOGGER.info("Start a runner daemon: {}", commandLine);
+        this.process = Runtime.getRuntime().exec(commandLine, null, workingDirectory);
+        this.input = new OutputStreamWriter(this.process.getOutputStream());
+        this.ended = false;
+        this.startReader(this.process.getInputStream(), true);
+        this.startReader(this.process.getErrorStream(), false);
+        synchronized (IDLE_PROCESSES) {
+            ALL_PROCESSES.add(this);
+        }
+    }
+
+    /**
+     * Send the given request to the process, without waiting for its completion.
+     *
+     * @param request        the full qualified name of the runner to use, followed by its arguments
+     * @param timeoutInMs    the time given to the request to complete
+     * @param outPrintStream where to print the standard output of the request, can be null
+     * @param errPrintStream where to print the standard error of the request, can be null
+     * @param capture        where to keep the last bytes of the output of the request
+     * @return a future completed with true if the request has been executed without error, false otherwise.
+     * It is completed exceptionally with a {@link TimeoutException} if the request takes longer than timeoutInMs,
+     * or with an {@link IOException} if the process could not receive the request or died during its execution.
+     * In both cases, the process is destroyed.
+     */
+    CompletableFuture<Boolean> executeAsync(String request, long timeoutInMs, PrintStream outPrintStream, PrintStream errPrintStream, BoundedOutputBuffer capture) {
+        this.outPrintStream = outPrintStream;
+        this.errPrintStream = errPrintStream;
+        this.capture = capture;
+        this.numberOfRuns++;
+        final CompletableFuture<String> status = new CompletableFuture<>();
+        this.status = status;
+        if (this.ended) {
+            status.complete(END_OF_STREAM);
+        }
+        try {
+            this.input.write(request + ConstantsHelper.LINE_SEPARATOR);
+            this.input.flush();
+        } catch (IOException e) {
+            status.completeExceptionally(e);
+        }
+        final ScheduledFuture<?> timeout = TIMEOUT_SCHEDULER.schedule(
+                () -> status.completeExceptionally(new TimeoutException()), timeoutInMs, TimeUnit.MILLISECONDS
+        );
+        return status.handle((value, throwable) -> {
+            timeout.cancel(false);
+            this.status = null;
+            this.outPrintStream = null;
+            this.errPrintStream = null;
+            this.capture = null;
+            if (throwable != null) {
+                this.destroy();
+                throw throwable instanceof CompletionException ? (CompletionException) throwable : new CompletionException(throwable);
+            }
+            if (END_OF_STREAM.equals(value)) {
+                this.destroy();
+                throw new CompletionException(new IOException("The runner daemon stopped during the execution of " + request));
+            }
+            return RunnerDaemon.STATUS_OK.equals(value);
+        });
+    }
+
+    /**
+     * @return the number of requests sent to this process
+     */
+    int getNumberOfRuns() {
+        return this.numberOfRuns;
+    }
+
+    /**
+     * @return the time elapsed since the start of this process
+     */
+    long getAgeInMs() {
+        return System.currentTimeMillis() - this.startTime;
+    }
+
+    /**
+     * @return the heap usage of this process after its last request, see {@link RunnerDaemon#getHeapUsage()}
+     */
+    double getHeapUsage() {
+        return this.heapUsage;
+    }
+
+    void destroy() {
+        this.process.destroyForcibly();
+        synchronized (IDLE_PROCESSES) {
+            ALL_PROCESSES.remove(this);
+        }
+    }
+
+    private void startReader(InputStream inputStream, boolean isStandardOutput) {
+        final Thread reader = new Thread(() -> {
+            try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream))) {
+                String line;
+                while ((line = bufferedReader.readLine()) != null) {
+                    if (isStandardOutput && line.startsWith(RunnerDaemon.DONE_MARKER)) {
+                        final String[] fields = line.substring(RunnerDaemon.DONE_MARKER.length()).trim().split(ConstantsHelper.WHITE_SPACE);
+                        if (fields.length > 1) {
+                            this.heapUsage = Double.parseDouble(fields[1]);
+                        }
+                        this.complete(fields[0]);
+                    } else {
+                        final PrintStream output = isStandardOutput ? this.outPrintStream : this.errPrintStream;
+                        if (output != null) {
+                            output.println(line);
+                        }
+                        final BoundedOutputBuffer capture = this.capture;
+                        if (capture != null) {
+                            final byte[] bytes = (line + ConstantsHelper.LINE_SEPARATOR).getBytes();
+                            capture.write(bytes, 0, bytes.length);
+                        }
+                    }
+                }
+            } catch (IOException ignored) {
+                // the process has been destroyed
+            } finally {
+                if (isStandardOutput) {
+                    this.ended = true;
+                    this.complete(END_OF_STREAM);
+                }
+            }
+        }, "runner-daemon-" + (isStandardOutput ? "out" : "err"));
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private void complete(String status) {
+        final CompletableFuture<String> pendingStatus = this.status;
+        if (pendingStatus != null) {
+            pendingStatus.complete(status);
+        }
+    }
+
+}
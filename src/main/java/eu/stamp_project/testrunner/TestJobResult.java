@@ -0,0 +1,92 @@
+package eu.stamp_project.testrunner;
+
+import eu.stamp_project.testrunner.listener.Coverage;
+import eu.stamp_project.testrunner.listener.CoveragePerTestMethod;
+import eu.stamp_project.testrunner.listener.TestResult;
+import eu.stamp_project.testrunner.runner.TestJob;
+
+/**
+ * This class is the result of a {@link TestJob}, see {@link EntryPoint#runJobs(String, String, java.util.List)}.
+ * Depending on the mode of the job, it holds a {@link TestResult}, a {@link Coverage} or a {@link CoveragePerTestMethod}.
+ * If the job could not be run, <i>e.g.</i> one of its test classes does not exist, it holds the error of the job instead,
+ * and the other jobs of the batch still have their result.
+ */
+public class TestJobResult {
+
+    private final TestJob job;
+
+    private final Object result;
+
+    private final String error;
+
+    private TestJobResult(TestJob job, Object result, String error) {
+        this.job = job;
+        this.result = result;
+        this.error = error;
+    }
+
+    static TestJobResult of(TestJob job, Object result) {
+        return new TestJobResult(job, result, null);
+    }
+
+    static TestJobResult failed(TestJob job, String error) {
+        return new TestJobResult(job, null, error);
+    }
+
+    public TestJob getJob() {
+        return job;
+    }
+
+    /**
+     * @return true if the job could not be run, see {@link TestJobResult#getError()}
+     */
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    /**
+     * @return the stack trace of the error that prevented the job to be run, or null if the job has been run
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return the result of a job of mode {@link TestJob.Mode#TEST}
+     * @throws IllegalStateException if the job has another mode, or if it could not be run
+     */
+    public TestResult getTestResult() {
+        return this.get(TestJob.Mode.TEST, TestResult.class);
+    }
+
+    /**
+     * @return the result of a job of mode {@link TestJob.Mode#COVERAGE}
+     * @throws IllegalStateException if the job has another mode, or if it could not be run
+     */
+    public Coverage getCoverage() {
+        return this.get(TestJob.Mode.COVERAGE, Coverage.class);
+    }
+
+    /**
+     * @return the result of a job of mode {@link TestJob.Mode#COVERAGE_PER_TEST_METHOD}
+     * @throws IllegalStateException if the job has another mode, or if it could not be run
+     */
+    public CoveragePerTestMethod getCoveragePerTestMethod() {
+        return this.get(TestJob.Mode.COVERAGE_PER_TEST_METHOD, CoveragePerTestMethod.class);
+    }
+
+    private <T> T get(TestJob.Mode mode, Class<T> type) {
+        if (this.job.getMode() != mode) {
+            throw new IllegalStateException("The job " + this.job + " has no result of mode " + mode);
+        }
+        if (this.isFailed()) {
+            throw new IllegalStateException("The job " + this.job + " could not be run: " + this.error);
+        }
+        return type.cast(this.result);
+    }
+
+    @Override
+    public String toString() {
+        return this.job + ": " + (this.isFailed() ? "failed" : this.result);
+    }
+}
@@ -0,0 +1,1736 @@
+package eu.stamp_project.testrunner;
+
+import eu.stamp_project.testrunner.listener.Coverage;
+import eu.stamp_project.testrunner.listener.CoveragePerTestMethod;
+import eu.stamp_project.testrunner.listener.TestEventListener;
+import eu.stamp_project.testrunner.listener.TestResult;
+import eu.stamp_project.testrunner.listener.event.TestEventJournal;
+import eu.stamp_project.testrunner.listener.event.TestEventReceiver;
+import eu.stamp_project.testrunner.listener.impl.CoverageImpl;
+import eu.stamp_project.testrunner.listener.impl.CoveragePerTestMethodImpl;
+import eu.stamp_project.testrunner.listener.impl.MappedCoveragePerTestMethod;
+import eu.stamp_project.testrunner.listener.impl.TestResultImpl;
+import eu.stamp_project.testrunner.listener.junit4.JUnit4TestResult;
+import eu.stamp_project.testrunner.listener.junit5.JUnit5TestResult;
+import eu.stamp_project.testrunner.runner.JUnit4Runner;
+import eu.stamp_project.testrunner.runner.JUnit5Runner;
+import eu.stamp_project.testrunner.runner.ParserOptions;
+import eu.stamp_project.testrunner.runner.TestJob;
+import eu.stamp_project.testrunner.runner.TestJobRunner;
+import eu.stamp_project.testrunner.runner.coverage.CoverageAgent;
+import eu.stamp_project.testrunner.runner.coverage.CoverageFilter;
+import eu.stamp_project.testrunner.runner.coverage.CoverageRuntime;
+import eu.stamp_project.testrunner.runner.coverage.CoverageTargets;
+import eu.stamp_project.testrunner.runner.coverage.InstrumentedClassCache;
+import eu.stamp_project.testrunner.utils.BoundedOutputBuffer;
+import eu.stamp_project.testrunner.utils.ConstantsHelper;
+import org.apache.commons.io.FileUtils;
+import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.runtime.IRuntime;
+import org.objectweb.asm.xml.Processor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class runs the tests and computes the coverage with its own configuration, see {@link TestRunnerSession.Builder}.
+ * The configuration of a session cannot be modified once the session is built,
+ * and each session writes the results of its runner processes in its own output directory, see {@link TestRunnerSession#getOutputDirectory()}.
+ * Each invocation of a session uses its own sub-directory of the output directory, given to the runner process with {@link ParserOptions#FLAG_outputDirectory}.
+ * Thus, several sessions, and several invocations of the same session, can be used concurrently in the same JVM.
+ * <p>
+ * The static API of {@link EntryPoint} builds a new session from its static fields for each call.
+ * </p>
+ */
+public class TestRunnerSession {
+
+    /**
+     * @return a new builder, initialized with the default configuration.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final boolean jUnit5Mode;
+
+    private final boolean verbose;
+
+    private final int timeoutInMs;
+
+    private final File workingDirectory;
+
+    private final String JVMArgs;
+
+    private final PrintStream outPrintStream;
+
+    private final PrintStream errPrintStream;
+
+    private final List<String> blackList;
+
+    private final boolean useRunnerDaemon;
+
+    private final int parallelism;
+
+    private final int maxRunsPerFork;
+
+    private final int maxForkAgeInMs;
+
+    private final boolean recycleForkOnFailure;
+
+    private final double maxForkHeapUsage;
+
+    private final boolean forkPerTestClass;
+
+    private final boolean useProbeFile;
+
+    private final TestEventListener testEventListener;
+
+    private final boolean captureTestOutput;
+
+    private final boolean inProcess;
+
+    private final int testTimeoutInMs;
+
+    private final boolean salvagePartialResults;
+
+    private final int stackTraceMaxDepth;
+
+    private final boolean filterStackTrace;
+
+    private final String instrumentedClassesCacheDirectory;
+
+    private final boolean useCoverageAgent;
+
+    private final boolean eagerInstrumentation;
+
+    private final List<String> coverageIncludes;
+
+    private final List<String> coverageExcludes;
+
+    private final TimeoutHistory timeoutHistory;
+
+    private final String outputDirectory;
+
+    private int nextRunId;
+
+    private int numberOfRuns;
+
+    private TestRunnerSession(Builder builder) {
+        this.jUnit5Mode = builder.jUnit5Mode;
+        this.verbose = builder.verbose;
+        this.timeoutInMs = builder.timeoutInMs;
+        if (builder.workingDirectory != null && !builder.workingDirectory.exists()) {
+            LOGGER.warn("The specified working directory does not exist: {}." +
+                            "{} Inherit from this process: {}.",
+                    builder.workingDirectory.getAbsolutePath(),
+                    ConstantsHelper.LINE_SEPARATOR,
+                    new File(".").getAbsolutePath()
+            );
+            this.workingDirectory = null;
+        } else {
+            this.workingDirectory = builder.workingDirectory;
+        }
+        this.JVMArgs = builder.JVMArgs;
+        this.outPrintStream = builder.outPrintStream;
+        this.errPrintStream = builder.errPrintStream;
+        this.blackList = Collections.unmodifiableList(new ArrayList<>(builder.blackList));
+        this.useRunnerDaemon = builder.useRunnerDaemon;
+        this.parallelism = builder.parallelism;
+        this.maxRunsPerFork = builder.maxRunsPerFork;
+        this.maxForkAgeInMs = builder.maxForkAgeInMs;
+        this.recycleForkOnFailure = builder.recycleForkOnFailure;
+        this.maxForkHeapUsage = builder.maxForkHeapUsage;
+        this.forkPerTestClass = builder.forkPerTestClass;
+        this.useProbeFile = builder.useProbeFile;
+        this.testEventListener = builder.testEventListener;
+        this.captureTestOutput = builder.captureTestOutput;
+        this.inProcess = builder.inProcess;
+        this.testTimeoutInMs = builder.testTimeoutInMs;
+        this.salvagePartialResults = builder.salvagePartialResults;
+        this.stackTraceMaxDepth = builder.stackTraceMaxDepth;
+        this.filterStackTrace = builder.filterStackTrace;
+        this.instrumentedClassesCacheDirectory = builder.instrumentedClassesCacheDirectory;
+        this.useCoverageAgent = builder.useCoverageAgent;
+        this.eagerInstrumentation = builder.eagerInstrumentation;
+        this.coverageIncludes = Collections.unmodifiableList(new ArrayList<>(builder.coverageIncludes));
+        this.coverageExcludes = Collections.unmodifiableList(new ArrayList<>(builder.coverageExcludes));
+        this.timeoutHistory = builder.timeoutHistory;
+        this.outputDirectory = TestResult.OUTPUT_DIR + SESSION_DIRECTORY_PREFIX + UUID.randomUUID() + ConstantsHelper.FILE_SEPARATOR;
+        this.nextRunId = 0;
+        this.numberOfRuns = 0;
+    }
+
+    public boolean isJUnit5Mode() {
+        return jUnit5Mode;
+    }
+
+    public boolean isVerbose() {
+        return verbose;
+    }
+
+    public int getTimeoutInMs() {
+        return timeoutInMs;
+    }
+
+    public TimeoutHistory getTimeoutHistory() {
+        return timeoutHistory;
+    }
+
+    public File getWorkingDirectory() {
+        return workingDirectory;
+    }
+
+    public String getJVMArgs() {
+        return JVMArgs;
+    }
+
+    public PrintStream getOutPrintStream() {
+        return outPrintStream;
+    }
+
+    public PrintStream getErrPrintStream() {
+        return errPrintStream;
+    }
+
+    public List<String> getBlackList() {
+        return blackList;
+    }
+
+    public boolean isUseRunnerDaemon() {
+        return useRunnerDaemon;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getMaxRunsPerFork() {
+        return maxRunsPerFork;
+    }
+
+    public int getMaxForkAgeInMs() {
+        return maxForkAgeInMs;
+    }
+
+    public boolean isRecycleForkOnFailure() {
+        return recycleForkOnFailure;
+    }
+
+    public double getMaxForkHeapUsage() {
+        return maxForkHeapUsage;
+    }
+
+    public boolean isForkPerTestClass() {
+        return forkPerTestClass;
+    }
+
+    public boolean isUseProbeFile() {
+        return useProbeFile;
+    }
+
+    public TestEventListener getTestEventListener() {
+        return testEventListener;
+    }
+
+    public boolean isCaptureTestOutput() {
+        return captureTestOutput;
+    }
+
+    public boolean isInProcess() {
+        return inProcess;
+    }
+
+    public int getTestTimeoutInMs() {
+        return testTimeoutInMs;
+    }
+
+    public boolean isSalvagePartialResults() {
+        return salvagePartialResults;
+    }
+
+    public int getStackTraceMaxDepth() {
+        return stackTraceMaxDepth;
+    }
+
+    public boolean isFilterStackTrace() {
+        return filterStackTrace;
+    }
+
+    public String getInstrumentedClassesCacheDirectory() {
+        return instrumentedClassesCacheDirectory;
+    }
+
+    public boolean isUseCoverageAgent() {
+        return useCoverageAgent;
+    }
+
+    public boolean isEagerInstrumentation() {
+        return eagerInstrumentation;
+    }
+
+    public List<String> getCoverageIncludes() {
+        return coverageIncludes;
+    }
+
+    public List<String> getCoverageExcludes() {
+        return coverageExcludes;
+    }
+
+    /**
+     * @return the directory, relative to the working directory, in which the runner processes of this session write their results.
+     * Each invocation writes in its own sub-directory, which is deleted once the results are loaded.
+     */
+    public String getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    /* EXECUTION OF TEST API */
+
+    public TestResult runTests(String classpath,
+                               String fullQualifiedNameOfTestClass) throws TimeoutException {
+        return this.runTests(classpath, new String[]{fullQualifiedNameOfTestClass}, new String[0]);
+    }
+
+    public TestResult runTests(String classpath,
+                               String[] fullQualifiedNameOfTestClasses) throws TimeoutException {
+        return this.runTests(classpath, fullQualifiedNameOfTestClasses, new String[0]);
+    }
+
+    public TestResult runTests(String classpath,
+                               String fullQualifiedNameOfTestClass,
+                               String methodName) throws TimeoutException {
+        return this.runTests(classpath, new String[]{fullQualifiedNameOfTestClass}, new String[]{methodName});
+    }
+
+    public TestResult runTests(String classpath,
+                               String fullQualifiedNameOfTestClass,
+                               String[] methodNames) throws TimeoutException {
+        return this.runTests(classpath, new String[]{fullQualifiedNameOfTestClass}, methodNames);
+    }
+
+    /**
+     * Execution of various test methods inside a given test class.
+     *
+     * @see EntryPoint#runTests(String, String[], String[])
+     */
+    public TestResult runTests(String classpath,
+                               String[] fullQualifiedNameOfTestClasses,
+                               String[] methodNames) throws TimeoutException {
+        return waitFor(this.runTestsAsync(classpath, fullQualifiedNameOfTestClasses, methodNames));
+    }
+
+    public CompletableFuture<TestResult> runTestsAsync(String classpath,
+                                                       String[] fullQualifiedNameOfTestClasses) {
+        return this.runTestsAsync(classpath, fullQualifiedNameOfTestClasses, new String[0]);
+    }
+
+    public CompletableFuture<TestResult> runTestsAsync(String classpath,
+                                                       String[] fullQualifiedNameOfTestClasses,
+                                                       String[] methodNames) {
+        return this.runTestsAsync(classpath, fullQualifiedNameOfTestClasses, methodNames, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Asynchronous counterpart of {@link TestRunnerSession#runTests(String, String[], String[])}.
+     * <p>
+     * No thread is blocked while the runner process is running: all the runner processes are watched by a single thread.
+     * The given executor is used to load the results, and to send the requests to the runner daemons, see {@link EntryPoint#useRunnerDaemon}.
+     * </p>
+     *
+     * @param classpath                      the classpath required to run the given test.
+     * @param fullQualifiedNameOfTestClasses test class to be run.
+     * @param methodNames                    test methods to be run.
+     * @param executor                       the executor used to load the results
+     * @return a future completed with the result of the execution, or completed exceptionally with a {@link TimeoutException}
+     * when the execution takes longer than timeoutInMs. If the partial results are salvaged, see {@link EntryPoint#salvagePartialResults},
+     * and unless the tests are run in process, this exception is a {@link PartialResultTimeoutException},
+     * which holds the result of the test methods that have been run before the timeout.
+     */
+    public CompletableFuture<TestResult> runTestsAsync(String classpath,
+                                                       String[] fullQualifiedNameOfTestClasses,
+                                                       String[] methodNames,
+                                                       Executor executor) {
+        final String runDirectory = this.startRun();
+        final CompletableFuture<TestResult> run;
+        if ((this.parallelism > 1 || this.forkPerTestClass) && fullQualifiedNameOfTestClasses.length > 1) {
+            run = this.runTestsInParallelAsync(classpath, fullQualifiedNameOfTestClasses, methodNames, runDirectory, executor);
+        } else {
+            run = this.runTestsAsync(classpath, fullQualifiedNameOfTestClasses, methodNames, runDirectory, executor);
+        }
+        return run.whenComplete((testResult, throwable) -> this.endRun(runDirectory));
+    }
+
+    /*
+        Spread the given test classes across parallelism runner processes.
+        Test classes are distributed in a round-robin fashion, following the given order,
+        and the results are aggregated following the order of the shards, in order to keep a deterministic result.
+        If forkPerTestClass is enabled, each runner process runs a single test class, the test classes of a shard being run one after the other.
+     */
+    private CompletableFuture<TestResult> runTestsInParallelAsync(String classpath,
+                                                                  String[] fullQualifiedNameOfTestClasses,
+                                                                  String[] methodNames,
+                                                                  String runDirectory,
+                                                                  Executor executor) {
+        final int numberOfShards = Math.min(this.parallelism, fullQualifiedNameOfTestClasses.length);
+        final List<List<String>> shards = new ArrayList<>();
+        for (int i = 0; i < fullQualifiedNameOfTestClasses.length; i++) {
+            if (i < numberOfShards) {
+                shards.add(new ArrayList<>());
+            }
+            shards.get(i % numberOfShards).add(fullQualifiedNameOfTestClasses[i]);
+        }
+        if (this.verbose) {
+            LOGGER.info("Run {} test classes on {} runner processes: {}",
+                    fullQualifiedNameOfTestClasses.length, numberOfShards, shards);
+        }
+        final List<CompletableFuture<TestResult>> futures = new ArrayList<>();
+        for (int i = 0; i < numberOfShards; i++) {
+            final String[] testClassesOfShard = shards.get(i).toArray(new String[0]);
+            final String outputDirectory = runDirectory + SHARD_DIRECTORY_PREFIX + i + ConstantsHelper.FILE_SEPARATOR;
+            futures.add(this.forkPerTestClass ?
+                    this.runTestClassesOneByOneAsync(classpath, testClassesOfShard, methodNames, outputDirectory, executor) :
+                    this.runTestsAsync(classpath, testClassesOfShard, methodNames, outputDirectory, executor)
+            );
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).handle((ignored, throwable) -> {
+            if (throwable == null) {
+                final TestResult aggregatedTestResult = futures.get(0).join();
+                futures.stream().skip(1).map(CompletableFuture::join).forEach(aggregatedTestResult::aggregate);
+                return aggregatedTestResult;
+            }
+            // the shards that timed out contribute their partial result, as long as no shard failed for another reason
+            final List<TestResult> testResults = new ArrayList<>();
+            for (CompletableFuture<TestResult> future : futures) {
+                try {
+                    testResults.add(future.join());
+                } catch (CompletionException e) {
+                    if (!(e.getCause() instanceof PartialResultTimeoutException)) {
+                        throw e;
+                    }
+                    testResults.add(((PartialResultTimeoutException) e.getCause()).getPartialResult());
+                }
+            }
+            final TestResult aggregatedTestResult = testResults.get(0);
+            testResults.stream().skip(1).forEach(aggregatedTestResult::aggregate);
+            throw new CompletionException(new PartialResultTimeoutException(aggregatedTestResult));
+        });
+    }
+
+    /*
+        Run each given test class in its own runner process, one after the other.
+        As for the shards, a test class that times out contributes its partial result, and the next test classes are still run.
+     */
+    private CompletableFuture<TestResult> runTestClassesOneByOneAsync(String classpath,
+                                                                      String[] fullQualifiedNameOfTestClasses,
+                                                                      String[] methodNames,
+                                                                      String outputDirectory,
+                                                                      Executor executor) {
+        final List<TestResult> testResults = new ArrayList<>();
+        final AtomicBoolean timedOut = new AtomicBoolean(false);
+        CompletableFuture<Void> execution = CompletableFuture.completedFuture(null);
+        for (int i = 0; i < fullQualifiedNameOfTestClasses.length; i++) {
+            final String[] testClass = new String[]{fullQualifiedNameOfTestClasses[i]};
+            final String outputDirectoryOfTestClass = outputDirectory + TEST_CLASS_DIRECTORY_PREFIX + i + ConstantsHelper.FILE_SEPARATOR;
+            execution = execution.thenCompose(ignored ->
+                    this.runTestsAsync(classpath, testClass, methodNames, outputDirectoryOfTestClass, executor).handle((testResult, throwable) -> {
+                        if (throwable == null) {
+                            testResults.add(testResult);
+                            return null;
+                        }
+                        final Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                        if (!(cause instanceof PartialResultTimeoutException)) {
+                            throw throwable instanceof CompletionException ? (CompletionException) throwable : new CompletionException(throwable);
+                        }
+                        timedOut.set(true);
+                        testResults.add(((PartialResultTimeoutException) cause).getPartialResult());
+                        return null;
+                    })
+            );
+        }
+        return execution.handle((ignored, throwable) -> {
+            this.deleteIfEmpty(outputDirectory);
+            if (throwable != null) {
+                throw throwable instanceof CompletionException ? (CompletionException) throwable : new CompletionException(throwable);
+            }
+            final TestResult aggregatedTestResult = testResults.get(0);
+            testResults.stream().skip(1).forEach(aggregatedTestResult::aggregate);
+            if (timedOut.get()) {
+                throw new CompletionException(new PartialResultTimeoutException(aggregatedTestResult));
+            }
+            return aggregatedTestResult;
+        });
+    }
+
+    private CompletableFuture<TestResult> runTestsAsync(String classpath,
+                                                        String[] fullQualifiedNameOfTestClasses,
+                                                        String[] methodNames,
+                                                        String outputDirectory,
+                                                        Executor executor) {
+        if (this.inProcess) {
+            return this.runTestsInProcessAsync(classpath, fullQualifiedNameOfTestClasses, methodNames, executor);
+        }
+        final String runnerClasspath = classpath + ConstantsHelper.PATH_SEPARATOR + ABSOLUTE_PATH_TO_RUNNER_CLASSES;
+        final String runnerArguments = String.join(ConstantsHelper.WHITE_SPACE, new String[]{
+                        this.jUnit5Mode ? JUNIT5_TEST_RUNNER_QUALIFIED_NAME : JUNIT4_TEST_RUNNER_QUALIFIED_NAME,
+                        ParserOptions.FLAG_fullQualifiedNameOfTestClassToRun, String.join(ConstantsHelper.PATH_SEPARATOR, fullQualifiedNameOfTestClasses),
+                        methodNames.length == 0 ? "" :
+                                ParserOptions.FLAG_testMethodNamesToRun + ConstantsHelper.WHITE_SPACE + String.join(ConstantsHelper.PATH_SEPARATOR, methodNames),
+                        this.blackList.isEmpty() ? "" :
+                                (ParserOptions.FLAG_blackList + ConstantsHelper.WHITE_SPACE + String.join(ConstantsHelper.PATH_SEPARATOR, this.blackList)),
+                        ParserOptions.FLAG_outputDirectory, outputDirectory,
+                        this.captureTestOutput ? ParserOptions.FLAG_captureOutput : "",
+                        this.testTimeoutInMs > 0 ? ParserOptions.FLAG_testTimeout + ConstantsHelper.WHITE_SPACE + this.testTimeoutInMs : "",
+                        this.stackTraceArguments(),
+                        this.testTimeoutInMs > 0 || this.salvagePartialResults ? ParserOptions.FLAG_journal : ""
+                }
+        );
+        final String historyKey = TimeoutHistory.key(classpath,
+                this.jUnit5Mode ? JUNIT5_TEST_RUNNER_QUALIFIED_NAME : JUNIT4_TEST_RUNNER_QUALIFIED_NAME, fullQualifiedNameOfTestClasses);
+        return this.runGivenCommandLineAsync(runnerClasspath, runnerArguments, historyKey, executor).handleAsync((runOutput, throwable) -> {
+            if (throwable != null) {
+                throw this.salvage(throwable, outputDirectory);
+            }
+            final TestResult load;
+            try {
+                load = this.load(() -> TestResultImpl.load(this.resolve(outputDirectory)), runOutput);
+            } finally {
+                TestEventJournal.delete(this.resolve(outputDirectory));
+                this.deleteIfEmpty(outputDirectory);
+            }
+            if (this.verbose) {
+                LOGGER.info("Test has been run: {}",
+                        Stream.concat(load.getPassingTests().stream().map(Object::toString),
+                                load.getFailingTests().stream().map(Object::toString)
+                        ).collect(Collectors.joining(",")));
+            }
+            return load;
+        }, executor);
+    }
+
+    /*
+        Run the given tests in this JVM, on a thread of the given executor.
+        Since a thread cannot be stopped, the future is completed with a TimeoutException when the timeout is reached,
+        and the thread is only interrupted.
+     */
+    private CompletableFuture<TestResult> runTestsInProcessAsync(String classpath,
+                                                                 String[] fullQualifiedNameOfTestClasses,
+                                                                 String[] methodNames,
+                                                                 Executor executor) {
+        if (this.verbose) {
+            LOGGER.info("Run in process: {}", String.join(ConstantsHelper.PATH_SEPARATOR, fullQualifiedNameOfTestClasses));
+        }
+        final CompletableFuture<TestResult> future = new CompletableFuture<>();
+        final AtomicReference<Thread> runningThread = new AtomicReference<>();
+        executor.execute(() -> {
+            runningThread.set(Thread.currentThread());
+            try {
+                future.complete(this.runTestsInProcess(classpath, fullQualifiedNameOfTestClasses, methodNames));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                runningThread.set(null);
+            }
+        });
+        TIMEOUT_SCHEDULER.schedule(() -> {
+            if (future.completeExceptionally(new TimeoutException())) {
+                LOGGER.warn("Timeout when running in process {}", String.join(ConstantsHelper.PATH_SEPARATOR, fullQualifiedNameOfTestClasses));
+                final Thread thread = runningThread.get();
+                if (thread != null) {
+                    thread.interrupt();
+                }
+            }
+        }, this.timeoutInMs, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    /*
+        The classes of the given classpath are loaded by a fresh class loader, so their static state is not shared between two runs,
+        see InProcessClassLoader.
+     */
+    private TestResult runTestsInProcess(String classpath,
+                                         String[] fullQualifiedNameOfTestClasses,
+                                         String[] methodNames) {
+        try (URLClassLoader classLoader = new InProcessClassLoader(this.toURLs(classpath), TestRunnerSession.class.getClassLoader())) {
+            final TestResult testResult;
+            if (this.jUnit5Mode) {
+                final JUnit5TestResult listener = new JUnit5TestResult();
+                JUnit5Runner.run(fullQualifiedNameOfTestClasses, methodNames, this.blackList, listener, classLoader);
+                testResult = listener;
+            } else {
+                final JUnit4TestResult listener = new JUnit4TestResult();
+                JUnit4Runner.run(fullQualifiedNameOfTestClasses, methodNames, this.blackList, listener, classLoader);
+                testResult = listener;
+            }
+            if (this.verbose) {
+                LOGGER.info("Test has been run in process: {}", testResult);
+            }
+            return testResult;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private URL[] toURLs(String classpath) {
+        return Arrays.stream(classpath.split(ConstantsHelper.PATH_SEPARATOR))
+                .filter(path -> !path.isEmpty())
+                .map(path -> new File(path).isAbsolute() ? new File(path) : new File(this.workingDirectory, path))
+                .map(file -> {
+                    try {
+                        return file.toURI().toURL();
+                    } catch (MalformedURLException e) {
+                        throw new RuntimeException(e);
+                    }
+                }).toArray(URL[]::new);
+    }
+
+    /* COMPUTE COVERAGE API */
+
+    public Coverage runCoverage(String classpath,
+                                String targetProjectClasses,
+                                String fullQualifiedNameOfTestClass) throws TimeoutException {
+        return this.runCoverage(classpath, targetProjectClasses, new String[]{fullQualifiedNameOfTestClass}, new String[0]);
+    }
+
+    public Coverage runCoverage(String classpath,
+                                String targetProjectClasses,
+                                String[] fullQualifiedNameOfTestClasses) throws TimeoutException {
+        return this.runCoverage(classpath, targetProjectClasses, fullQualifiedNameOfTestClasses, new String[0]);
+    }
+
+    public Coverage runCoverage(String classpath,
+                                String targetProjectClasses,
+                                String fullQualifiedNameOfTestClass,
+                                String[] methodNames) throws TimeoutException {
+        return this.runCoverage(classpath, targetProjectClasses, new String[]{fullQualifiedNameOfTestClass}, methodNames);
+    }
+
+    /**
+     * Compute of the instruction coverage using <a href=http://www.eclemma.org/jacoco/>JaCoCo</a> for various test classes.
+     *
+     * @see EntryPoint#runCoverage(String, String, String[], String[])
+     */
+    public Coverage runCoverage(String classpath,
+                                String targetProjectClasses,
+                                String[] fullQualifiedNameOfTestClasses,
+                                String[] methodNames) throws TimeoutException {
+        return waitFor(this.runCoverageAsync(classpath, targetProjectClasses, fullQualifiedNameOfTestClasses, methodNames));
+    }
+
+    public CompletableFuture<Coverage> runCoverageAsync(String classpath,
+                                                        String targetProjectClasses,
+                                                        String[] fullQualifiedNameOfTestClasses) {
+        return this.runCoverageAsync(classpath, targetProjectClasses, fullQualifiedNameOfTestClasses, new String[0]);
+    }
+
+    public CompletableFuture<Coverage> runCoverageAsync(String classpath,
+                                                        String targetProjectClasses,
+                                                        String[] fullQualifiedNameOfTestClasses,
+                                                        String[] methodNames) {
+        return this.runCoverageAsync(classpath, targetProjectClasses, fullQualifiedNameOfTestClasses, methodNames, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Asynchronous counterpart of {@link TestRunnerSession#runCoverage(String, String, String[], String[])}.
+     *
+     * @param executor the executor used to load the results
+     * @return a future completed with the coverage, or completed exceptionally with a {@link TimeoutException}
+     * when the execution takes longer than timeoutInMs
+     * @see TestRunnerSession#runTestsAsync(String, String[], String[], Executor)
+     */
+    public CompletableFuture<Coverage> runCoverageAsync(String classpath,
+                                                        String targetProjectClasses,
+                                                        String[] fullQualifiedNameOfTestClasses,
+                                                        String[] methodNames,
+                                                        Executor executor) {
+        final String runDirectory = this.startRun();
+        final String runnerArguments = this.coverageRunnerArguments(JACOCO_RUNNER_QUALIFIED_NAME,
+                targetProjectClasses, fullQualifiedNameOfTestClasses, methodNames, runDirectory);
+        final String historyKey = TimeoutHistory.key(classpath, JACOCO_RUNNER_QUALIFIED_NAME, fullQualifiedNameOfTestClasses);
+        return this.runGivenCommandLineAsync(this.getCoverageJavaCommand(targetProjectClasses), this.coverageRunnerClasspath(classpath), runnerArguments, historyKey, executor).thenApplyAsync(runOutput -> {
+            final Coverage load = this.load(() -> CoverageImpl.load(this.resolve(runDirectory)), runOutput);
+            if (this.verbose) {
+                LOGGER.info("Global coverage has been computed {}", load.toString());
+            }
+            return load;
+        }, executor).whenComplete((coverage, throwable) -> this.endRun(runDirectory));
+    }
+
+    /**
+     * Instrument eagerly, in parallel, the classes of the given project that are not in the cache of the instrumented classes yet.
+     * The classes excluded from the coverage are not instrumented.
+     * The next computations of the coverage then only read the instrumented classes, instead of instrumenting them on their first load.
+     *
+     * @see EntryPoint#instrumentAllClasses(String)
+     */
+    public int instrumentAllClasses(String targetProjectClasses) {
+        if (this.instrumentedClassesCacheDirectory == null) {
+            throw new IllegalStateException("The classes can be instrumented eagerly only in the cache of the instrumented classes, see instrumentedClassesCacheDirectory");
+        }
+        final InstrumentedClassCache instrumentedClassCache = new InstrumentedClassCache(new File(this.instrumentedClassesCacheDirectory));
+        return instrumentedClassCache.instrumentAll(
+                new Instrumenter(new CoverageRuntime()),
+                CoverageTargets.classFilesOf(this.absolutePathsToCoverageTargets(targetProjectClasses)),
+                this.coverageFilter()
+        );
+    }
+
+    /* COMPUTE COVERAGE PER TEST METHOD API */
+
+    public CoveragePerTestMethod runCoveragePerTestMethods(String classpath,
+                                                           String targetProjectClasses,
+                                                           String fullQualifiedNameOfTestClass) throws TimeoutException {
+        return this.runCoveragePerTestMethods(classpath, targetProjectClasses, new String[]{fullQualifiedNameOfTestClass}, new String[0]);
+    }
+
+    public CoveragePerTestMethod runCoveragePerTestMethods(String classpath,
+                                                           String targetProjectClasses,
+                                                           String fullQualifiedNameOfTestClass,
+                                                           String testMethodName) throws TimeoutException {
+        return this.runCoveragePerTestMethods(classpath, targetProjectClasses, new String[]{fullQualifiedNameOfTestClass}, new String[]{testMethodName});
+    }
+
+    public CoveragePerTestMethod runCoveragePerTestMethods(String classpath,
+                                                           String targetProjectClasses,
+                                                           String fullQualifiedNameOfTestClass,
+                                                           String[] testMethodNames) throws TimeoutException {
+        return this.runCoveragePerTestMethods(classpath, targetProjectClasses, new String[]{fullQualifiedNameOfTestClass}, testMethodNames);
+    }
+
+    public CoveragePerTestMethod runCoveragePerTestMethods(String classpath,
+                                                           String targetProjectClasses,
+                                                           String[] fullQualifiedNameOfTestClasses) throws TimeoutException {
+        return this.runCoveragePerTestMethods(classpath, targetProjectClasses, fullQualifiedNameOfTestClasses, new String[0]);
+    }
+
+    /**
+     * Compute of the instruction coverage using <a href=http://www.eclemma.org/jacoco/>JaCoCo</a> for various test methods inside the given test class.
+     *
+     * @see EntryPoint#runCoveragePerTestMethods(String, String, String[], String[])
+     */
+    public CoveragePerTestMethod runCoveragePerTestMethods(String classpath,
+                                                           String targetProjectClasses,
+                                                           String[] fullQualifiedNameOfTestClasses,
+                                                           String[] methodNames) throws TimeoutException {
+        return waitFor(this.runCoveragePerTestMethodsAsync(classpath, targetProjectClasses, fullQualifiedNameOfTestClasses, methodNames));
+    }
+
+    public CompletableFuture<CoveragePerTestMethod> runCoveragePerTestMethodsAsync(String classpath,
+                                                                                   String targetProjectClasses,
+                                                                                   String[] fullQualifiedNameOfTestClasses) {
+        return this.runCoveragePerTestMethodsAsync(classpath, targetProjectClasses, fullQualifiedNameOfTestClasses, new String[0]);
+    }
+
+    public CompletableFuture<CoveragePerTestMethod> runCoveragePerTestMethodsAsync(String classpath,
+                                                                                   String targetProjectClasses,
+                                                                                   String[] fullQualifiedNameOfTestClasses,
+                                                                                   String[] methodNames) {
+        return this.runCoveragePerTestMethodsAsync(classpath, targetProjectClasses, fullQualifiedNameOfTestClasses, methodNames, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Asynchronous counterpart of {@link TestRunnerSession#runCoveragePerTestMethods(String, String, String[], String[])}.
+     *
+     * @param executor the executor used to load the results
+     * @return a future completed with the coverage per test method, or completed exceptionally with a {@link TimeoutException}
+     * when the execution takes longer than timeoutInMs
+     * @see TestRunnerSession#runTestsAsync(String, String[], String[], Executor)
+     */
+    public CompletableFuture<CoveragePerTestMethod> runCoveragePerTestMethodsAsync(String classpath,
+                                                                                   String targetProjectClasses,
+                                                                                   String[] fullQualifiedNameOfTestClasses,
+                                                                                   String[] methodNames,
+                                                                                   Executor executor) {
+        final String runDirectory = this.startRun();
+        final String runnerArguments = this.coverageRunnerArguments(JACOCO_RUNNER_PER_TEST_QUALIFIED_NAME,
+                targetProjectClasses, fullQualifiedNameOfTestClasses, methodNames, runDirectory);
+        final String historyKey = TimeoutHistory.key(classpath, JACOCO_RUNNER_PER_TEST_QUALIFIED_NAME, fullQualifiedNameOfTestClasses);
+        final CompletableFuture<CoveragePerTestMethod> run;
+        if (this.useProbeFile) {
+            run = this.runCoveragePerTestMethodsWithProbeFileAsync(classpath, targetProjectClasses, runnerArguments, historyKey, runDirectory, executor);
+        } else {
+            run = this.runGivenCommandLineAsync(this.getCoverageJavaCommand(targetProjectClasses), this.coverageRunnerClasspath(classpath), runnerArguments, historyKey, executor).thenApplyAsync(runOutput -> {
+                final CoveragePerTestMethod load = this.load(() -> CoveragePerTestMethodImpl.load(this.resolve(runDirectory)), runOutput);
+                if (this.verbose) {
+                    LOGGER.info("Coverage per test methods has been computed {}{}", ConstantsHelper.LINE_SEPARATOR, load.toString());
+                }
+                return load;
+            }, executor);
+        }
+        return run.whenComplete((coveragePerTestMethod, throwable) -> this.endRun(runDirectory));
+    }
+
+    /*
+        The runner process writes the raw probes of each test method in a probe file, that this JVM maps in memory.
+        The coverage of a test method is computed when it is requested, see MappedCoveragePerTestMethod.
+     */
+    private CompletableFuture<CoveragePerTestMethod> runCoveragePerTestMethodsWithProbeFileAsync(String classpath,
+                                                                                                String targetProjectClasses,
+                                                                                                String runnerArguments,
+                                                                                                String historyKey,
+                                                                                                String runDirectory,
+                                                                                                Executor executor) {
+        final File probeFile = this.createProbeFile(runDirectory);
+        final String absolutePathToClassesDirectory = this.absolutePathsToCoverageTargets(targetProjectClasses);
+        final String runnerArgumentsWithProbeFile = runnerArguments + ConstantsHelper.WHITE_SPACE +
+                ParserOptions.FLAG_probeFile + ConstantsHelper.WHITE_SPACE + probeFile.getAbsolutePath();
+        return this.runGivenCommandLineAsync(this.getCoverageJavaCommand(targetProjectClasses), this.coverageRunnerClasspath(classpath), runnerArgumentsWithProbeFile, historyKey, executor).handleAsync((runOutput, throwable) -> {
+            try {
+                if (throwable != null) {
+                    throw throwable instanceof CompletionException ? (CompletionException) throwable : new CompletionException(throwable);
+                }
+                final MappedCoveragePerTestMethod load = this.load(() -> MappedCoveragePerTestMethod.load(probeFile, absolutePathToClassesDirectory, this.coverageFilter()), runOutput);
+                if (this.verbose) {
+                    LOGGER.info("Probes per test methods have been recorded {}", load.getTestMethodNames());
+                }
+                return (CoveragePerTestMethod) load;
+            } finally {
+                probeFile.delete();
+            }
+        }, executor);
+    }
+
+    /*
+        On Linux, the probe file is created in the shared memory, so it is never written on disk.
+     */
+    private File createProbeFile(String runDirectory) {
+        final File sharedMemory = new File(SHARED_MEMORY_DIRECTORY);
+        final File directory = sharedMemory.isDirectory() && sharedMemory.canWrite() ? sharedMemory : new File(this.resolve(runDirectory));
+        if (!directory.exists() && !directory.mkdirs()) {
+            LOGGER.warn("Could not create {}", directory.getAbsolutePath());
+        }
+        return new File(directory, PROBE_FILE_PREFIX + UUID.randomUUID() + PROBE_FILE_EXTENSION);
+    }
+
+    /* BATCH API */
+
+    public List<TestJobResult> runJobs(String classpath,
+                                       String targetProjectClasses,
+                                       List<TestJob> jobs) throws TimeoutException {
+        return waitFor(this.runJobsAsync(classpath, targetProjectClasses, jobs));
+    }
+
+    public CompletableFuture<List<TestJobResult>> runJobsAsync(String classpath,
+                                                               String targetProjectClasses,
+                                                               List<TestJob> jobs) {
+        return this.runJobsAsync(classpath, targetProjectClasses, jobs, DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Run the given jobs in a single runner process, one after the other, see {@link TestJobRunner}.
+     * It avoids to pay the start up of a new JVM for each job, <i>e.g.</i> when running many small sets of test methods.
+     * The jobs share the runner process, so the static state of the test classes is shared between them,
+     * but the coverage is computed with a fresh instrumentation for each job.
+     *
+     * @param classpath            the classpath required to run the given jobs.
+     * @param targetProjectClasses the path to the classes and the test classes of the project, separated by the path separator.
+     *                             It is only used by the jobs that compute the coverage, and can be null otherwise.
+     * @param jobs                 the jobs to run
+     * @param executor             the executor used to load the results
+     * @return a future completed with the results of the jobs, following the order of the jobs.
+     * The result of a job holds a {@link TestResult}, a {@link Coverage} or a {@link CoveragePerTestMethod}, depending on its {@link TestJob.Mode},
+     * or the error of the job if it could not be run, see {@link TestJobResult}.
+     */
+    public CompletableFuture<List<TestJobResult>> runJobsAsync(String classpath,
+                                                               String targetProjectClasses,
+                                                               List<TestJob> jobs,
+                                                               Executor executor) {
+        final String outputDirectory = this.startRun();
+        final File jobsFile = new File(this.resolve(outputDirectory), JOBS_FILE_NAME);
+        try {
+            FileUtils.writeLines(jobsFile, StandardCharsets.UTF_8.name(),
+                    jobs.stream().map(TestJob::toLine).collect(Collectors.toList()));
+        } catch (IOException e) {
+            this.endRun(outputDirectory);
+            final CompletableFuture<List<TestJobResult>> failure = new CompletableFuture<>();
+            failure.completeExceptionally(new RuntimeException(e));
+            return failure;
+        }
+        final boolean computeCoverage = jobs.stream().anyMatch(job -> job.getMode() != TestJob.Mode.TEST);
+        final String runnerClasspath = computeCoverage ? this.coverageRunnerClasspath(classpath) :
+                classpath + ConstantsHelper.PATH_SEPARATOR + ABSOLUTE_PATH_TO_RUNNER_CLASSES;
+        final String runnerArguments = String.join(ConstantsHelper.WHITE_SPACE, new String[]{
+                        TEST_JOB_RUNNER_QUALIFIED_NAME,
+                        targetProjectClasses == null ? "" :
+                                ParserOptions.FLAG_pathToCompiledClassesOfTheProject + ConstantsHelper.WHITE_SPACE + targetProjectClasses,
+                        this.blackList.isEmpty() ? "" :
+                                (ParserOptions.FLAG_blackList + ConstantsHelper.WHITE_SPACE + String.join(ConstantsHelper.PATH_SEPARATOR, this.blackList)),
+                        this.jUnit5Mode ? ParserOptions.FLAG_isJUnit5 : "",
+                        ParserOptions.FLAG_outputDirectory, outputDirectory,
+                        ParserOptions.FLAG_jobs, jobsFile.getAbsolutePath(),
+                        this.captureTestOutput ? ParserOptions.FLAG_captureOutput : "",
+                        this.testTimeoutInMs > 0 ? ParserOptions.FLAG_testTimeout + ConstantsHelper.WHITE_SPACE + this.testTimeoutInMs : "",
+                        this.stackTraceArguments(),
+                        computeCoverage ? this.instrumentedClassesCacheArguments() : "",
+                        computeCoverage && this.eagerInstrumentation ? ParserOptions.FLAG_eagerInstrumentation : "",
+                        computeCoverage ? this.coverageFilterArguments() : ""
+                }
+        );
+        // the batches of a classpath rarely have the same jobs: their durations are gathered under a single key
+        final String historyKey = TimeoutHistory.key(classpath, TEST_JOB_RUNNER_QUALIFIED_NAME);
+        return this.runGivenCommandLineAsync(runnerClasspath, runnerArguments, historyKey, executor).handleAsync((runOutput, throwable) -> {
+            try {
+                if (throwable != null) {
+                    throw throwable instanceof CompletionException ? (CompletionException) throwable : new CompletionException(throwable);
+                }
+                final List<TestJobResult> results = new ArrayList<>();
+                for (int i = 0; i < jobs.size(); i++) {
+                    final TestJob job = jobs.get(i);
+                    final String jobOutputDirectory = this.resolve(TestJobRunner.getOutputDirectoryOfJob(outputDirectory, i));
+                    results.add(this.loadResultOfJob(job, jobOutputDirectory, runOutput));
+                    new File(jobOutputDirectory).delete();
+                }
+                if (this.verbose) {
+                    LOGGER.info("{} jobs have been run", results.size());
+                }
+                return results;
+            } finally {
+                jobsFile.delete();
+                this.endRun(outputDirectory);
+            }
+        }, executor);
+    }
+
+    /*
+        A job that could not be run has saved its error instead of its result, see TestJobRunner.
+        A job that saved nothing, e.g. since the runner process crashed, is also reported as failed, so the results of the other jobs are kept.
+     */
+    private TestJobResult loadResultOfJob(TestJob job, String outputDirectory, BoundedOutputBuffer runOutput) {
+        final File errorFile = new File(outputDirectory, TestJobRunner.ERROR_FILE_NAME);
+        if (errorFile.exists()) {
+            try {
+                return TestJobResult.failed(job, FileUtils.readFileToString(errorFile, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                return TestJobResult.failed(job, e.toString());
+            } finally {
+                errorFile.delete();
+            }
+        }
+        try {
+            return TestJobResult.of(job, this.load(() -> {
+                switch (job.getMode()) {
+                    case COVERAGE:
+                        return CoverageImpl.load(outputDirectory);
+                    case COVERAGE_PER_TEST_METHOD:
+                        return CoveragePerTestMethodImpl.load(outputDirectory);
+                    default:
+                        return TestResultImpl.load(outputDirectory);
+                }
+            }, runOutput));
+        } catch (RuntimeException e) {
+            return TestJobResult.failed(job, e.toString());
+        }
+    }
+
+    private String coverageRunnerClasspath(String classpath) {
+        return classpath +
+                ConstantsHelper.PATH_SEPARATOR + ABSOLUTE_PATH_TO_RUNNER_CLASSES +
+                ConstantsHelper.PATH_SEPARATOR + ABSOLUTE_PATH_TO_JACOCO_DEPENDENCIES;
+    }
+
+    /*
+        The coverage targets are the paths of the given binaries but the last one, that is the directory of the test classes,
+        see ParserOptions#getCoverageTargets()
+     */
+    private String absolutePathsToCoverageTargets(String targetProjectClasses) {
+        final String[] binaries = targetProjectClasses.split(ConstantsHelper.PATH_SEPARATOR);
+        return Arrays.stream(binaries, 0, Math.max(1, binaries.length - 1))
+                .map(binary -> new File(binary).isAbsolute() ? binary : this.resolve(binary))
+                .collect(Collectors.joining(ConstantsHelper.PATH_SEPARATOR));
+    }
+
+    private String coverageRunnerArguments(String runnerQualifiedName,
+                                           String targetProjectClasses,
+                                           String[] fullQualifiedNameOfTestClasses,
+                                           String[] methodNames,
+                                           String outputDirectory) {
+        return String.join(ConstantsHelper.WHITE_SPACE, new String[]{
+                        runnerQualifiedName,
+                        ParserOptions.FLAG_pathToCompiledClassesOfTheProject, targetProjectClasses,
+                        ParserOptions.FLAG_fullQualifiedNameOfTestClassToRun, String.join(ConstantsHelper.PATH_SEPARATOR, fullQualifiedNameOfTestClasses),
+                        methodNames.length == 0 ? "" :
+                                ParserOptions.FLAG_testMethodNamesToRun, String.join(ConstantsHelper.PATH_SEPARATOR, methodNames),
+                        this.blackList.isEmpty() ? "" :
+                                (ParserOptions.FLAG_blackList + ConstantsHelper.WHITE_SPACE + String.join(ConstantsHelper.PATH_SEPARATOR, this.blackList)),
+                        this.jUnit5Mode ? ParserOptions.FLAG_isJUnit5 : "",
+                        ParserOptions.FLAG_outputDirectory, outputDirectory,
+                        this.stackTraceArguments(),
+                        this.instrumentedClassesCacheArguments(),
+                        this.useCoverageAgent ? ParserOptions.FLAG_coverageAgent : "",
+                        this.eagerInstrumentation ? ParserOptions.FLAG_eagerInstrumentation : "",
+                        this.coverageFilterArguments()
+                }
+        );
+    }
+
+    private String coverageFilterArguments() {
+        return String.join(ConstantsHelper.WHITE_SPACE, new String[]{
+                        this.coverageIncludes.isEmpty() ? "" :
+                                (ParserOptions.FLAG_coverageIncludes + ConstantsHelper.WHITE_SPACE + String.join(ConstantsHelper.PATH_SEPARATOR, this.coverageIncludes)),
+                        this.coverageExcludes.isEmpty() ? "" :
+                                (ParserOptions.FLAG_coverageExcludes + ConstantsHelper.WHITE_SPACE + String.join(ConstantsHelper.PATH_SEPARATOR, this.coverageExcludes))
+                }
+        );
+    }
+
+    private CoverageFilter coverageFilter() {
+        return new CoverageFilter(this.coverageIncludes, this.coverageExcludes);
+    }
+
+    private String instrumentedClassesCacheArguments() {
+        return this.instrumentedClassesCacheDirectory == null ? "" :
+                ParserOptions.FLAG_instrumentedClassesCache + ConstantsHelper.WHITE_SPACE + new File(this.instrumentedClassesCacheDirectory).getAbsolutePath();
+    }
+
+    private String stackTraceArguments() {
+        return String.join(ConstantsHelper.WHITE_SPACE, new String[]{
+                        this.stackTraceMaxDepth > 0 ? ParserOptions.FLAG_stackTraceMaxDepth + ConstantsHelper.WHITE_SPACE + this.stackTraceMaxDepth : "",
+                        this.filterStackTrace ? ParserOptions.FLAG_filterStackTrace : ""
+                }
+        );
+    }
+
+    /*
+        When the runner process has been destroyed on timeout, the result of the test methods that finished
+        is rebuilt from the journal of the runner process.
+     */
+    private CompletionException salvage(Throwable throwable, String outputDirectory) {
+        final Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+        final CompletionException completionException = throwable instanceof CompletionException ?
+                (CompletionException) throwable : new CompletionException(throwable);
+        if (!(cause instanceof TimeoutException)) {
+            TestEventJournal.delete(this.resolve(outputDirectory));
+            this.deleteIfEmpty(outputDirectory);
+            return completionException;
+        }
+        final TestResult partialResult;
+        try {
+            partialResult = TestEventJournal.load(this.resolve(outputDirectory));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not read the journal of the runner process: {}", e.getMessage());
+            return completionException;
+        } finally {
+            this.deleteIfEmpty(outputDirectory);
+        }
+        if (partialResult == null) {
+            return completionException;
+        }
+        if (this.verbose) {
+            LOGGER.info("Tests run before the timeout: {}", partialResult);
+        }
+        return new CompletionException(new PartialResultTimeoutException(partialResult));
+    }
+
+    /*
+        The runner processes write in a directory relative to their working directory,
+        while this process reads it from its own working directory.
+     */
+    private String resolve(String outputDirectory) {
+        return new File(this.workingDirectory, outputDirectory).getAbsolutePath();
+    }
+
+    /*
+        Load the result saved by the runner process. If it cannot be loaded, e.g. the runner process crashed,
+        the last output of the runner process is logged, since it is likely to explain why.
+     */
+    private <T> T load(Supplier<T> loader, BoundedOutputBuffer runOutput) {
+        try {
+            return loader.get();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not load the result of the runner process. Last output of the runner process:{}{}",
+                    ConstantsHelper.LINE_SEPARATOR, runOutput);
+            throw e;
+        }
+    }
+
+    /*
+        The serialized results are deleted once loaded, so the output directory is empty after each run.
+        It is created again by the next runner process of this session, if any.
+     */
+    private void deleteIfEmpty(String outputDirectory) {
+        new File(this.resolve(outputDirectory)).delete();
+    }
+
+    /*
+        Each invocation gets its own directory in the output directory of this session,
+        so the runner processes of concurrent invocations never overwrite, nor load and delete, the results of each other.
+     */
+    private synchronized String startRun() {
+        this.numberOfRuns++;
+        return this.outputDirectory + RUN_DIRECTORY_PREFIX + this.nextRunId++ + ConstantsHelper.FILE_SEPARATOR;
+    }
+
+    /*
+        The output directory of this session is deleted only when no invocation is running,
+        otherwise a runner process could fail to create its directory in it.
+     */
+    private synchronized void endRun(String runDirectory) {
+        this.deleteIfEmpty(runDirectory);
+        if (--this.numberOfRuns == 0) {
+            this.deleteIfEmpty(this.outputDirectory);
+        }
+    }
+
+    /*
+
+        INTERNAL CLASS AND METHOD
+
+     */
+
+    private static <T> T waitFor(CompletableFuture<T> future) throws TimeoutException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw (TimeoutException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /*
+        Run the given request, and return the last output of the runner process.
+        If there is a timeout history, the timeout is derived from the previous durations of the same request, see TimeoutHistory,
+        and the duration of this request is recorded. On timeout, the timeout itself is recorded, so the next timeout is longer.
+     */
+    private CompletableFuture<BoundedOutputBuffer> runGivenCommandLineAsync(String classpath, String runnerArguments, String historyKey, Executor executor) {
+        return this.runGivenCommandLineAsync(this.getJavaCommand(), classpath, runnerArguments, historyKey, executor);
+    }
+
+    private CompletableFuture<BoundedOutputBuffer> runGivenCommandLineAsync(String javaCommand, String classpath, String runnerArguments, String historyKey, Executor executor) {
+        final long timeoutInMs = this.timeoutHistory == null ? this.timeoutInMs : this.timeoutHistory.getTimeoutInMs(historyKey, this.timeoutInMs);
+        final long startTime = System.currentTimeMillis();
+        final TestEventReceiver testEventReceiver = this.createTestEventReceiver();
+        final String arguments = testEventReceiver == null ? runnerArguments : runnerArguments + ConstantsHelper.WHITE_SPACE +
+                ParserOptions.FLAG_eventPort + ConstantsHelper.WHITE_SPACE + testEventReceiver.getPort();
+        final String commandLine = javaCommand + ConstantsHelper.WHITE_SPACE + classpath +
+                ConstantsHelper.WHITE_SPACE + arguments;
+        final BoundedOutputBuffer runOutput = new BoundedOutputBuffer(RUN_OUTPUT_BUFFER_SIZE);
+        final CompletableFuture<Void> execution;
+        if (this.useRunnerDaemon) {
+            execution = this.runOnRunnerDaemonAsync(javaCommand, classpath, arguments, runOutput, timeoutInMs)
+                    .thenComposeAsync(done -> done ? CompletableFuture.completedFuture(null) : this.runGivenCommandLineAsync(commandLine, runOutput, timeoutInMs), executor);
+        } else {
+            execution = this.runGivenCommandLineAsync(commandLine, runOutput, timeoutInMs);
+        }
+        return execution.handleAsync((ignored, throwable) -> {
+            if (testEventReceiver != null) {
+                testEventReceiver.close();
+            }
+            if (throwable == null) {
+                if (this.timeoutHistory != null) {
+                    this.timeoutHistory.record(historyKey, System.currentTimeMillis() - startTime);
+                }
+                return runOutput;
+            }
+            if ((throwable instanceof CompletionException ? throwable.getCause() : throwable) instanceof TimeoutException) {
+                if (this.timeoutHistory != null) {
+                    this.timeoutHistory.record(historyKey, timeoutInMs);
+                }
+                LOGGER.warn("Timeout when running {}. Last output of the runner process:{}{}",
+                        runnerArguments, ConstantsHelper.LINE_SEPARATOR, runOutput);
+            }
+            throw throwable instanceof CompletionException ? (CompletionException) throwable : new CompletionException(throwable);
+        }, executor);
+    }
+
+    private TestEventReceiver createTestEventReceiver() {
+        if (this.testEventListener == null) {
+            return null;
+        }
+        try {
+            return new TestEventReceiver(this.testEventListener);
+        } catch (IOException e) {
+            LOGGER.warn("Could not listen to the test events, they won't be received: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /*
+        Send the request to a warm runner process. As for a new JVM, see ProcessReaper, no thread waits for the reply.
+        The future is completed with false if the runner process could not be used, and then the request must be run in a new JVM.
+     */
+    private CompletableFuture<Boolean> runOnRunnerDaemonAsync(String javaCommand, String classpath, String runnerArguments, BoundedOutputBuffer runOutput, long timeoutInMs) {
+        if (this.verbose) {
+            LOGGER.info("Run on runner daemon: {}", runnerArguments);
+        }
+        final RunnerDaemonProcess runnerDaemonProcess;
+        try {
+            runnerDaemonProcess = RunnerDaemonProcess.acquire(javaCommand, classpath, this.workingDirectory, this::canBeReused);
+        } catch (IOException e) {
+            LOGGER.warn("Could not use the runner daemon, fall back on a new JVM: {}", e.getMessage());
+            return CompletableFuture.completedFuture(false);
+        }
+        return runnerDaemonProcess.executeAsync(runnerArguments, timeoutInMs,
+                this.verbose ? (this.outPrintStream != null ? this.outPrintStream : System.out) : null,
+                this.verbose ? (this.errPrintStream != null ? this.errPrintStream : System.err) : null,
+                runOutput
+        ).handle((succeeded, throwable) -> {
+            if (throwable != null) {
+                final Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                if (cause instanceof IOException) {
+                    LOGGER.warn("Could not use the runner daemon, fall back on a new JVM: {}", cause.getMessage());
+                    return false;
+                }
+                throw throwable instanceof CompletionException ? (CompletionException) throwable : new CompletionException(throwable);
+            }
+            if ((succeeded || !this.recycleForkOnFailure) && this.canBeReused(runnerDaemonProcess)) {
+                RunnerDaemonProcess.release(runnerDaemonProcess);
+            } else {
+                if (this.verbose) {
+                    LOGGER.info("Recycle the runner daemon after {} runs", runnerDaemonProcess.getNumberOfRuns());
+                }
+                runnerDaemonProcess.destroy();
+            }
+            return true;
+        });
+    }
+
+    /*
+        A runner daemon is recycled once it reaches one of the limits given by the fork options, see EntryPoint#maxRunsPerFork.
+     */
+    private boolean canBeReused(RunnerDaemonProcess runnerDaemonProcess) {
+        return (this.maxRunsPerFork <= 0 || runnerDaemonProcess.getNumberOfRuns() < this.maxRunsPerFork) &&
+                (this.maxForkAgeInMs <= 0 || runnerDaemonProcess.getAgeInMs() < this.maxForkAgeInMs) &&
+                (this.maxForkHeapUsage <= 0.0D || runnerDaemonProcess.getHeapUsage() < this.maxForkHeapUsage);
+    }
+
+    private CompletableFuture<Void> runGivenCommandLineAsync(String commandLine, BoundedOutputBuffer runOutput, long timeoutInMs) {
+        if (this.verbose) {
+            LOGGER.info("Run: {}", commandLine);
+        }
+        final Process process;
+        try {
+            process = Runtime.getRuntime().exec(commandLine, null, this.workingDirectory);
+        } catch (IOException e) {
+            final CompletableFuture<Void> failure = new CompletableFuture<>();
+            failure.completeExceptionally(new RuntimeException(e));
+            return failure;
+        }
+        return ProcessReaper.watch(process, timeoutInMs,
+                this.verbose ? (this.outPrintStream != null ? this.outPrintStream : System.out) : null,
+                this.verbose ? (this.errPrintStream != null ? this.errPrintStream : System.err) : null,
+                runOutput
+        );
+    }
+
+    String getJavaCommand() {
+        if (this.JVMArgs != null) {
+            return JAVA_COMMAND + ConstantsHelper.WHITE_SPACE + this.JVMArgs + ConstantsHelper.WHITE_SPACE + CLASSPATH_OPT;
+        } else {
+            return JAVA_COMMAND + ConstantsHelper.WHITE_SPACE + CLASSPATH_OPT;
+        }
+    }
+
+    /*
+        The java command of the coverage runners. With the coverage agent, the coverage targets are given to the agent,
+        that instruments their classes when they are loaded, see CoverageAgent.
+        The daemons are acquired by java command, so a daemon with an agent is only reused for the same coverage targets.
+     */
+    private String getCoverageJavaCommand(String targetProjectClasses) {
+        if (!this.useCoverageAgent) {
+            return this.getJavaCommand();
+        }
+        return JAVA_COMMAND + ConstantsHelper.WHITE_SPACE +
+                (this.JVMArgs != null ? this.JVMArgs + ConstantsHelper.WHITE_SPACE : "") +
+                JAVA_AGENT_OPT + getAbsolutePathToCoverageAgentJar() + "=" +
+                CoverageAgent.argumentsOf(this.absolutePathsToCoverageTargets(targetProjectClasses), this.coverageFilter()) +
+                ConstantsHelper.WHITE_SPACE + CLASSPATH_OPT;
+    }
+
+    /*
+        The jar of the coverage agent only contains a manifest: the classes of the agent are loaded from the classpath of the coverage runners.
+        It is written once per JVM, in the temporary directory.
+     */
+    private static synchronized String getAbsolutePathToCoverageAgentJar() {
+        if (absolutePathToCoverageAgentJar == null) {
+            final Manifest manifest = new Manifest();
+            manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+            manifest.getMainAttributes().put(PREMAIN_CLASS, COVERAGE_AGENT_QUALIFIED_NAME);
+            try {
+                final File agentJar = File.createTempFile(COVERAGE_AGENT_JAR_PREFIX, ".jar");
+                agentJar.deleteOnExit();
+                new JarOutputStream(new FileOutputStream(agentJar), manifest).close();
+                absolutePathToCoverageAgentJar = agentJar.getAbsolutePath();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return absolutePathToCoverageAgentJar;
+    }
+
+    /**
+     * Builder of {@link TestRunnerSession}. The default values are the same than the default values of the fields of {@link EntryPoint}.
+     */
+    public static class Builder {
+
+        private boolean jUnit5Mode = false;
+
+        private boolean verbose = false;
+
+        private int timeoutInMs = DEFAULT_TIMEOUT;
+
+        private File workingDirectory = null;
+
+        private String JVMArgs = null;
+
+        private PrintStream outPrintStream = null;
+
+        private PrintStream errPrintStream = null;
+
+        private List<String> blackList = new ArrayList<>();
+
+        private boolean useRunnerDaemon = false;
+
+        private int parallelism = 1;
+
+        private int maxRunsPerFork = 0;
+
+        private int maxForkAgeInMs = 0;
+
+        private boolean recycleForkOnFailure = false;
+
+        private double maxForkHeapUsage = 0.0D;
+
+        private boolean forkPerTestClass = false;
+
+        private boolean useProbeFile = false;
+
+        private TestEventListener testEventListener = null;
+
+        private boolean captureTestOutput = false;
+
+        private boolean inProcess = false;
+
+        private int testTimeoutInMs = 0;
+
+        private boolean salvagePartialResults = false;
+
+        private int stackTraceMaxDepth = 0;
+
+        private boolean filterStackTrace = false;
+
+        private String instrumentedClassesCacheDirectory = null;
+
+        private boolean useCoverageAgent = false;
+
+        private boolean eagerInstrumentation = false;
+
+        private List<String> coverageIncludes = new ArrayList<>();
+
+        private List<String> coverageExcludes = new ArrayList<>();
+
+        private TimeoutHistory timeoutHistory = null;
+
+        private Builder() {
+
+        }
+
+        /**
+         * @see EntryPoint#jUnit5Mode
+         */
+        public Builder jUnit5Mode(boolean jUnit5Mode) {
+            this.jUnit5Mode = jUnit5Mode;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#verbose
+         */
+        public Builder verbose(boolean verbose) {
+            this.verbose = verbose;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#timeoutInMs
+         */
+        public Builder timeoutInMs(int timeoutInMs) {
+            this.timeoutInMs = timeoutInMs;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#workingDirectory
+         */
+        public Builder workingDirectory(File workingDirectory) {
+            this.workingDirectory = workingDirectory;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#JVMArgs
+         */
+        public Builder JVMArgs(String JVMArgs) {
+            this.JVMArgs = JVMArgs;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#outPrintStream
+         */
+        public Builder outPrintStream(PrintStream outPrintStream) {
+            this.outPrintStream = outPrintStream;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#errPrintStream
+         */
+        public Builder errPrintStream(PrintStream errPrintStream) {
+            this.errPrintStream = errPrintStream;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#blackList
+         */
+        public Builder blackList(List<String> blackList) {
+            this.blackList = new ArrayList<>(blackList);
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#useRunnerDaemon
+         */
+        public Builder useRunnerDaemon(boolean useRunnerDaemon) {
+            this.useRunnerDaemon = useRunnerDaemon;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#parallelism
+         */
+        public Builder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#maxRunsPerFork
+         */
+        public Builder maxRunsPerFork(int maxRunsPerFork) {
+            this.maxRunsPerFork = maxRunsPerFork;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#maxForkAgeInMs
+         */
+        public Builder maxForkAgeInMs(int maxForkAgeInMs) {
+            this.maxForkAgeInMs = maxForkAgeInMs;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#recycleForkOnFailure
+         */
+        public Builder recycleForkOnFailure(boolean recycleForkOnFailure) {
+            this.recycleForkOnFailure = recycleForkOnFailure;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#maxForkHeapUsage
+         */
+        public Builder maxForkHeapUsage(double maxForkHeapUsage) {
+            this.maxForkHeapUsage = maxForkHeapUsage;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#forkPerTestClass
+         */
+        public Builder forkPerTestClass(boolean forkPerTestClass) {
+            this.forkPerTestClass = forkPerTestClass;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#useProbeFile
+         */
+        public Builder useProbeFile(boolean useProbeFile) {
+            this.useProbeFile = useProbeFile;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#testEventListener
+         */
+        public Builder testEventListener(TestEventListener testEventListener) {
+            this.testEventListener = testEventListener;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#captureTestOutput
+         */
+        public Builder captureTestOutput(boolean captureTestOutput) {
+            this.captureTestOutput = captureTestOutput;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#inProcess
+         */
+        public Builder inProcess(boolean inProcess) {
+            this.inProcess = inProcess;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#testTimeoutInMs
+         */
+        public Builder testTimeoutInMs(int testTimeoutInMs) {
+            this.testTimeoutInMs = testTimeoutInMs;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#salvagePartialResults
+         */
+        public Builder salvagePartialResults(boolean salvagePartialResults) {
+            this.salvagePartialResults = salvagePartialResults;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#stackTraceMaxDepth
+         */
+        public Builder stackTraceMaxDepth(int stackTraceMaxDepth) {
+            this.stackTraceMaxDepth = stackTraceMaxDepth;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#filterStackTrace
+         */
+        public Builder filterStackTrace(boolean filterStackTrace) {
+            this.filterStackTrace = filterStackTrace;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#instrumentedClassesCacheDirectory
+         */
+        public Builder instrumentedClassesCacheDirectory(String instrumentedClassesCacheDirectory) {
+            this.instrumentedClassesCacheDirectory = instrumentedClassesCacheDirectory;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#useCoverageAgent
+         */
+        public Builder useCoverageAgent(boolean useCoverageAgent) {
+            this.useCoverageAgent = useCoverageAgent;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#eagerInstrumentation
+         */
+        public Builder eagerInstrumentation(boolean eagerInstrumentation) {
+            this.eagerInstrumentation = eagerInstrumentation;
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#coverageIncludes
+         */
+        public Builder coverageIncludes(List<String> coverageIncludes) {
+            this.coverageIncludes = new ArrayList<>(coverageIncludes);
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#coverageExcludes
+         */
+        public Builder coverageExcludes(List<String> coverageExcludes) {
+            this.coverageExcludes = new ArrayList<>(coverageExcludes);
+            return this;
+        }
+
+        /**
+         * @see EntryPoint#timeoutHistory
+         */
+        public Builder timeoutHistory(TimeoutHistory timeoutHistory) {
+            this.timeoutHistory = timeoutHistory;
+            return this;
+        }
+
+        public TestRunnerSession build() {
+            return new TestRunnerSession(this);
+        }
+    }
+
+    /*
+        FIELDS
+     */
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestRunnerSession.class);
+
+    private static final String JAVA_COMMAND = "java";
+
+    private static final String CLASSPATH_OPT = "-classpath";
+
+    private static final String JAVA_AGENT_OPT = "-javaagent:";
+
+    private static final Attributes.Name PREMAIN_CLASS = new Attributes.Name("Premain-Class");
+
+    private static final String COVERAGE_AGENT_QUALIFIED_NAME = "eu.stamp_project.testrunner.runner.coverage.CoverageAgent";
+
+    private static final String COVERAGE_AGENT_JAR_PREFIX = "test-runner-coverage-agent-";
+
+    private static String absolutePathToCoverageAgentJar;
+
+    private static final String JUNIT4_TEST_RUNNER_QUALIFIED_NAME = "eu.stamp_project.testrunner.runner.JUnit4Runner";
+
+    private static final String JUNIT5_TEST_RUNNER_QUALIFIED_NAME = "eu.stamp_project.testrunner.runner.JUnit5Runner";
+
+    private static final String JACOCO_RUNNER_QUALIFIED_NAME = "eu.stamp_project.testrunner.runner.coverage.JacocoRunner";
+
+    private static final String JACOCO_RUNNER_PER_TEST_QUALIFIED_NAME = "eu.stamp_project.testrunner.runner.coverage.JacocoRunnerPerTestMethod";
+
+    private static final String TEST_JOB_RUNNER_QUALIFIED_NAME = "eu.stamp_project.testrunner.runner.TestJobRunner";
+
+    private static final String ABSOLUTE_PATH_TO_RUNNER_CLASSES = initAbsolutePathToRunnerClasses();
+
+    static final int DEFAULT_TIMEOUT = 10000;
+
+    private static final String SESSION_DIRECTORY_PREFIX = "session-";
+
+    private static final String SHARD_DIRECTORY_PREFIX = "shard-";
+
+    private static final String TEST_CLASS_DIRECTORY_PREFIX = "class-";
+
+    private static final String RUN_DIRECTORY_PREFIX = "run-";
+
+    private static final String JOBS_FILE_NAME = "jobs.txt";
+
+    private static final String SHARED_MEMORY_DIRECTORY = "/dev/shm";
+
+    private static final String PROBE_FILE_PREFIX = "test-runner-probes-";
+
+    private static final String PROBE_FILE_EXTENSION = ".bin";
+
+    private static final int RUN_OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    private static final ScheduledExecutorService TIMEOUT_SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "test-runner-session-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final AtomicInteger EXECUTOR_THREAD_COUNTER = new AtomicInteger();
+
+    /*
+        Default executor of the asynchronous API: the tasks are short, i.e. loading results,
+        except when they wait for a runner daemon.
+     */
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "test-runner-session-" + EXECUTOR_THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static String RemoveWinFileSeparator(String string) {
+        if (!"/".equals(ConstantsHelper.FILE_SEPARATOR) && string.startsWith(ConstantsHelper.FILE_SEPARATOR)) {
+            return string.substring(1);
+        } else {
+            return string;
+        }
+    }
+
+    private static final Function<List<Class<?>>, String> CLASSES_TO_PATH_OF_DEPENDENCIES = classes ->
+            classes.stream()
+                    .map(clazz -> clazz.getProtectionDomain().getCodeSource().getLocation())
+                    .map(URL::getPath)
+                    .map(path -> path.startsWith("file:") ? path.substring("file:".length()) : path)
+                    .map(path -> path.split("!")[0])
+                    .map(path -> path.replace("/", ConstantsHelper.FILE_SEPARATOR))
+                    .map(TestRunnerSession::RemoveWinFileSeparator)
+                    .map(path -> {
+                        LOGGER.info("{}", path);
+                        return path;
+                    })
+                    .collect(Collectors.joining(ConstantsHelper.PATH_SEPARATOR));
+
+    private static final List<Class<?>> JACOCO_DEPENDENCIES = Arrays.asList(
+            IRuntime.class,
+            Processor.class,
+            FileUtils.class
+    );
+
+    private static final String ABSOLUTE_PATH_TO_JACOCO_DEPENDENCIES = CLASSES_TO_PATH_OF_DEPENDENCIES.apply(JACOCO_DEPENDENCIES);
+
+    private static String initAbsolutePathToRunnerClasses() {
+        URL resource = ClassLoader.getSystemClassLoader().getResource("runner-classes/");
+
+        //this is the way to make it work from a jenkins plugin
+        if (resource == null) {
+            resource = TestRunnerSession.class.getClassLoader().getResource("runner-classes/");
+        }
+        // if the resource is null, this is because of the usage of a custom class loader.
+        // For example, if we use the test-runner within a maven plugin, the resource must be find using
+        // ClassRealm#findResource(String)
+        // to not add every dependencies to each case, we use here reflection
+        if (resource == null) {
+            // for now, we use specifically ClassRealm.
+            // If we encounter new problems of the same type, i.e. class loading problem
+            // we will extends this support other cases, but for now, we implement the way for maven plugin.
+            try {
+                final Class<? extends ClassLoader> aClass = TestRunnerSession.class.getClassLoader().getClass();
+                final Method findResources = aClass.getMethod("findResource", String.class);
+                resource = (URL) findResources.invoke(TestRunnerSession.class.getClassLoader(), "runner-classes/");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+        String path = resource.getPath();
+        if (path.contains("!") && path.startsWith("file:")) {
+            path = path.substring("file:".length()).split("!")[0];
+        }
+        path = RemoveWinFileSeparator(path.replace("/", ConstantsHelper.FILE_SEPARATOR));
+        LOGGER.info("Path to runner Classes: {}", path);
+        return path;
+    }
+
+}
@@ -0,0 +1,273 @@
+package eu.stamp_project.testrunner;
+
+import eu.stamp_project.testrunner.listener.TestResult;
+import eu.stamp_project.testrunner.utils.ConstantsHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * This class records the wall-clock durations of the executions, per classpath, runner and test classes,
+ * and derives the timeout of the next executions from them, see {@link TimeoutHistory#getTimeoutInMs(String, long)}.
+ * Thus, a hung execution is detected quickly, while a slow but healthy execution is given the time it usually needs.
+ * <p>
+ * The durations are kept in a small text file, one line per key, and only the last durations of each key are kept.
+ * Only the keys used the most recently are kept, see {@link TimeoutHistory#DEFAULT_MAX_KEYS}.
+ * The file is written at most once every few seconds while durations are recorded, and when this history is closed,
+ * or at the latest when the JVM exits. When several JVMs use the same file, the last one to write it wins.
+ * </p>
+ */
+public class TimeoutHistory implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TimeoutHistory.class);
+
+    public static final String DEFAULT_HISTORY_FILE = TestResult.OUTPUT_DIR + "timeout-history.txt";
+
+    public static final int DEFAULT_MAX_SAMPLES = 20;
+
+    public static final int DEFAULT_MIN_SAMPLES = 5;
+
+    public static final double DEFAULT_PERCENTILE = 0.99;
+
+    public static final double DEFAULT_FACTOR = 3.0;
+
+    public static final long DEFAULT_MIN_TIMEOUT_IN_MS = 1000L;
+
+    public static final int DEFAULT_MAX_KEYS = 1000;
+
+    private static final long SAVE_INTERVAL_IN_MS = 10000L;
+
+    private static final Set<TimeoutHistory> OPEN_HISTORIES = Collections.newSetFromMap(new WeakHashMap<>());
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            final List<TimeoutHistory> openHistories;
+            synchronized (OPEN_HISTORIES) {
+                openHistories = new ArrayList<>(OPEN_HISTORIES);
+            }
+            openHistories.forEach(TimeoutHistory::close);
+        }));
+    }
+
+    private static final char SEPARATOR = '\t';
+
+    private static final String DURATION_SEPARATOR = ",";
+
+    private final File file;
+
+    private final int maxSamples;
+
+    private final int minSamples;
+
+    private final double percentile;
+
+    private final double factor;
+
+    private final long minTimeoutInMs;
+
+    private final Map<String, LinkedList<Long>> durationsPerKey;
+
+    private final Object fileLock = new Object();
+
+    private boolean dirty;
+
+    private long lastSaveTime;
+
+    /**
+     * Use the default parameters, and the history stored in {@link TimeoutHistory#DEFAULT_HISTORY_FILE}.
+     */
+    public TimeoutHistory() {
+        this(new File(DEFAULT_HISTORY_FILE));
+    }
+
+    public TimeoutHistory(File file) {
+        this(file, DEFAULT_MAX_SAMPLES, DEFAULT_MIN_SAMPLES, DEFAULT_PERCENTILE, DEFAULT_FACTOR, DEFAULT_MIN_TIMEOUT_IN_MS);
+    }
+
+    /**
+     * @param file           the file in which the history is stored. If it exists, the history is loaded from it.
+     * @param maxSamples     the number of durations kept per key
+     * @param minSamples     the number of durations required before deriving the timeout from the history
+     * @param percentile     the percentile of the durations used to derive the timeout, <i>e.g.</i> 0.99
+     * @param factor         the factor applied to the percentile of the durations
+     * @param minTimeoutInMs the lower bound of the derived timeout
+     */
+    public TimeoutHistory(File file, int maxSamples, int minSamples, double percentile, double factor, long minTimeoutInMs) {
+        this(file, maxSamples, minSamples, percentile, factor, minTimeoutInMs, DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * @param maxKeys the number of keys kept, the keys used the least recently are removed first
+     * @see TimeoutHistory#TimeoutHistory(File, int, int, double, double, long)
+     */
+    public TimeoutHistory(File file, int maxSamples, int minSamples, double percentile, double factor, long minTimeoutInMs, int maxKeys) {
+        this.file = file;
+        this.maxSamples = maxSamples;
+        this.minSamples = minSamples;
+        this.percentile = percentile;
+        this.factor = factor;
+        this.minTimeoutInMs = minTimeoutInMs;
+        this.durationsPerKey = new LinkedHashMap<String, LinkedList<Long>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LinkedList<Long>> eldest) {
+                return this.size() > maxKeys;
+            }
+        };
+        this.dirty = false;
+        this.lastSaveTime = System.currentTimeMillis();
+        this.load();
+        synchronized (OPEN_HISTORIES) {
+            OPEN_HISTORIES.add(this);
+        }
+    }
+
+    /**
+     * @param classpath   the classpath of the execution
+     * @param runnerName  the full qualified name of the runner, that tells what is computed
+     * @param testClasses the full qualified names of the test classes of the execution
+     * @return the key of the execution in the history
+     */
+    public static String key(String classpath, String runnerName, String[] testClasses) {
+        return UUID.nameUUIDFromBytes(classpath.getBytes(StandardCharsets.UTF_8)) + ConstantsHelper.WHITE_SPACE +
+                runnerName + ConstantsHelper.WHITE_SPACE +
+                String.join(ConstantsHelper.PATH_SEPARATOR, testClasses);
+    }
+
+    /**
+     * @param classpath  the classpath of the execution
+     * @param runnerName the full qualified name of the runner, that tells what is computed
+     * @return the key of the executions of the given runner on the given classpath, whatever their tests, <i>e.g.</i> the batches of jobs
+     */
+    public static String key(String classpath, String runnerName) {
+        return UUID.nameUUIDFromBytes(classpath.getBytes(StandardCharsets.UTF_8)) + ConstantsHelper.WHITE_SPACE + runnerName;
+    }
+
+    /**
+     * @param key                the key of the execution, see {@link TimeoutHistory#key(String, String, String[])}
+     * @param defaultTimeoutInMs the timeout used when there are not enough durations for this key
+     * @return the given percentile of the last durations of the given key, multiplied by the factor
+     */
+    public synchronized long getTimeoutInMs(String key, long defaultTimeoutInMs) {
+        final List<Long> durations = this.durationsPerKey.get(key);
+        if (durations == null || durations.size() < this.minSamples) {
+            return defaultTimeoutInMs;
+        }
+        final List<Long> sortedDurations = new ArrayList<>(durations);
+        sortedDurations.sort(Long::compare);
+        final int index = Math.max(0, (int) Math.ceil(this.percentile * sortedDurations.size()) - 1);
+        return Math.max(this.minTimeoutInMs, (long) (sortedDurations.get(index) * this.factor));
+    }
+
+    /**
+     * Record the duration of an execution. When an execution times out, its timeout should be recorded as its duration:
+     * it is a lower bound of the real duration, and it raises the next timeouts of this key.
+     *
+     * @param key          the key of the execution, see {@link TimeoutHistory#key(String, String, String[])}
+     * @param durationInMs the wall-clock duration of the execution
+     */
+    public void record(String key, long durationInMs) {
+        final boolean save;
+        synchronized (this) {
+            final LinkedList<Long> durations = this.durationsPerKey.computeIfAbsent(key, ignored -> new LinkedList<>());
+            durations.addLast(durationInMs);
+            while (durations.size() > this.maxSamples) {
+                durations.removeFirst();
+            }
+            this.dirty = true;
+            save = System.currentTimeMillis() - this.lastSaveTime >= SAVE_INTERVAL_IN_MS;
+        }
+        if (save) {
+            this.save();
+        }
+    }
+
+    /**
+     * Write the durations recorded since the last write, if any.
+     */
+    public void save() {
+        synchronized (this.fileLock) {
+            final List<String> lines;
+            synchronized (this) {
+                if (!this.dirty) {
+                    return;
+                }
+                lines = this.durationsPerKey.entrySet().stream()
+                        .map(entry -> entry.getKey() + SEPARATOR +
+                                entry.getValue().stream().map(String::valueOf).collect(Collectors.joining(DURATION_SEPARATOR)))
+                        .collect(Collectors.toList());
+                this.dirty = false;
+                this.lastSaveTime = System.currentTimeMillis();
+            }
+            this.write(lines);
+        }
+    }
+
+    /**
+     * Write the durations recorded since the last write, if any. This history can still be used afterwards.
+     */
+    @Override
+    public void close() {
+        this.save();
+    }
+
+    private void load() {
+        if (!this.file.exists()) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(this.file.toPath(), StandardCharsets.UTF_8)) {
+                final int separator = line.lastIndexOf(SEPARATOR);
+                if (separator < 0) {
+                    continue;
+                }
+                try {
+                    this.durationsPerKey.put(line.substring(0, separator),
+                            Arrays.stream(line.substring(separator + 1).split(DURATION_SEPARATOR))
+                                    .map(Long::parseLong)
+                                    .collect(Collectors.toCollection(LinkedList::new))
+                    );
+                } catch (NumberFormatException ignored) {
+                    // the line is corrupted, the durations of this key are lost
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not read the timeout history {}: {}", this.file.getAbsolutePath(), e.getMessage());
+        }
+    }
+
+    /*
+        The file is replaced at once, so a concurrent reader never sees a partial history.
+        The keys are written from the least recently used one, so the order of use is kept when loading the file.
+        The file is written outside of the lock of this history, so the executions do not wait for it.
+     */
+    private void write(List<String> lines) {
+        try {
+            final File directory = this.file.getAbsoluteFile().getParentFile();
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("Could not create " + directory.getAbsolutePath());
+            }
+            final File temporaryFile = new File(directory, this.file.getName() + "." + UUID.randomUUID() + ".tmp");
+            Files.write(temporaryFile.toPath(), lines, StandardCharsets.UTF_8);
+            Files.move(temporaryFile.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write the timeout history {}: {}", this.file.getAbsolutePath(), e.getMessage());
+        }
+    }
+}
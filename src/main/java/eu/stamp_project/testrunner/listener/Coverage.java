@@ -30,4 +30,17 @@ public interface Coverage {
 
     public void save();
 
+    /**
+     * Save this instance in the given directory.
+     * By default, this instance can only be saved in {@link Coverage#OUTPUT_DIR}, using {@link Coverage#save()}.
+     *
+     * @param outputDirectory the path to the directory in which this instance is saved
+     */
+    public default void save(String outputDirectory) {
+        if (!OUTPUT_DIR.equals(outputDirectory)) {
+            throw new UnsupportedOperationException(this.getClass().getName() + " can only be saved in " + OUTPUT_DIR);
+        }
+        this.save();
+    }
+
 }
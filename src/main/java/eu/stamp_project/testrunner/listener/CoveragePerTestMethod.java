@@ -10,6 +10,7 @@ import java.util.Map;
  * benjamin.danglot@inria.fr
  * on 15/11/18
  */
+@SuppressWarnings("serial") // javac asks for a serialVersionUID because of the default methods, an interface does not need one
 public interface CoveragePerTestMethod extends Serializable {
 
     public static final String SERIALIZE_NAME = "CoveragePerTest";
@@ -24,4 +25,17 @@ public interface CoveragePerTestMethod extends Serializable {
 
     public void save();
 
+    /**
+     * Save this instance in the given directory.
+     * By default, this instance can only be saved in {@link CoveragePerTestMethod#OUTPUT_DIR}, using {@link CoveragePerTestMethod#save()}.
+     *
+     * @param outputDirectory the path to the directory in which this instance is saved
+     */
+    public default void save(String outputDirectory) {
+        if (!OUTPUT_DIR.equals(outputDirectory)) {
+            throw new UnsupportedOperationException(this.getClass().getName() + " can only be saved in " + OUTPUT_DIR);
+        }
+        this.save();
+    }
+
 }
@@ -0,0 +1,47 @@
+package eu.stamp_project.testrunner.listener;
+
+import eu.stamp_project.testrunner.runner.Failure;
+
+/**
+ * This interface allows to receive the events of an execution while the tests are running,
+ * <i>i.e.</i> before the final result is available.
+ * Use it with {@link eu.stamp_project.testrunner.EntryPoint#testEventListener}.
+ * <p>
+ * Methods are called from a thread of the test runner, not from the thread that requested the execution.
+ * When several runner processes are used in parallel, methods can be called concurrently.
+ * </p>
+ */
+public interface TestEventListener {
+
+    public default void testStarted(String testClassName, String testMethodName) {
+        // empty
+    }
+
+    public default void testFinished(String testClassName, String testMethodName) {
+        // empty
+    }
+
+    public default void testFailed(Failure failure) {
+        // empty
+    }
+
+    public default void testAssumptionFailed(Failure failure) {
+        // empty
+    }
+
+    public default void testIgnored(String testClassName, String testMethodName) {
+        // empty
+    }
+
+    /**
+     * Called when the coverage of a test method has been computed, only when computing the coverage per test method.
+     *
+     * @param testClassName  the full qualified name of the test class
+     * @param testMethodName the name of the test method
+     * @param coverage       the coverage of the test method
+     */
+    public default void testCoverageComputed(String testClassName, String testMethodName, Coverage coverage) {
+        // empty
+    }
+
+}
@@ -4,13 +4,18 @@ import eu.stamp_project.testrunner.runner.Failure;
 import eu.stamp_project.testrunner.utils.ConstantsHelper;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.stream.Collectors;
 
 /**
  * created by Benjamin DANGLOT
  * benjamin.danglot@inria.fr
  * on 13/11/18
  */
+@SuppressWarnings("serial") // javac asks for a serialVersionUID because of the default methods, an interface does not need one
 public interface TestResult extends Serializable {
 
     public static final String SERIALIZE_NAME = "TestResult";
@@ -38,6 +43,122 @@ public interface TestResult extends Serializable {
 
     public List<String> getRunningTests();
 
+    /**
+     * @param testMethodName the simple name of a test method
+     * @return the status of the given test method, or null if it has not been run nor ignored
+     */
+    public default TestStatus getStatusOf(String testMethodName) {
+        if (this.getFailingTests().stream().anyMatch(failure -> failure.testCaseName.equals(testMethodName))) {
+            return TestStatus.FAILING;
+        } else if (this.getAssumptionFailingTests().stream().anyMatch(failure -> failure.testCaseName.equals(testMethodName))) {
+            return TestStatus.ASSUMPTION_FAILING;
+        } else if (this.getRunningTests().contains(testMethodName)) {
+            return TestStatus.PASSING;
+        } else if (this.getIgnoredTests().contains(testMethodName)) {
+            return TestStatus.IGNORED;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @param testClassName  the full qualified name of the test class
+     * @param testMethodName the simple name of a test method
+     * @return the status of the given test method of the given test class, or null if it has not been run nor ignored.
+     * By default, the test class is not taken into account.
+     */
+    public default TestStatus getStatusOf(String testClassName, String testMethodName) {
+        return this.getStatusOf(testMethodName);
+    }
+
+    /**
+     * @param status a status
+     * @return the number of elements of the list of the given status, <i>e.g.</i> the size of {@link TestResult#getPassingTests()} for {@link TestStatus#PASSING}
+     */
+    public default int getNumberOfTests(TestStatus status) {
+        switch (status) {
+            case PASSING:
+                return this.getPassingTests().size();
+            case FAILING:
+                return this.getFailingTests().size();
+            case ASSUMPTION_FAILING:
+                return this.getAssumptionFailingTests().size();
+            default:
+                return this.getIgnoredTests().size();
+        }
+    }
+
+    /**
+     * @param testClassName  the full qualified name of the test class
+     * @param testMethodName the simple name of a test method
+     * @return the timing of the last run of the given test method, or null if it has not been timed
+     */
+    public default TestTiming getTimingOf(String testClassName, String testMethodName) {
+        return null;
+    }
+
+    /**
+     * @param testClassName the full qualified name of the test class
+     * @return the timing of the last run of the given test class, including its class-level setup and teardown, or null if it has not been timed
+     */
+    public default TestTiming getTimingOfTestClass(String testClassName) {
+        return null;
+    }
+
+    /**
+     * @return the timings of the test methods, in the order of their execution
+     */
+    public default List<TestTiming> getTimingsOfTestMethods() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return the timings of the test classes, in the order of their execution
+     */
+    public default List<TestTiming> getTimingsOfTestClasses() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return the count, the minimum, the average, the maximum and the sum of the durations of the test methods, in nanoseconds
+     */
+    public default LongSummaryStatistics getDurationStatistics() {
+        return this.getTimingsOfTestMethods().stream().mapToLong(TestTiming::getDuration).summaryStatistics();
+    }
+
+    /**
+     * @param numberOfTests the maximum number of timings returned
+     * @return the timings of the slowest test methods, the slowest first
+     */
+    public default List<TestTiming> getSlowestTests(int numberOfTests) {
+        return this.getTimingsOfTestMethods().stream()
+                .sorted(Comparator.comparingLong(TestTiming::getDuration).reversed())
+                .limit(numberOfTests)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param testMethodName the simple name of a test method
+     * @return what the given test method printed on the standard output and the standard error, bounded to the last bytes.
+     * It is empty if the test method printed nothing, or if the capture of the output has not been enabled.
+     * By default, it is empty.
+     */
+    public default String getOutputOf(String testMethodName) {
+        return "";
+    }
+
     public void save();
 
+    /**
+     * Save this instance in the given directory, see {@link eu.stamp_project.testrunner.runner.Loader#load(String, String)}
+     * By default, this instance can only be saved in {@link TestResult#OUTPUT_DIR}, using {@link TestResult#save()}.
+     * @param outputDirectory the path to the directory in which this instance is saved
+     */
+    public default void save(String outputDirectory) {
+        if (!OUTPUT_DIR.equals(outputDirectory)) {
+            throw new UnsupportedOperationException(this.getClass().getName() + " can only be saved in " + OUTPUT_DIR);
+        }
+        this.save();
+    }
+
 }
@@ -0,0 +1,17 @@
+package eu.stamp_project.testrunner.listener;
+
+/**
+ * The status of a test method in a {@link TestResult}, see {@link TestResult#getStatusOf(String)}.
+ * A test method that failed is {@link TestStatus#FAILING}, even if it also violated an assumption.
+ */
+public enum TestStatus {
+
+    PASSING,
+
+    FAILING,
+
+    ASSUMPTION_FAILING,
+
+    IGNORED
+
+}
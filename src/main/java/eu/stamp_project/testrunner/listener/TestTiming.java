@@ -0,0 +1,137 @@
+package eu.stamp_project.testrunner.listener;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The timing of a test method, or of a test class, in a {@link TestResult}, see {@link TestResult#getTimingOf(String, String)}.
+ * The times are in nanoseconds since the epoch, see {@link TestTiming#now()}: the timings of several runner processes can be compared.
+ * <p>
+ * The timing of a test class spans its whole execution, including the class-level setup and teardown, <i>e.g.</i> the methods annotated with
+ * {@code @BeforeClass} and {@code @AfterClass}. The setup time is measured until the start of its first test method,
+ * and the teardown time from the end of its last test method.
+ * </p>
+ */
+public class TestTiming implements Serializable {
+
+    private static final long serialVersionUID = 4326571836071981244L;
+
+    private static final long ORIGIN_IN_NANOS = System.nanoTime();
+
+    private static final long ORIGIN_SINCE_EPOCH_IN_NANOS = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+
+    private final String testClassName;
+
+    private final String testMethodName;
+
+    private final long startTime;
+
+    private final long endTime;
+
+    private final long setupTime;
+
+    private final long teardownTime;
+
+    /**
+     * The timing of a test method.
+     */
+    public TestTiming(String testClassName, String testMethodName, long startTime, long endTime) {
+        this(testClassName, testMethodName, startTime, endTime, 0L, 0L);
+    }
+
+    /**
+     * The timing of a test class.
+     */
+    public TestTiming(String testClassName, long startTime, long endTime, long setupTime, long teardownTime) {
+        this(testClassName, null, startTime, endTime, setupTime, teardownTime);
+    }
+
+    private TestTiming(String testClassName, String testMethodName, long startTime, long endTime, long setupTime, long teardownTime) {
+        this.testClassName = testClassName;
+        this.testMethodName = testMethodName;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.setupTime = setupTime;
+        this.teardownTime = teardownTime;
+    }
+
+    /**
+     * @return the current time, in nanoseconds since the epoch. It is measured with {@link System#nanoTime()},
+     * from the wall-clock time at which this class has been loaded, so it is monotonic in a given JVM.
+     */
+    public static long now() {
+        return ORIGIN_SINCE_EPOCH_IN_NANOS + (System.nanoTime() - ORIGIN_IN_NANOS);
+    }
+
+    public String getTestClassName() {
+        return testClassName;
+    }
+
+    /**
+     * @return the simple name of the test method, or null for the timing of a test class
+     */
+    public String getTestMethodName() {
+        return testMethodName;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * @return the duration, in nanoseconds
+     */
+    public long getDuration() {
+        return this.endTime - this.startTime;
+    }
+
+    /**
+     * @return for a test class, the time spent before its first test method, in nanoseconds.
+     * It is 0 for a test method, or for a test class of which no test method has been timed.
+     */
+    public long getSetupTime() {
+        return setupTime;
+    }
+
+    /**
+     * @return for a test class, the time spent after its last test method, in nanoseconds.
+     * It is 0 for a test method, or for a test class of which no test method has been timed.
+     */
+    public long getTeardownTime() {
+        return teardownTime;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        final TestTiming that = (TestTiming) o;
+        return startTime == that.startTime &&
+                endTime == that.endTime &&
+                setupTime == that.setupTime &&
+                teardownTime == that.teardownTime &&
+                Objects.equals(testClassName, that.testClassName) &&
+                Objects.equals(testMethodName, that.testMethodName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(testClassName, testMethodName, startTime, endTime);
+    }
+
+    @Override
+    public String toString() {
+        return "TestTiming{" +
+                "testClassName='" + testClassName + '\'' +
+                (testMethodName == null ? "" : ", testMethodName='" + testMethodName + '\'') +
+                ", duration=" + TimeUnit.NANOSECONDS.toMillis(this.getDuration()) + "ms" +
+                (testMethodName == null ? ", setupTime=" + TimeUnit.NANOSECONDS.toMillis(setupTime) + "ms" +
+                        ", teardownTime=" + TimeUnit.NANOSECONDS.toMillis(teardownTime) + "ms" : "") +
+                '}';
+    }
+}
@@ -0,0 +1,264 @@
+package eu.stamp_project.testrunner.listener.event;
+
+import eu.stamp_project.testrunner.listener.Coverage;
+import eu.stamp_project.testrunner.runner.Failure;
+import eu.stamp_project.testrunner.runner.ParserOptions;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class sends the events of the execution, from the runner process to {@link TestEventReceiver}, as they happen.
+ * It is used by the listeners, <i>e.g.</i> {@link eu.stamp_project.testrunner.listener.junit4.JUnit4TestResult}.
+ * If the runner has not been asked to send the events, see {@link ParserOptions#FLAG_eventPort}, every method does nothing.
+ * <p>
+ * Each event is sent as a single line, containing fields separated by a tabulation. The first field is the type of the event.
+ * </p>
+ * <p>
+ * The events can also be recorded in a journal, see {@link TestEventJournal}, from which the result of the tests that already finished
+ * is rebuilt if the runner process is destroyed before saving its result.
+ * </p>
+ */
+public class TestEventEmitter {
+
+    static final String STARTED = "STARTED";
+
+    static final String FINISHED = "FINISHED";
+
+    static final String FAILED = "FAILED";
+
+    static final String ASSUMPTION_FAILED = "ASSUMPTION_FAILED";
+
+    static final String IGNORED = "IGNORED";
+
+    static final String COVERAGE = "COVERAGE";
+
+    static final char SEPARATOR = '\t';
+
+    private static final String NULL_VALUE = "\\0";
+
+    private static Socket socket;
+
+    private static Writer writer;
+
+    private static Writer journalWriter;
+
+    /**
+     * Connect to the {@link TestEventReceiver} listening on the given port of the loopback address.
+     *
+     * @param port the port on which the receiver listens
+     */
+    public static synchronized void connect(int port) {
+        try {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.println("Could not connect to the test event receiver on port " + port + ", events won't be sent.");
+            closeSocket();
+        }
+    }
+
+    /**
+     * Record the events in the journal of the given output directory, see {@link TestEventJournal}.
+     *
+     * @param outputDirectory the directory in which the result of the execution is saved
+     */
+    public static synchronized void record(String outputDirectory) {
+        final File journal = TestEventJournal.getJournalFile(outputDirectory);
+        if (!journal.getParentFile().exists() && !journal.getParentFile().mkdirs()) {
+            System.err.println("Error while creating output dir");
+        }
+        try {
+            journalWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journal), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            System.err.println("Could not create the test event journal " + journal.getAbsolutePath() + ", events won't be recorded.");
+            journalWriter = null;
+        }
+    }
+
+    /**
+     * Connect to the {@link TestEventReceiver}, and record the events in a journal, if the given options ask for it.
+     */
+    public static void connect(ParserOptions options) {
+        if (options.getEventPort() > 0) {
+            connect(options.getEventPort());
+        }
+        if (options.isJournal()) {
+            record(options.getOutputDirectory());
+        }
+    }
+
+    public static synchronized void close() {
+        if (journalWriter != null) {
+            try {
+                journalWriter.close();
+            } catch (IOException ignored) {
+                // ignored
+            }
+            journalWriter = null;
+        }
+        closeSocket();
+    }
+
+    private static void closeSocket() {
+        if (socket != null) {
+            try {
+                if (writer != null) {
+                    writer.flush();
+                }
+                socket.close();
+            } catch (IOException ignored) {
+                // ignored
+            }
+        }
+        socket = null;
+        writer = null;
+    }
+
+    public static void testStarted(String testClassName, String testMethodName) {
+        send(STARTED, testClassName, testMethodName);
+    }
+
+    public static void testFinished(String testClassName, String testMethodName) {
+        send(FINISHED, testClassName, testMethodName);
+    }
+
+    public static void testFailed(Failure failure) {
+        send(FAILED, failure.testClassName, failure.testCaseName,
+                failure.fullQualifiedNameOfException, failure.messageOfFailure, stackTraceOf(failure));
+    }
+
+    public static void testAssumptionFailed(Failure failure) {
+        send(ASSUMPTION_FAILED, failure.testClassName, failure.testCaseName,
+                failure.fullQualifiedNameOfException, failure.messageOfFailure, stackTraceOf(failure));
+    }
+
+    /*
+        The stack trace is rendered only for the receiver. The journal records the failures without their stack trace,
+        since it is read only when the runner process has been destroyed.
+     */
+    private static synchronized String stackTraceOf(Failure failure) {
+        return writer == null ? null : failure.getStackTrace();
+    }
+
+    public static void testIgnored(String testClassName, String testMethodName) {
+        send(IGNORED, testClassName, testMethodName);
+    }
+
+    public static void testCoverageComputed(String testClassName, String testMethodName, Coverage coverage) {
+        send(COVERAGE, testClassName, testMethodName,
+                Integer.toString(coverage.getInstructionsCovered()),
+                Integer.toString(coverage.getInstructionsTotal()),
+                coverage.getExecutionPath());
+    }
+
+    private static synchronized void send(String... fields) {
+        if (writer == null && journalWriter == null) {
+            return;
+        }
+        final StringBuilder line = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                line.append(SEPARATOR);
+            }
+            line.append(encode(fields[i]));
+        }
+        line.append('\n');
+        if (journalWriter != null) {
+            try {
+                journalWriter.write(line.toString());
+                // flushed for each event, since the runner process can be destroyed at any time
+                journalWriter.flush();
+            } catch (IOException e) {
+                System.err.println("Could not record the test event, events won't be recorded anymore.");
+                journalWriter = null;
+            }
+        }
+        if (writer != null) {
+            try {
+                writer.write(line.toString());
+                writer.flush();
+            } catch (IOException e) {
+                System.err.println("Could not send the test event, events won't be sent anymore.");
+                closeSocket();
+            }
+        }
+    }
+
+    static String encode(String value) {
+        if (value == null) {
+            return NULL_VALUE;
+        }
+        final StringBuilder encoded = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '\\':
+                    encoded.append("\\\\");
+                    break;
+                case '\t':
+                    encoded.append("\\t");
+                    break;
+                case '\n':
+                    encoded.append("\\n");
+                    break;
+                case '\r':
+                    encoded.append("\\r");
+                    break;
+                default:
+                    encoded.append(c);
+            }
+        }
+        return encoded.toString();
+    }
+
+    static List<String> decode(String line) {
+        final List<String> fields = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= line.length(); i++) {
+            if (i == line.length() || line.charAt(i) == SEPARATOR) {
+                fields.add(decodeField(line.substring(start, i)));
+                start = i + 1;
+            }
+        }
+        return fields;
+    }
+
+    private static String decodeField(String field) {
+        if (NULL_VALUE.equals(field)) {
+            return null;
+        }
+        final StringBuilder decoded = new StringBuilder(field.length());
+        for (int i = 0; i < field.length(); i++) {
+            final char c = field.charAt(i);
+            if (c == '\\' && i + 1 < field.length()) {
+                final char next = field.charAt(++i);
+                switch (next) {
+                    case 't':
+                        decoded.append('\t');
+                        break;
+                    case 'n':
+                        decoded.append('\n');
+                        break;
+                    case 'r':
+                        decoded.append('\r');
+                        break;
+                    default:
+                        decoded.append(next);
+                }
+            } else {
+                decoded.append(c);
+            }
+        }
+        return decoded.toString();
+    }
+
+}
@@ -0,0 +1,111 @@
+package eu.stamp_project.testrunner.listener.event;
+
+import eu.stamp_project.testrunner.listener.TestEventListener;
+import eu.stamp_project.testrunner.listener.TestResult;
+import eu.stamp_project.testrunner.listener.impl.TestResultImpl;
+import eu.stamp_project.testrunner.runner.Failure;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class rebuilds the result of an execution from the events recorded by {@link TestEventEmitter#record(String)}.
+ * The runner process records each event as soon as it happens, so the result of the test methods that finished is available
+ * even if the runner process has been destroyed before saving its result, <i>e.g.</i> on timeout.
+ * The test method that was running when the runner process has been destroyed is reported as a failing test, with a {@link TimeoutException}.
+ * The failures are rebuilt without their stack trace, unless the events are also sent to a {@link TestEventReceiver}.
+ */
+public class TestEventJournal {
+
+    public static final String JOURNAL_NAME = TestResult.SERIALIZE_NAME + ".journal";
+
+    public static File getJournalFile(String outputDirectory) {
+        return new File(outputDirectory, JOURNAL_NAME);
+    }
+
+    /**
+     * Rebuild the result of the execution recorded in the given output directory. The journal is deleted after being read.
+     *
+     * @param outputDirectory the path to the directory in which the result of the execution is saved
+     * @return the result of the test methods recorded so far, or null if there is no journal
+     */
+    public static TestResult load(String outputDirectory) {
+        final File journal = getJournalFile(outputDirectory);
+        if (!journal.exists()) {
+            return null;
+        }
+        final TestResultBuilder builder = new TestResultBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(journal), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    TestEventReceiver.dispatch(TestEventEmitter.decode(line), builder);
+                } catch (RuntimeException ignored) {
+                    // the last event can be truncated, if the runner process has been destroyed while recording it
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        delete(outputDirectory);
+        return builder.build();
+    }
+
+    public static void delete(String outputDirectory) {
+        getJournalFile(outputDirectory).delete();
+    }
+
+    private static class TestResultBuilder implements TestEventListener {
+
+        private final TestResultImpl testResult = new TestResultImpl();
+
+        private final Map<String, String> unfinishedTests = new LinkedHashMap<>();
+
+        @Override
+        public void testStarted(String testClassName, String testMethodName) {
+            this.unfinishedTests.put(testClassName + "#" + testMethodName, testClassName);
+        }
+
+        @Override
+        public void testFinished(String testClassName, String testMethodName) {
+            this.unfinishedTests.remove(testClassName + "#" + testMethodName);
+            this.testResult.addRunningTest(testClassName, testMethodName);
+        }
+
+        @Override
+        public void testFailed(Failure failure) {
+            this.testResult.getFailingTests().add(failure);
+        }
+
+        @Override
+        public void testAssumptionFailed(Failure failure) {
+            this.testResult.getAssumptionFailingTests().add(failure);
+        }
+
+        @Override
+        public void testIgnored(String testClassName, String testMethodName) {
+            this.testResult.addIgnoredTest(testClassName, testMethodName);
+        }
+
+        private TestResult build() {
+            this.unfinishedTests.forEach((key, testClassName) -> {
+                final String testMethodName = key.substring(testClassName.length() + 1);
+                this.testResult.addRunningTest(testClassName, testMethodName);
+                this.testResult.getFailingTests().add(new Failure(testMethodName, testClassName,
+                        TimeoutException.class.getName(),
+                        "The runner process has been destroyed while this test was running",
+                        null
+                ));
+            });
+            return this.testResult;
+        }
+    }
+
+}
@@ -0,0 +1,118 @@
+package eu.stamp_project.testrunner.listener.event;
+
+import eu.stamp_project.testrunner.listener.TestEventListener;
+import eu.stamp_project.testrunner.listener.impl.CoverageImpl;
+import eu.stamp_project.testrunner.runner.Failure;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * This class receives the events sent by {@link TestEventEmitter} from the runner process,
+ * and forwards them to the given {@link TestEventListener}.
+ * It listens on an ephemeral port of the loopback address, see {@link TestEventReceiver#getPort()}.
+ */
+public class TestEventReceiver implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TestEventReceiver.class);
+
+    private static final long TIME_TO_WAIT_REMAINING_EVENTS_IN_MS = 1000L;
+
+    private final TestEventListener listener;
+
+    private final ServerSocket serverSocket;
+
+    private final Thread thread;
+
+    private volatile Socket socket;
+
+    public TestEventReceiver(TestEventListener listener) throws IOException {
+        this.listener = listener;
+        this.serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        this.thread = new Thread(this::receive, "test-event-receiver-" + this.serverSocket.getLocalPort());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public int getPort() {
+        return this.serverSocket.getLocalPort();
+    }
+
+    /**
+     * Wait for the remaining events sent by the runner process, and then stop listening.
+     */
+    @Override
+    public void close() {
+        try {
+            this.thread.join(TIME_TO_WAIT_REMAINING_EVENTS_IN_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            this.serverSocket.close();
+            if (this.socket != null) {
+                this.socket.close();
+            }
+        } catch (IOException ignored) {
+            // ignored
+        }
+    }
+
+    private void receive() {
+        try (Socket socket = this.serverSocket.accept();
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            this.socket = socket;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                try {
+                    dispatch(TestEventEmitter.decode(line), this.listener);
+                } catch (Exception e) {
+                    LOGGER.warn("Error while handling the test event {}", line, e);
+                }
+            }
+        } catch (IOException ignored) {
+            // the runner process did not connect, or has been destroyed
+        }
+    }
+
+    static void dispatch(List<String> fields, TestEventListener listener) {
+        switch (fields.get(0)) {
+            case TestEventEmitter.STARTED:
+                listener.testStarted(fields.get(1), fields.get(2));
+                break;
+            case TestEventEmitter.FINISHED:
+                listener.testFinished(fields.get(1), fields.get(2));
+                break;
+            case TestEventEmitter.FAILED:
+                listener.testFailed(toFailure(fields));
+                break;
+            case TestEventEmitter.ASSUMPTION_FAILED:
+                listener.testAssumptionFailed(toFailure(fields));
+                break;
+            case TestEventEmitter.IGNORED:
+                listener.testIgnored(fields.get(1), fields.get(2));
+                break;
+            case TestEventEmitter.COVERAGE:
+                final CoverageImpl coverage = new CoverageImpl(Integer.parseInt(fields.get(3)), Integer.parseInt(fields.get(4)));
+                coverage.setExecutionPath(fields.get(5));
+                listener.testCoverageComputed(fields.get(1), fields.get(2), coverage);
+                break;
+            default:
+                LOGGER.warn("Unknown test event {}", fields.get(0));
+        }
+    }
+
+    private static Failure toFailure(List<String> fields) {
+        return new Failure(fields.get(2), fields.get(1), fields.get(3), fields.get(4), fields.get(5));
+    }
+
+}
@@ -0,0 +1,416 @@
+package eu.stamp_project.testrunner.listener.impl;
+
+import eu.stamp_project.testrunner.listener.Coverage;
+import eu.stamp_project.testrunner.listener.TestResult;
+import eu.stamp_project.testrunner.listener.TestTiming;
+import eu.stamp_project.testrunner.runner.Failure;
+import eu.stamp_project.testrunner.runner.StackTrace;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * This class writes and reads the results of the runner processes, {@link TestResultImpl}, {@link CoverageImpl} and {@link CoveragePerTestMethodImpl},
+ * in a compact binary format, instead of the java serialization.
+ * <p>
+ * A result starts with {@link BinaryResultFormat#MAGIC}, the version of the format and the kind of result, followed by its fields, in a fixed order:
+ * </p>
+ * <ul>
+ * <li>the integers, and the sizes of the lists and of the maps, are written as variable-length integers, <i>i.e.</i> 7 bits per byte</li>
+ * <li>each string is written once, prefixed by its length. The next occurrences of the same string are written as its index in the strings already read.
+ * Thus, the test class names, the exception names and the execution paths shared by several test methods cost a few bytes each.</li>
+ * </ul>
+ * <p>
+ * The running tests and the ignored tests of a {@link TestResultImpl} are followed by their test class.
+ * The stack trace of a {@link Failure} is written structured, see {@link StackTrace}: its frames are strings,
+ * so a frame shared by several failures is written once.
+ * The timings of the test classes and of the test methods follow the outputs, see {@link TestTiming}:
+ * the start time on 8 bytes, then the durations as variable-length integers.
+ * </p>
+ * <p>
+ * The result is read as a stream, in a single pass. A reader fails on a version greater than {@link BinaryResultFormat#VERSION}.
+ * </p>
+ */
+public class BinaryResultFormat {
+
+    public static final int MAGIC = 0x54525246;
+
+    public static final int VERSION = 1;
+
+    private static final int KIND_TEST_RESULT = 1;
+
+    private static final int KIND_COVERAGE = 2;
+
+    private static final int KIND_COVERAGE_PER_TEST_METHOD = 3;
+
+    private static final int NULL_STRING = 0;
+
+    private static final int NEW_STRING = 1;
+
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+
+    private static final int TEXT_STACK_TRACE = 0;
+
+    private static final int STRUCTURED_STACK_TRACE = 1;
+
+    /**
+     * Write the given result in the given file, creating its directory if needed.
+     * The result is written in a temporary file first, then moved, so a reader never sees a partial result.
+     */
+    public static void save(Object result, File file) {
+        final File outputDirectory = file.getParentFile();
+        if (outputDirectory != null && !outputDirectory.exists() && !outputDirectory.mkdirs()) {
+            System.err.println("Error while creating output dir");
+        }
+        final File temporaryFile = new File(file.getPath() + TEMPORARY_EXTENSION);
+        try {
+            try (OutputStream output = new BufferedOutputStream(new FileOutputStream(temporaryFile))) {
+                write(result, output);
+            }
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            temporaryFile.delete();
+            System.err.println("Error while writing serialized file.");
+            throw new RuntimeException(e);
+        }
+        System.out.println("File saved to the following path: " + file.getAbsolutePath());
+    }
+
+    public static void write(Object result, OutputStream outputStream) throws IOException {
+        final Writer writer = new Writer(outputStream);
+        writer.output.writeInt(MAGIC);
+        writer.output.writeByte(VERSION);
+        if (result instanceof TestResultImpl) {
+            writer.output.writeByte(KIND_TEST_RESULT);
+            writer.writeTestResult((TestResultImpl) result);
+        } else if (result instanceof CoverageImpl) {
+            writer.output.writeByte(KIND_COVERAGE);
+            writer.writeCoverage((CoverageImpl) result);
+        } else if (result instanceof CoveragePerTestMethodImpl) {
+            writer.output.writeByte(KIND_COVERAGE_PER_TEST_METHOD);
+            writer.writeCoveragePerTestMethod((CoveragePerTestMethodImpl) result);
+        } else {
+            throw new IllegalArgumentException("Unsupported result: " + result.getClass().getName());
+        }
+        writer.output.flush();
+    }
+
+    /**
+     * @param inputStream a stream positioned at the beginning of a result, which supports {@link InputStream#mark(int)}
+     * @return true if the stream starts with {@link BinaryResultFormat#MAGIC}. The stream is reset before returning.
+     */
+    public static boolean isBinaryResult(InputStream inputStream) throws IOException {
+        inputStream.mark(Integer.BYTES);
+        try {
+            return new DataInputStream(inputStream).readInt() == MAGIC;
+        } catch (EOFException e) {
+            return false;
+        } finally {
+            inputStream.reset();
+        }
+    }
+
+    public static Object read(InputStream inputStream) throws IOException {
+        final Reader reader = new Reader(inputStream);
+        if (reader.input.readInt() != MAGIC) {
+            throw new IOException("The given stream does not contain a result.");
+        }
+        final int version = reader.input.readUnsignedByte();
+        if (version > VERSION) {
+            throw new IOException("Unsupported version of the result format: " + version + ", expected at most " + VERSION);
+        }
+        final int kind = reader.input.readUnsignedByte();
+        switch (kind) {
+            case KIND_TEST_RESULT:
+                return reader.readTestResult();
+            case KIND_COVERAGE:
+                return reader.readCoverage();
+            case KIND_COVERAGE_PER_TEST_METHOD:
+                return reader.readCoveragePerTestMethod();
+            default:
+                throw new IOException("Unknown kind of result: " + kind);
+        }
+    }
+
+    private static class Writer {
+
+        private final DataOutputStream output;
+
+        private final Map<String, Integer> indexOfStrings = new HashMap<>();
+
+        private Writer(OutputStream outputStream) {
+            this.output = new DataOutputStream(outputStream);
+        }
+
+        private void writeTestResult(TestResultImpl testResult) throws IOException {
+            this.writeTests(testResult.getRunningTests(), testResult.getTestClassNamesOfRunningTests());
+            this.writeFailures(testResult.getFailingTests());
+            this.writeFailures(testResult.getAssumptionFailingTests());
+            this.writeTests(testResult.getIgnoredTests(), testResult.getTestClassNamesOfIgnoredTests());
+            final Map<String, String> outputs = testResult.getOutputs();
+            this.writeInt(outputs.size());
+            for (Map.Entry<String, String> output : outputs.entrySet()) {
+                this.writeString(output.getKey());
+                this.writeString(output.getValue());
+            }
+            this.writeTimings(testResult.getTimingsOfTestClasses());
+            this.writeTimings(testResult.getTimingsOfTestMethods());
+        }
+
+        private void writeTimings(List<TestTiming> timings) throws IOException {
+            this.writeInt(timings.size());
+            for (TestTiming timing : timings) {
+                this.writeString(timing.getTestClassName());
+                this.writeString(timing.getTestMethodName());
+                this.output.writeLong(timing.getStartTime());
+                this.writeLong(timing.getDuration());
+                if (timing.getTestMethodName() == null) {
+                    this.writeLong(timing.getSetupTime());
+                    this.writeLong(timing.getTeardownTime());
+                }
+            }
+        }
+
+        private void writeFailures(List<Failure> failures) throws IOException {
+            this.writeInt(failures.size());
+            for (Failure failure : failures) {
+                this.writeString(failure.testCaseName);
+                this.writeString(failure.testClassName);
+                this.writeString(failure.fullQualifiedNameOfException);
+                this.writeString(failure.messageOfFailure);
+                final StackTrace stackTrace = failure.getStructuredStackTrace();
+                if (stackTrace == null) {
+                    this.writeInt(TEXT_STACK_TRACE);
+                    this.writeString(failure.getStackTrace());
+                } else {
+                    this.writeInt(STRUCTURED_STACK_TRACE);
+                    this.writeStackTrace(stackTrace);
+                }
+            }
+        }
+
+        private void writeStackTrace(StackTrace stackTrace) throws IOException {
+            this.writeString(stackTrace.getDescription());
+            final List<String> frames = stackTrace.getFrames();
+            this.writeInt(frames.size());
+            for (String frame : frames) {
+                this.writeString(frame);
+            }
+            this.writeInt(stackTrace.getNumberOfOmittedFrames());
+            this.writeInt(stackTrace.getNumberOfFramesInCommon());
+            if (stackTrace.getCause() == null) {
+                this.writeInt(0);
+            } else {
+                this.writeInt(1);
+                this.writeStackTrace(stackTrace.getCause());
+            }
+        }
+
+        private void writeCoverage(Coverage coverage) throws IOException {
+            this.writeInt(coverage.getInstructionsCovered());
+            this.writeInt(coverage.getInstructionsTotal());
+            this.writeString(coverage.getExecutionPath());
+        }
+
+        private void writeCoveragePerTestMethod(CoveragePerTestMethodImpl coveragePerTestMethod) throws IOException {
+            this.writeString(coveragePerTestMethod.getClassesDirectory());
+            final Map<String, Coverage> coverageResultsMap = coveragePerTestMethod.getCoverageResultsMap();
+            this.writeInt(coverageResultsMap.size());
+            for (Map.Entry<String, Coverage> coverageOfTestMethod : coverageResultsMap.entrySet()) {
+                this.writeString(coverageOfTestMethod.getKey());
+                this.writeCoverage(coverageOfTestMethod.getValue());
+            }
+        }
+
+        private void writeTests(List<String> testMethodNames, List<String> testClassNames) throws IOException {
+            this.writeInt(testMethodNames.size());
+            for (int i = 0; i < testMethodNames.size(); i++) {
+                this.writeString(testMethodNames.get(i));
+                this.writeString(testClassNames.get(i));
+            }
+        }
+
+        private void writeString(String string) throws IOException {
+            if (string == null) {
+                this.writeInt(NULL_STRING);
+                return;
+            }
+            final Integer index = this.indexOfStrings.get(string);
+            if (index != null) {
+                this.writeInt(NEW_STRING + 1 + index);
+                return;
+            }
+            this.indexOfStrings.put(string, this.indexOfStrings.size());
+            final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            this.writeInt(NEW_STRING);
+            this.writeInt(bytes.length);
+            this.output.write(bytes);
+        }
+
+        private void writeInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                this.output.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            this.output.writeByte(value);
+        }
+
+        private void writeLong(long value) throws IOException {
+            while ((value & ~0x7FL) != 0L) {
+                this.output.writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            this.output.writeByte((int) value);
+        }
+    }
+
+    private static class Reader {
+
+        private final DataInputStream input;
+
+        private final List<String> strings = new ArrayList<>();
+
+        private Reader(InputStream inputStream) {
+            this.input = new DataInputStream(inputStream);
+        }
+
+        private TestResultImpl readTestResult() throws IOException {
+            final TestResultImpl testResult = new TestResultImpl();
+            this.readTests(testResult::addRunningTest);
+            this.readFailures(testResult.getFailingTests());
+            this.readFailures(testResult.getAssumptionFailingTests());
+            this.readTests(testResult::addIgnoredTest);
+            final int numberOfOutputs = this.readInt();
+            for (int i = 0; i < numberOfOutputs; i++) {
+                testResult.putOutputOf(this.readString(), this.readString());
+            }
+            // the timings of the test classes, then the timings of the test methods
+            for (int kind = 0; kind < 2; kind++) {
+                final int numberOfTimings = this.readInt();
+                for (int i = 0; i < numberOfTimings; i++) {
+                    testResult.putTiming(this.readTiming());
+                }
+            }
+            return testResult;
+        }
+
+        private TestTiming readTiming() throws IOException {
+            final String testClassName = this.readString();
+            final String testMethodName = this.readString();
+            final long startTime = this.input.readLong();
+            final long endTime = startTime + this.readLong();
+            if (testMethodName == null) {
+                return new TestTiming(testClassName, startTime, endTime, this.readLong(), this.readLong());
+            } else {
+                return new TestTiming(testClassName, testMethodName, startTime, endTime);
+            }
+        }
+
+        private void readFailures(List<Failure> failures) throws IOException {
+            final int numberOfFailures = this.readInt();
+            for (int i = 0; i < numberOfFailures; i++) {
+                final String testCaseName = this.readString();
+                final String testClassName = this.readString();
+                final String fullQualifiedNameOfException = this.readString();
+                final String messageOfFailure = this.readString();
+                if (this.readInt() == TEXT_STACK_TRACE) {
+                    failures.add(new Failure(testCaseName, testClassName, fullQualifiedNameOfException, messageOfFailure, this.readString()));
+                } else {
+                    failures.add(new Failure(testCaseName, testClassName, fullQualifiedNameOfException, messageOfFailure, null, this.readStackTrace()));
+                }
+            }
+        }
+
+        private StackTrace readStackTrace() throws IOException {
+            final String description = this.readString();
+            final String[] frames = new String[this.readInt()];
+            for (int i = 0; i < frames.length; i++) {
+                frames[i] = this.readString();
+            }
+            final int numberOfOmittedFrames = this.readInt();
+            final int numberOfFramesInCommon = this.readInt();
+            final StackTrace cause = this.readInt() == 0 ? null : this.readStackTrace();
+            return new StackTrace(description, frames, numberOfOmittedFrames, numberOfFramesInCommon, cause);
+        }
+
+        private CoverageImpl readCoverage() throws IOException {
+            final CoverageImpl coverage = new CoverageImpl(this.readInt(), this.readInt());
+            coverage.setExecutionPath(this.readString());
+            return coverage;
+        }
+
+        private CoveragePerTestMethodImpl readCoveragePerTestMethod() throws IOException {
+            final String classesDirectory = this.readString();
+            final int numberOfTestMethods = this.readInt();
+            final Map<String, Coverage> coverageResultsMap = new LinkedHashMap<>();
+            for (int i = 0; i < numberOfTestMethods; i++) {
+                coverageResultsMap.put(this.readString(), this.readCoverage());
+            }
+            return new CoveragePerTestMethodImpl(classesDirectory, coverageResultsMap);
+        }
+
+        private void readTests(BiConsumer<String, String> addTest) throws IOException {
+            final int numberOfTests = this.readInt();
+            for (int i = 0; i < numberOfTests; i++) {
+                final String testMethodName = this.readString();
+                addTest.accept(this.readString(), testMethodName);
+            }
+        }
+
+        private String readString() throws IOException {
+            final int index = this.readInt();
+            if (index == NULL_STRING) {
+                return null;
+            }
+            if (index > NEW_STRING) {
+                return this.strings.get(index - NEW_STRING - 1);
+            }
+            final byte[] bytes = new byte[this.readInt()];
+            this.input.readFully(bytes);
+            final String string = new String(bytes, StandardCharsets.UTF_8);
+            this.strings.add(string);
+            return string;
+        }
+
+        private int readInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+                final int current = this.input.readUnsignedByte();
+                value |= (current & 0x7F) << shift;
+                if ((current & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed variable-length integer");
+        }
+
+        private long readLong() throws IOException {
+            long value = 0L;
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                final int current = this.input.readUnsignedByte();
+                value |= (long) (current & 0x7F) << shift;
+                if ((current & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed variable-length integer");
+        }
+    }
+
+}
@@ -3,6 +3,8 @@ package eu.stamp_project.testrunner.listener.impl;
 import eu.stamp_project.testrunner.listener.Coverage;
 import eu.stamp_project.testrunner.listener.TestResult;
 import eu.stamp_project.testrunner.runner.Loader;
+import eu.stamp_project.testrunner.runner.coverage.CoverageFilter;
+import eu.stamp_project.testrunner.runner.coverage.CoverageModel;
 import org.jacoco.core.analysis.*;
 import org.jacoco.core.data.ExecutionDataStore;
 
@@ -83,29 +85,39 @@ public class CoverageImpl implements Coverage, Serializable {
 
     @Override
     public void collectData(ExecutionDataStore executionData, String classesDirectory) {
-        final CoverageBuilder coverageBuilder = new CoverageBuilder();
-        final Analyzer analyzer = new Analyzer(executionData, coverageBuilder);
+        this.collectData(executionData, classesDirectory, CoverageFilter.getConfigured());
+    }
+
+    /**
+     * @param coverageFilter the classes to analyze
+     * @see Coverage#collectData(ExecutionDataStore, String)
+     */
+    public void collectData(ExecutionDataStore executionData, String classesDirectory, CoverageFilter coverageFilter) {
         try {
-            analyzer.analyzeAll(new File(classesDirectory));
+            this.collectData(executionData, CoverageModel.build(classesDirectory, coverageFilter));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+    }
+
+    /**
+     * Compute the coverage of the given execution data from the given model, without reading the classes again.
+     */
+    public void collectData(ExecutionDataStore executionData, CoverageModel coverageModel) {
         final int[] counter = new int[2];
         final StringBuilder builderExecutionPath = new StringBuilder();
-        coverageBuilder.getClasses().forEach(coverage -> {
-            final List<Integer> listOfCountForCounterFunction =
-                    CoverageImpl.getListOfCountForCounterFunction(coverage, ICounter::getCoveredCount);
+        coverageModel.coverageOf(executionData).forEach(coverage -> {
             builderExecutionPath.append(coverage.getName())
                     .append(":")
-                    .append(listOfCountForCounterFunction
+                    .append(coverage.getCoveredCounts()
                             .stream()
                             .map(Objects::toString)
                             .collect(Collectors.joining(","))
                     ).append(";");
-            counter[0] += listOfCountForCounterFunction.stream()
+            counter[0] += coverage.getCoveredCounts().stream()
                     .mapToInt(Integer::intValue)
                     .sum();
-            counter[1] += CoverageImpl.getListOfCountForCounterFunction(coverage, ICounter::getTotalCount)
+            counter[1] += coverage.getTotalCounts()
                     .stream()
                     .mapToInt(Integer::intValue)
                     .sum();
@@ -122,24 +134,12 @@ public class CoverageImpl implements Coverage, Serializable {
 
     @Override
     public void save() {
-        File outputDir = new File(TestResult.OUTPUT_DIR);
-        if (!outputDir.exists()) {
-            if (!outputDir.mkdirs()) {
-                System.err.println("Error while creating output dir");
-            }
-        }
-        File f = new File(outputDir, SERIALIZE_NAME + EXTENSION);
-        try (FileOutputStream fout = new FileOutputStream(f)) {
-            try (ObjectOutputStream oos = new ObjectOutputStream(fout)) {
-                oos.writeObject(this);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        } catch (Exception e) {
-            System.err.println("Error while writing serialized file.");
-            throw new RuntimeException(e);
-        }
-        System.out.println("File saved to the following path: " + f.getAbsolutePath());
+        this.save(TestResult.OUTPUT_DIR);
+    }
+
+    @Override
+    public void save(String outputDirectory) {
+        BinaryResultFormat.save(this, new File(outputDirectory, SERIALIZE_NAME + EXTENSION));
     }
 
     /**
@@ -151,4 +151,14 @@ public class CoverageImpl implements Coverage, Serializable {
         return new Loader<Coverage>().load(SERIALIZE_NAME);
     }
 
+    /**
+     * Load from serialized object
+     *
+     * @param outputDirectory the path to the directory that contains the serialized file
+     * @return an Instance of JUnit4Coverage loaded from a serialized file.
+     */
+    public static Coverage load(String outputDirectory) {
+        return new Loader<Coverage>().load(outputDirectory, SERIALIZE_NAME);
+    }
+
 }
@@ -4,14 +4,15 @@ import eu.stamp_project.testrunner.listener.Coverage;
 import eu.stamp_project.testrunner.listener.CoveragePerTestMethod;
 import eu.stamp_project.testrunner.listener.TestResult;
 import eu.stamp_project.testrunner.runner.Loader;
+import eu.stamp_project.testrunner.runner.coverage.CoverageFilter;
+import eu.stamp_project.testrunner.runner.coverage.CoverageModel;
 import eu.stamp_project.testrunner.utils.ConstantsHelper;
 import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.data.SessionInfoStore;
 import org.jacoco.core.runtime.RuntimeData;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.ObjectOutputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -35,6 +36,10 @@ public class CoveragePerTestMethodImpl implements CoveragePerTestMethod {
 
     protected transient SessionInfoStore sessionInfos;
 
+    protected transient ProbeFileWriter probeFileWriter;
+
+    protected transient CoverageModel coverageModel;
+
     public CoveragePerTestMethodImpl() {
         coverageResultsMap = null;
         classesDirectory = null;
@@ -46,6 +51,14 @@ public class CoveragePerTestMethodImpl implements CoveragePerTestMethod {
         this.coverageResultsMap = new HashMap<>();
     }
 
+    /*
+        Used to load a saved instance, see BinaryResultFormat.
+     */
+    CoveragePerTestMethodImpl(String classesDirectory, Map<String, Coverage> coverageResultsMap) {
+        this.classesDirectory = classesDirectory;
+        this.coverageResultsMap = coverageResultsMap;
+    }
+
     public String getClassesDirectory() {
         return classesDirectory;
     }
@@ -74,6 +87,42 @@ public class CoveragePerTestMethodImpl implements CoveragePerTestMethod {
         this.sessionInfos = sessionInfos;
     }
 
+    /**
+     * @return the model of the classes of the classes directory, built on the first call, and then shared by the coverage of all the test methods
+     */
+    public synchronized CoverageModel getCoverageModel() {
+        if (this.coverageModel == null) {
+            try {
+                this.coverageModel = CoverageModel.build(this.classesDirectory, CoverageFilter.getConfigured());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return coverageModel;
+    }
+
+    public ProbeFileWriter getProbeFileWriter() {
+        return probeFileWriter;
+    }
+
+    /**
+     * If the given writer is not null, the raw probes of each test method are written with it, instead of computing their coverage.
+     */
+    public void setProbeFileWriter(ProbeFileWriter probeFileWriter) {
+        this.probeFileWriter = probeFileWriter;
+    }
+
+    /**
+     * Write the probes of the given test method, see {@link CoveragePerTestMethodImpl#setProbeFileWriter(ProbeFileWriter)}.
+     */
+    public void writeProbes(String testMethodName) {
+        try {
+            this.probeFileWriter.write(testMethodName, this.executionData);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public Map<String, Coverage> getCoverageResultsMap() {
         return coverageResultsMap;
@@ -86,24 +135,23 @@ public class CoveragePerTestMethodImpl implements CoveragePerTestMethod {
 
     @Override
     public void save() {
-        File outputDir = new File(TestResult.OUTPUT_DIR);
-        if (!outputDir.exists()) {
-            if (!outputDir.mkdirs()) {
-                System.err.println("Error while creating output dir");
-            }
-        }
-        File f = new File(outputDir, SERIALIZE_NAME + EXTENSION);
-        try (FileOutputStream fout = new FileOutputStream(f)) {
-            try (ObjectOutputStream oos = new ObjectOutputStream(fout)) {
-                oos.writeObject(this);
-            } catch (Exception e) {
+        this.save(TestResult.OUTPUT_DIR);
+    }
+
+    /**
+     * Save the coverage per test method in the given directory. If the probes are written in a probe file, the probe file is closed instead.
+     */
+    @Override
+    public void save(String outputDirectory) {
+        if (this.probeFileWriter != null) {
+            try {
+                this.probeFileWriter.close();
+            } catch (IOException e) {
                 throw new RuntimeException(e);
             }
-        } catch (Exception e) {
-            System.err.println("Error while writing serialized file.");
-            throw new RuntimeException(e);
+            return;
         }
-        System.out.println("File saved to the following path: " + f.getAbsolutePath());
+        BinaryResultFormat.save(this, new File(outputDirectory, SERIALIZE_NAME + EXTENSION));
     }
 
     /**
@@ -115,6 +163,16 @@ public class CoveragePerTestMethodImpl implements CoveragePerTestMethod {
         return new Loader<CoveragePerTestMethodImpl>().load(SERIALIZE_NAME);
     }
 
+    /**
+     * Load from serialized object
+     *
+     * @param outputDirectory the path to the directory that contains the serialized file
+     * @return an Instance of CoveragePerTestMethod loaded from a serialized file.
+     */
+    public static CoveragePerTestMethodImpl load(String outputDirectory) {
+        return new Loader<CoveragePerTestMethodImpl>().load(outputDirectory, SERIALIZE_NAME);
+    }
+
     @Override
     public String toString() {
         return this.coverageResultsMap.keySet()
@@ -0,0 +1,231 @@
+package eu.stamp_project.testrunner.listener.impl;
+
+import eu.stamp_project.testrunner.listener.Coverage;
+import eu.stamp_project.testrunner.listener.CoveragePerTestMethod;
+import eu.stamp_project.testrunner.listener.TestResult;
+import eu.stamp_project.testrunner.runner.coverage.CoverageFilter;
+import eu.stamp_project.testrunner.runner.coverage.CoverageModel;
+import eu.stamp_project.testrunner.utils.ConstantsHelper;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * This class is the coverage per test method read from the raw probes written by {@link ProbeFileWriter}.
+ * The file is mapped in memory, and only indexed when it is loaded: the coverage of a test method is computed
+ * the first time it is requested, using the given classes directory, and then kept.
+ * The classes are analyzed once, for all the test methods, see {@link CoverageModel}.
+ * <p>
+ * As for {@link eu.stamp_project.testrunner.listener.junit4.CoveragePerJUnit4TestMethod}, the inputs of a parametrized test method,
+ * <i>e.g.</i> test[0] and test[1], are also aggregated under the name of the test method, <i>e.g.</i> test.
+ * Here, the aggregated coverage is computed from the union of the probes of the inputs.
+ * </p>
+ */
+public class MappedCoveragePerTestMethod implements CoveragePerTestMethod {
+
+    private static final long serialVersionUID = -6094617406437926021L;
+
+    private static final Pattern PARAMETRIZED_TEST_METHOD_NAME = Pattern.compile(".+\\[\\d+\\]");
+
+    private final String classesDirectory;
+
+    private final transient CoverageFilter coverageFilter;
+
+    private final transient ByteBuffer probes;
+
+    private final transient Map<String, List<Integer>> offsetsPerTestMethodName;
+
+    private final transient Map<String, Coverage> coveragePerTestMethodName;
+
+    private transient CoverageModel coverageModel;
+
+    private MappedCoveragePerTestMethod(String classesDirectory, CoverageFilter coverageFilter, ByteBuffer probes) {
+        this.classesDirectory = classesDirectory;
+        this.coverageFilter = coverageFilter;
+        this.probes = probes;
+        this.offsetsPerTestMethodName = new LinkedHashMap<>();
+        this.coveragePerTestMethodName = new HashMap<>();
+        this.index();
+    }
+
+    /**
+     * Map the given file, and delete it. Once mapped, the probes remain readable on the platforms that allow to delete a mapped file.
+     *
+     * @param probeFile        the file written by {@link ProbeFileWriter}
+     * @param classesDirectory the path to the directory that contains the .class file of sources
+     * @return the coverage per test method, computed lazily from the probes of the given file
+     */
+    public static MappedCoveragePerTestMethod load(File probeFile, String classesDirectory) {
+        return load(probeFile, classesDirectory, CoverageFilter.ALL);
+    }
+
+    /**
+     * @param coverageFilter the classes to analyze
+     * @see MappedCoveragePerTestMethod#load(File, String)
+     */
+    public static MappedCoveragePerTestMethod load(File probeFile, String classesDirectory, CoverageFilter coverageFilter) {
+        final ByteBuffer probes;
+        try (RandomAccessFile file = new RandomAccessFile(probeFile, "r")) {
+            probes = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0L, file.length());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (!probeFile.delete()) {
+            probeFile.deleteOnExit();
+        }
+        return new MappedCoveragePerTestMethod(classesDirectory, coverageFilter, probes);
+    }
+
+    public String getClassesDirectory() {
+        return classesDirectory;
+    }
+
+    /**
+     * @return the names of the test methods, without computing their coverage
+     */
+    public List<String> getTestMethodNames() {
+        return new ArrayList<>(this.offsetsPerTestMethodName.keySet());
+    }
+
+    /**
+     * Compute the coverage of every test method.
+     */
+    @Override
+    public Map<String, Coverage> getCoverageResultsMap() {
+        final Map<String, Coverage> coverageResultsMap = new LinkedHashMap<>();
+        this.offsetsPerTestMethodName.keySet().forEach(testMethodName -> coverageResultsMap.put(testMethodName, this.getCoverageOf(testMethodName)));
+        return Collections.unmodifiableMap(coverageResultsMap);
+    }
+
+    @Override
+    public synchronized Coverage getCoverageOf(String testMethodName) {
+        final List<Integer> offsets = this.offsetsPerTestMethodName.get(testMethodName);
+        if (offsets == null) {
+            return null;
+        }
+        return this.coveragePerTestMethodName.computeIfAbsent(testMethodName, name -> {
+            final ExecutionDataStore executionData = new ExecutionDataStore();
+            offsets.forEach(offset -> this.readExecutionData(offset, executionData));
+            final CoverageImpl coverage = new CoverageImpl();
+            coverage.collectData(executionData, this.getCoverageModel());
+            return coverage;
+        });
+    }
+
+    @Override
+    public void save() {
+        this.save(TestResult.OUTPUT_DIR);
+    }
+
+    /**
+     * Compute the coverage of every test method, and save it as a {@link CoveragePerTestMethodImpl}.
+     */
+    @Override
+    public void save(String outputDirectory) {
+        new CoveragePerTestMethodImpl(this.classesDirectory, this.getCoverageResultsMap()).save(outputDirectory);
+    }
+
+    /*
+        The mapped probes cannot be serialized, the computed coverage is serialized instead.
+     */
+    private Object writeReplace() throws ObjectStreamException {
+        return new CoveragePerTestMethodImpl(this.classesDirectory, new LinkedHashMap<>(this.getCoverageResultsMap()));
+    }
+
+    /*
+        The classes are read and analyzed once, for the coverage of the first test method, see CoverageModel.
+     */
+    private CoverageModel getCoverageModel() {
+        if (this.coverageModel == null) {
+            try {
+                this.coverageModel = CoverageModel.build(this.classesDirectory, this.coverageFilter);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return this.coverageModel;
+    }
+
+    private void index() {
+        final ByteBuffer buffer = this.probes.duplicate();
+        if (buffer.remaining() < ProbeFileWriter.HEADER_SIZE || buffer.getInt() != ProbeFileWriter.MAGIC) {
+            throw new IllegalStateException("The given file does not contain probes.");
+        }
+        final int version = buffer.getInt();
+        if (version > ProbeFileWriter.VERSION) {
+            throw new IllegalStateException("Unsupported version of the probe file: " + version + ", expected at most " + ProbeFileWriter.VERSION);
+        }
+        final long end = buffer.getLong();
+        if (end < ProbeFileWriter.HEADER_SIZE) {
+            throw new IllegalStateException("The probe file is incomplete, the runner process did not close it.");
+        }
+        while (buffer.position() < end) {
+            final int offset = buffer.position();
+            final String testMethodName = readString(buffer);
+            this.offsetsPerTestMethodName.computeIfAbsent(testMethodName, name -> new ArrayList<>()).add(offset);
+            if (PARAMETRIZED_TEST_METHOD_NAME.matcher(testMethodName).matches()) {
+                this.offsetsPerTestMethodName.computeIfAbsent(testMethodName.split("\\[")[0], name -> new ArrayList<>()).add(offset);
+            }
+            final int numberOfClasses = buffer.getInt();
+            for (int i = 0; i < numberOfClasses; i++) {
+                buffer.getLong();
+                skipString(buffer);
+                final int numberOfProbes = buffer.getInt();
+                buffer.position(buffer.position() + (numberOfProbes + 7) / 8);
+            }
+        }
+    }
+
+    private void readExecutionData(int offset, ExecutionDataStore executionData) {
+        final ByteBuffer buffer = this.probes.duplicate();
+        buffer.position(offset);
+        skipString(buffer);
+        final int numberOfClasses = buffer.getInt();
+        for (int i = 0; i < numberOfClasses; i++) {
+            final long id = buffer.getLong();
+            final String className = readString(buffer);
+            final boolean[] probes = new boolean[buffer.getInt()];
+            final int bitsStart = buffer.position();
+            for (int probe = 0; probe < probes.length; probe++) {
+                probes[probe] = (buffer.get(bitsStart + probe / 8) & (1 << (probe % 8))) != 0;
+            }
+            buffer.position(bitsStart + (probes.length + 7) / 8);
+            // the probes of the same class are merged, e.g. for the inputs of a parametrized test method
+            executionData.put(new ExecutionData(id, className, probes));
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void skipString(ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        buffer.position(buffer.position() + length);
+    }
+
+    @Override
+    public String toString() {
+        return this.offsetsPerTestMethodName.keySet()
+                .stream()
+                .map(test -> "\t" + test + ": " + this.getCoverageOf(test).toString())
+                .collect(Collectors.joining(ConstantsHelper.LINE_SEPARATOR));
+    }
+}
@@ -0,0 +1,113 @@
+package eu.stamp_project.testrunner.listener.impl;
+
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This class writes the raw probes of each test method, as recorded by jacoco, into a memory-mapped file,
+ * instead of computing the coverage of each test method in the runner process.
+ * The parent process maps the same file and computes the coverage of a test method only when it is requested, see {@link MappedCoveragePerTestMethod}.
+ * <p>
+ * The file starts with {@link ProbeFileWriter#MAGIC}, the version of the format, and the offset of the end of the data, written on {@link ProbeFileWriter#close()}.
+ * Then, for each test method: its name, the number of classes, and for each class its id, its name, the number of its probes and the probes, one bit per probe.
+ * The strings are prefixed by their length in bytes.
+ * </p>
+ */
+public class ProbeFileWriter implements Closeable {
+
+    public static final int MAGIC = 0x54525042;
+
+    public static final int VERSION = 1;
+
+    static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    static final int END_OFFSET_POSITION = Integer.BYTES + Integer.BYTES;
+
+    private static final int REGION_SIZE = 1024 * 1024;
+
+    private final RandomAccessFile file;
+
+    private final FileChannel channel;
+
+    private MappedByteBuffer region;
+
+    private long regionStart;
+
+    public ProbeFileWriter(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "rw");
+        this.channel = this.file.getChannel();
+        this.regionStart = 0L;
+        this.region = this.channel.map(FileChannel.MapMode.READ_WRITE, 0L, REGION_SIZE);
+        this.region.putInt(MAGIC);
+        this.region.putInt(VERSION);
+        this.region.putLong(0L);
+    }
+
+    /**
+     * Write the probes of the given test method.
+     *
+     * @param testMethodName the name of the test method
+     * @param executionData  the probes recorded during the execution of the test method
+     */
+    public synchronized void write(String testMethodName, ExecutionDataStore executionData) throws IOException {
+        this.putString(testMethodName);
+        this.ensureRemaining(Integer.BYTES);
+        this.region.putInt(executionData.getContents().size());
+        for (ExecutionData classData : executionData.getContents()) {
+            final boolean[] probes = classData.getProbes();
+            this.ensureRemaining(Long.BYTES);
+            this.region.putLong(classData.getId());
+            this.putString(classData.getName());
+            final byte[] bits = new byte[(probes.length + 7) / 8];
+            for (int i = 0; i < probes.length; i++) {
+                if (probes[i]) {
+                    bits[i / 8] |= 1 << (i % 8);
+                }
+            }
+            this.ensureRemaining(Integer.BYTES + bits.length);
+            this.region.putInt(probes.length);
+            this.region.put(bits);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        final long end = this.regionStart + this.region.position();
+        this.channel.map(FileChannel.MapMode.READ_WRITE, 0L, HEADER_SIZE).putLong(END_OFFSET_POSITION, end);
+        this.region.force();
+        this.region = null;
+        try {
+            this.channel.truncate(end);
+        } catch (IOException ignored) {
+            // some platforms do not truncate a mapped file, the readers stop at the end offset anyway
+        }
+        this.file.close();
+    }
+
+    private void putString(String string) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        this.ensureRemaining(Integer.BYTES + bytes.length);
+        this.region.putInt(bytes.length);
+        this.region.put(bytes);
+    }
+
+    /*
+        The file is mapped region by region, the next region starting where the data stops.
+     */
+    private void ensureRemaining(int size) throws IOException {
+        if (this.region.remaining() >= size) {
+            return;
+        }
+        this.region.force();
+        this.regionStart += this.region.position();
+        this.region = this.channel.map(FileChannel.MapMode.READ_WRITE, this.regionStart, Math.max(REGION_SIZE, size));
+    }
+}
@@ -0,0 +1,110 @@
+package eu.stamp_project.testrunner.listener.impl;
+
+import eu.stamp_project.testrunner.utils.BoundedOutputBuffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * This class captures the standard output and the standard error of each test method, inside the runner process.
+ * Once installed, see {@link TestOutputCapture#install(int)}, everything printed between {@link TestOutputCapture#start()}
+ * and {@link TestOutputCapture#stop()} is kept, up to the given size, while still being printed on the original streams.
+ * The listeners, <i>e.g.</i> {@link eu.stamp_project.testrunner.listener.junit4.JUnit4TestResult}, start and stop the capture around each test method.
+ * If the capture is not installed, every method does nothing.
+ */
+public class TestOutputCapture {
+
+    public static final int DEFAULT_MAX_SIZE_PER_TEST = 64 * 1024;
+
+    private static PrintStream originalOut;
+
+    private static PrintStream originalErr;
+
+    private static BoundedOutputBuffer buffer;
+
+    private static boolean capturing;
+
+    public static synchronized void install(int maxSizePerTest) {
+        if (buffer != null) {
+            return;
+        }
+        buffer = new BoundedOutputBuffer(maxSizePerTest);
+        originalOut = System.out;
+        originalErr = System.err;
+        System.setOut(new PrintStream(new TeeOutputStream(originalOut), true));
+        System.setErr(new PrintStream(new TeeOutputStream(originalErr), true));
+    }
+
+    public static synchronized void uninstall() {
+        if (buffer == null) {
+            return;
+        }
+        System.out.flush();
+        System.err.flush();
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+        buffer = null;
+        capturing = false;
+    }
+
+    public static synchronized void start() {
+        if (buffer != null) {
+            buffer.reset();
+            capturing = true;
+        }
+    }
+
+    /**
+     * @return the output captured since the last call to {@link TestOutputCapture#start()}, or null if the capture is not installed
+     */
+    public static String stop() {
+        final PrintStream out = System.out;
+        final PrintStream err = System.err;
+        // flush outside of the lock, since it writes in the buffer
+        out.flush();
+        err.flush();
+        synchronized (TestOutputCapture.class) {
+            if (buffer == null) {
+                return null;
+            }
+            capturing = false;
+            return buffer.toString();
+        }
+    }
+
+    private static class TeeOutputStream extends OutputStream {
+
+        private final OutputStream original;
+
+        private TeeOutputStream(OutputStream original) {
+            this.original = original;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.original.write(b);
+            synchronized (TestOutputCapture.class) {
+                if (capturing) {
+                    buffer.write(b);
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            this.original.write(bytes, offset, length);
+            synchronized (TestOutputCapture.class) {
+                if (capturing) {
+                    buffer.write(bytes, offset, length);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.original.flush();
+        }
+    }
+
+}
@@ -1,36 +1,86 @@
 package eu.stamp_project.testrunner.listener.impl;
 
 import eu.stamp_project.testrunner.listener.TestResult;
+import eu.stamp_project.testrunner.listener.TestStatus;
+import eu.stamp_project.testrunner.listener.TestTiming;
 import eu.stamp_project.testrunner.runner.Failure;
 import eu.stamp_project.testrunner.runner.Loader;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.ObjectOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.RandomAccess;
 
 /**
  * created by Benjamin DANGLOT
  * benjamin.danglot@inria.fr
  * on 13/11/18
+ * <p>
+ * The lists of this result are indexed while they are filled: each test method has an entry that holds its status,
+ * and the number of passing tests is updated on each change. Thus, {@link TestResultImpl#getStatusOf(String)},
+ * {@link TestResultImpl#getFailureOf(String)} and {@link TestResultImpl#getNumberOfTests(TestStatus)} do not iterate over the lists.
+ * The names of the test methods and of the test classes are stored once, and shared by the lists.
+ * </p>
+ * <p>
+ * The returned lists remain modifiable, and keep the indexes up to date.
+ * </p>
+ * <p>
+ * The listeners also time the test methods and the test classes, see {@link TestResultImpl#startTimingOf(String, String)}
+ * and {@link TestResultImpl#startTimingOfTestClass(String)}. Only the last run of each test method, and of each test class, is kept.
+ * </p>
  */
 public class TestResultImpl implements TestResult, Serializable {
 
     private static final long serialVersionUID = 6898135595908384570L;
 
-    private List<String> runningTests;
-    private List<Failure> failingTests;
-    private List<Failure> assumptionFailingTests;
-    private List<String> ignoredTests;
+    private final TestList<String> runningTests;
+    private final TestList<Failure> failingTests;
+    private final TestList<Failure> assumptionFailingTests;
+    private final TestList<String> ignoredTests;
+    private Map<String, String> outputs;
+    private Map<String, TestTiming> timingsOfTestMethods;
+    private Map<String, TestTiming> timingsOfTestClasses;
+
+    private transient Map<String, TestEntry> entryPerTestMethodName;
+    private transient Map<String, Map<String, TestEntry>> entriesPerTestClassName;
+    private transient Map<String, String> testClassNames;
+    private transient int numberOfPassingTests;
+    private transient Map<String, Long> startTimes;
+    private transient Map<String, long[]> boundsOfTestMethodsPerTestClass;
 
     public TestResultImpl() {
-        this.runningTests = new ArrayList<>();
-        this.failingTests = new ArrayList<>();
-        this.assumptionFailingTests = new ArrayList<>();
-        this.ignoredTests = new ArrayList<>();
+        this.runningTests = new TestList<>(this, TestStatus.PASSING);
+        this.failingTests = new TestList<>(this, TestStatus.FAILING);
+        this.assumptionFailingTests = new TestList<>(this, TestStatus.ASSUMPTION_FAILING);
+        this.ignoredTests = new TestList<>(this, TestStatus.IGNORED);
+        this.outputs = new HashMap<>();
+        this.timingsOfTestMethods = new LinkedHashMap<>();
+        this.timingsOfTestClasses = new LinkedHashMap<>();
+        this.initIndexes();
+    }
+
+    /**
+     * Record a test method that has been run, with its test class, see {@link TestResultImpl#getStatusOf(String, String)}.
+     */
+    public void addRunningTest(String testClassName, String testMethodName) {
+        this.runningTests.add(this.runningTests.size(), testMethodName, testClassName);
+    }
+
+    /**
+     * Record a test method that has been ignored, with its test class, see {@link TestResultImpl#getStatusOf(String, String)}.
+     */
+    public void addIgnoredTest(String testClassName, String testMethodName) {
+        this.ignoredTests.add(this.ignoredTests.size(), testMethodName, testClassName);
     }
 
     @Override
@@ -40,16 +90,47 @@ public class TestResultImpl implements TestResult, Serializable {
 
     @Override
     public List<String> getPassingTests() {
-        final List<String> failing = this.failingTests.stream()
-                .map(failure -> failure.testCaseName)
-                .collect(Collectors.toList());
-        final List<String> assumptionFailing = this.assumptionFailingTests.stream()
-                .map(failure -> failure.testCaseName)
-                .collect(Collectors.toList());
-        return this.runningTests.stream()
-                .filter(description -> !assumptionFailing.contains(description))
-                .filter(description -> !failing.contains(description))
-                .collect(Collectors.toList());
+        final List<String> passingTests = new ArrayList<>(this.numberOfPassingTests);
+        for (String runningTest : this.runningTests) {
+            if (this.entryPerTestMethodName.get(runningTest).getStatus() == TestStatus.PASSING) {
+                passingTests.add(runningTest);
+            }
+        }
+        return passingTests;
+    }
+
+    @Override
+    public TestStatus getStatusOf(String testMethodName) {
+        final TestEntry entry = this.entryPerTestMethodName.get(testMethodName);
+        return entry == null ? null : entry.getStatus();
+    }
+
+    /**
+     * Only the test methods recorded with their test class are found, <i>i.e.</i> the failures,
+     * and the test methods added with {@link TestResultImpl#addRunningTest(String, String)} or {@link TestResultImpl#addIgnoredTest(String, String)}.
+     */
+    @Override
+    public TestStatus getStatusOf(String testClassName, String testMethodName) {
+        final Map<String, TestEntry> entryPerTestMethodName = this.entriesPerTestClassName.get(testClassName);
+        if (entryPerTestMethodName == null) {
+            return null;
+        }
+        final TestEntry entry = entryPerTestMethodName.get(testMethodName);
+        return entry == null ? null : entry.getStatus();
+    }
+
+    @Override
+    public int getNumberOfTests(TestStatus status) {
+        switch (status) {
+            case PASSING:
+                return this.numberOfPassingTests;
+            case FAILING:
+                return this.failingTests.size();
+            case ASSUMPTION_FAILING:
+                return this.assumptionFailingTests.size();
+            default:
+                return this.ignoredTests.size();
+        }
     }
 
     @Override
@@ -60,6 +141,9 @@ public class TestResultImpl implements TestResult, Serializable {
             this.failingTests.addAll(thatListener.failingTests);
             this.assumptionFailingTests.addAll(thatListener.assumptionFailingTests);
             this.ignoredTests.addAll(thatListener.ignoredTests);
+            this.outputs.putAll(thatListener.outputs);
+            thatListener.timingsOfTestMethods.forEach(this::putTiming);
+            thatListener.timingsOfTestClasses.forEach(this::putTimingOfTestClass);
         }
         return this;
     }
@@ -81,38 +165,163 @@ public class TestResultImpl implements TestResult, Serializable {
 
     @Override
     public Failure getFailureOf(String testMethodName) {
-        return this.getFailingTests().stream()
-                .filter(failure -> failure.testCaseName.equals(testMethodName))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException(String.format("Could not find %s in failing test", testMethodName)));
+        final TestEntry entry = this.entryPerTestMethodName.get(testMethodName);
+        if (entry == null || entry.failures == null || entry.failures.isEmpty()) {
+            throw new IllegalArgumentException(String.format("Could not find %s in failing test", testMethodName));
+        }
+        return entry.failures.get(0);
     }
 
     @Override
-    public void save() {
-        File outputDir = new File(OUTPUT_DIR);
-        if (!outputDir.exists()) {
-            if (!outputDir.mkdirs()) {
-                System.err.println("Error while creating output dir");
-            }
+    public String getOutputOf(String testMethodName) {
+        return this.outputs.getOrDefault(testMethodName, "");
+    }
+
+    /**
+     * Record the output of the given test method, see {@link TestOutputCapture}.
+     */
+    public void putOutputOf(String testMethodName, String output) {
+        if (output != null && !output.isEmpty()) {
+            final TestEntry entry = this.entryPerTestMethodName.get(testMethodName);
+            this.outputs.put(entry == null ? testMethodName : entry.testMethodName, output);
         }
-        File f = new File(outputDir, SERIALIZE_NAME + EXTENSION);
-        try (FileOutputStream fout = new FileOutputStream(f)) {
-            try (ObjectOutputStream oos = new ObjectOutputStream(fout)) {
-                oos.writeObject(this);
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        } catch (Exception e) {
-            System.err.println("Error while writing serialized file.");
-            throw new RuntimeException(e);
+    }
+
+    Map<String, String> getOutputs() {
+        return this.outputs;
+    }
+
+    /**
+     * Start the timing of the given test method. It should be called right before the execution of the test method.
+     */
+    public void startTimingOf(String testClassName, String testMethodName) {
+        this.startTimes.put(keyOf(testClassName, testMethodName), TestTiming.now());
+    }
+
+    /**
+     * Stop the timing of the given test method, started by {@link TestResultImpl#startTimingOf(String, String)}.
+     * It should be called right after the execution of the test method.
+     */
+    public void stopTimingOf(String testClassName, String testMethodName) {
+        final long endTime = TestTiming.now();
+        final Long startTime = this.startTimes.remove(keyOf(testClassName, testMethodName));
+        if (startTime == null) {
+            return;
+        }
+        this.putTiming(keyOf(testClassName, testMethodName), new TestTiming(testClassName, testMethodName, startTime, endTime));
+        final long[] boundsOfTestMethods = this.boundsOfTestMethodsPerTestClass.get(testClassName);
+        if (boundsOfTestMethods != null) {
+            boundsOfTestMethods[0] = Math.min(boundsOfTestMethods[0], startTime);
+            boundsOfTestMethods[1] = Math.max(boundsOfTestMethods[1], endTime);
         }
-        System.out.println("File saved to the following path: " + f.getAbsolutePath());
+    }
+
+    /**
+     * Start the timing of the given test class. It should be called before its class-level setup, <i>e.g.</i> its {@code @BeforeClass} methods.
+     */
+    public void startTimingOfTestClass(String testClassName) {
+        this.startTimes.put(testClassName, TestTiming.now());
+        this.boundsOfTestMethodsPerTestClass.put(testClassName, new long[]{Long.MAX_VALUE, Long.MIN_VALUE});
+    }
+
+    /**
+     * Stop the timing of the given test class, started by {@link TestResultImpl#startTimingOfTestClass(String)}.
+     * It should be called after its class-level teardown, <i>e.g.</i> its {@code @AfterClass} methods.
+     */
+    public void stopTimingOfTestClass(String testClassName) {
+        final long endTime = TestTiming.now();
+        final Long startTime = this.startTimes.remove(testClassName);
+        final long[] boundsOfTestMethods = this.boundsOfTestMethodsPerTestClass.remove(testClassName);
+        if (startTime == null) {
+            return;
+        }
+        final boolean hasTimedTestMethods = boundsOfTestMethods[0] <= boundsOfTestMethods[1];
+        this.putTimingOfTestClass(testClassName, new TestTiming(testClassName, startTime, endTime,
+                hasTimedTestMethods ? boundsOfTestMethods[0] - startTime : 0L,
+                hasTimedTestMethods ? endTime - boundsOfTestMethods[1] : 0L
+        ));
+    }
+
+    @Override
+    public TestTiming getTimingOf(String testClassName, String testMethodName) {
+        return this.timingsOfTestMethods.get(keyOf(testClassName, testMethodName));
+    }
+
+    @Override
+    public TestTiming getTimingOfTestClass(String testClassName) {
+        return this.timingsOfTestClasses.get(testClassName);
+    }
+
+    @Override
+    public List<TestTiming> getTimingsOfTestMethods() {
+        return Collections.unmodifiableList(new ArrayList<>(this.timingsOfTestMethods.values()));
+    }
+
+    @Override
+    public List<TestTiming> getTimingsOfTestClasses() {
+        return Collections.unmodifiableList(new ArrayList<>(this.timingsOfTestClasses.values()));
+    }
+
+    /**
+     * Record the timing of a test method, or of a test class, <i>e.g.</i> read from a saved result.
+     */
+    public void putTiming(TestTiming timing) {
+        if (timing.getTestMethodName() == null) {
+            this.putTimingOfTestClass(timing.getTestClassName(), timing);
+        } else {
+            this.putTiming(keyOf(timing.getTestClassName(), timing.getTestMethodName()), timing);
+        }
+    }
+
+    /*
+        The last run is kept, and moved at the end to keep the order of the executions
+     */
+    private void putTiming(String key, TestTiming timing) {
+        this.timingsOfTestMethods.remove(key);
+        this.timingsOfTestMethods.put(key, timing);
+    }
+
+    private void putTimingOfTestClass(String testClassName, TestTiming timing) {
+        this.timingsOfTestClasses.remove(testClassName);
+        this.timingsOfTestClasses.put(testClassName, timing);
+    }
+
+    private static String keyOf(String testClassName, String testMethodName) {
+        return testClassName + "#" + testMethodName;
+    }
+
+    /**
+     * @return the test classes of the running tests, in the same order. The test class is null when it is unknown.
+     */
+    List<String> getTestClassNamesOfRunningTests() {
+        return Collections.unmodifiableList(this.runningTests.testClassNames);
+    }
+
+    /**
+     * @return the test classes of the ignored tests, in the same order. The test class is null when it is unknown.
+     */
+    List<String> getTestClassNamesOfIgnoredTests() {
+        return Collections.unmodifiableList(this.ignoredTests.testClassNames);
+    }
+
+    @Override
+    public void save() {
+        this.save(OUTPUT_DIR);
+    }
+
+    @Override
+    public void save(String outputDirectory) {
+        BinaryResultFormat.save(this, new File(outputDirectory, SERIALIZE_NAME + EXTENSION));
     }
 
     public static TestResult load() {
         return new Loader<TestResult>().load(SERIALIZE_NAME);
     }
 
+    public static TestResult load(String outputDirectory) {
+        return new Loader<TestResult>().load(outputDirectory, SERIALIZE_NAME);
+    }
+
     public String toString() {
         return "TestResultImpl{" +
                 "runningTests=" + this.getRunningTests() +
@@ -121,4 +330,246 @@ public class TestResultImpl implements TestResult, Serializable {
                 ", ignoredTests=" + this.getIgnoredTests() +
                 '}';
     }
+
+    private void initIndexes() {
+        this.entryPerTestMethodName = new HashMap<>();
+        this.entriesPerTestClassName = new HashMap<>();
+        this.testClassNames = new HashMap<>();
+        this.numberOfPassingTests = 0;
+        this.startTimes = new HashMap<>();
+        this.boundsOfTestMethodsPerTestClass = new HashMap<>();
+    }
+
+    /*
+        The indexes are not serialized, they are rebuilt from the lists.
+     */
+    private void readObject(ObjectInputStream inputStream) throws IOException, ClassNotFoundException {
+        inputStream.defaultReadObject();
+        this.initIndexes();
+        if (this.timingsOfTestMethods == null) {
+            // serialized before the timings
+            this.timingsOfTestMethods = new LinkedHashMap<>();
+            this.timingsOfTestClasses = new LinkedHashMap<>();
+        }
+        for (TestList<?> tests : Arrays.asList(this.runningTests, this.failingTests, this.assumptionFailingTests, this.ignoredTests)) {
+            tests.reindex();
+        }
+    }
+
+    private String internTestClassName(String testClassName) {
+        if (testClassName == null) {
+            return null;
+        }
+        final String internedTestClassName = this.testClassNames.putIfAbsent(testClassName, testClassName);
+        return internedTestClassName == null ? testClassName : internedTestClassName;
+    }
+
+    /**
+     * Update the entries of the given test method, when a test method is added to (delta = 1) or removed from (delta = -1) a list.
+     *
+     * @return the name of the test method stored in the entry
+     */
+    private String update(TestStatus status, String testMethodName, String testClassName, Failure failure, int delta) {
+        final TestEntry entry = this.entryPerTestMethodName.computeIfAbsent(testMethodName, TestEntry::new);
+        final boolean wasPassing = entry.canPass();
+        entry.update(status, failure, delta);
+        if (status == TestStatus.PASSING) {
+            if (entry.canPass()) {
+                this.numberOfPassingTests += delta;
+            }
+        } else if (wasPassing != entry.canPass()) {
+            this.numberOfPassingTests += wasPassing ? -entry.numberOfRuns : entry.numberOfRuns;
+        }
+        if (entry.isEmpty()) {
+            this.entryPerTestMethodName.remove(testMethodName);
+        }
+        if (testClassName != null) {
+            final Map<String, TestEntry> entryPerTestMethodName =
+                    this.entriesPerTestClassName.computeIfAbsent(testClassName, name -> new HashMap<>());
+            final TestEntry entryOfTestClass = entryPerTestMethodName.computeIfAbsent(entry.testMethodName, TestEntry::new);
+            entryOfTestClass.update(status, failure, delta);
+            if (entryOfTestClass.isEmpty()) {
+                entryPerTestMethodName.remove(entry.testMethodName);
+            }
+        }
+        return entry.testMethodName;
+    }
+
+    /**
+     * The occurrences of a test method in the lists.
+     */
+    private static class TestEntry {
+
+        private final String testMethodName;
+
+        private int numberOfRuns;
+
+        private int numberOfIgnores;
+
+        private int numberOfAssumptionFailures;
+
+        private List<Failure> failures;
+
+        private TestEntry(String testMethodName) {
+            this.testMethodName = testMethodName;
+        }
+
+        private void update(TestStatus status, Failure failure, int delta) {
+            switch (status) {
+                case PASSING:
+                    this.numberOfRuns += delta;
+                    break;
+                case FAILING:
+                    if (delta > 0) {
+                        if (this.failures == null) {
+                            this.failures = new ArrayList<>(1);
+                        }
+                        this.failures.add(failure);
+                    } else {
+                        for (int i = 0; i < this.failures.size(); i++) {
+                            if (this.failures.get(i) == failure) {
+                                this.failures.remove(i);
+                                break;
+                            }
+                        }
+                    }
+                    break;
+                case ASSUMPTION_FAILING:
+                    this.numberOfAssumptionFailures += delta;
+                    break;
+                default:
+                    this.numberOfIgnores += delta;
+            }
+        }
+
+        /**
+         * @return true if the runs of this test method are passing tests, i.e. it did not fail nor violate an assumption
+         */
+        private boolean canPass() {
+            return (this.failures == null || this.failures.isEmpty()) && this.numberOfAssumptionFailures == 0;
+        }
+
+        private boolean isEmpty() {
+            return this.canPass() && this.numberOfRuns == 0 && this.numberOfIgnores == 0;
+        }
+
+        private TestStatus getStatus() {
+            if (this.failures != null && !this.failures.isEmpty()) {
+                return TestStatus.FAILING;
+            } else if (this.numberOfAssumptionFailures > 0) {
+                return TestStatus.ASSUMPTION_FAILING;
+            } else if (this.numberOfRuns > 0) {
+                return TestStatus.PASSING;
+            } else if (this.numberOfIgnores > 0) {
+                return TestStatus.IGNORED;
+            } else {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * A list of test methods, or of failures, of a given status, that updates the entries of the {@link TestResultImpl} on each change.
+     * The test class of each element is kept along.
+     */
+    private static class TestList<E> extends AbstractList<E> implements RandomAccess, Serializable {
+
+        private static final long serialVersionUID = -2470232263461540571L;
+
+        private final TestResultImpl testResult;
+
+        private final TestStatus status;
+
+        private final ArrayList<E> elements;
+
+        private final ArrayList<String> testClassNames;
+
+        private TestList(TestResultImpl testResult, TestStatus status) {
+            this.testResult = testResult;
+            this.status = status;
+            this.elements = new ArrayList<>();
+            this.testClassNames = new ArrayList<>();
+        }
+
+        @Override
+        public E get(int index) {
+            return this.elements.get(index);
+        }
+
+        @Override
+        public int size() {
+            return this.elements.size();
+        }
+
+        @Override
+        public void add(int index, E element) {
+            this.add(index, element, null);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void add(int index, E element, String testClassName) {
+            final Failure failure = element instanceof Failure ? (Failure) element : null;
+            final String internedTestClassName = this.testResult.internTestClassName(failure == null ? testClassName : failure.testClassName);
+            final String testMethodName = this.testResult.update(this.status,
+                    failure == null ? (String) element : failure.testCaseName, internedTestClassName, failure, 1);
+            this.elements.add(index, failure == null ? (E) testMethodName : element);
+            this.testClassNames.add(index, internedTestClassName);
+            this.modCount++;
+        }
+
+        /*
+            Keep the test classes of the elements of another result, see TestResultImpl#aggregate(TestResult)
+         */
+        @Override
+        public boolean addAll(Collection<? extends E> elements) {
+            if (!(elements instanceof TestList)) {
+                return super.addAll(elements);
+            }
+            final TestList<? extends E> that = (TestList<? extends E>) elements;
+            final int size = that.size();
+            for (int i = 0; i < size; i++) {
+                this.add(this.size(), that.get(i), that.testClassNames.get(i));
+            }
+            return !that.isEmpty();
+        }
+
+        @Override
+        public E set(int index, E element) {
+            final E previous = this.remove(index);
+            this.add(index, element);
+            return previous;
+        }
+
+        @Override
+        public E remove(int index) {
+            final E element = this.elements.remove(index);
+            this.unindex(element, this.testClassNames.remove(index));
+            this.modCount++;
+            return element;
+        }
+
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            for (int i = fromIndex; i < toIndex; i++) {
+                this.unindex(this.elements.get(i), this.testClassNames.get(i));
+            }
+            this.elements.subList(fromIndex, toIndex).clear();
+            this.testClassNames.subList(fromIndex, toIndex).clear();
+            this.modCount++;
+        }
+
+        private void unindex(E element, String testClassName) {
+            final Failure failure = element instanceof Failure ? (Failure) element : null;
+            this.testResult.update(this.status, failure == null ? (String) element : failure.testCaseName, testClassName, failure, -1);
+        }
+
+        private void reindex() {
+            for (int i = 0; i < this.elements.size(); i++) {
+                final E element = this.elements.get(i);
+                final Failure failure = element instanceof Failure ? (Failure) element : null;
+                this.testResult.update(this.status, failure == null ? (String) element : failure.testCaseName,
+                        this.testResult.internTestClassName(this.testClassNames.get(i)), failure, 1);
+            }
+        }
+    }
 }
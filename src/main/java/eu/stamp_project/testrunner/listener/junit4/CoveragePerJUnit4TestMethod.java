@@ -2,16 +2,15 @@ package eu.stamp_project.testrunner.listener.junit4;
 
 import eu.stamp_project.testrunner.listener.Coverage;
 import eu.stamp_project.testrunner.listener.CoveragePerTestMethod;
-import eu.stamp_project.testrunner.listener.impl.CoverageImpl;
+import eu.stamp_project.testrunner.listener.event.TestEventEmitter;
 import eu.stamp_project.testrunner.listener.impl.CoveragePerTestMethodImpl;
-import org.jacoco.core.analysis.*;
+import eu.stamp_project.testrunner.listener.impl.ProbeFileWriter;
+import eu.stamp_project.testrunner.runner.coverage.CoverageModel;
 import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.data.SessionInfoStore;
 import org.jacoco.core.runtime.RuntimeData;
 import org.junit.runner.Description;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.*;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -40,13 +39,21 @@ public class CoveragePerJUnit4TestMethod extends JUnit4TestResult implements Cov
      * This field stores every coverage, i.e. for each input.
      * Then, we are able to aggregate them to obtain the coverage of the test, for EVERY input.
      */
-    private Map<String, List<IClassCoverage>> coveragesPerMethodName;
+    private Map<String, List<CoverageModel.ClassCoverage>> coveragesPerMethodName;
 
     public CoveragePerJUnit4TestMethod(RuntimeData data, String classesDirectory) {
         this.internalCoverage = new CoveragePerTestMethodImpl(data, classesDirectory);
         this.coveragesPerMethodName = new HashMap<>();
     }
 
+    /**
+     * @param probeFileWriter the writer of the raw probes of each test method, see {@link CoveragePerTestMethodImpl#setProbeFileWriter(ProbeFileWriter)}
+     */
+    public CoveragePerJUnit4TestMethod(RuntimeData data, String classesDirectory, ProbeFileWriter probeFileWriter) {
+        this(data, classesDirectory);
+        this.internalCoverage.setProbeFileWriter(probeFileWriter);
+    }
+
     private static final Predicate<String> isParametrized = testMethodName ->
             Pattern.compile(".+\\[\\d+\\]").matcher(testMethodName).matches();
 
@@ -55,6 +62,7 @@ public class CoveragePerJUnit4TestMethod extends JUnit4TestResult implements Cov
 
     @Override
     public void testStarted(Description description) throws Exception {
+        TestEventEmitter.testStarted(description.getClassName(), description.getMethodName());
         this.internalCoverage.setExecutionData(new ExecutionDataStore());
         this.internalCoverage.setSessionInfos(new SessionInfoStore());
         this.internalCoverage.getData().setSessionId(description.getMethodName());
@@ -72,33 +80,31 @@ public class CoveragePerJUnit4TestMethod extends JUnit4TestResult implements Cov
                 this.internalCoverage.getSessionInfos(),
                 false
         );
+        if (this.internalCoverage.getProbeFileWriter() != null) {
+            // the coverage is computed by the parent process, from the raw probes
+            this.internalCoverage.writeProbes(description.getMethodName());
+            TestEventEmitter.testFinished(description.getClassName(), description.getMethodName());
+            return;
+        }
         final JUnit4Coverage jUnit4Coverage = new JUnit4Coverage();
-        jUnit4Coverage.collectData(this.internalCoverage.getExecutionData(), this.internalCoverage.getClassesDirectory());
+        jUnit4Coverage.collectData(this.internalCoverage.getExecutionData(), this.internalCoverage.getCoverageModel());
         this.internalCoverage.getCoverageResultsMap().put(description.getMethodName(), jUnit4Coverage);
         if (isParametrized.test(description.getMethodName())) {
             this.collectForParametrizedTest(fromParametrizedToSimpleName.apply(description.getMethodName()));
         }
+        TestEventEmitter.testFinished(description.getClassName(), description.getMethodName());
+        TestEventEmitter.testCoverageComputed(description.getClassName(), description.getMethodName(), jUnit4Coverage);
     }
 
     private void collectForParametrizedTest(String testMethodName) {
-        final CoverageBuilder coverageBuilder = new CoverageBuilder();
-        final Analyzer analyzer = new Analyzer(this.internalCoverage.getExecutionData(), coverageBuilder);
-        try {
-            analyzer.analyzeAll(new File(this.internalCoverage.getClassesDirectory()));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
         if (!this.coveragesPerMethodName.containsKey(testMethodName)) {
             this.coveragesPerMethodName.put(testMethodName, new ArrayList<>());
         }
-        coverageBuilder.getClasses()
-                .forEach(classCoverage ->
-                        this.coveragesPerMethodName.get(testMethodName)
-                                .add(classCoverage)
-                );
+        this.coveragesPerMethodName.get(testMethodName)
+                .addAll(this.internalCoverage.getCoverageModel().coverageOf(this.internalCoverage.getExecutionData()));
     }
 
-    public Map<String, List<IClassCoverage>> getCoveragesPerMethodName() {
+    public Map<String, List<CoverageModel.ClassCoverage>> getCoveragesPerMethodName() {
         return coveragesPerMethodName;
     }
 
@@ -114,10 +120,15 @@ public class CoveragePerJUnit4TestMethod extends JUnit4TestResult implements Cov
 
     @Override
     public void save() {
+        this.save(CoveragePerTestMethod.OUTPUT_DIR);
+    }
+
+    @Override
+    public void save(String outputDirectory) {
         if (!this.coveragesPerMethodName.isEmpty()) {
             this.aggregateParametrizedTestCoverage();
         }
-        this.internalCoverage.save();
+        this.internalCoverage.save(outputDirectory);
     }
 
     /*
@@ -128,16 +139,15 @@ public class CoveragePerJUnit4TestMethod extends JUnit4TestResult implements Cov
         this.coveragesPerMethodName.keySet().forEach(testMethodName -> {
                     int covered = 0;
                     int total = 0;
-                    final ArrayList<IClassCoverage> classCoverages =
+                    final ArrayList<CoverageModel.ClassCoverage> classCoverages =
                             new ArrayList<>(this.coveragesPerMethodName.get(testMethodName));
                     while (!classCoverages.isEmpty()) {
-                        final IClassCoverage current = classCoverages.get(0);
-                        final List<IClassCoverage> subListOnSameClass =
+                        final CoverageModel.ClassCoverage current = classCoverages.get(0);
+                        final List<CoverageModel.ClassCoverage> subListOnSameClass =
                                 getSameClassCoverage(current.getName(), classCoverages);
                         final List<List<Integer>> coveragePerMethods = subListOnSameClass.stream()
-                                .map(coverage ->
-                                        CoverageImpl.getListOfCountForCounterFunction(coverage, ICounter::getCoveredCount)
-                                ).collect(Collectors.toList());
+                                .map(CoverageModel.ClassCoverage::getCoveredCounts)
+                                .collect(Collectors.toList());
                         final List<Integer> bestCoverage = IntStream.range(0, coveragePerMethods.get(0).size())
                                 .boxed()
                                 .map(index ->
@@ -147,7 +157,7 @@ public class CoveragePerJUnit4TestMethod extends JUnit4TestResult implements Cov
                                                 .get()
                                 ).collect(Collectors.toList());
                         covered += bestCoverage.stream().mapToInt(Integer::intValue).sum();
-                        total += CoverageImpl.getListOfCountForCounterFunction(subListOnSameClass.get(0), ICounter::getTotalCount)
+                        total += subListOnSameClass.get(0).getTotalCounts()
                                 .stream()
                                 .mapToInt(Integer::intValue)
                                 .sum();
@@ -168,9 +178,9 @@ public class CoveragePerJUnit4TestMethod extends JUnit4TestResult implements Cov
     /*
      * return the sublist of the given list which the coverage of the same class, pointed by the className
      */
-    private List<IClassCoverage> getSameClassCoverage(String className, List<IClassCoverage> classCoverages) {
+    private List<CoverageModel.ClassCoverage> getSameClassCoverage(String className, List<CoverageModel.ClassCoverage> classCoverages) {
         return classCoverages.stream()
-                .filter(iClassCoverage -> className.equals(iClassCoverage.getName()))
+                .filter(classCoverage -> className.equals(classCoverage.getName()))
                 .collect(Collectors.toList());
     }
 
@@ -2,6 +2,7 @@ package eu.stamp_project.testrunner.listener.junit4;
 
 import eu.stamp_project.testrunner.listener.Coverage;
 import eu.stamp_project.testrunner.listener.impl.CoverageImpl;
+import eu.stamp_project.testrunner.runner.coverage.CoverageModel;
 import org.jacoco.core.data.ExecutionDataStore;
 
 import java.io.Serializable;
@@ -13,7 +14,7 @@ public class JUnit4Coverage extends JUnit4TestResult implements Coverage, Serial
 
     private static final long serialVersionUID = 109548359596802378L;
 
-    private Coverage internalCoverage;
+    private CoverageImpl internalCoverage;
 
     public JUnit4Coverage() {
         this.internalCoverage = new CoverageImpl();
@@ -48,6 +49,13 @@ public class JUnit4Coverage extends JUnit4TestResult implements Coverage, Serial
         this.internalCoverage.collectData(executionData, classesDirectory);
     }
 
+    /**
+     * @see CoverageImpl#collectData(ExecutionDataStore, CoverageModel)
+     */
+    public void collectData(ExecutionDataStore executionData, CoverageModel coverageModel) {
+        this.internalCoverage.collectData(executionData, coverageModel);
+    }
+
     @Override
     public boolean isBetterThan(Coverage that) {
         return this.internalCoverage.isBetterThan(that);
@@ -58,6 +66,11 @@ public class JUnit4Coverage extends JUnit4TestResult implements Coverage, Serial
         this.internalCoverage.save();
     }
 
+    @Override
+    public void save(String outputDirectory) {
+        this.internalCoverage.save(outputDirectory);
+    }
+
     @Override
     public String toString() {
         return this.internalCoverage.toString();
@@ -1,8 +1,13 @@
 package eu.stamp_project.testrunner.listener.junit4;
 
 import eu.stamp_project.testrunner.listener.TestResult;
+import eu.stamp_project.testrunner.listener.TestStatus;
+import eu.stamp_project.testrunner.listener.TestTiming;
+import eu.stamp_project.testrunner.listener.event.TestEventEmitter;
+import eu.stamp_project.testrunner.listener.impl.TestOutputCapture;
 import eu.stamp_project.testrunner.listener.impl.TestResultImpl;
 import eu.stamp_project.testrunner.runner.Failure;
+import eu.stamp_project.testrunner.runner.TestWatchdog;
 import org.junit.runner.Description;
 import org.junit.runner.notification.RunListener;
 
@@ -22,40 +27,86 @@ public class JUnit4TestResult extends RunListener implements TestResult, Seriali
 
     private TestResultImpl internalTestResult;
 
+    /**
+     * Tell if the timeout failure of the current test method has already been recorded by {@link JUnit4TestResult#testFailure(org.junit.runner.notification.Failure)}
+     */
+    private transient boolean timeoutFailureRecorded;
+
     public JUnit4TestResult() {
         this.internalTestResult = new TestResultImpl();
     }
 
+    @Override
+    public void testStarted(Description description) throws Exception {
+        TestOutputCapture.start();
+        this.timeoutFailureRecorded = false;
+        TestWatchdog.start(description.getClassName(), description.getMethodName());
+        TestEventEmitter.testStarted(description.getClassName(), description.getMethodName());
+        this.internalTestResult.startTimingOf(description.getClassName(), description.getMethodName());
+    }
+
     @Override
     public void testFinished(Description description) throws Exception {
-        this.internalTestResult.getRunningTests().add(description.getMethodName());
+        this.internalTestResult.stopTimingOf(description.getClassName(), description.getMethodName());
+        final Failure timeoutFailure = TestWatchdog.stop();
+        if (timeoutFailure != null && !this.timeoutFailureRecorded) {
+            // the test method ended without failing, e.g. it swallowed the interruption
+            this.internalTestResult.getFailingTests().add(timeoutFailure);
+            TestEventEmitter.testFailed(timeoutFailure);
+        }
+        this.internalTestResult.addRunningTest(description.getClassName(), description.getMethodName());
+        this.internalTestResult.putOutputOf(description.getMethodName(), TestOutputCapture.stop());
+        TestEventEmitter.testFinished(description.getClassName(), description.getMethodName());
     }
 
     @Override
     public void testFailure(org.junit.runner.notification.Failure failure) throws Exception {
-        this.internalTestResult.getFailingTests().add(
-                new Failure(
-                        failure.getDescription().getMethodName(),
-                        failure.getDescription().getClassName(),
-                        failure.getException()
-                )
+        final Failure timeoutFailure = TestWatchdog.getTimeoutFailure();
+        final Failure testFailure = timeoutFailure != null ? timeoutFailure : new Failure(
+                failure.getDescription().getMethodName(),
+                failure.getDescription().getClassName(),
+                failure.getException()
         );
+        if (timeoutFailure != null) {
+            this.timeoutFailureRecorded = true;
+        }
+        this.internalTestResult.getFailingTests().add(testFailure);
+        TestEventEmitter.testFailed(testFailure);
     }
 
     @Override
     public void testAssumptionFailure(org.junit.runner.notification.Failure failure) {
-        this.internalTestResult.getAssumptionFailingTests().add(
-                new Failure(
-                        failure.getDescription().getMethodName(),
-                        failure.getDescription().getClassName(),
-                        failure.getException()
-                )
+        if (TestWatchdog.getTimeoutFailure() != null) {
+            // the failure is recorded as a timeout when the test method finishes
+            return;
+        }
+        final Failure testFailure = new Failure(
+                failure.getDescription().getMethodName(),
+                failure.getDescription().getClassName(),
+                failure.getException()
         );
+        this.internalTestResult.getAssumptionFailingTests().add(testFailure);
+        TestEventEmitter.testAssumptionFailed(testFailure);
     }
 
     @Override
     public void testIgnored(Description description) throws Exception {
-        this.internalTestResult.getIgnoredTests().add(description.getMethodName());
+        this.internalTestResult.addIgnoredTest(description.getClassName(), description.getMethodName());
+        TestEventEmitter.testIgnored(description.getClassName(), description.getMethodName());
+    }
+
+    /**
+     * Called before the class-level setup of the given test class, JUnit 4 does not notify it, see {@link eu.stamp_project.testrunner.runner.JUnit4Runner}
+     */
+    public void testClassStarted(String testClassName) {
+        this.internalTestResult.startTimingOfTestClass(testClassName);
+    }
+
+    /**
+     * Called after the class-level teardown of the given test class, see {@link JUnit4TestResult#testClassStarted(String)}
+     */
+    public void testClassFinished(String testClassName) {
+        this.internalTestResult.stopTimingOfTestClass(testClassName);
     }
 
     @Override
@@ -63,6 +114,11 @@ public class JUnit4TestResult extends RunListener implements TestResult, Seriali
         return this.internalTestResult.getRunningTests();
     }
 
+    @Override
+    public String getOutputOf(String testMethodName) {
+        return this.internalTestResult.getOutputOf(testMethodName);
+    }
+
     @Override
     public List<String> getPassingTests() {
         return this.internalTestResult.getPassingTests();
@@ -94,10 +150,42 @@ public class JUnit4TestResult extends RunListener implements TestResult, Seriali
 
     @Override
     public Failure getFailureOf(String testMethodName) {
-        return this.getFailingTests().stream()
-                .filter(failure -> failure.testCaseName.equals(testMethodName))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException(String.format("Could not find %s in failing test", testMethodName)));
+        return this.internalTestResult.getFailureOf(testMethodName);
+    }
+
+    @Override
+    public TestStatus getStatusOf(String testMethodName) {
+        return this.internalTestResult.getStatusOf(testMethodName);
+    }
+
+    @Override
+    public TestStatus getStatusOf(String testClassName, String testMethodName) {
+        return this.internalTestResult.getStatusOf(testClassName, testMethodName);
+    }
+
+    @Override
+    public int getNumberOfTests(TestStatus status) {
+        return this.internalTestResult.getNumberOfTests(status);
+    }
+
+    @Override
+    public TestTiming getTimingOf(String testClassName, String testMethodName) {
+        return this.internalTestResult.getTimingOf(testClassName, testMethodName);
+    }
+
+    @Override
+    public TestTiming getTimingOfTestClass(String testClassName) {
+        return this.internalTestResult.getTimingOfTestClass(testClassName);
+    }
+
+    @Override
+    public List<TestTiming> getTimingsOfTestMethods() {
+        return this.internalTestResult.getTimingsOfTestMethods();
+    }
+
+    @Override
+    public List<TestTiming> getTimingsOfTestClasses() {
+        return this.internalTestResult.getTimingsOfTestClasses();
     }
 
     @Override
@@ -105,6 +193,11 @@ public class JUnit4TestResult extends RunListener implements TestResult, Seriali
         this.internalTestResult.save();
     }
 
+    @Override
+    public void save(String outputDirectory) {
+        this.internalTestResult.save(outputDirectory);
+    }
+
     public String toString() {
         return "JUnit4TestResult{" +
                 "runningTests=" + this.internalTestResult.getRunningTests() +
@@ -2,7 +2,9 @@ package eu.stamp_project.testrunner.listener.junit5;
 
 import eu.stamp_project.testrunner.listener.Coverage;
 import eu.stamp_project.testrunner.listener.CoveragePerTestMethod;
+import eu.stamp_project.testrunner.listener.event.TestEventEmitter;
 import eu.stamp_project.testrunner.listener.impl.CoveragePerTestMethodImpl;
+import eu.stamp_project.testrunner.listener.impl.ProbeFileWriter;
 import eu.stamp_project.testrunner.runner.Failure;
 import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.data.SessionInfoStore;
@@ -33,6 +35,14 @@ public class CoveragePerJUnit5TestMethod extends JUnit5TestResult implements Cov
         this.internalCoverage = new CoveragePerTestMethodImpl(data, classesDirectory);
     }
 
+    /**
+     * @param probeFileWriter the writer of the raw probes of each test method, see {@link CoveragePerTestMethodImpl#setProbeFileWriter(ProbeFileWriter)}
+     */
+    public CoveragePerJUnit5TestMethod(RuntimeData data, String classesDirectory, ProbeFileWriter probeFileWriter) {
+        this(data, classesDirectory);
+        this.internalCoverage.setProbeFileWriter(probeFileWriter);
+    }
+
     @Override
     public void executionStarted(TestIdentifier testIdentifier) {
         if (testIdentifier.isTest()) {
@@ -44,7 +54,8 @@ public class CoveragePerJUnit5TestMethod extends JUnit5TestResult implements Cov
                     this.internalCoverage.getSessionInfos(),
                     true
             );
-            this.getRunningTests().add(this.toString.apply(testIdentifier));
+            this.addRunningTest(this.toClassName.apply(testIdentifier), this.toString.apply(testIdentifier));
+            TestEventEmitter.testStarted(this.toClassName.apply(testIdentifier), this.toString.apply(testIdentifier));
         }
     }
 
@@ -56,22 +67,35 @@ public class CoveragePerJUnit5TestMethod extends JUnit5TestResult implements Cov
                     this.internalCoverage.getSessionInfos(),
                     false
             );
+            if (this.internalCoverage.getProbeFileWriter() != null) {
+                // the coverage is computed by the parent process, from the raw probes
+                this.internalCoverage.writeProbes(this.toString.apply(testIdentifier));
+                this.recordFailure(testIdentifier, testExecutionResult);
+                TestEventEmitter.testFinished(this.toClassName.apply(testIdentifier), this.toString.apply(testIdentifier));
+                return;
+            }
             final JUnit5Coverage jUnit5Coverage = new JUnit5Coverage();
-            jUnit5Coverage.collectData(this.internalCoverage.getExecutionData(), this.internalCoverage.getClassesDirectory());
+            jUnit5Coverage.collectData(this.internalCoverage.getExecutionData(), this.internalCoverage.getCoverageModel());
             this.internalCoverage.getCoverageResultsMap().put(this.toString.apply(testIdentifier), jUnit5Coverage);
-            switch (testExecutionResult.getStatus()) {
-                case FAILED:
-                    this.getFailingTests().add(
-                            new Failure(
-                                    this.toString.apply(testIdentifier),
-                                    this.toClassName.apply(testIdentifier),
-                                    testExecutionResult.getThrowable().get()
-                            )
-                    );
-                    break;
-                default:
-                    break;
-            }
+            this.recordFailure(testIdentifier, testExecutionResult);
+            TestEventEmitter.testFinished(this.toClassName.apply(testIdentifier), this.toString.apply(testIdentifier));
+            TestEventEmitter.testCoverageComputed(this.toClassName.apply(testIdentifier), this.toString.apply(testIdentifier), jUnit5Coverage);
+        }
+    }
+
+    private void recordFailure(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+        switch (testExecutionResult.getStatus()) {
+            case FAILED:
+                final Failure failure = new Failure(
+                        this.toString.apply(testIdentifier),
+                        this.toClassName.apply(testIdentifier),
+                        testExecutionResult.getThrowable().get()
+                );
+                this.getFailingTests().add(failure);
+                TestEventEmitter.testFailed(failure);
+                break;
+            default:
+                break;
         }
     }
 
@@ -90,4 +114,9 @@ public class CoveragePerJUnit5TestMethod extends JUnit5TestResult implements Cov
         this.internalCoverage.save();
     }
 
+    @Override
+    public void save(String outputDirectory) {
+        this.internalCoverage.save(outputDirectory);
+    }
+
 }
@@ -2,6 +2,7 @@ package eu.stamp_project.testrunner.listener.junit5;
 
 import eu.stamp_project.testrunner.listener.Coverage;
 import eu.stamp_project.testrunner.listener.impl.CoverageImpl;
+import eu.stamp_project.testrunner.runner.coverage.CoverageModel;
 import org.jacoco.core.data.ExecutionDataStore;
 
 import java.io.Serializable;
@@ -15,7 +16,7 @@ public class JUnit5Coverage extends JUnit5TestResult implements Coverage, Serial
 
     private static final long serialVersionUID = -2873920196510405923L;
 
-    private Coverage internalCoverage;
+    private CoverageImpl internalCoverage;
 
     public JUnit5Coverage() {
         this.internalCoverage = new CoverageImpl();
@@ -50,6 +51,13 @@ public class JUnit5Coverage extends JUnit5TestResult implements Coverage, Serial
         this.internalCoverage.collectData(executionData, classesDirectory);
     }
 
+    /**
+     * @see CoverageImpl#collectData(ExecutionDataStore, CoverageModel)
+     */
+    public void collectData(ExecutionDataStore executionData, CoverageModel coverageModel) {
+        this.internalCoverage.collectData(executionData, coverageModel);
+    }
+
     @Override
     public boolean isBetterThan(Coverage that) {
         return this.internalCoverage.isBetterThan(that);
@@ -60,6 +68,11 @@ public class JUnit5Coverage extends JUnit5TestResult implements Coverage, Serial
         this.internalCoverage.save();
     }
 
+    @Override
+    public void save(String outputDirectory) {
+        this.internalCoverage.save(outputDirectory);
+    }
+
     @Override
     public String toString() {
         return this.internalCoverage.toString();
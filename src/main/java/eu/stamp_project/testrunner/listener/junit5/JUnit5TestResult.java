@@ -1,9 +1,13 @@
 package eu.stamp_project.testrunner.listener.junit5;
 
+import eu.stamp_project.testrunner.listener.event.TestEventEmitter;
+import eu.stamp_project.testrunner.listener.impl.TestOutputCapture;
 import eu.stamp_project.testrunner.listener.impl.TestResultImpl;
 import eu.stamp_project.testrunner.runner.Failure;
+import eu.stamp_project.testrunner.runner.TestWatchdog;
 import org.junit.platform.engine.TestExecutionResult;
 import org.junit.platform.engine.reporting.ReportEntry;
+import org.junit.platform.engine.support.descriptor.ClassSource;
 import org.junit.platform.engine.support.descriptor.MethodSource;
 import org.junit.platform.launcher.TestExecutionListener;
 import org.junit.platform.launcher.TestIdentifier;
@@ -45,36 +49,53 @@ public class JUnit5TestResult extends TestResultImpl implements TestExecutionLis
     @Override
     public void executionSkipped(TestIdentifier testIdentifier, String reason) {
         if (testIdentifier.isTest()) {
-            this.getIgnoredTests().add(this.toString.apply(testIdentifier));
+            this.addIgnoredTest(this.toClassName.apply(testIdentifier), this.toString.apply(testIdentifier));
+            TestEventEmitter.testIgnored(this.toClassName.apply(testIdentifier), this.toString.apply(testIdentifier));
         }
     }
 
     @Override
     public void executionStarted(TestIdentifier testIdentifier) {
         if (testIdentifier.isTest()) {
-            this.getRunningTests().add(this.toString.apply(testIdentifier));
+            this.addRunningTest(this.toClassName.apply(testIdentifier), this.toString.apply(testIdentifier));
+            TestOutputCapture.start();
+            TestWatchdog.start(this.toClassName.apply(testIdentifier), this.toString.apply(testIdentifier));
+            TestEventEmitter.testStarted(this.toClassName.apply(testIdentifier), this.toString.apply(testIdentifier));
+            this.startTimingOf(this.toClassName.apply(testIdentifier), this.toString.apply(testIdentifier));
+        } else if (isTestClass(testIdentifier)) {
+            this.startTimingOfTestClass(((ClassSource) testIdentifier.getSource().get()).getClassName());
         }
     }
 
     @Override
     public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+        if (isTestClass(testIdentifier)) {
+            this.stopTimingOfTestClass(((ClassSource) testIdentifier.getSource().get()).getClassName());
+        }
         if (testIdentifier.isTest()) {
-            switch (testExecutionResult.getStatus()) {
-                case FAILED:
-                    this.getFailingTests().add(
-                            new Failure(
-                                    this.toString.apply(testIdentifier),
-                                    this.toClassName.apply(testIdentifier),
-                                    testExecutionResult.getThrowable().get()
-                            )
-                    );
-                    break;
-                default:
-                    break;
+            this.stopTimingOf(this.toClassName.apply(testIdentifier), this.toString.apply(testIdentifier));
+            this.putOutputOf(this.toString.apply(testIdentifier), TestOutputCapture.stop());
+            final Failure timeoutFailure = TestWatchdog.stop();
+            if (timeoutFailure != null) {
+                this.getFailingTests().add(timeoutFailure);
+                TestEventEmitter.testFailed(timeoutFailure);
+            } else if (testExecutionResult.getStatus() == TestExecutionResult.Status.FAILED) {
+                final Failure failure = new Failure(
+                        this.toString.apply(testIdentifier),
+                        this.toClassName.apply(testIdentifier),
+                        testExecutionResult.getThrowable().get()
+                );
+                this.getFailingTests().add(failure);
+                TestEventEmitter.testFailed(failure);
             }
+            TestEventEmitter.testFinished(this.toClassName.apply(testIdentifier), this.toString.apply(testIdentifier));
         }
     }
 
+    private static boolean isTestClass(TestIdentifier testIdentifier) {
+        return testIdentifier.isContainer() && testIdentifier.getSource().filter(ClassSource.class::isInstance).isPresent();
+    }
+
     @Override
     public void reportingEntryPublished(TestIdentifier testIdentifier, ReportEntry entry) {
         // There is something to do?
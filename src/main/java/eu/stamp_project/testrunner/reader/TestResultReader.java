@@ -36,7 +36,7 @@ public class TestResultReader {
         LOGGER.info("Failing tests:");
         if (verbose) {
             JUnit4TestResult.getFailingTests().stream()
-                    .map(failure -> failure.toString() + ":" + failure.stackTrace)
+                    .map(failure -> failure.toString() + ":" + failure.getStackTrace())
                     .forEach(failure -> LOGGER.info("\t{}", failure));
         } else {
             JUnit4TestResult.getFailingTests().stream().map(Failure::toString).forEach(failure -> LOGGER.info("\t{}", failure));
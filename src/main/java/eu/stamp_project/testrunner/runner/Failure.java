@@ -1,15 +1,16 @@
 package eu.stamp_project.testrunner.runner;
 
-import java.io.PrintWriter;
 import java.io.Serializable;
-import java.io.StringWriter;
 
 /**
  * This class contains the result of failing test method.
  * <p>
- * This class contains only String, in order to be able to support result inside another project,
+ * This class contains only String, and the {@link StackTrace}, in order to be able to support result inside another project,
  * without having all correct classes loaded.
  * </p>
+ * <p>
+ * The stack trace of an exception is kept structured, and rendered as text only when it is requested, see {@link Failure#getStackTrace()}.
+ * </p>
  */
 public class Failure implements Serializable {
 
@@ -17,25 +18,54 @@ public class Failure implements Serializable {
     public final String testClassName;
     public final String fullQualifiedNameOfException;
     public final String messageOfFailure;
-    public final String stackTrace;
+    private final String stackTrace;
+    private final StackTrace structuredStackTrace;
+    private transient String renderedStackTrace;
 
     public Failure(String testCaseName, String testClassName, Throwable exception) {
-        this.testCaseName = testCaseName;
-        this.fullQualifiedNameOfException = exception.getClass().getName();
-        this.messageOfFailure = exception.getMessage();
-        this.testClassName = testClassName;
-        StringWriter sw = new StringWriter();
-        PrintWriter pw = new PrintWriter(sw);
-        exception.printStackTrace(pw);
-        this.stackTrace = sw.toString(); // stack trace as a string
+        this(testCaseName, testClassName, exception.getClass().getName(), exception.getMessage(), null, StackTrace.of(exception));
     }
 
     public Failure(String testCaseName, String testClassName, String fullQualifiedNameOfException, String messageOfFailure, String stackTrace) {
+        this(testCaseName, testClassName, fullQualifiedNameOfException, messageOfFailure, stackTrace, null);
+    }
+
+    /**
+     * @param stackTrace           the stack trace as text, or null
+     * @param structuredStackTrace the structured stack trace, used when the stack trace as text is null
+     */
+    public Failure(String testCaseName,
+                   String testClassName,
+                   String fullQualifiedNameOfException,
+                   String messageOfFailure,
+                   String stackTrace,
+                   StackTrace structuredStackTrace) {
         this.testCaseName = testCaseName;
         this.fullQualifiedNameOfException = fullQualifiedNameOfException;
         this.messageOfFailure = messageOfFailure;
         this.testClassName = testClassName;
         this.stackTrace = stackTrace;
+        this.structuredStackTrace = structuredStackTrace;
+    }
+
+    /**
+     * @return the stack trace as text, rendered from the structured stack trace the first time it is requested. It can be null.
+     */
+    public String getStackTrace() {
+        if (this.stackTrace != null || this.structuredStackTrace == null) {
+            return this.stackTrace;
+        }
+        if (this.renderedStackTrace == null) {
+            this.renderedStackTrace = this.structuredStackTrace.toString();
+        }
+        return this.renderedStackTrace;
+    }
+
+    /**
+     * @return the structured stack trace, or null if this failure has been built from the stack trace as text, <i>e.g.</i> from a surefire report
+     */
+    public StackTrace getStructuredStackTrace() {
+        return this.structuredStackTrace;
     }
 
     @Override
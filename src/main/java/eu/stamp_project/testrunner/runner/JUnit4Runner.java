@@ -1,10 +1,21 @@
 package eu.stamp_project.testrunner.runner;
 
 import eu.stamp_project.testrunner.EntryPoint;
+import eu.stamp_project.testrunner.listener.event.TestEventEmitter;
+import eu.stamp_project.testrunner.listener.event.TestEventJournal;
+import eu.stamp_project.testrunner.listener.impl.TestOutputCapture;
 import eu.stamp_project.testrunner.listener.junit4.JUnit4TestResult;
+import org.junit.runner.Computer;
+import org.junit.runner.Description;
 import org.junit.runner.Request;
 import org.junit.runner.Runner;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.Filterable;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.manipulation.Sortable;
+import org.junit.runner.manipulation.Sorter;
 import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.model.RunnerBuilder;
 
 import java.util.Arrays;
 import java.util.List;
@@ -24,14 +35,31 @@ public class JUnit4Runner {
     public static void main(String[] args) {
         final JUnit4TestResult jUnit4TestResult = new JUnit4TestResult();
         final ParserOptions options = ParserOptions.parse(args);
-        JUnit4Runner.run(
-                options.getFullQualifiedNameOfTestClassesToRun(),
-                options.getTestMethodNamesToRun(),
-                options.getBlackList(),
-                jUnit4TestResult,
-                JUnit4Runner.class.getClassLoader()
-        );
-        jUnit4TestResult.save();
+        TestEventEmitter.connect(options);
+        StackTrace.configure(options.getStackTraceMaxDepth(), options.isFilterStackTrace());
+        if (options.isCaptureOutput()) {
+            TestOutputCapture.install(TestOutputCapture.DEFAULT_MAX_SIZE_PER_TEST);
+        }
+        if (options.getTestTimeoutInMs() > 0) {
+            TestWatchdog.install(options.getTestTimeoutInMs());
+        }
+        try {
+            JUnit4Runner.run(
+                    options.getFullQualifiedNameOfTestClassesToRun(),
+                    options.getTestMethodNamesToRun(),
+                    options.getBlackList(),
+                    jUnit4TestResult,
+                    Thread.currentThread().getContextClassLoader()
+            );
+        } catch (ThreadDeath e) {
+            throw TestWatchdog.fatal(e);
+        } finally {
+            TestWatchdog.uninstall();
+            TestOutputCapture.uninstall();
+            TestEventEmitter.close();
+        }
+        jUnit4TestResult.save(options.getOutputDirectory());
+        TestEventJournal.delete(options.getOutputDirectory());
     }
 
     /**
@@ -48,7 +76,7 @@ public class JUnit4Runner {
                            JUnit4TestResult listener,
                            ClassLoader customClassLoader) {
         Request request;
-        request = Request.classes(Arrays.stream(testClassNames).map(testClassName -> {
+        request = Request.classes(new TimingComputer(listener), Arrays.stream(testClassNames).map(testClassName -> {
             try {
                 return customClassLoader.loadClass(testClassName);
             } catch (ClassNotFoundException e) {
@@ -62,4 +90,63 @@ public class JUnit4Runner {
         runNotifier.addFirstListener(listener);
         runner.run(runNotifier);
     }
+
+    /**
+     * JUnit 4 does not notify the start and the end of a test class.
+     * This computer wraps the runner of each test class, to notify the given listener around the whole execution of the test class,
+     * including its class-level setup and teardown, see {@link JUnit4TestResult#testClassStarted(String)}.
+     */
+    private static class TimingComputer extends Computer {
+
+        private final JUnit4TestResult listener;
+
+        private TimingComputer(JUnit4TestResult listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        protected Runner getRunner(RunnerBuilder builder, Class<?> testClass) throws Throwable {
+            return new TimedRunner(super.getRunner(builder, testClass), testClass.getName(), this.listener);
+        }
+    }
+
+    private static class TimedRunner extends Runner implements Filterable, Sortable {
+
+        private final Runner runner;
+
+        private final String testClassName;
+
+        private final JUnit4TestResult listener;
+
+        private TimedRunner(Runner runner, String testClassName, JUnit4TestResult listener) {
+            this.runner = runner;
+            this.testClassName = testClassName;
+            this.listener = listener;
+        }
+
+        @Override
+        public Description getDescription() {
+            return this.runner.getDescription();
+        }
+
+        @Override
+        public void run(RunNotifier notifier) {
+            this.listener.testClassStarted(this.testClassName);
+            try {
+                this.runner.run(notifier);
+            } finally {
+                this.listener.testClassFinished(this.testClassName);
+            }
+        }
+
+        @Override
+        public void filter(Filter filter) throws NoTestsRemainException {
+            filter.apply(this.runner);
+        }
+
+        @Override
+        public void sort(Sorter sorter) {
+            sorter.apply(this.runner);
+        }
+    }
 }
@@ -1,6 +1,9 @@
 package eu.stamp_project.testrunner.runner;
 
 import eu.stamp_project.testrunner.EntryPoint;
+import eu.stamp_project.testrunner.listener.event.TestEventEmitter;
+import eu.stamp_project.testrunner.listener.event.TestEventJournal;
+import eu.stamp_project.testrunner.listener.impl.TestOutputCapture;
 import eu.stamp_project.testrunner.listener.junit5.JUnit5TestResult;
 import org.junit.platform.launcher.Launcher;
 import org.junit.platform.launcher.LauncherDiscoveryRequest;
@@ -28,14 +31,31 @@ public class JUnit5Runner {
     public static void main(String args[]) {
         final JUnit5TestResult jUnit5TestResult = new JUnit5TestResult();
         final ParserOptions options = ParserOptions.parse(args);
-        JUnit5Runner.run(
-                options.getFullQualifiedNameOfTestClassesToRun(),
-                options.getTestMethodNamesToRun(),
-                options.getBlackList(),
-                jUnit5TestResult,
-                JUnit5Runner.class.getClassLoader()
-        );
-        jUnit5TestResult.save();
+        TestEventEmitter.connect(options);
+        StackTrace.configure(options.getStackTraceMaxDepth(), options.isFilterStackTrace());
+        if (options.isCaptureOutput()) {
+            TestOutputCapture.install(TestOutputCapture.DEFAULT_MAX_SIZE_PER_TEST);
+        }
+        if (options.getTestTimeoutInMs() > 0) {
+            TestWatchdog.install(options.getTestTimeoutInMs());
+        }
+        try {
+            JUnit5Runner.run(
+                    options.getFullQualifiedNameOfTestClassesToRun(),
+                    options.getTestMethodNamesToRun(),
+                    options.getBlackList(),
+                    jUnit5TestResult,
+                    Thread.currentThread().getContextClassLoader()
+            );
+        } catch (ThreadDeath e) {
+            throw TestWatchdog.fatal(e);
+        } finally {
+            TestWatchdog.uninstall();
+            TestOutputCapture.uninstall();
+            TestEventEmitter.close();
+        }
+        jUnit5TestResult.save(options.getOutputDirectory());
+        TestEventJournal.delete(options.getOutputDirectory());
     }
 
     /**
@@ -52,38 +72,35 @@ public class JUnit5Runner {
                            JUnit5TestResult listener,
                            ClassLoader customClassLoader) {
         final LauncherDiscoveryRequestBuilder requestBuilder = LauncherDiscoveryRequestBuilder.request();
-        if (testMethodNames.length == 0) {
-            if (testClassNames.length > 0) {
-                Arrays.asList(testClassNames).forEach(testClassName -> {
-                            try {
-                                requestBuilder.selectors(
-                                        selectClass(customClassLoader.loadClass(testClassName))
-                                );
-                            } catch (ClassNotFoundException e) {
-                                throw new RuntimeException(e);
-                            }
-                        }
-                );
-            } else {
-                try {
-                    requestBuilder.selectors(selectClass(customClassLoader.loadClass(testClassNames[0])));
-                } catch (ClassNotFoundException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        } else {
-            Arrays.asList(testMethodNames).forEach(testMethodName -> {
-                        try {
-                            requestBuilder.selectors(selectMethod(customClassLoader.loadClass(testClassNames[0]), testMethodName));
-                        } catch (ClassNotFoundException e) {
-                            throw new RuntimeException(e);
-                        }
+        Arrays.asList(testClassNames).forEach(testClassName -> {
+                    final Class<?> testClass;
+                    try {
+                        testClass = customClassLoader.loadClass(testClassName);
+                    } catch (ClassNotFoundException e) {
+                        throw new RuntimeException(e);
                     }
-            );
-        }
+                    if (testMethodNames.length == 0) {
+                        requestBuilder.selectors(selectClass(testClass));
+                    } else {
+                        // as in JUnit4Runner, the test methods are selected in every test class that declares them
+                        Arrays.stream(testMethodNames)
+                                .filter(testMethodName -> declaresMethod(testClass, testMethodName))
+                                .forEach(testMethodName -> requestBuilder.selectors(selectMethod(testClass, testMethodName)));
+                    }
+                }
+        );
         final LauncherDiscoveryRequest request = requestBuilder.build();
         final Launcher launcher = LauncherFactory.create();
         launcher.registerTestExecutionListeners(listener);
         launcher.execute(request);
     }
+
+    private static boolean declaresMethod(Class<?> testClass, String testMethodName) {
+        for (Class<?> currentClass = testClass; currentClass != null; currentClass = currentClass.getSuperclass()) {
+            if (Arrays.stream(currentClass.getDeclaredMethods()).anyMatch(method -> method.getName().equals(testMethodName))) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -1,12 +1,15 @@
 package eu.stamp_project.testrunner.runner;
 
 import eu.stamp_project.testrunner.EntryPoint;
+import eu.stamp_project.testrunner.listener.impl.BinaryResultFormat;
 import eu.stamp_project.testrunner.listener.impl.TestResultImpl;
 import eu.stamp_project.testrunner.utils.ConstantsHelper;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 
 /**
@@ -17,25 +20,42 @@ import java.io.ObjectInputStream;
 public class Loader<T> {
 
     public T load(String name) {
-        T object;
-        String outputDirectoryPath = EntryPoint.workingDirectory != null ?
+        return this.load(TestResultImpl.OUTPUT_DIR, name);
+    }
+
+    /**
+     * Load the serialized object of the given name, from the given directory.
+     * If the given directory is relative, it is resolved from {@link EntryPoint#workingDirectory}.
+     * The serialized file is deleted after being loaded.
+     * The file is read with {@link BinaryResultFormat} if it starts with {@link BinaryResultFormat#MAGIC}, with the java serialization otherwise.
+     *
+     * @param outputDirectory the path to the directory that contains the serialized file
+     * @param name            the name of the serialized file, without extension
+     * @return the loaded object
+     */
+    public T load(String outputDirectory, String name) {
+        final Object read;
+        String outputDirectoryPath = EntryPoint.workingDirectory != null && !new File(outputDirectory).isAbsolute() ?
                 EntryPoint.workingDirectory.getAbsolutePath() + ConstantsHelper.FILE_SEPARATOR : "";
-        File f = new File(outputDirectoryPath + TestResultImpl.OUTPUT_DIR + name + TestResultImpl.EXTENSION);
+        File f = new File(outputDirectoryPath + outputDirectory, name + TestResultImpl.EXTENSION);
         if (!f.exists()) {
             throw new RuntimeException(new FileNotFoundException(f.getAbsolutePath() + " does not exist."));
         } else {
             System.out.println("Loading " + f.getAbsolutePath());
         }
-        try (FileInputStream fin = new FileInputStream(f);) {
-            try (ObjectInputStream ois = new ObjectInputStream(fin)) {
-                object = (T) ois.readObject();
-            } catch (Exception ex) {
-                throw new RuntimeException(ex);
+        try (InputStream fin = new BufferedInputStream(new FileInputStream(f))) {
+            if (BinaryResultFormat.isBinaryResult(fin)) {
+                read = BinaryResultFormat.read(fin);
+            } else {
+                try (ObjectInputStream ois = new ObjectInputStream(fin)) {
+                    read = ois.readObject();
+                }
             }
         } catch (Exception ex) {
             throw new RuntimeException(ex);
         }
         f.delete();
+        @SuppressWarnings("unchecked") final T object = (T) read;
         return object;
     }
 
@@ -1,5 +1,6 @@
 package eu.stamp_project.testrunner.runner;
 
+import eu.stamp_project.testrunner.listener.TestResult;
 import eu.stamp_project.testrunner.utils.ConstantsHelper;
 
 import java.util.ArrayList;
@@ -13,7 +14,7 @@ import java.util.function.Function;
  * on 27/11/18
  * <p>
  * This class aims at parsing options for
- * - {@link JUnit4Runner}, {@link JUnit5Runner}, {@link eu.stamp_project.testrunner.runner.coverage.JacocoRunner}
+ * - {@link JUnit4Runner}, {@link JUnit5Runner}, {@link eu.stamp_project.testrunner.runner.coverage.JacocoRunner}, {@link TestJobRunner}
  */
 public class ParserOptions {
 
@@ -40,6 +41,48 @@ public class ParserOptions {
                 case FLAG_isJUnit5:
                     parserOptions.isJUnit5 = true;
                     break;
+                case FLAG_outputDirectory:
+                    parserOptions.outputDirectory = args[++i];
+                    break;
+                case FLAG_eventPort:
+                    parserOptions.eventPort = Integer.parseInt(args[++i]);
+                    break;
+                case FLAG_captureOutput:
+                    parserOptions.captureOutput = true;
+                    break;
+                case FLAG_testTimeout:
+                    parserOptions.testTimeoutInMs = Long.parseLong(args[++i]);
+                    break;
+                case FLAG_journal:
+                    parserOptions.journal = true;
+                    break;
+                case FLAG_jobs:
+                    parserOptions.jobsFile = args[++i];
+                    break;
+                case FLAG_probeFile:
+                    parserOptions.probeFile = args[++i];
+                    break;
+                case FLAG_stackTraceMaxDepth:
+                    parserOptions.stackTraceMaxDepth = Integer.parseInt(args[++i]);
+                    break;
+                case FLAG_filterStackTrace:
+                    parserOptions.filterStackTrace = true;
+                    break;
+                case FLAG_instrumentedClassesCache:
+                    parserOptions.instrumentedClassesCache = args[++i];
+                    break;
+                case FLAG_coverageAgent:
+                    parserOptions.coverageAgent = true;
+                    break;
+                case FLAG_eagerInstrumentation:
+                    parserOptions.eagerInstrumentation = true;
+                    break;
+                case FLAG_coverageIncludes:
+                    parserOptions.coverageIncludes = convertArrayToList.apply(args[++i]);
+                    break;
+                case FLAG_coverageExcludes:
+                    parserOptions.coverageExcludes = convertArrayToList.apply(args[++i]);
+                    break;
                 default:
                     System.err.println(String.format("[ERROR]: %s is not a supported command line options", args[i]));
                     usage();
@@ -67,18 +110,61 @@ public class ParserOptions {
         usage.append(FLAG_isJUnit5).append(ConstantsHelper.WHITE_SPACE)
                 .append(FLAG_HELP_isJUnit5).append(ConstantsHelper.LINE_SEPARATOR);
 
+        usage.append(FLAG_outputDirectory).append(ConstantsHelper.WHITE_SPACE)
+                .append(FLAG_HELP_outputDirectory).append(ConstantsHelper.LINE_SEPARATOR);
+
+        usage.append(FLAG_eventPort).append(ConstantsHelper.WHITE_SPACE)
+                .append(FLAG_HELP_eventPort).append(ConstantsHelper.LINE_SEPARATOR);
+
+        usage.append(FLAG_captureOutput).append(ConstantsHelper.WHITE_SPACE)
+                .append(FLAG_HELP_captureOutput).append(ConstantsHelper.LINE_SEPARATOR);
+
+        usage.append(FLAG_testTimeout).append(ConstantsHelper.WHITE_SPACE)
+                .append(FLAG_HELP_testTimeout).append(ConstantsHelper.LINE_SEPARATOR);
+
+        usage.append(FLAG_journal).append(ConstantsHelper.WHITE_SPACE)
+                .append(FLAG_HELP_journal).append(ConstantsHelper.LINE_SEPARATOR);
+
+        usage.append(FLAG_jobs).append(ConstantsHelper.WHITE_SPACE)
+                .append(FLAG_HELP_jobs).append(ConstantsHelper.LINE_SEPARATOR);
+
+        usage.append(FLAG_probeFile).append(ConstantsHelper.WHITE_SPACE)
+                .append(FLAG_HELP_probeFile).append(ConstantsHelper.LINE_SEPARATOR);
+
+        usage.append(FLAG_stackTraceMaxDepth).append(ConstantsHelper.WHITE_SPACE)
+                .append(FLAG_HELP_stackTraceMaxDepth).append(ConstantsHelper.LINE_SEPARATOR);
+
+        usage.append(FLAG_filterStackTrace).append(ConstantsHelper.WHITE_SPACE)
+                .append(FLAG_HELP_filterStackTrace).append(ConstantsHelper.LINE_SEPARATOR);
+
+        usage.append(FLAG_instrumentedClassesCache).append(ConstantsHelper.WHITE_SPACE)
+                .append(FLAG_HELP_instrumentedClassesCache).append(ConstantsHelper.LINE_SEPARATOR);
+
+        usage.append(FLAG_coverageAgent).append(ConstantsHelper.WHITE_SPACE)
+                .append(FLAG_HELP_coverageAgent).append(ConstantsHelper.LINE_SEPARATOR);
+
+        usage.append(FLAG_eagerInstrumentation).append(ConstantsHelper.WHITE_SPACE)
+                .append(FLAG_HELP_eagerInstrumentation).append(ConstantsHelper.LINE_SEPARATOR);
+
+        usage.append(FLAG_coverageIncludes).append(ConstantsHelper.WHITE_SPACE)
+                .append(FLAG_HELP_coverageIncludes).append(ConstantsHelper.LINE_SEPARATOR);
+
+        usage.append(FLAG_coverageExcludes).append(ConstantsHelper.WHITE_SPACE)
+                .append(FLAG_HELP_coverageExcludes).append(ConstantsHelper.LINE_SEPARATOR);
+
         System.out.println(usage.toString());
     }
 
     /**
      * This string represents the path to the compiles classes, sources and tests, of the project.
-     * These two paths should be separated by the system path separator, e.g. ':' on Linux.
+     * These paths should be separated by the system path separator, e.g. ':' on Linux.
+     * The last path is the directory of the test classes, the previous ones are the directories and the jars of the sources, on which the coverage is computed.
      */
     private String pathToCompiledClassesOfTheProject;
 
     public static final String FLAG_pathToCompiledClassesOfTheProject = "--binaries";
 
-    private static final String FLAG_HELP_pathToCompiledClassesOfTheProject = "This flag must be followed by the path of both directories of sources and test binaries. Both paths must be separated by the system path separator, e.g. ':' on Linux";
+    private static final String FLAG_HELP_pathToCompiledClassesOfTheProject = "This flag must be followed by the paths to the directories or the jars of sources binaries, and then the path to the directory of test binaries. The paths must be separated by the system path separator, e.g. ':' on Linux";
 
     /**
      * This list the full qualified names of the test classes to run.
@@ -119,18 +205,183 @@ public class ParserOptions {
 
     public static final String FLAG_HELP_isJUnit5 = "This flag enable the JUnit5 mode of the test-runner. If you use JUnit5, you must use this flag, otherwise, don't.";
 
+    /**
+     * This string represents the path to the directory in which the result of the execution is saved.
+     * By default, it is {@link eu.stamp_project.testrunner.listener.TestResult#OUTPUT_DIR}.
+     */
+    private String outputDirectory;
+
+    public static final String FLAG_outputDirectory = "--output-dir";
+
+    public static final String FLAG_HELP_outputDirectory = "This flag must be followed by the path to the directory in which the result of the execution is saved. By default, it is target/dspot/";
+
+    /**
+     * The port of the loopback address on which the events of the execution are sent, as they happen.
+     * See {@link eu.stamp_project.testrunner.listener.event.TestEventEmitter}. If it is 0, no event is sent.
+     */
+    private int eventPort;
+
+    public static final String FLAG_eventPort = "--event-port";
+
+    public static final String FLAG_HELP_eventPort = "This flag must be followed by the port of the loopback address on which the events of the execution, e.g. test started, test failed, are sent.";
+
+    /**
+     * If this boolean is true, the output of each test method is captured, see {@link eu.stamp_project.testrunner.listener.impl.TestOutputCapture}.
+     */
+    private boolean captureOutput;
+
+    public static final String FLAG_captureOutput = "--capture-output";
+
+    public static final String FLAG_HELP_captureOutput = "This flag enables the capture of the standard output and the standard error of each test method.";
+
+    /**
+     * The time budget in milliseconds of each test method, see {@link TestWatchdog}. If it is 0, the test methods have no time budget.
+     */
+    private long testTimeoutInMs;
+
+    public static final String FLAG_testTimeout = "--test-timeout";
+
+    public static final String FLAG_HELP_testTimeout = "This flag must be followed by the time budget in milliseconds of each test method. A test method that exceeds it fails, and the execution carries on with the next one.";
+
+    /**
+     * If this boolean is true, the events of the execution are recorded in a journal in the output directory,
+     * see {@link eu.stamp_project.testrunner.listener.event.TestEventJournal}.
+     */
+    private boolean journal;
+
+    public static final String FLAG_journal = "--journal";
+
+    public static final String FLAG_HELP_journal = "This flag enables the recording of the events of the execution in the output directory, in order to get the result of the finished test methods if the execution is stopped.";
+
+    /**
+     * The path to the file that contains the jobs to run, one per line, see {@link TestJob} and {@link TestJobRunner}.
+     */
+    private String jobsFile;
+
+    public static final String FLAG_jobs = "--jobs";
+
+    public static final String FLAG_HELP_jobs = "This flag must be followed by the path to the file that contains the jobs to run, one per line. It is only used by TestJobRunner.";
+
+    /**
+     * The path to the file in which the raw probes of each test method are written, see {@link eu.stamp_project.testrunner.listener.impl.ProbeFileWriter}.
+     * If it is null, the coverage of each test method is computed by the runner process.
+     */
+    private String probeFile;
+
+    public static final String FLAG_probeFile = "--probe-file";
+
+    public static final String FLAG_HELP_probeFile = "This flag must be followed by the path to the file in which the raw probes of each test method are written, instead of computing their coverage. It is only used by JacocoRunnerPerTestMethod.";
+
+    /**
+     * The number of frames kept per exception in the stack trace of a failure, see {@link StackTrace#configure(int, boolean)}.
+     * If it is 0, all the frames are kept.
+     */
+    private int stackTraceMaxDepth;
+
+    public static final String FLAG_stackTraceMaxDepth = "--stack-trace-max-depth";
+
+    public static final String FLAG_HELP_stackTraceMaxDepth = "This flag must be followed by the number of frames kept per exception in the stack trace of a failure. By default, all the frames are kept.";
+
+    /**
+     * If this boolean is true, the frames of JUnit, of the reflection and of the test runner that invoked the tested code are removed from the stack traces,
+     * see {@link StackTrace#configure(int, boolean)}.
+     */
+    private boolean filterStackTrace;
+
+    public static final String FLAG_filterStackTrace = "--filter-stack-trace";
+
+    public static final String FLAG_HELP_filterStackTrace = "This flag enables the removal of the frames of JUnit, of the reflection and of the test runner that invoked the tested code from the stack traces of the failures.";
+
+    /**
+     * The path to the directory in which the classes instrumented by jacoco are cached, see {@link eu.stamp_project.testrunner.runner.coverage.InstrumentedClassCache}.
+     * If it is null, the classes are instrumented on each run.
+     */
+    private String instrumentedClassesCache;
+
+    public static final String FLAG_instrumentedClassesCache = "--instrumented-classes-cache";
+
+    public static final String FLAG_HELP_instrumentedClassesCache = "This flag must be followed by the path to the directory in which the classes instrumented by jacoco are cached, and reused by the next runs. It is only used by the coverage runners.";
+
+    /**
+     * Tell the coverage runners that the classes are instrumented by the java agent of the runner process, see {@link eu.stamp_project.testrunner.runner.coverage.CoverageAgent}.
+     */
+    private boolean coverageAgent;
+
+    public static final String FLAG_coverageAgent = "--coverage-agent";
+
+    public static final String FLAG_HELP_coverageAgent = "This flag tells the coverage runners that the classes are instrumented by the java agent of the runner process, so the tests are loaded by the class loader of the runner.";
+
+    /**
+     * Tell the coverage runners to instrument all the classes at once, in parallel, instead of each class on its first load,
+     * see {@link eu.stamp_project.testrunner.runner.coverage.JacocoRunner#instrumentAll()}.
+     */
+    private boolean eagerInstrumentation;
+
+    public static final String FLAG_eagerInstrumentation = "--eager-instrumentation";
+
+    public static final String FLAG_HELP_eagerInstrumentation = "This flag tells the coverage runners to instrument all the classes at once, in parallel, before running the tests, instead of instrumenting each class on its first load.";
+
+    /**
+     * The patterns of the full qualified names of the classes to instrument and to analyze, see {@link eu.stamp_project.testrunner.runner.coverage.CoverageFilter}.
+     * If it is empty, all the classes are kept.
+     */
+    private List<String> coverageIncludes;
+
+    public static final String FLAG_coverageIncludes = "--coverage-includes";
+
+    public static final String FLAG_HELP_coverageIncludes = "This flag must be followed by the patterns of the full qualified names of the classes to instrument and to analyze, e.g. com.example.*. Patterns must be separated by the system path separator, e.g. ':' on Linux. By default, all the classes are kept.";
+
+    /**
+     * The patterns of the full qualified names of the classes to NOT instrument and to NOT analyze, see {@link eu.stamp_project.testrunner.runner.coverage.CoverageFilter}.
+     */
+    private List<String> coverageExcludes;
+
+    public static final String FLAG_coverageExcludes = "--coverage-excludes";
+
+    public static final String FLAG_HELP_coverageExcludes = "This flag must be followed by the patterns of the full qualified names of the classes to NOT instrument and to NOT analyze, e.g. *.dto.*. Patterns must be separated by the system path separator, e.g. ':' on Linux.";
+
     private ParserOptions() {
         this.pathToCompiledClassesOfTheProject = "";
         this.fullQualifiedNameOfTestClassesToRun = new String[]{};
         this.testMethodNamesToRun = new String[]{};
         this.blackList = new ArrayList<>();
         this.isJUnit5 = false;
+        this.outputDirectory = TestResult.OUTPUT_DIR;
+        this.eventPort = 0;
+        this.captureOutput = false;
+        this.testTimeoutInMs = 0L;
+        this.journal = false;
+        this.jobsFile = "";
+        this.probeFile = null;
+        this.stackTraceMaxDepth = StackTrace.UNLIMITED_DEPTH;
+        this.filterStackTrace = false;
+        this.instrumentedClassesCache = null;
+        this.coverageAgent = false;
+        this.eagerInstrumentation = false;
+        this.coverageIncludes = new ArrayList<>();
+        this.coverageExcludes = new ArrayList<>();
     }
 
     public String getPathToCompiledClassesOfTheProject() {
         return pathToCompiledClassesOfTheProject;
     }
 
+    /**
+     * @return the paths to the directories and the jars of sources binaries, separated by the system path separator,
+     * <i>i.e.</i> the paths of {@link ParserOptions#FLAG_pathToCompiledClassesOfTheProject} but the last one
+     */
+    public String getCoverageTargets() {
+        final int lastPathSeparator = pathToCompiledClassesOfTheProject.lastIndexOf(ConstantsHelper.PATH_SEPARATOR);
+        return lastPathSeparator < 0 ? pathToCompiledClassesOfTheProject : pathToCompiledClassesOfTheProject.substring(0, lastPathSeparator);
+    }
+
+    /**
+     * @return the path to the directory of test binaries, <i>i.e.</i> the last path of {@link ParserOptions#FLAG_pathToCompiledClassesOfTheProject}
+     */
+    public String getTestClassesDirectory() {
+        return pathToCompiledClassesOfTheProject.substring(pathToCompiledClassesOfTheProject.lastIndexOf(ConstantsHelper.PATH_SEPARATOR) + 1);
+    }
+
     public String[] getFullQualifiedNameOfTestClassesToRun() {
         return fullQualifiedNameOfTestClassesToRun;
     }
@@ -146,4 +397,60 @@ public class ParserOptions {
     public boolean isJUnit5() {
         return isJUnit5;
     }
+
+    public String getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public int getEventPort() {
+        return eventPort;
+    }
+
+    public boolean isCaptureOutput() {
+        return captureOutput;
+    }
+
+    public long getTestTimeoutInMs() {
+        return testTimeoutInMs;
+    }
+
+    public boolean isJournal() {
+        return journal;
+    }
+
+    public String getJobsFile() {
+        return jobsFile;
+    }
+
+    public String getProbeFile() {
+        return probeFile;
+    }
+
+    public int getStackTraceMaxDepth() {
+        return stackTraceMaxDepth;
+    }
+
+    public boolean isFilterStackTrace() {
+        return filterStackTrace;
+    }
+
+    public String getInstrumentedClassesCache() {
+        return instrumentedClassesCache;
+    }
+
+    public boolean isCoverageAgent() {
+        return coverageAgent;
+    }
+
+    public boolean isEagerInstrumentation() {
+        return eagerInstrumentation;
+    }
+
+    public List<String> getCoverageIncludes() {
+        return coverageIncludes;
+    }
+
+    public List<String> getCoverageExcludes() {
+        return coverageExcludes;
+    }
 }
@@ -0,0 +1,152 @@
+package eu.stamp_project.testrunner.runner;
+
+import eu.stamp_project.testrunner.EntryPoint;
+import eu.stamp_project.testrunner.utils.ConstantsHelper;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+
+/**
+ * This class is a long-lived runner process. It is meant to be started once by {@link EntryPoint},
+ * and then reused for several executions, in order to avoid to pay the start up of a new JVM for each execution.
+ * <p>
+ * The protocol is line based:
+ * </p>
+ * <ul>
+ * <li>the parent writes on the standard input one request per line: the full qualified name of a runner, <i>e.g.</i> {@link JUnit4Runner},
+ * followed by its arguments, separated by white spaces. For the expected arguments, see {@link ParserOptions}</li>
+ * <li>the daemon executes the main method of the runner, and then prints {@link RunnerDaemon#DONE_MARKER} followed by the status,
+ * {@link RunnerDaemon#STATUS_OK} or {@link RunnerDaemon#STATUS_ERROR}, and the heap usage, see {@link RunnerDaemon#getHeapUsage()},
+ * on its own line on the standard output.</li>
+ * <li>the daemon stops when it reads {@link RunnerDaemon#EXIT_REQUEST} or when the standard input is closed.</li>
+ * </ul>
+ * <p>
+ * The classes of JUnit, of JaCoCo and of the runners are loaded by a class loader that lives as long as the daemon:
+ * they are loaded, and compiled by the JIT, once for all the requests.
+ * Each request is executed inside a fresh class loader built on the classpath of the daemon, that loads the other classes,
+ * <i>i.e.</i> the classes of the project and of its tests, so their static state is not shared between two requests.
+ * The runners configure their static state at the beginning of each request, and load the test classes with the context class loader.
+ * </p>
+ */
+public class RunnerDaemon {
+
+    public static final String DONE_MARKER = "__TEST_RUNNER_DAEMON_DONE__";
+
+    public static final String STATUS_OK = "OK";
+
+    public static final String STATUS_ERROR = "ERROR";
+
+    public static final String EXIT_REQUEST = "__TEST_RUNNER_DAEMON_EXIT__";
+
+    private static final String[] SHARED_PACKAGES = new String[]{
+            "junit.",
+            "org.junit.",
+            "org.hamcrest.",
+            "org.opentest4j.",
+            "org.apiguardian.",
+            "org.jacoco.",
+            "org.objectweb.asm.",
+            "eu.stamp_project.testrunner."
+    };
+
+    public static void main(String[] args) throws Exception {
+        final PrintStream protocolOut = System.out;
+        final PrintStream protocolErr = System.err;
+        final URL[] classpath = Arrays.stream(System.getProperty("java.class.path").split(ConstantsHelper.PATH_SEPARATOR))
+                .map(path -> {
+                    try {
+                        return new File(path).toURI().toURL();
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }).toArray(URL[]::new);
+        final ClassLoader sharedClassLoader = new URLClassLoader(classpath, ClassLoader.getSystemClassLoader().getParent());
+        final BufferedReader input = new BufferedReader(new InputStreamReader(System.in));
+        String request;
+        while ((request = input.readLine()) != null) {
+            request = request.trim();
+            if (request.isEmpty()) {
+                continue;
+            }
+            if (EXIT_REQUEST.equals(request)) {
+                break;
+            }
+            final String status = RunnerDaemon.execute(classpath, sharedClassLoader, request.split("\\s+"), protocolErr);
+            // restore the streams, in case of the tests replaced them
+            System.setOut(protocolOut);
+            System.setErr(protocolErr);
+            protocolOut.println();
+            protocolOut.println(DONE_MARKER + ConstantsHelper.WHITE_SPACE + status + ConstantsHelper.WHITE_SPACE + getHeapUsage());
+            protocolOut.flush();
+        }
+    }
+
+    /**
+     * @return the ratio between the heap used after the last garbage collection and the maximum heap.
+     * Since it does not count the garbage, it grows only if the requests leak memory, <i>e.g.</i> through static fields of the JDK classes.
+     */
+    public static double getHeapUsage() {
+        long used = 0L;
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            final MemoryUsage collectionUsage = memoryPool.getCollectionUsage();
+            if (memoryPool.getType() == MemoryType.HEAP && collectionUsage != null) {
+                used += collectionUsage.getUsed();
+            }
+        }
+        return (double) used / Runtime.getRuntime().maxMemory();
+    }
+
+    private static String execute(URL[] classpath, ClassLoader sharedClassLoader, String[] request, PrintStream err) {
+        final ClassLoader previousContextClassLoader = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader classLoader = new RequestClassLoader(classpath, sharedClassLoader)) {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            final Method main = classLoader.loadClass(request[0]).getMethod("main", String[].class);
+            main.invoke(null, (Object) Arrays.copyOfRange(request, 1, request.length));
+            return STATUS_OK;
+        } catch (InvocationTargetException e) {
+            e.getCause().printStackTrace(err);
+            return STATUS_ERROR;
+        } catch (Throwable e) {
+            e.printStackTrace(err);
+            return STATUS_ERROR;
+        } finally {
+            Thread.currentThread().setContextClassLoader(previousContextClassLoader);
+        }
+    }
+
+    /**
+     * The class loader of a request: it loads the classes of the project and of its tests,
+     * and delegates the classes of {@link RunnerDaemon#SHARED_PACKAGES} to the class loader shared by the requests.
+     */
+    static class RequestClassLoader extends URLClassLoader {
+
+        private final ClassLoader sharedClassLoader;
+
+        RequestClassLoader(URL[] classpath, ClassLoader sharedClassLoader) {
+            super(classpath, ClassLoader.getSystemClassLoader().getParent());
+            this.sharedClassLoader = sharedClassLoader;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            for (String sharedPackage : SHARED_PACKAGES) {
+                if (name.startsWith(sharedPackage)) {
+                    return this.sharedClassLoader.loadClass(name);
+                }
+            }
+            return super.loadClass(name, resolve);
+        }
+    }
+
+}
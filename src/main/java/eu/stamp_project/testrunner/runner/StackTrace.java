@@ -0,0 +1,190 @@
+package eu.stamp_project.testrunner.runner;
+
+import eu.stamp_project.testrunner.utils.ConstantsHelper;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class is the structured stack trace of a {@link Failure}: the description of the exception, its frames, and its cause.
+ * It is rendered as text only when it is requested, see {@link StackTrace#toString()}, following the format of {@link Throwable#printStackTrace()}.
+ * <p>
+ * The frames are shared: each frame is rendered once per runner process, and the same string is referenced by all the stack traces that contain it.
+ * As in {@link Throwable#printStackTrace()}, the frames of a cause in common with the enclosing stack trace are not kept.
+ * The runner can also keep fewer frames, see {@link StackTrace#configure(int, boolean)}.
+ * </p>
+ */
+public class StackTrace implements Serializable {
+
+    private static final long serialVersionUID = -3640563893811212957L;
+
+    public static final int UNLIMITED_DEPTH = 0;
+
+    private static final String[] FRAMEWORK_PACKAGES = new String[]{
+            "org.junit.", "junit.framework.", "junit.runner.",
+            "sun.reflect.", "java.lang.reflect.", "jdk.internal.reflect.",
+            "org.jacoco.", "eu.stamp_project.testrunner."
+    };
+
+    private static final int MAX_NUMBER_OF_SHARED_FRAMES = 1 << 16;
+
+    private static final Map<StackTraceElement, String> SHARED_FRAMES = new ConcurrentHashMap<>();
+
+    private static volatile int maxDepth = UNLIMITED_DEPTH;
+
+    private static volatile boolean filterFrameworkFrames = false;
+
+    private final String description;
+
+    private final String[] frames;
+
+    private final int numberOfOmittedFrames;
+
+    private final int numberOfFramesInCommon;
+
+    private final StackTrace cause;
+
+    /**
+     * @param description            the description of the exception, <i>i.e.</i> its class and its message, see {@link Throwable#toString()}
+     * @param frames                 the frames kept
+     * @param numberOfOmittedFrames  the number of frames not kept, because of the max depth or the filter of the framework frames
+     * @param numberOfFramesInCommon the number of frames in common with the enclosing stack trace, for a cause
+     * @param cause                  the stack trace of the cause, or null
+     */
+    public StackTrace(String description, String[] frames, int numberOfOmittedFrames, int numberOfFramesInCommon, StackTrace cause) {
+        this.description = description;
+        this.frames = frames;
+        this.numberOfOmittedFrames = numberOfOmittedFrames;
+        this.numberOfFramesInCommon = numberOfFramesInCommon;
+        this.cause = cause;
+    }
+
+    /**
+     * Configure the stack traces built afterwards by this JVM.
+     *
+     * @param maxDepth              the number of frames kept per exception, or {@link StackTrace#UNLIMITED_DEPTH}
+     * @param filterFrameworkFrames if true, the frames of JUnit, of the reflection and of the test runner that follow a frame of the tested code are not kept,
+     *                              <i>e.g.</i> the frames that invoked the test method. The frames above, <i>e.g.</i> the assertion that failed, are kept.
+     */
+    public static void configure(int maxDepth, boolean filterFrameworkFrames) {
+        StackTrace.maxDepth = maxDepth;
+        StackTrace.filterFrameworkFrames = filterFrameworkFrames;
+    }
+
+    /**
+     * @param throwable an exception
+     * @return the structured stack trace of the given exception, and of its causes
+     */
+    public static StackTrace of(Throwable throwable) {
+        return of(throwable, new StackTraceElement[0], Collections.newSetFromMap(new IdentityHashMap<>()), maxDepth, filterFrameworkFrames);
+    }
+
+    private static StackTrace of(Throwable throwable,
+                                 StackTraceElement[] enclosingTrace,
+                                 Set<Throwable> visited,
+                                 int maxDepth,
+                                 boolean filterFrameworkFrames) {
+        visited.add(throwable);
+        final StackTraceElement[] trace = throwable.getStackTrace();
+        int last = trace.length - 1;
+        int lastOfEnclosingTrace = enclosingTrace.length - 1;
+        while (last >= 0 && lastOfEnclosingTrace >= 0 && trace[last].equals(enclosingTrace[lastOfEnclosingTrace])) {
+            last--;
+            lastOfEnclosingTrace--;
+        }
+        final List<String> frames = new ArrayList<>(last + 1);
+        int numberOfOmittedFrames = 0;
+        boolean inTestedCode = false;
+        for (int i = 0; i <= last; i++) {
+            final boolean isFrameworkFrame = filterFrameworkFrames && isFrameworkFrame(trace[i]);
+            inTestedCode |= !isFrameworkFrame;
+            if ((inTestedCode && isFrameworkFrame) || (maxDepth > 0 && frames.size() >= maxDepth)) {
+                numberOfOmittedFrames++;
+            } else {
+                frames.add(sharedFrame(trace[i]));
+            }
+        }
+        final Throwable cause = throwable.getCause();
+        return new StackTrace(
+                throwable.toString(),
+                frames.toArray(new String[0]),
+                numberOfOmittedFrames,
+                trace.length - 1 - last,
+                cause == null || visited.contains(cause) ? null : of(cause, trace, visited, maxDepth, filterFrameworkFrames)
+        );
+    }
+
+    private static boolean isFrameworkFrame(StackTraceElement frame) {
+        for (String frameworkPackage : FRAMEWORK_PACKAGES) {
+            if (frame.getClassName().startsWith(frameworkPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String sharedFrame(StackTraceElement frame) {
+        final String sharedFrame = SHARED_FRAMES.get(frame);
+        if (sharedFrame != null) {
+            return sharedFrame;
+        }
+        if (SHARED_FRAMES.size() >= MAX_NUMBER_OF_SHARED_FRAMES) {
+            return frame.toString();
+        }
+        return SHARED_FRAMES.computeIfAbsent(frame, StackTraceElement::toString);
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public List<String> getFrames() {
+        return Collections.unmodifiableList(Arrays.asList(frames));
+    }
+
+    public int getNumberOfOmittedFrames() {
+        return numberOfOmittedFrames;
+    }
+
+    public int getNumberOfFramesInCommon() {
+        return numberOfFramesInCommon;
+    }
+
+    public StackTrace getCause() {
+        return cause;
+    }
+
+    /**
+     * @return the stack trace as text, as printed by {@link Throwable#printStackTrace()}, except for the suppressed exceptions.
+     * The omitted frames are replaced by a line "... n filtered".
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        this.render(builder, "");
+        return builder.toString();
+    }
+
+    private void render(StringBuilder builder, String caption) {
+        builder.append(caption).append(this.description).append(ConstantsHelper.LINE_SEPARATOR);
+        for (String frame : this.frames) {
+            builder.append("\tat ").append(frame).append(ConstantsHelper.LINE_SEPARATOR);
+        }
+        if (this.numberOfOmittedFrames > 0) {
+            builder.append("\t... ").append(this.numberOfOmittedFrames).append(" filtered").append(ConstantsHelper.LINE_SEPARATOR);
+        }
+        if (this.numberOfFramesInCommon > 0) {
+            builder.append("\t... ").append(this.numberOfFramesInCommon).append(" more").append(ConstantsHelper.LINE_SEPARATOR);
+        }
+        if (this.cause != null) {
+            this.cause.render(builder, "Caused by: ");
+        }
+    }
+}
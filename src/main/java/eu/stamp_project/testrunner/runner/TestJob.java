@@ -0,0 +1,115 @@
+package eu.stamp_project.testrunner.runner;
+
+import eu.stamp_project.testrunner.utils.ConstantsHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class describes one execution of a batch, see {@link eu.stamp_project.testrunner.EntryPoint#runJobs(String, String, List)}:
+ * the test classes and the test methods to run, and what to compute, see {@link TestJob.Mode}.
+ * All the jobs of a batch are run by {@link TestJobRunner} in a single runner process, one after the other.
+ */
+public class TestJob {
+
+    public enum Mode {
+        /**
+         * run the tests, the result of the job is a {@link eu.stamp_project.testrunner.listener.TestResult}
+         */
+        TEST,
+        /**
+         * compute the coverage of the tests, the result of the job is a {@link eu.stamp_project.testrunner.listener.Coverage}.
+         * The test methods can only be selected in a single test class.
+         */
+        COVERAGE,
+        /**
+         * compute the coverage of each test method, the result of the job is a {@link eu.stamp_project.testrunner.listener.CoveragePerTestMethod}.
+         * The job must have a single test class.
+         */
+        COVERAGE_PER_TEST_METHOD
+    }
+
+    public static TestJob runTests(String fullQualifiedNameOfTestClass, String... testMethodNames) {
+        return new TestJob(Mode.TEST, new String[]{fullQualifiedNameOfTestClass}, testMethodNames);
+    }
+
+    public static TestJob runCoverage(String fullQualifiedNameOfTestClass, String... testMethodNames) {
+        return new TestJob(Mode.COVERAGE, new String[]{fullQualifiedNameOfTestClass}, testMethodNames);
+    }
+
+    public static TestJob runCoveragePerTestMethods(String fullQualifiedNameOfTestClass, String... testMethodNames) {
+        return new TestJob(Mode.COVERAGE_PER_TEST_METHOD, new String[]{fullQualifiedNameOfTestClass}, testMethodNames);
+    }
+
+    private static final char SEPARATOR = '\t';
+
+    private final Mode mode;
+
+    private final String[] fullQualifiedNameOfTestClasses;
+
+    private final String[] testMethodNames;
+
+    /**
+     * @param mode                           what to compute
+     * @param fullQualifiedNameOfTestClasses the full qualified names of the test classes to run
+     * @param testMethodNames                the simple names of the test methods to run, can be empty to run all the test methods
+     * @throws IllegalArgumentException if the given mode does not support the given test classes and test methods, see {@link TestJob.Mode}
+     */
+    public TestJob(Mode mode, String[] fullQualifiedNameOfTestClasses, String[] testMethodNames) {
+        if (fullQualifiedNameOfTestClasses.length == 0) {
+            throw new IllegalArgumentException("A job must have at least one test class.");
+        }
+        if (mode == Mode.COVERAGE && fullQualifiedNameOfTestClasses.length > 1 && testMethodNames.length > 0) {
+            throw new IllegalArgumentException("A job that computes the coverage can only select test methods in a single test class.");
+        }
+        if (mode == Mode.COVERAGE_PER_TEST_METHOD && fullQualifiedNameOfTestClasses.length > 1) {
+            throw new IllegalArgumentException("A job that computes the coverage per test method must have a single test class.");
+        }
+        this.mode = mode;
+        this.fullQualifiedNameOfTestClasses = fullQualifiedNameOfTestClasses.clone();
+        this.testMethodNames = testMethodNames.clone();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public String[] getFullQualifiedNameOfTestClasses() {
+        return fullQualifiedNameOfTestClasses.clone();
+    }
+
+    public String[] getTestMethodNames() {
+        return testMethodNames.clone();
+    }
+
+    /*
+        The jobs are written in a file by the parent process, one job per line, and read by TestJobRunner.
+        Neither the names of the test classes nor the names of the test methods contain tabulations or path separators.
+     */
+
+    public String toLine() {
+        return this.mode.name() + SEPARATOR +
+                String.join(ConstantsHelper.PATH_SEPARATOR, this.fullQualifiedNameOfTestClasses) + SEPARATOR +
+                String.join(ConstantsHelper.PATH_SEPARATOR, this.testMethodNames);
+    }
+
+    public static TestJob fromLine(String line) {
+        final String[] fields = line.split(String.valueOf(SEPARATOR), -1);
+        return new TestJob(Mode.valueOf(fields[0]),
+                fields[1].split(ConstantsHelper.PATH_SEPARATOR),
+                split(fields[2])
+        );
+    }
+
+    private static String[] split(String value) {
+        final List<String> values = new ArrayList<>(Arrays.asList(value.split(ConstantsHelper.PATH_SEPARATOR)));
+        values.removeIf(String::isEmpty);
+        return values.toArray(new String[0]);
+    }
+
+    @Override
+    public String toString() {
+        return this.mode + " " + Arrays.toString(this.fullQualifiedNameOfTestClasses) + " " + Arrays.toString(this.testMethodNames);
+    }
+}
@@ -0,0 +1,149 @@
+package eu.stamp_project.testrunner.runner;
+
+import eu.stamp_project.testrunner.EntryPoint;
+import eu.stamp_project.testrunner.listener.event.TestEventEmitter;
+import eu.stamp_project.testrunner.listener.impl.TestOutputCapture;
+import eu.stamp_project.testrunner.listener.junit4.JUnit4TestResult;
+import eu.stamp_project.testrunner.listener.junit5.JUnit5TestResult;
+import eu.stamp_project.testrunner.runner.coverage.CoverageFilter;
+import eu.stamp_project.testrunner.runner.coverage.InstrumentedClassCache;
+import eu.stamp_project.testrunner.runner.coverage.JacocoRunner;
+import eu.stamp_project.testrunner.runner.coverage.JacocoRunnerPerTestMethod;
+import eu.stamp_project.testrunner.utils.ConstantsHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * This class runs a batch of {@link TestJob} in a single runner process, one after the other.
+ * The result of each job is saved in its own directory, see {@link TestJobRunner#getOutputDirectoryOfJob(String, int)}.
+ * If a job cannot be run, <i>e.g.</i> one of its test classes does not exist, its error is saved instead of its result,
+ * see {@link TestJobRunner#ERROR_FILE_NAME}, and the next jobs are still run.
+ * <p>
+ * The coverage is computed with a fresh instrumentation for each job, since the probes of the classes
+ * that have already been loaded cannot be reset.
+ * </p>
+ */
+public class TestJobRunner {
+
+    public static final String JOB_DIRECTORY_PREFIX = "job-";
+
+    /**
+     * The name of the file that contains the stack trace of the error of a job that cannot be run, in the directory of the job.
+     */
+    public static final String ERROR_FILE_NAME = "error.txt";
+
+    /**
+     * The entry method to execute a batch of jobs.
+     * This method is not meant to be used directly, but rather using {@link EntryPoint}
+     * For the expected arguments, see {@link ParserOptions}. The jobs are read from the file given by {@link ParserOptions#FLAG_jobs}.
+     */
+    public static void main(String[] args) {
+        final ParserOptions options = ParserOptions.parse(args);
+        final List<TestJob> jobs = readJobs(options.getJobsFile());
+        TestEventEmitter.connect(options);
+        StackTrace.configure(options.getStackTraceMaxDepth(), options.isFilterStackTrace());
+        CoverageFilter.configure(options.getCoverageIncludes(), options.getCoverageExcludes());
+        if (options.isCaptureOutput()) {
+            TestOutputCapture.install(TestOutputCapture.DEFAULT_MAX_SIZE_PER_TEST);
+        }
+        if (options.getTestTimeoutInMs() > 0) {
+            TestWatchdog.install(options.getTestTimeoutInMs());
+        }
+        try {
+            for (int i = 0; i < jobs.size(); i++) {
+                try {
+                    run(jobs.get(i), options, getOutputDirectoryOfJob(options.getOutputDirectory(), i));
+                } catch (ThreadDeath e) {
+                    throw e;
+                } catch (Throwable e) {
+                    saveError(e, getOutputDirectoryOfJob(options.getOutputDirectory(), i));
+                }
+            }
+        } catch (ThreadDeath e) {
+            throw TestWatchdog.fatal(e);
+        } finally {
+            TestWatchdog.uninstall();
+            TestOutputCapture.uninstall();
+            TestEventEmitter.close();
+        }
+    }
+
+    /**
+     * @param outputDirectory the output directory of the batch
+     * @param index           the index of the job in the batch
+     * @return the path to the directory in which the result of the job is saved
+     */
+    public static String getOutputDirectoryOfJob(String outputDirectory, int index) {
+        return new File(outputDirectory, JOB_DIRECTORY_PREFIX + index).getPath() + ConstantsHelper.FILE_SEPARATOR;
+    }
+
+    private static void saveError(Throwable error, String outputDirectory) {
+        final StringWriter stackTrace = new StringWriter();
+        error.printStackTrace(new PrintWriter(stackTrace));
+        try {
+            final File errorFile = new File(outputDirectory, ERROR_FILE_NAME);
+            errorFile.getParentFile().mkdirs();
+            Files.write(errorFile.toPath(), stackTrace.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static List<TestJob> readJobs(String jobsFile) {
+        try {
+            return Files.readAllLines(new File(jobsFile).toPath(), StandardCharsets.UTF_8).stream()
+                    .filter(line -> !line.isEmpty())
+                    .map(TestJob::fromLine)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void run(TestJob job, ParserOptions options, String outputDirectory) {
+        final String[] testClasses = job.getFullQualifiedNameOfTestClasses();
+        final String[] testMethodNames = job.getTestMethodNames();
+        if (job.getMode() == TestJob.Mode.TEST) {
+            if (options.isJUnit5()) {
+                final JUnit5TestResult jUnit5TestResult = new JUnit5TestResult();
+                JUnit5Runner.run(testClasses, testMethodNames, options.getBlackList(), jUnit5TestResult, Thread.currentThread().getContextClassLoader());
+                jUnit5TestResult.save(outputDirectory);
+            } else {
+                final JUnit4TestResult jUnit4TestResult = new JUnit4TestResult();
+                JUnit4Runner.run(testClasses, testMethodNames, options.getBlackList(), jUnit4TestResult, Thread.currentThread().getContextClassLoader());
+                jUnit4TestResult.save(outputDirectory);
+            }
+            return;
+        }
+        final String classesDirectory = options.getCoverageTargets();
+        final String testClassesDirectory = options.getTestClassesDirectory();
+        final InstrumentedClassCache instrumentedClassCache = JacocoRunner.instrumentedClassCacheOf(options);
+        if (job.getMode() == TestJob.Mode.COVERAGE) {
+            final JacocoRunner jacocoRunner =
+                    new JacocoRunner(options.isJUnit5(), classesDirectory, testClassesDirectory, options.getBlackList(), instrumentedClassCache);
+            if (options.isEagerInstrumentation()) {
+                jacocoRunner.instrumentAll();
+            }
+            if (testMethodNames.length == 0) {
+                jacocoRunner.run(classesDirectory, testClassesDirectory, testClasses).save(outputDirectory);
+            } else {
+                jacocoRunner.run(classesDirectory, testClassesDirectory, testClasses[0], testMethodNames).save(outputDirectory);
+            }
+        } else {
+            final JacocoRunnerPerTestMethod jacocoRunner =
+                    new JacocoRunnerPerTestMethod(options.isJUnit5(), classesDirectory, testClassesDirectory, options.getBlackList(), instrumentedClassCache);
+            if (options.isEagerInstrumentation()) {
+                jacocoRunner.instrumentAll();
+            }
+            jacocoRunner.runCoveragePerTestMethod(classesDirectory, testClassesDirectory, testClasses[0], testMethodNames)
+                    .save(outputDirectory);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package eu.stamp_project.testrunner.runner;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * This class enforces a time budget on each test method, inside the runner process.
+ * Once installed, see {@link TestWatchdog#install(long)}, a test method that runs longer than the budget
+ * between {@link TestWatchdog#start(String, String)} and {@link TestWatchdog#stop()} is timed out:
+ * its thread is interrupted, and if it still runs after a grace period, its thread is stopped.
+ * The listeners, <i>e.g.</i> {@link eu.stamp_project.testrunner.listener.junit4.JUnit4TestResult}, start and stop the watchdog around each test method,
+ * and record the failure returned by {@link TestWatchdog#getTimeoutFailure()} instead of the failure reported by JUnit.
+ * Thus, only the hung test method fails, and the execution carries on with the next one.
+ * If the thread is stopped after its test method returned, the {@link ThreadDeath} is thrown outside of the test method:
+ * the runners report it as fatal, see {@link TestWatchdog#fatal(ThreadDeath)}.
+ * If the watchdog is not installed, every method does nothing.
+ */
+public class TestWatchdog {
+
+    private static final long GRACE_PERIOD_IN_MS = 1000L;
+
+    private static final String RUN_NOTIFIER = "org.junit.runner.notification.RunNotifier";
+
+    private static final String JUNIT4_LISTENERS = "eu.stamp_project.testrunner.listener.junit4.";
+
+    private static final String JUNIT5_LISTENERS = "eu.stamp_project.testrunner.listener.junit5.";
+
+    private static long timeoutInMs;
+
+    private static Thread watchdogThread;
+
+    private static Thread testThread;
+
+    private static String testClassName;
+
+    private static String testMethodName;
+
+    private static long deadline;
+
+    private static Failure timeoutFailure;
+
+    private static boolean stopped;
+
+    public static synchronized void install(long timeoutInMs) {
+        if (watchdogThread != null) {
+            return;
+        }
+        TestWatchdog.timeoutInMs = timeoutInMs;
+        watchdogThread = new Thread(TestWatchdog::watch, "test-watchdog");
+        watchdogThread.setDaemon(true);
+        watchdogThread.start();
+    }
+
+    public static synchronized void uninstall() {
+        if (watchdogThread == null) {
+            return;
+        }
+        watchdogThread.interrupt();
+        watchdogThread = null;
+        testThread = null;
+        timeoutFailure = null;
+    }
+
+    /**
+     * Start the budget of the given test method, run by the current thread.
+     */
+    public static synchronized void start(String testClassName, String testMethodName) {
+        if (watchdogThread == null) {
+            return;
+        }
+        TestWatchdog.testThread = Thread.currentThread();
+        TestWatchdog.testClassName = testClassName;
+        TestWatchdog.testMethodName = testMethodName;
+        TestWatchdog.deadline = System.currentTimeMillis() + timeoutInMs;
+        TestWatchdog.timeoutFailure = null;
+        TestWatchdog.stopped = false;
+        TestWatchdog.class.notifyAll();
+    }
+
+    /**
+     * @return the failure of the current test method if it has been timed out, or null otherwise
+     */
+    public static synchronized Failure getTimeoutFailure() {
+        return timeoutFailure;
+    }
+
+    /**
+     * Stop the budget of the current test method.
+     *
+     * @return the failure of the current test method if it has been timed out, or null otherwise
+     */
+    public static synchronized Failure stop() {
+        final Failure failure = timeoutFailure;
+        if (failure != null && testThread == Thread.currentThread()) {
+            // the interruption must not leak into the next test method
+            Thread.interrupted();
+        }
+        testThread = null;
+        timeoutFailure = null;
+        return failure;
+    }
+
+    private static synchronized void watch() {
+        final Thread currentThread = Thread.currentThread();
+        try {
+            while (watchdogThread == currentThread) {
+                if (testThread == null) {
+                    TestWatchdog.class.wait();
+                    continue;
+                }
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining > 0) {
+                    TestWatchdog.class.wait(remaining);
+                } else if (timeoutFailure == null) {
+                    timeoutFailure = new Failure(testMethodName, testClassName,
+                            TimeoutException.class.getName(),
+                            String.format("test timed out after %d milliseconds", timeoutInMs),
+                            stackTraceOf(testThread)
+                    );
+                    System.err.println(String.format("%s#%s timed out after %d milliseconds, interrupting it.",
+                            testClassName, testMethodName, timeoutInMs));
+                    testThread.interrupt();
+                    deadline = System.currentTimeMillis() + GRACE_PERIOD_IN_MS;
+                } else if (!stopped) {
+                    stopped = true;
+                    // under the lock, the test method is still the current one, but it may have returned meanwhile
+                    if (isRunningTestMethod(testThread)) {
+                        System.err.println(String.format("%s#%s did not stop after being interrupted, stopping its thread.",
+                                testClassName, testMethodName));
+                        stopThread(testThread);
+                    }
+                } else {
+                    TestWatchdog.class.wait();
+                }
+            }
+        } catch (InterruptedException ignored) {
+            // uninstalled
+        }
+    }
+
+    /*
+        Thread.stop() is the only way to end a test method that ignores interruptions, e.g. an infinite loop.
+        The ThreadDeath is thrown in the test method, and reported by JUnit as a failure, which is then replaced by the timeout.
+     */
+    @SuppressWarnings("deprecation")
+    private static void stopThread(Thread thread) {
+        try {
+            thread.stop();
+        } catch (UnsupportedOperationException e) {
+            System.err.println("The thread of the test method cannot be stopped on this JVM.");
+        }
+    }
+
+    /*
+        The thread has left the test method once it notifies its end, through the RunNotifier of JUnit 4 or the listeners,
+            until it stops the budget of the test method, see stop(), which waits for the lock held by the watchdog.
+     */
+    private static boolean isRunningTestMethod(Thread thread) {
+        for (StackTraceElement element : thread.getStackTrace()) {
+            final String className = element.getClassName();
+            if (className.equals(TestWatchdog.class.getName())
+                    || className.equals(RUN_NOTIFIER)
+                    || className.startsWith(JUNIT4_LISTENERS)
+                    || className.startsWith(JUNIT5_LISTENERS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Report a {@link ThreadDeath} thrown outside of a test method:
+     * the watchdog stopped the thread of a test method that returned meanwhile, thus the results of the run are incomplete.
+     *
+     * @param threadDeath the {@link ThreadDeath} caught by a runner, outside of the test methods
+     * @return the error to be thrown by the runner, to fail the whole run
+     */
+    public static synchronized RuntimeException fatal(ThreadDeath threadDeath) {
+        final String message = String.format("The thread of %s#%s has been stopped after the end of the test method, the results of the run are incomplete.",
+                testClassName, testMethodName);
+        System.err.println(message);
+        return new IllegalStateException(message, threadDeath);
+    }
+
+    private static String stackTraceOf(Thread thread) {
+        return TimeoutException.class.getName() + ": test timed out" + System.lineSeparator() +
+                Arrays.stream(thread.getStackTrace())
+                        .map(element -> "\tat " + element)
+                        .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+}
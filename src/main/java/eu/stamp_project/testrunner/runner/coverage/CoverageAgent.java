@@ -0,0 +1,136 @@
+package eu.stamp_project.testrunner.runner.coverage;
+
+import eu.stamp_project.testrunner.utils.ConstantsHelper;
+import org.jacoco.core.instr.Instrumenter;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Field;
+import java.security.ProtectionDomain;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * This class is the java agent of the coverage runners, used when {@link eu.stamp_project.testrunner.EntryPoint#useCoverageAgent} is enabled.
+ * It instruments the classes of the given coverage targets, see {@link CoverageTargets}, when they are loaded, whatever their class loader,
+ * so the tests are loaded by the usual class loaders instead of {@link MemoryClassLoader}.
+ * <p>
+ * The instrumented classes get their probes from {@link CoverageRuntime}, as resolved by their own class loader:
+ * the runner that started this runtime must be loaded by the same class loader as the tests, see {@link JacocoRunner}.
+ * </p>
+ * <p>
+ * The arguments of the agent are the coverage targets, and optionally the patterns of the {@link CoverageFilter}, separated by commas,
+ * <i>e.g.</i> <code>-javaagent:agent.jar=targets=target/classes:lib/library.jar,includes=com.example.*,excludes=*.dto.*</code>.
+ * The patterns are separated by the system path separator.
+ * The jar of the agent only contains a manifest: the classes of the agent are loaded from the classpath of the runner.
+ * </p>
+ * <p>
+ * A class that can not be instrumented is loaded as it is, since the JVM ignores the exceptions of the transformers:
+ * its error is recorded, see {@link CoverageAgent#getInstrumentationFailures()}, and the coverage runner fails with it.
+ * </p>
+ */
+public class CoverageAgent implements ClassFileTransformer {
+
+    private static final String ARGUMENTS_SEPARATOR = ",";
+
+    private static final String ARGUMENT_TARGETS = "targets";
+
+    private static final String ARGUMENT_INCLUDES = "includes";
+
+    private static final String ARGUMENT_EXCLUDES = "excludes";
+
+    private static final String INSTRUMENTATION_FAILURES_FIELD = "INSTRUMENTATION_FAILURES";
+
+    private static final Map<String, Throwable> INSTRUMENTATION_FAILURES = new ConcurrentHashMap<>();
+
+    private final Set<String> classesToInstrument;
+
+    private final Instrumenter instrumenter;
+
+    /**
+     * @param classesToInstrument the VM names of the classes to instrument, <i>e.g.</i> <code>example/Example</code>
+     */
+    public CoverageAgent(Set<String> classesToInstrument) {
+        this.classesToInstrument = classesToInstrument;
+        this.instrumenter = new Instrumenter(new CoverageRuntime());
+    }
+
+    public static void premain(String arguments, Instrumentation instrumentation) {
+        final Map<String, String> valuePerKey = new HashMap<>();
+        for (String argument : arguments.split(ARGUMENTS_SEPARATOR)) {
+            final int indexOfValue = argument.indexOf('=');
+            valuePerKey.put(argument.substring(0, indexOfValue), argument.substring(indexOfValue + 1));
+        }
+        final CoverageFilter coverageFilter = new CoverageFilter(
+                patternsOf(valuePerKey.get(ARGUMENT_INCLUDES)),
+                patternsOf(valuePerKey.get(ARGUMENT_EXCLUDES))
+        );
+        instrumentation.addTransformer(new CoverageAgent(
+                CoverageTargets.classFilesOf(valuePerKey.get(ARGUMENT_TARGETS)).keySet()
+                        .stream()
+                        .filter(coverageFilter::accepts)
+                        .map(fullQualifiedName -> fullQualifiedName.replace('.', '/'))
+                        .collect(Collectors.toSet())
+        ));
+    }
+
+    /**
+     * @param coverageTargets the paths to the directories and the jars of the classes, separated by the system path separator
+     * @param coverageFilter  the classes to instrument
+     * @return the arguments of this agent
+     */
+    public static String argumentsOf(String coverageTargets, CoverageFilter coverageFilter) {
+        return ARGUMENT_TARGETS + "=" + coverageTargets +
+                (coverageFilter.getIncludes().isEmpty() ? "" : ARGUMENTS_SEPARATOR + ARGUMENT_INCLUDES + "=" + String.join(ConstantsHelper.PATH_SEPARATOR, coverageFilter.getIncludes())) +
+                (coverageFilter.getExcludes().isEmpty() ? "" : ARGUMENTS_SEPARATOR + ARGUMENT_EXCLUDES + "=" + String.join(ConstantsHelper.PATH_SEPARATOR, coverageFilter.getExcludes()));
+    }
+
+    /**
+     * The failures are the ones of the agent of the process, that is loaded by the system class loader,
+     * whatever the class loader of the caller, <i>e.g.</i> the one of a request of the {@link eu.stamp_project.testrunner.runner.RunnerDaemon}.
+     *
+     * @return the errors of the classes that could not be instrumented, per full qualified name. The runner clears it before its run.
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Throwable> getInstrumentationFailures() {
+        final ClassLoader systemClassLoader = ClassLoader.getSystemClassLoader();
+        if (CoverageAgent.class.getClassLoader() == systemClassLoader) {
+            return INSTRUMENTATION_FAILURES;
+        }
+        try {
+            final Field failures = systemClassLoader.loadClass(CoverageAgent.class.getName()).getDeclaredField(INSTRUMENTATION_FAILURES_FIELD);
+            failures.setAccessible(true);
+            return (Map<String, Throwable>) failures.get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static List<String> patternsOf(String value) {
+        return value == null || value.isEmpty() ? Collections.emptyList() : Arrays.asList(value.split(ConstantsHelper.PATH_SEPARATOR));
+    }
+
+    @Override
+    public byte[] transform(ClassLoader loader,
+                            String className,
+                            Class<?> classBeingRedefined,
+                            ProtectionDomain protectionDomain,
+                            byte[] classfileBuffer) {
+        // the classes of the boot class loader, and the redefined classes, are not instrumented
+        if (loader == null || className == null || classBeingRedefined != null || !this.classesToInstrument.contains(className)) {
+            return null;
+        }
+        try {
+            return this.instrumenter.instrument(classfileBuffer, className);
+        } catch (Exception e) {
+            INSTRUMENTATION_FAILURES.put(className.replace('/', '.'), e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package eu.stamp_project.testrunner.runner.coverage;
+
+import org.jacoco.core.runtime.WildcardMatcher;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class restricts the classes that are instrumented and analyzed to compute the coverage.
+ * A class is kept if its full qualified name matches one of the include patterns, or if there is no include pattern,
+ * and does not match any of the exclude patterns.
+ * The patterns are the ones of jacoco: <code>*</code> matches any characters, including the dots, and <code>?</code> matches one character,
+ * <i>e.g.</i> <code>com.example.*</code> or <code>*.dto.*</code>.
+ * <p>
+ * The classes that are not kept are loaded as they are, and are not part of the coverage.
+ * </p>
+ */
+public class CoverageFilter {
+
+    /**
+     * The filter that keeps all the classes.
+     */
+    public static final CoverageFilter ALL = new CoverageFilter(Collections.emptyList(), Collections.emptyList());
+
+    private static volatile CoverageFilter configured = ALL;
+
+    private final List<String> includes;
+
+    private final List<String> excludes;
+
+    private final WildcardMatcher includesMatcher;
+
+    private final WildcardMatcher excludesMatcher;
+
+    /**
+     * @param includes the patterns of the classes to keep, or an empty list to keep all the classes
+     * @param excludes the patterns of the classes to not keep
+     */
+    public CoverageFilter(List<String> includes, List<String> excludes) {
+        this.includes = includes;
+        this.excludes = excludes;
+        // the matchers of jacoco take the patterns separated by ':'
+        this.includesMatcher = includes.isEmpty() ? null : new WildcardMatcher(String.join(":", includes));
+        this.excludesMatcher = excludes.isEmpty() ? null : new WildcardMatcher(String.join(":", excludes));
+    }
+
+    /**
+     * Configure the filter used afterwards by the coverage runners of this JVM, see {@link CoverageFilter#getConfigured()}.
+     *
+     * @param includes the patterns of the classes to keep, or an empty list to keep all the classes
+     * @param excludes the patterns of the classes to not keep
+     */
+    public static void configure(List<String> includes, List<String> excludes) {
+        configured = includes.isEmpty() && excludes.isEmpty() ? ALL : new CoverageFilter(includes, excludes);
+    }
+
+    /**
+     * @return the filter given to {@link CoverageFilter#configure(List, List)}, or {@link CoverageFilter#ALL}
+     */
+    public static CoverageFilter getConfigured() {
+        return configured;
+    }
+
+    /**
+     * @param fullQualifiedName the full qualified name of a class, <i>e.g.</i> <code>example.Example</code>
+     * @return true if the given class is instrumented and analyzed
+     */
+    public boolean accepts(String fullQualifiedName) {
+        return (this.includesMatcher == null || this.includesMatcher.matches(fullQualifiedName)) &&
+                (this.excludesMatcher == null || !this.excludesMatcher.matches(fullQualifiedName));
+    }
+
+    /**
+     * @return true if this filter keeps all the classes
+     */
+    public boolean isAll() {
+        return this.includes.isEmpty() && this.excludes.isEmpty();
+    }
+
+    public List<String> getIncludes() {
+        return includes;
+    }
+
+    public List<String> getExcludes() {
+        return excludes;
+    }
+}
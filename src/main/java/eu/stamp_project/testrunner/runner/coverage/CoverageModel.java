@@ -0,0 +1,652 @@
+package eu.stamp_project.testrunner.runner.coverage;
+
+import eu.stamp_project.testrunner.listener.impl.CoverageImpl;
+import org.apache.commons.io.IOUtils;
+import org.jacoco.core.JaCoCo;
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.internal.ContentTypeDetector;
+import org.jacoco.core.internal.Java9Support;
+import org.jacoco.core.internal.data.CRC64;
+import org.jacoco.core.internal.flow.ClassProbesAdapter;
+import org.jacoco.core.internal.flow.ClassProbesVisitor;
+import org.jacoco.core.internal.flow.IFrame;
+import org.jacoco.core.internal.flow.Instruction;
+import org.jacoco.core.internal.flow.LabelInfo;
+import org.jacoco.core.internal.flow.MethodProbesVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.Opcodes;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * This class is the structure of the classes on which the coverage is computed: for each class, identified by its class id,
+ * the line of each instruction of its methods, and the instructions that follow each probe.
+ * It is built once per run, reading and analyzing each class once, and then computes the coverage of any execution data
+ * from its probes only, see {@link CoverageModel#coverageOf(ExecutionDataStore)}, instead of reading and analyzing the classes again.
+ * <p>
+ * The coverage is the same as the one of the {@link org.jacoco.core.analysis.Analyzer} of jacoco:
+ * an executed probe covers the instruction that precedes it, and the predecessors of this instruction in the control flow.
+ * It relies on the internals of jacoco and mirrors the analysis of jacoco 0.7.9, see {@link #JACOCO_VERSION}:
+ * it must be checked again against the analysis of jacoco when upgrading jacoco.
+ * With another version of jacoco on the classpath, the model is not built: the coverage of each execution data
+ * is computed by the {@link Analyzer} of jacoco, reading and analyzing the classes again, see {@link CoverageModel#isMirroringAnalysis()}.
+ * </p>
+ */
+public class CoverageModel {
+
+    /**
+     * The version of jacoco of which the analysis is mirrored by this model.
+     */
+    public static final String JACOCO_VERSION = "0.7.9.201702052155";
+
+    private static final String CLINIT = "<clinit>";
+
+    private static final String LAMBDA_PREFIX = "lambda$";
+
+    private static final int UNKNOWN_LINE = -1;
+
+    private final Map<String, ClassModel> classModelPerName;
+
+    /*
+        The classes analyzed by the Analyzer of jacoco for each execution data, when the version of jacoco is not JACOCO_VERSION.
+        They are null when the model is built.
+     */
+    private final String classesDirectory;
+
+    private final CoverageFilter coverageFilter;
+
+    private CoverageModel(String classesDirectory, CoverageFilter coverageFilter) {
+        // the coverage builder of jacoco also stores its classes in a HashMap with the default capacity, by name:
+        // since the same names are put in the same order, both iterate the classes in the same order.
+        // This is not guaranteed by jacoco, and must be checked again when upgrading jacoco, see JACOCO_VERSION
+        this.classModelPerName = new HashMap<>();
+        this.classesDirectory = classesDirectory;
+        this.coverageFilter = coverageFilter;
+    }
+
+    /**
+     * Read and analyze the classes of the given directories and jars.
+     *
+     * @param classesDirectory the paths to the directories and the jars of the classes, separated by the system path separator
+     * @param coverageFilter   the classes to analyze, the other classes are not read
+     * @return the model of the analyzed classes, or a model that analyzes the classes for each execution data
+     * if the version of jacoco is not {@link CoverageModel#JACOCO_VERSION}
+     */
+    public static CoverageModel build(String classesDirectory, CoverageFilter coverageFilter) throws IOException {
+        return CoverageModel.build(classesDirectory, coverageFilter, JaCoCo.VERSION);
+    }
+
+    static CoverageModel build(String classesDirectory, CoverageFilter coverageFilter, String jacocoVersion) throws IOException {
+        if (!JACOCO_VERSION.equals(jacocoVersion)) {
+            return new CoverageModel(classesDirectory, coverageFilter);
+        }
+        final CoverageModel coverageModel = new CoverageModel(null, null);
+        if (coverageFilter.isAll()) {
+            for (String coverageTarget : CoverageTargets.split(classesDirectory)) {
+                coverageModel.analyzeAll(new File(coverageTarget));
+            }
+        } else {
+            for (Map.Entry<String, URL> classFile : CoverageTargets.classFilesOf(classesDirectory).entrySet()) {
+                if (coverageFilter.accepts(classFile.getKey())) {
+                    try (InputStream inputStream = classFile.getValue().openStream()) {
+                        coverageModel.analyzeClass(inputStream, classFile.getValue().toString());
+                    }
+                }
+            }
+        }
+        return coverageModel;
+    }
+
+    /**
+     * @param executionData the probes of an execution
+     * @return the coverage of each class of this model, from the given probes
+     */
+    public List<ClassCoverage> coverageOf(ExecutionDataStore executionData) {
+        if (!this.isMirroringAnalysis()) {
+            return this.analyze(executionData);
+        }
+        final List<ClassCoverage> classCoverages = new ArrayList<>(this.classModelPerName.size());
+        for (ClassModel classModel : this.classModelPerName.values()) {
+            final ExecutionData data = executionData.get(classModel.id);
+            classCoverages.add(classModel.coverageOf(data == null ? null : data.getProbes()));
+        }
+        return classCoverages;
+    }
+
+    /**
+     * @return true if the coverage is computed from the model, false if the classes are analyzed by the {@link Analyzer} of jacoco
+     * for each execution data, because the version of jacoco is not {@link CoverageModel#JACOCO_VERSION}
+     */
+    public boolean isMirroringAnalysis() {
+        return this.classesDirectory == null;
+    }
+
+    /*
+        The classes are analyzed as by the model, see build(String, CoverageFilter, String)
+     */
+    private List<ClassCoverage> analyze(ExecutionDataStore executionData) {
+        final CoverageBuilder coverageBuilder = new CoverageBuilder();
+        final Analyzer analyzer = new Analyzer(executionData, coverageBuilder);
+        try {
+            if (this.coverageFilter.isAll()) {
+                for (String coverageTarget : CoverageTargets.split(this.classesDirectory)) {
+                    analyzer.analyzeAll(new File(coverageTarget));
+                }
+            } else {
+                for (Map.Entry<String, URL> classFile : CoverageTargets.classFilesOf(this.classesDirectory).entrySet()) {
+                    if (this.coverageFilter.accepts(classFile.getKey())) {
+                        try (InputStream inputStream = classFile.getValue().openStream()) {
+                            analyzer.analyzeClass(inputStream, classFile.getValue().toString());
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final List<ClassCoverage> classCoverages = new ArrayList<>(coverageBuilder.getClasses().size());
+        for (IClassCoverage classCoverage : coverageBuilder.getClasses()) {
+            classCoverages.add(new ClassCoverage(classCoverage.getName(),
+                    CoverageImpl.getListOfCountForCounterFunction(classCoverage, ICounter::getCoveredCount),
+                    CoverageImpl.getListOfCountForCounterFunction(classCoverage, ICounter::getTotalCount)
+            ));
+        }
+        return classCoverages;
+    }
+
+    /*
+        The directories, the jars and the classes are read in the same order as Analyzer#analyzeAll(File)
+     */
+    private void analyzeAll(File file) throws IOException {
+        if (file.isDirectory()) {
+            for (File child : file.listFiles()) {
+                this.analyzeAll(child);
+            }
+        } else {
+            try (InputStream inputStream = new FileInputStream(file)) {
+                this.analyzeAll(inputStream, file.getPath());
+            }
+        }
+    }
+
+    private void analyzeAll(InputStream inputStream, String location) throws IOException {
+        final ContentTypeDetector detector;
+        try {
+            detector = new ContentTypeDetector(inputStream);
+        } catch (IOException e) {
+            throw analyzerError(location, e);
+        }
+        switch (detector.getType()) {
+            case ContentTypeDetector.CLASSFILE:
+                this.analyzeClass(detector.getInputStream(), location);
+                break;
+            case ContentTypeDetector.ZIPFILE:
+                final ZipInputStream zipInputStream = new ZipInputStream(detector.getInputStream());
+                ZipEntry entry;
+                while ((entry = zipInputStream.getNextEntry()) != null) {
+                    this.analyzeAll(zipInputStream, location + "@" + entry.getName());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void analyzeClass(InputStream inputStream, String location) throws IOException {
+        try {
+            final ClassReader reader = new ClassReader(Java9Support.downgradeIfRequired(IOUtils.toByteArray(inputStream)));
+            final ClassModel classModel = new ClassModel(CRC64.checksum(reader.b), reader.getClassName());
+            reader.accept(new ClassProbesAdapter(new ClassModelBuilder(classModel), false), 0);
+            // as the coverage builder of jacoco, the classes without code are ignored
+            if (classModel.hasCode()) {
+                classModel.computeTotalCounts();
+                final ClassModel duplicate = this.classModelPerName.put(classModel.name, classModel);
+                if (duplicate != null && duplicate.id != classModel.id) {
+                    throw new IllegalStateException("Can't add different class with same name: " + classModel.name);
+                }
+            }
+        } catch (RuntimeException | IOException e) {
+            throw analyzerError(location, e);
+        }
+    }
+
+    private static IOException analyzerError(String location, Exception cause) {
+        return new IOException(String.format("Error while analyzing %s.", location), cause);
+    }
+
+    /**
+     * The coverage of a class: the number of covered instructions, and the total number of instructions,
+     * for each line of each method but the static initializer, from the first line to the last line of the method.
+     */
+    public static class ClassCoverage {
+
+        private final String name;
+
+        private final List<Integer> coveredCounts;
+
+        private final List<Integer> totalCounts;
+
+        private ClassCoverage(String name, List<Integer> coveredCounts, List<Integer> totalCounts) {
+            this.name = name;
+            this.coveredCounts = coveredCounts;
+            this.totalCounts = totalCounts;
+        }
+
+        /**
+         * @return the VM name of the class, <i>e.g.</i> <code>example/Example</code>
+         */
+        public String getName() {
+            return name;
+        }
+
+        public List<Integer> getCoveredCounts() {
+            return coveredCounts;
+        }
+
+        public List<Integer> getTotalCounts() {
+            return totalCounts;
+        }
+    }
+
+    private static class ClassModel {
+
+        private final long id;
+
+        private final String name;
+
+        private final List<MethodModel> methodModels;
+
+        private List<Integer> totalCounts = Collections.emptyList();
+
+        private ClassModel(long id, String name) {
+            this.id = id;
+            this.name = name;
+            this.methodModels = new ArrayList<>();
+        }
+
+        private boolean hasCode() {
+            return !this.methodModels.isEmpty();
+        }
+
+        private void computeTotalCounts() {
+            final List<Integer> totalCounts = new ArrayList<>();
+            for (MethodModel methodModel : this.methodModels) {
+                if (!CLINIT.equals(methodModel.name)) {
+                    methodModel.addCounts(null, totalCounts);
+                }
+            }
+            this.totalCounts = Collections.unmodifiableList(totalCounts);
+        }
+
+        /*
+            The probes are null if the class has not been executed.
+         */
+        private ClassCoverage coverageOf(boolean[] probes) {
+            final List<Integer> coveredCounts = new ArrayList<>(this.totalCounts.size());
+            if (probes == null) {
+                this.totalCounts.forEach(totalCount -> coveredCounts.add(0));
+            } else {
+                for (MethodModel methodModel : this.methodModels) {
+                    if (!CLINIT.equals(methodModel.name)) {
+                        methodModel.addCounts(methodModel.coveredInstructions(probes), coveredCounts);
+                    }
+                }
+            }
+            return new ClassCoverage(this.name, coveredCounts, this.totalCounts);
+        }
+    }
+
+    private static class MethodModel {
+
+        private final String name;
+
+        private final int firstLine;
+
+        private final int lastLine;
+
+        private final int[] lines;
+
+        private final int[] predecessors;
+
+        private final int[] probeIds;
+
+        private final int[] probeInstructions;
+
+        private MethodModel(String name, int firstLine, int lastLine, int[] lines, int[] predecessors, int[] probeIds, int[] probeInstructions) {
+            this.name = name;
+            this.firstLine = firstLine;
+            this.lastLine = lastLine;
+            this.lines = lines;
+            this.predecessors = predecessors;
+            this.probeIds = probeIds;
+            this.probeInstructions = probeInstructions;
+        }
+
+        /*
+            Add the number of the given instructions of each line of this method to the given counts,
+            or the number of all the instructions of each line if the given instructions are null.
+         */
+        private void addCounts(boolean[] instructions, List<Integer> counts) {
+            // as jacoco, a method without line numbers has a single empty line
+            final int[] countPerLine = new int[this.firstLine == UNKNOWN_LINE ? 1 : this.lastLine - this.firstLine + 1];
+            for (int i = 0; i < this.lines.length; i++) {
+                if ((instructions == null || instructions[i]) && this.lines[i] != UNKNOWN_LINE) {
+                    countPerLine[this.lines[i] - this.firstLine]++;
+                }
+            }
+            for (int count : countPerLine) {
+                counts.add(count);
+            }
+        }
+
+        private boolean[] coveredInstructions(boolean[] probes) {
+            final boolean[] covered = new boolean[this.lines.length];
+            for (int i = 0; i < this.probeIds.length; i++) {
+                if (probes[this.probeIds[i]]) {
+                    int instruction = this.probeInstructions[i];
+                    while (instruction != -1 && !covered[instruction]) {
+                        covered[instruction] = true;
+                        instruction = this.predecessors[instruction];
+                    }
+                }
+            }
+            return covered;
+        }
+    }
+
+    private static class ClassModelBuilder extends ClassProbesVisitor {
+
+        private final ClassModel classModel;
+
+        private ClassModelBuilder(ClassModel classModel) {
+            this.classModel = classModel;
+        }
+
+        @Override
+        public MethodProbesVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+            // as jacoco, the synthetic methods are ignored, but the lambdas
+            if ((access & Opcodes.ACC_SYNTHETIC) != 0 && !name.startsWith(LAMBDA_PREFIX)) {
+                return null;
+            }
+            return new MethodModelBuilder(this.classModel, name);
+        }
+
+        @Override
+        public void visitTotalProbeCount(int count) {
+            // nothing to do
+        }
+    }
+
+    /*
+        This visitor follows the control flow of a method as org.jacoco.core.internal.analysis.MethodAnalyzer of jacoco 0.7.9 does,
+        but records the instructions covered by each probe instead of the coverage of given probes.
+     */
+    private static class MethodModelBuilder extends MethodProbesVisitor {
+
+        private final ClassModel classModel;
+
+        private final String name;
+
+        private int currentLine = UNKNOWN_LINE;
+
+        private int firstLine = UNKNOWN_LINE;
+
+        private int lastLine = UNKNOWN_LINE;
+
+        private final List<Label> currentLabels = new ArrayList<>(2);
+
+        private final List<IndexedInstruction> instructions = new ArrayList<>();
+
+        private final List<Integer> probeIds = new ArrayList<>();
+
+        private final List<IndexedInstruction> probeInstructions = new ArrayList<>();
+
+        private final List<IndexedInstruction> jumpSources = new ArrayList<>();
+
+        private final List<Label> jumpTargets = new ArrayList<>();
+
+        private IndexedInstruction lastInstruction;
+
+        private MethodModelBuilder(ClassModel classModel, String name) {
+            this.classModel = classModel;
+            this.name = name;
+        }
+
+        @Override
+        public void visitLabel(Label label) {
+            this.currentLabels.add(label);
+            if (!LabelInfo.isSuccessor(label)) {
+                this.lastInstruction = null;
+            }
+        }
+
+        @Override
+        public void visitLineNumber(int line, Label start) {
+            this.currentLine = line;
+            if (this.firstLine > line || this.lastLine == UNKNOWN_LINE) {
+                this.firstLine = line;
+            }
+            if (this.lastLine < line) {
+                this.lastLine = line;
+            }
+        }
+
+        private void visitInstruction() {
+            final IndexedInstruction instruction = new IndexedInstruction(this.instructions.size(), this.currentLine);
+            this.instructions.add(instruction);
+            if (this.lastInstruction != null) {
+                instruction.setPredecessor(this.lastInstruction);
+            }
+            for (Label label : this.currentLabels) {
+                LabelInfo.setInstruction(label, instruction);
+            }
+            this.currentLabels.clear();
+            this.lastInstruction = instruction;
+        }
+
+        private void addJump(Label target) {
+            this.jumpSources.add(this.lastInstruction);
+            this.jumpTargets.add(target);
+        }
+
+        private void addProbe(int probeId) {
+            this.probeIds.add(probeId);
+            this.probeInstructions.add(this.lastInstruction);
+        }
+
+        @Override
+        public void visitInsn(int opcode) {
+            this.visitInstruction();
+        }
+
+        @Override
+        public void visitIntInsn(int opcode, int operand) {
+            this.visitInstruction();
+        }
+
+        @Override
+        public void visitVarInsn(int opcode, int var) {
+            this.visitInstruction();
+        }
+
+        @Override
+        public void visitTypeInsn(int opcode, String type) {
+            this.visitInstruction();
+        }
+
+        @Override
+        public void visitFieldInsn(int opcode, String owner, String name, String desc) {
+            this.visitInstruction();
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean itf) {
+            this.visitInstruction();
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(String name, String desc, Handle bsm, Object... bsmArgs) {
+            this.visitInstruction();
+        }
+
+        @Override
+        public void visitJumpInsn(int opcode, Label label) {
+            this.visitInstruction();
+            this.addJump(label);
+        }
+
+        @Override
+        public void visitLdcInsn(Object cst) {
+            this.visitInstruction();
+        }
+
+        @Override
+        public void visitIincInsn(int var, int increment) {
+            this.visitInstruction();
+        }
+
+        @Override
+        public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+            this.visitSwitchInsn(dflt, labels);
+        }
+
+        @Override
+        public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+            this.visitSwitchInsn(dflt, labels);
+        }
+
+        private void visitSwitchInsn(Label dflt, Label[] labels) {
+            this.visitInstruction();
+            LabelInfo.resetDone(labels);
+            this.addJump(dflt);
+            LabelInfo.setDone(dflt);
+            for (Label label : labels) {
+                if (!LabelInfo.isDone(label)) {
+                    this.addJump(label);
+                    LabelInfo.setDone(label);
+                }
+            }
+        }
+
+        @Override
+        public void visitMultiANewArrayInsn(String desc, int dims) {
+            this.visitInstruction();
+        }
+
+        @Override
+        public void visitProbe(int probeId) {
+            this.addProbe(probeId);
+            this.lastInstruction = null;
+        }
+
+        @Override
+        public void visitJumpInsnWithProbe(int opcode, Label label, int probeId, IFrame frame) {
+            this.visitInstruction();
+            this.addProbe(probeId);
+        }
+
+        @Override
+        public void visitInsnWithProbe(int opcode, int probeId) {
+            this.visitInstruction();
+            this.addProbe(probeId);
+        }
+
+        @Override
+        public void visitTableSwitchInsnWithProbes(int min, int max, Label dflt, Label[] labels, IFrame frame) {
+            this.visitSwitchInsnWithProbes(dflt, labels);
+        }
+
+        @Override
+        public void visitLookupSwitchInsnWithProbes(Label dflt, int[] keys, Label[] labels, IFrame frame) {
+            this.visitSwitchInsnWithProbes(dflt, labels);
+        }
+
+        private void visitSwitchInsnWithProbes(Label dflt, Label[] labels) {
+            this.visitInstruction();
+            LabelInfo.resetDone(dflt);
+            LabelInfo.resetDone(labels);
+            this.visitSwitchTarget(dflt);
+            for (Label label : labels) {
+                this.visitSwitchTarget(label);
+            }
+        }
+
+        private void visitSwitchTarget(Label label) {
+            final int probeId = LabelInfo.getProbeId(label);
+            if (!LabelInfo.isDone(label)) {
+                if (probeId == LabelInfo.NO_PROBE) {
+                    this.addJump(label);
+                } else {
+                    this.addProbe(probeId);
+                }
+                LabelInfo.setDone(label);
+            }
+        }
+
+        @Override
+        public void visitEnd() {
+            for (int i = 0; i < this.jumpSources.size(); i++) {
+                LabelInfo.getInstruction(this.jumpTargets.get(i)).setPredecessor(this.jumpSources.get(i));
+            }
+            if (this.instructions.isEmpty()) {
+                return;
+            }
+            final int[] lines = new int[this.instructions.size()];
+            final int[] predecessors = new int[this.instructions.size()];
+            for (int i = 0; i < lines.length; i++) {
+                lines[i] = this.instructions.get(i).getLine();
+                predecessors[i] = this.instructions.get(i).predecessor == null ? -1 : this.instructions.get(i).predecessor.index;
+            }
+            final int[] probeIds = new int[this.probeIds.size()];
+            final int[] probeInstructions = new int[this.probeIds.size()];
+            for (int i = 0; i < probeIds.length; i++) {
+                probeIds[i] = this.probeIds.get(i);
+                probeInstructions[i] = this.probeInstructions.get(i).index;
+            }
+            this.classModel.methodModels.add(
+                    new MethodModel(this.name, this.firstLine, this.lastLine, lines, predecessors, probeIds, probeInstructions)
+            );
+        }
+    }
+
+    /*
+        The instructions are given to the labels of jacoco, see LabelInfo#setInstruction(Label, Instruction),
+        and keep their index and their predecessor to build the model of the method.
+     */
+    private static class IndexedInstruction extends Instruction {
+
+        private final int index;
+
+        private IndexedInstruction predecessor;
+
+        private IndexedInstruction(int index, int line) {
+            super(line);
+            this.index = index;
+        }
+
+        @Override
+        public void setPredecessor(Instruction predecessor) {
+            super.setPredecessor(predecessor);
+            this.predecessor = (IndexedInstruction) predecessor;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package eu.stamp_project.testrunner.runner.coverage;
+
+import org.jacoco.core.runtime.IRuntime;
+import org.jacoco.core.runtime.RuntimeData;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+/**
+ * This class is the jacoco runtime of the coverage runners. The instrumented classes get their probes
+ * by calling the static method {@link CoverageRuntime#getProbes(long, String, int)}, that delegates to the data of the started runtime.
+ * <p>
+ * Unlike {@link org.jacoco.core.runtime.LoggerRuntime}, the instrumented classes do not depend on a random key of the runtime,
+ * so the same class is always instrumented to the same bytes, and the instrumented bytes can be reused, see {@link InstrumentedClassCache}.
+ * Only one runtime is started at once in a class loader, which is the case of the coverage runners.
+ * </p>
+ */
+public class CoverageRuntime implements IRuntime {
+
+    /**
+     * The VM name of this class, called by the instrumented classes.
+     */
+    public static final String VM_NAME = CoverageRuntime.class.getName().replace('.', '/');
+
+    private static final String GET_PROBES_DESCRIPTOR = "(JLjava/lang/String;I)[Z";
+
+    private static volatile RuntimeData startedData;
+
+    /**
+     * Called by the instrumented classes, on their initialization.
+     * If no runtime is started, the probes are not recorded.
+     */
+    public static boolean[] getProbes(long classId, String className, int probeCount) {
+        final RuntimeData data = startedData;
+        if (data == null) {
+            return new boolean[probeCount];
+        }
+        return data.getExecutionData(classId, className, probeCount).getProbes();
+    }
+
+    /*
+        The same accessor as org.jacoco.core.runtime.OfflineInstrumentationAccessGenerator, whose constructor with a runtime class is not public:
+            CoverageRuntime.getProbes(classId, className, probeCount)
+     */
+    @Override
+    public int generateDataAccessor(long classId, String className, int probeCount, MethodVisitor methodVisitor) {
+        methodVisitor.visitLdcInsn(classId);
+        methodVisitor.visitLdcInsn(className);
+        if (probeCount >= -1 && probeCount <= 5) {
+            methodVisitor.visitInsn(Opcodes.ICONST_0 + probeCount);
+        } else if (probeCount >= Byte.MIN_VALUE && probeCount <= Byte.MAX_VALUE) {
+            methodVisitor.visitIntInsn(Opcodes.BIPUSH, probeCount);
+        } else if (probeCount >= Short.MIN_VALUE && probeCount <= Short.MAX_VALUE) {
+            methodVisitor.visitIntInsn(Opcodes.SIPUSH, probeCount);
+        } else {
+            methodVisitor.visitLdcInsn(probeCount);
+        }
+        methodVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, VM_NAME, "getProbes", GET_PROBES_DESCRIPTOR, false);
+        // a long, a string and an int on the stack
+        return 4;
+    }
+
+    @Override
+    public void startup(RuntimeData data) {
+        startedData = data;
+    }
+
+    @Override
+    public void shutdown() {
+        startedData = null;
+    }
+}
@@ -0,0 +1,124 @@
+package eu.stamp_project.testrunner.runner.coverage;
+
+import eu.stamp_project.testrunner.utils.ConstantsHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class lists the classes of the coverage targets, <i>i.e.</i> the directories and the jars of the binaries on which the coverage is computed,
+ * separated by the system path separator, <i>e.g.</i> <code>module-a/target/classes:module-b/target/classes:lib/module-c.jar</code>.
+ */
+public class CoverageTargets {
+
+    private static final String CLASS_EXTENSION = ".class";
+
+    private static final String META_INF = "META-INF/";
+
+    private CoverageTargets() {
+        // utility class
+    }
+
+    /**
+     * @param coverageTargets the paths to the directories and the jars, separated by the system path separator
+     * @return the paths to the directories and the jars
+     */
+    public static String[] split(String coverageTargets) {
+        return Arrays.stream(coverageTargets.split(ConstantsHelper.PATH_SEPARATOR))
+                .filter(coverageTarget -> !coverageTarget.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * @param coverageTargets the paths to the directories and the jars, separated by the system path separator
+     * @return the urls of the directories and the jars, in the same order, <i>e.g.</i> for a class loader
+     */
+    public static URL[] urlsOf(String coverageTargets) {
+        return Arrays.stream(split(coverageTargets))
+                .map(coverageTarget -> {
+                    try {
+                        return new File(coverageTarget).toURI().toURL();
+                    } catch (MalformedURLException e) {
+                        throw new RuntimeException(e);
+                    }
+                }).toArray(URL[]::new);
+    }
+
+    /**
+     * The coverage targets are scanned in parallel.
+     * If a class is in several coverage targets, the first one wins, as it would for a class loader.
+     *
+     * @param coverageTargets the paths to the directories and the jars, separated by the system path separator
+     * @return the urls of the .class files of the coverage targets, by full qualified name of class
+     */
+    public static Map<String, URL> classFilesOf(String coverageTargets) {
+        final List<Map<String, URL>> classFilesPerCoverageTarget = Arrays.stream(split(coverageTargets))
+                .parallel()
+                .map(File::new)
+                .map(coverageTarget -> coverageTarget.isDirectory() ? classFilesOfDirectory(coverageTarget) : classFilesOfJar(coverageTarget))
+                .collect(Collectors.toList());
+        final Map<String, URL> classFiles = new LinkedHashMap<>();
+        classFilesPerCoverageTarget.forEach(classFilesOfCoverageTarget -> classFilesOfCoverageTarget.forEach(classFiles::putIfAbsent));
+        return classFiles;
+    }
+
+    private static Map<String, URL> classFilesOfDirectory(File directory) {
+        final Path root = directory.toPath().toAbsolutePath();
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(path -> path.toString().endsWith(CLASS_EXTENSION))
+                    .collect(Collectors.toMap(
+                            path -> toFullQualifiedName(root.relativize(path).toString().replace(File.separatorChar, '/')),
+                            path -> {
+                                try {
+                                    return path.toUri().toURL();
+                                } catch (MalformedURLException e) {
+                                    throw new RuntimeException(e);
+                                }
+                            }
+                    ));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, URL> classFilesOfJar(File jar) {
+        if (!jar.isFile()) {
+            return Collections.emptyMap();
+        }
+        try (JarFile jarFile = new JarFile(jar)) {
+            final String jarUrl = "jar:" + jar.toURI() + "!/";
+            final Map<String, URL> classFiles = new LinkedHashMap<>();
+            jarFile.stream()
+                    .filter(entry -> !entry.isDirectory() && entry.getName().endsWith(CLASS_EXTENSION))
+                    // the versioned classes of a multi-release jar are not loaded by their name
+                    .filter(entry -> !entry.getName().startsWith(META_INF))
+                    .forEach(entry -> {
+                        try {
+                            classFiles.put(toFullQualifiedName(entry.getName()), new URL(jarUrl + entry.getName()));
+                        } catch (MalformedURLException e) {
+                            throw new RuntimeException(e);
+                        }
+                    });
+            return classFiles;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toFullQualifiedName(String vmPath) {
+        return vmPath.substring(0, vmPath.length() - CLASS_EXTENSION.length()).replace('/', '.');
+    }
+}
@@ -0,0 +1,162 @@
+package eu.stamp_project.testrunner.runner.coverage;
+
+import org.apache.commons.io.IOUtils;
+import org.jacoco.core.JaCoCo;
+import org.jacoco.core.instr.Instrumenter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class is a persistent cache of the classes instrumented by jacoco, in a directory shared by the runner processes.
+ * The instrumented bytes of a class are stored in a file named after the SHA-256 of its original bytes, of the version of jacoco
+ * and of {@link CoverageRuntime#VM_NAME}: a class that did not change since a previous run is not instrumented again,
+ * and a class that changed gets a new entry.
+ * <p>
+ * An entry is written in a temporary file first, then moved, so several runner processes can share the same directory.
+ * The entries are never evicted: the directory can be deleted at any time to reclaim its space.
+ * </p>
+ * <p>
+ * The classes are usually instrumented on their first load, see {@link JacocoRunner}.
+ * The cache can also be filled eagerly, in parallel, see {@link InstrumentedClassCache#instrumentAll(Instrumenter, Map, CoverageFilter)}.
+ * </p>
+ */
+public class InstrumentedClassCache {
+
+    private static final String EXTENSION = ".class";
+
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final File directory;
+
+    private final AtomicInteger numberOfHits;
+
+    private final AtomicInteger numberOfMisses;
+
+    /**
+     * @param directory the directory of the cache, created if needed
+     */
+    public InstrumentedClassCache(File directory) {
+        this.directory = directory;
+        this.numberOfHits = new AtomicInteger();
+        this.numberOfMisses = new AtomicInteger();
+    }
+
+    /**
+     * @param instrumenter      the instrumenter used on a miss, that must use a {@link CoverageRuntime}
+     * @param originalBytes     the bytes of the class, as compiled
+     * @param fullQualifiedName the full qualified name of the class, for the error messages
+     * @return the instrumented bytes of the given class, read from the cache, or instrumented and then written in the cache
+     */
+    public byte[] instrument(Instrumenter instrumenter, byte[] originalBytes, String fullQualifiedName) throws IOException {
+        final File entry = this.entryOf(originalBytes);
+        if (entry.isFile()) {
+            try {
+                final byte[] instrumentedBytes = Files.readAllBytes(entry.toPath());
+                this.numberOfHits.incrementAndGet();
+                return instrumentedBytes;
+            } catch (IOException ignored) {
+                // the entry is instrumented again
+            }
+        }
+        this.numberOfMisses.incrementAndGet();
+        final byte[] instrumentedBytes = instrumenter.instrument(originalBytes, fullQualifiedName);
+        this.write(entry, instrumentedBytes);
+        return instrumentedBytes;
+    }
+
+    /**
+     * Instrument the given classes that are not in the cache yet, in parallel on the common fork-join pool, and write them in the cache.
+     * The classes that are already in the cache are not read.
+     * Thus, the next computations of the coverage only read the instrumented classes, whatever the classes used by their tests.
+     *
+     * @param instrumenter   the instrumenter of the classes, that must use a {@link CoverageRuntime}
+     * @param classFiles     the urls of the .class files, by full qualified name of class, see {@link CoverageTargets#classFilesOf(String)}
+     * @param coverageFilter the filter of the classes to instrument, the other classes are not instrumented
+     * @return the number of classes instrumented
+     */
+    public int instrumentAll(Instrumenter instrumenter, Map<String, URL> classFiles, CoverageFilter coverageFilter) {
+        return classFiles.entrySet()
+                .parallelStream()
+                .filter(classFile -> coverageFilter.accepts(classFile.getKey()))
+                .mapToInt(classFile -> {
+                    try (InputStream inputStream = classFile.getValue().openStream()) {
+                        final byte[] originalBytes = IOUtils.toByteArray(inputStream);
+                        final File entry = this.entryOf(originalBytes);
+                        if (entry.isFile()) {
+                            return 0;
+                        }
+                        this.numberOfMisses.incrementAndGet();
+                        this.write(entry, instrumenter.instrument(originalBytes, classFile.getKey()));
+                        return 1;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }).sum();
+    }
+
+    public int getNumberOfHits() {
+        return this.numberOfHits.get();
+    }
+
+    public int getNumberOfMisses() {
+        return this.numberOfMisses.get();
+    }
+
+    /*
+        A failure to write an entry does not fail the instrumentation, the class is instrumented again on the next run
+     */
+    private void write(File entry, byte[] instrumentedBytes) {
+        final File parent = entry.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+            return;
+        }
+        File temporaryFile = null;
+        try {
+            temporaryFile = File.createTempFile(entry.getName(), TEMPORARY_EXTENSION, parent);
+            Files.write(temporaryFile.toPath(), instrumentedBytes);
+            Files.move(temporaryFile.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (temporaryFile != null) {
+                temporaryFile.delete();
+            }
+        }
+    }
+
+    private File entryOf(byte[] originalBytes) {
+        final String key = keyOf(originalBytes);
+        return new File(new File(this.directory, key.substring(0, 2)), key + EXTENSION);
+    }
+
+    private static String keyOf(byte[] originalBytes) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        digest.update(JaCoCo.VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(CoverageRuntime.VM_NAME.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        final byte[] hash = digest.digest(originalBytes);
+        final char[] key = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            key[2 * i] = HEX_DIGITS[(hash[i] >> 4) & 0xF];
+            key[2 * i + 1] = HEX_DIGITS[hash[i] & 0xF];
+        }
+        return new String(key);
+    }
+}
@@ -3,20 +3,20 @@ package eu.stamp_project.testrunner.runner.coverage;
 import eu.stamp_project.testrunner.EntryPoint;
 import eu.stamp_project.testrunner.listener.Coverage;
 import eu.stamp_project.testrunner.listener.TestResult;
+import eu.stamp_project.testrunner.listener.event.TestEventEmitter;
 import eu.stamp_project.testrunner.listener.junit4.JUnit4Coverage;
 import eu.stamp_project.testrunner.listener.junit5.JUnit5Coverage;
 import eu.stamp_project.testrunner.runner.JUnit4Runner;
 import eu.stamp_project.testrunner.runner.Failure;
 import eu.stamp_project.testrunner.runner.JUnit5Runner;
 import eu.stamp_project.testrunner.runner.ParserOptions;
+import eu.stamp_project.testrunner.runner.StackTrace;
 import eu.stamp_project.testrunner.utils.ConstantsHelper;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.jacoco.core.data.ExecutionDataStore;
 import org.jacoco.core.data.SessionInfoStore;
 import org.jacoco.core.instr.Instrumenter;
 import org.jacoco.core.runtime.IRuntime;
-import org.jacoco.core.runtime.LoggerRuntime;
 import org.jacoco.core.runtime.RuntimeData;
 
 import java.io.File;
@@ -26,8 +26,9 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import static java.util.ResourceBundle.clearCache;
@@ -46,40 +47,60 @@ public class JacocoRunner {
      */
     public static void main(String[] args) {
         final ParserOptions options = ParserOptions.parse(args);
-        final String[] splittedArgs0 = options.getPathToCompiledClassesOfTheProject().split(ConstantsHelper.PATH_SEPARATOR);
-        final String classesDirectory = splittedArgs0[0];
-        final String testClassesDirectory = splittedArgs0[1];
-        final boolean isJUnit5 = options.isJUnit5();
-        final JacocoRunner jacocoRunner =
-                new JacocoRunner(isJUnit5,
-                        classesDirectory,
-                        testClassesDirectory,
-                        options.getBlackList()
-                );
-        final String[] testClassesToRun = options.getFullQualifiedNameOfTestClassesToRun();
-        if (testClassesToRun.length > 1) {
-            jacocoRunner.run(classesDirectory,
-                    testClassesDirectory,
-                    testClassesToRun
-            ).save();
-        } else {
-            if (options.getTestMethodNamesToRun().length == 0) {
+        TestEventEmitter.connect(options);
+        StackTrace.configure(options.getStackTraceMaxDepth(), options.isFilterStackTrace());
+        CoverageFilter.configure(options.getCoverageIncludes(), options.getCoverageExcludes());
+        try {
+            final String classesDirectory = options.getCoverageTargets();
+            final String testClassesDirectory = options.getTestClassesDirectory();
+            final boolean isJUnit5 = options.isJUnit5();
+            final JacocoRunner jacocoRunner =
+                    new JacocoRunner(isJUnit5,
+                            classesDirectory,
+                            testClassesDirectory,
+                            options.getBlackList(),
+                            instrumentedClassCacheOf(options),
+                            options.isCoverageAgent()
+                    );
+            if (options.isEagerInstrumentation()) {
+                jacocoRunner.instrumentAll();
+            }
+            final String[] testClassesToRun = options.getFullQualifiedNameOfTestClassesToRun();
+            if (testClassesToRun.length > 1) {
                 jacocoRunner.run(classesDirectory,
                         testClassesDirectory,
                         testClassesToRun
-                ).save();
+                ).save(options.getOutputDirectory());
             } else {
-                jacocoRunner.run(classesDirectory,
-                        testClassesDirectory,
-                        testClassesToRun[0],
-                        options.getTestMethodNamesToRun()
-                ).save();
+                if (options.getTestMethodNamesToRun().length == 0) {
+                    jacocoRunner.run(classesDirectory,
+                            testClassesDirectory,
+                            testClassesToRun
+                    ).save(options.getOutputDirectory());
+                } else {
+                    jacocoRunner.run(classesDirectory,
+                            testClassesDirectory,
+                            testClassesToRun[0],
+                            options.getTestMethodNamesToRun()
+                    ).save(options.getOutputDirectory());
+                }
             }
+        } finally {
+            TestEventEmitter.close();
         }
     }
 
+    /**
+     * The class loader that instruments the classes, or null if the classes are instrumented by {@link CoverageAgent}
+     */
     protected MemoryClassLoader instrumentedClassLoader;
 
+    /**
+     * The class loader of the tests: {@link JacocoRunner#instrumentedClassLoader}, or the context class loader
+     * if the classes are instrumented by {@link CoverageAgent}
+     */
+    protected ClassLoader testClassLoader;
+
     protected Instrumenter instrumenter;
 
     protected IRuntime runtime;
@@ -88,6 +109,13 @@ public class JacocoRunner {
 
     protected boolean isJUnit5;
 
+    protected InstrumentedClassCache instrumentedClassCache;
+
+    /**
+     * The classes to instrument, see {@link CoverageFilter#getConfigured()}
+     */
+    protected CoverageFilter coverageFilter;
+
     /**
      * @param isJUnit5             tell if the given tests are JUnit5 or not
      * @param classesDirectory     the path to the directory that contains the .class file of sources
@@ -104,22 +132,71 @@ public class JacocoRunner {
      * @param blackList            the names of the test methods to NOT be run.
      */
     public JacocoRunner(boolean isJUnit5, String classesDirectory, String testClassesDirectory, List<String> blackList) {
+        this(isJUnit5, classesDirectory, testClassesDirectory, blackList, null);
+    }
+
+    /**
+     * @param isJUnit5               tell if the given tests are JUnit5 or not
+     * @param classesDirectory       the path to the directory that contains the .class file of sources
+     * @param testClassesDirectory   the path to the directory that contains the .class file of test sources
+     * @param blackList              the names of the test methods to NOT be run.
+     * @param instrumentedClassCache the cache of the instrumented classes, or null to instrument all the classes
+     */
+    public JacocoRunner(boolean isJUnit5, String classesDirectory, String testClassesDirectory, List<String> blackList,
+                        InstrumentedClassCache instrumentedClassCache) {
+        this(isJUnit5, classesDirectory, testClassesDirectory, blackList, instrumentedClassCache, false);
+    }
+
+    /**
+     * @param isJUnit5               tell if the given tests are JUnit5 or not
+     * @param classesDirectory       the path to the directory that contains the .class file of sources
+     * @param testClassesDirectory   the path to the directory that contains the .class file of test sources
+     * @param blackList              the names of the test methods to NOT be run.
+     * @param instrumentedClassCache the cache of the instrumented classes, or null to instrument all the classes
+     * @param useCoverageAgent       tell if the classes are instrumented by {@link CoverageAgent}, in which case the tests are loaded by the context class loader
+     */
+    public JacocoRunner(boolean isJUnit5, String classesDirectory, String testClassesDirectory, List<String> blackList,
+                        InstrumentedClassCache instrumentedClassCache, boolean useCoverageAgent) {
         this.isJUnit5 = isJUnit5;
+        this.blackList = blackList;
+        this.runtime = new CoverageRuntime();
+        this.instrumenter = new Instrumenter(this.runtime);
+        this.instrumentedClassCache = instrumentedClassCache;
+        this.coverageFilter = CoverageFilter.getConfigured();
+        if (useCoverageAgent) {
+            this.testClassLoader = Thread.currentThread().getContextClassLoader();
+            CoverageAgent.getInstrumentationFailures().clear();
+            return;
+        }
         try {
-            this.instrumentedClassLoader = new MemoryClassLoader(
-                    new URL[]{
-                            new File(classesDirectory).toURI().toURL(),
-                            new File(testClassesDirectory).toURI().toURL()
-                    }
-            );
+            final URL[] urlsOfCoverageTargets = CoverageTargets.urlsOf(classesDirectory);
+            final URL[] urls = Arrays.copyOf(urlsOfCoverageTargets, urlsOfCoverageTargets.length + 1);
+            urls[urlsOfCoverageTargets.length] = new File(testClassesDirectory).toURI().toURL();
+            this.instrumentedClassLoader = new MemoryClassLoader(urls, this::instrument);
         } catch (MalformedURLException e) {
             throw new RuntimeException(e);
         }
-        this.blackList = blackList;
-        this.runtime = new LoggerRuntime();
-        this.instrumenter = new Instrumenter(this.runtime);
-        // instrument source code
-        instrumentAll(classesDirectory);
+        this.testClassLoader = this.instrumentedClassLoader;
+        // source code is instrumented on its first load
+        addClassesToInstrument(classesDirectory);
+    }
+
+    /**
+     * Instrument at once, in parallel, all the classes of the coverage targets, instead of instrumenting each class on its first load.
+     * It takes all the cores before the first test, and then the tests only load the instrumented classes,
+     * see {@link ParserOptions#FLAG_eagerInstrumentation}. It does nothing if the classes are instrumented by {@link CoverageAgent}.
+     */
+    public void instrumentAll() {
+        if (this.instrumentedClassLoader != null) {
+            this.instrumentedClassLoader.instrumentAll();
+        }
+    }
+
+    /**
+     * @return the cache of the instrumented classes given with {@link ParserOptions#FLAG_instrumentedClassesCache}, or null
+     */
+    public static InstrumentedClassCache instrumentedClassCacheOf(ParserOptions options) {
+        return options.getInstrumentedClassesCache() == null ? null : new InstrumentedClassCache(new File(options.getInstrumentedClassesCache()));
     }
 
     /**
@@ -139,27 +216,16 @@ public class JacocoRunner {
         final RuntimeData data = new RuntimeData();
         final ExecutionDataStore executionData = new ExecutionDataStore();
         final SessionInfoStore sessionInfos = new SessionInfoStore();
-        URLClassLoader classLoader;
-        try {
-            classLoader = new URLClassLoader(new URL[]
-                    {new File(testClassesDirectory).toURI().toURL()}, this.instrumentedClassLoader);
-        } catch (MalformedURLException e) {
-            throw new RuntimeException(e);
-        }
-        final String resource = ConstantsHelper.fullQualifiedNameToPath.apply(fullQualifiedNameOfTestClass) + ".class";
+        this.addDefinitionsOfTestClasses(testClassesDirectory, fullQualifiedNameOfTestClass);
         try {
-            this.instrumentedClassLoader.addDefinition(
-                    fullQualifiedNameOfTestClass,
-                    IOUtils.toByteArray(classLoader.getResourceAsStream(resource))
-            );
             runtime.startup(data);
             final Coverage listener;
             if (this.isJUnit5) {
                 listener = new JUnit5Coverage();
-                JUnit5Runner.run(new String[]{fullQualifiedNameOfTestClass}, testMethodNames, Collections.emptyList(), (JUnit5Coverage) listener, this.instrumentedClassLoader);
+                JUnit5Runner.run(new String[]{fullQualifiedNameOfTestClass}, testMethodNames, Collections.emptyList(), (JUnit5Coverage) listener, this.testClassLoader);
             } else {
                 listener = new JUnit4Coverage();
-                JUnit4Runner.run(new String[]{fullQualifiedNameOfTestClass}, testMethodNames, Collections.emptyList(), (JUnit4Coverage) listener, this.instrumentedClassLoader);
+                JUnit4Runner.run(new String[]{fullQualifiedNameOfTestClass}, testMethodNames, Collections.emptyList(), (JUnit4Coverage) listener, this.testClassLoader);
             }
             if (!((TestResult) listener).getFailingTests().isEmpty()) {
                 System.err.println("Some test(s) failed during computation of coverage:\n" +
@@ -171,7 +237,8 @@ public class JacocoRunner {
             }
             data.collect(executionData, sessionInfos, false);
             runtime.shutdown();
-            clearCache(this.instrumentedClassLoader);
+            checkInstrumentationByCoverageAgent();
+            clearCache(this.testClassLoader);
             listener.collectData(executionData, classesDirectory);
             return listener;
         } catch (Exception e) {
@@ -194,32 +261,16 @@ public class JacocoRunner {
         final RuntimeData data = new RuntimeData();
         final ExecutionDataStore executionData = new ExecutionDataStore();
         final SessionInfoStore sessionInfos = new SessionInfoStore();
-        URLClassLoader classLoader;
-        try {
-            classLoader = new URLClassLoader(new URL[]
-                    {new File(testClassesDirectory).toURI().toURL()}, this.instrumentedClassLoader);
-        } catch (MalformedURLException e) {
-            throw new RuntimeException(e);
-        }
-        Arrays.stream(fullQualifiedNameOfTestClasses).forEach(fullQualifiedNameOfTestClass -> {
-            final String resource = ConstantsHelper.fullQualifiedNameToPath.apply(fullQualifiedNameOfTestClass) + ".class";
-            try {
-                this.instrumentedClassLoader.addDefinition(
-                        fullQualifiedNameOfTestClass,
-                        IOUtils.toByteArray(classLoader.getResourceAsStream(resource)));
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        });
+        this.addDefinitionsOfTestClasses(testClassesDirectory, fullQualifiedNameOfTestClasses);
         try {
             runtime.startup(data);
             final Coverage listener;
             if (this.isJUnit5) {
                 listener = new JUnit5Coverage();
-                JUnit5Runner.run(fullQualifiedNameOfTestClasses, new String[0], this.blackList, (JUnit5Coverage) listener, this.instrumentedClassLoader);
+                JUnit5Runner.run(fullQualifiedNameOfTestClasses, new String[0], this.blackList, (JUnit5Coverage) listener, this.testClassLoader);
             } else {
                 listener = new JUnit4Coverage();
-                JUnit4Runner.run(fullQualifiedNameOfTestClasses, new String[0], this.blackList, (JUnit4Coverage) listener, this.instrumentedClassLoader);
+                JUnit4Runner.run(fullQualifiedNameOfTestClasses, new String[0], this.blackList, (JUnit4Coverage) listener, this.testClassLoader);
             }
             if (!((TestResult) listener).getFailingTests().isEmpty()) {
                 System.err.println("Some test(s) failed during computation of coverage:\n" +
@@ -231,7 +282,8 @@ public class JacocoRunner {
             }
             data.collect(executionData, sessionInfos, false);
             runtime.shutdown();
-            clearCache(this.instrumentedClassLoader);
+            checkInstrumentationByCoverageAgent();
+            clearCache(this.testClassLoader);
             listener.collectData(executionData, classesDirectory);
             return listener;
         } catch (Exception e) {
@@ -240,22 +292,73 @@ public class JacocoRunner {
     }
 
 
-    private void instrumentAll(String classesDirectory) {
-        final Iterator<File> iterator = FileUtils.iterateFiles(new File(classesDirectory), new String[]{"class"}, true);
-        while (iterator.hasNext()) {
-            final File next = iterator.next();
-            final String fileName = next.getPath().substring(classesDirectory.length() + (classesDirectory.endsWith(ConstantsHelper.FILE_SEPARATOR) ? 0 : 1));
-            final String fullQualifiedName = ConstantsHelper.pathToFullQualifiedName.apply(fileName).substring(0, fileName.length() - ".class".length());
+    /**
+     * Define the given test classes in {@link JacocoRunner#instrumentedClassLoader}, so they are linked to the instrumented classes.
+     * If the classes are instrumented by {@link CoverageAgent}, the test classes are loaded as usual.
+     */
+    protected void addDefinitionsOfTestClasses(String testClassesDirectory, String... fullQualifiedNameOfTestClasses) {
+        if (this.instrumentedClassLoader == null) {
+            return;
+        }
+        final URLClassLoader classLoader;
+        try {
+            classLoader = new URLClassLoader(new URL[]
+                    {new File(testClassesDirectory).toURI().toURL()}, this.instrumentedClassLoader);
+        } catch (MalformedURLException e) {
+            throw new RuntimeException(e);
+        }
+        Arrays.stream(fullQualifiedNameOfTestClasses).forEach(fullQualifiedNameOfTestClass -> {
+            final String resource = ConstantsHelper.fullQualifiedNameToPath.apply(fullQualifiedNameOfTestClass) + ".class";
             try {
-                instrumentedClassLoader.addDefinition(fullQualifiedName,
-                        instrumenter.instrument(instrumentedClassLoader.getResourceAsStream(fileName), fullQualifiedName));
+                this.instrumentedClassLoader.addDefinition(
+                        fullQualifiedNameOfTestClass,
+                        IOUtils.toByteArray(classLoader.getResourceAsStream(resource)));
             } catch (IOException e) {
-                throw new RuntimeException(fileName + "," + new File(fileName).getAbsolutePath() +
-                        "," + fullQualifiedName, e);
+                throw new RuntimeException(e);
             }
+        });
+    }
+
+    /*
+        The classes that the coverage agent could not instrument are not covered: the run fails with their errors,
+        as it fails when the MemoryClassLoader can not instrument a class
+     */
+    protected void checkInstrumentationByCoverageAgent() {
+        if (this.instrumentedClassLoader != null) {
+            return;
+        }
+        final Map<String, Throwable> instrumentationFailures = CoverageAgent.getInstrumentationFailures();
+        if (instrumentationFailures.isEmpty()) {
+            return;
         }
+        final IllegalStateException exception = new IllegalStateException("The coverage agent could not instrument the classes " +
+                String.join(", ", new TreeSet<>(instrumentationFailures.keySet())));
+        instrumentationFailures.values().forEach(exception::addSuppressed);
+        throw exception;
+    }
+
+    /*
+        By default, the classes are instrumented lazily, by the MemoryClassLoader, the first time they are loaded:
+            a run of a few test classes uses a small part of the classes of the project,
+            and the instrumentation of a class is interleaved with the execution of the tests.
+        See instrumentAll() to instrument them at once, in parallel.
+     */
+    private void addClassesToInstrument(String classesDirectory) {
+        CoverageTargets.classFilesOf(classesDirectory).forEach(instrumentedClassLoader::addClassToInstrument);
         clearCache(instrumentedClassLoader);
     }
 
+    /*
+        The classes that are not kept by the coverage filter are defined as they are
+     */
+    private byte[] instrument(byte[] originalBytes, String fullQualifiedName) throws IOException {
+        if (!this.coverageFilter.accepts(fullQualifiedName)) {
+            return originalBytes;
+        }
+        return this.instrumentedClassCache == null ?
+                instrumenter.instrument(originalBytes, fullQualifiedName) :
+                this.instrumentedClassCache.instrument(instrumenter, originalBytes, fullQualifiedName);
+    }
+
 
 }
@@ -3,20 +3,19 @@ package eu.stamp_project.testrunner.runner.coverage;
 import eu.stamp_project.testrunner.EntryPoint;
 import eu.stamp_project.testrunner.listener.CoveragePerTestMethod;
 import eu.stamp_project.testrunner.listener.TestResult;
+import eu.stamp_project.testrunner.listener.event.TestEventEmitter;
+import eu.stamp_project.testrunner.listener.impl.ProbeFileWriter;
 import eu.stamp_project.testrunner.listener.junit4.CoveragePerJUnit4TestMethod;
 import eu.stamp_project.testrunner.listener.junit5.CoveragePerJUnit5TestMethod;
 import eu.stamp_project.testrunner.runner.Failure;
 import eu.stamp_project.testrunner.runner.JUnit4Runner;
 import eu.stamp_project.testrunner.runner.JUnit5Runner;
 import eu.stamp_project.testrunner.runner.ParserOptions;
-import eu.stamp_project.testrunner.utils.ConstantsHelper;
-import org.apache.commons.io.IOUtils;
+import eu.stamp_project.testrunner.runner.StackTrace;
 import org.jacoco.core.runtime.RuntimeData;
 
 import java.io.File;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -38,19 +37,35 @@ public class JacocoRunnerPerTestMethod extends JacocoRunner {
      */
     public static void main(String[] args) {
         final ParserOptions options = ParserOptions.parse(args);
-        final String[] splittedArgs0 = options.getPathToCompiledClassesOfTheProject().split(ConstantsHelper.PATH_SEPARATOR);
-        final String classesDirectory = splittedArgs0[0];
-        final String testClassesDirectory = splittedArgs0[1];
+        final String classesDirectory = options.getCoverageTargets();
+        final String testClassesDirectory = options.getTestClassesDirectory();
         final boolean isJUnit5 = options.isJUnit5();
-        new JacocoRunnerPerTestMethod(isJUnit5,
-                classesDirectory,
-                testClassesDirectory,
-                options.getBlackList()
-        ).runCoveragePerTestMethod(classesDirectory,
-                testClassesDirectory,
-                options.getFullQualifiedNameOfTestClassesToRun()[0],
-                options.getTestMethodNamesToRun()
-        ).save();
+        TestEventEmitter.connect(options);
+        StackTrace.configure(options.getStackTraceMaxDepth(), options.isFilterStackTrace());
+        CoverageFilter.configure(options.getCoverageIncludes(), options.getCoverageExcludes());
+        try {
+            final ProbeFileWriter probeFileWriter = options.getProbeFile() == null ? null : new ProbeFileWriter(new File(options.getProbeFile()));
+            final JacocoRunnerPerTestMethod jacocoRunner = new JacocoRunnerPerTestMethod(isJUnit5,
+                    classesDirectory,
+                    testClassesDirectory,
+                    options.getBlackList(),
+                    instrumentedClassCacheOf(options),
+                    options.isCoverageAgent()
+            );
+            if (options.isEagerInstrumentation()) {
+                jacocoRunner.instrumentAll();
+            }
+            jacocoRunner.runCoveragePerTestMethod(classesDirectory,
+                    testClassesDirectory,
+                    options.getFullQualifiedNameOfTestClassesToRun()[0],
+                    options.getTestMethodNamesToRun(),
+                    probeFileWriter
+            ).save(options.getOutputDirectory());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            TestEventEmitter.close();
+        }
     }
 
     /**
@@ -67,28 +82,30 @@ public class JacocoRunnerPerTestMethod extends JacocoRunner {
                                                           String testClassesDirectory,
                                                           String fullQualifiedNameOfTestClass,
                                                           String[] testMethodNames) {
+        return this.runCoveragePerTestMethod(classesDirectory, testClassesDirectory, fullQualifiedNameOfTestClass, testMethodNames, null);
+    }
+
+    /**
+     * @param probeFileWriter if not null, the raw probes of each test method are written with it, instead of computing their coverage.
+     *                        In this case, the returned instance does not contain any coverage, and saving it closes the probe file.
+     * @see JacocoRunnerPerTestMethod#runCoveragePerTestMethod(String, String, String, String[])
+     */
+    public CoveragePerTestMethod runCoveragePerTestMethod(String classesDirectory,
+                                                          String testClassesDirectory,
+                                                          String fullQualifiedNameOfTestClass,
+                                                          String[] testMethodNames,
+                                                          ProbeFileWriter probeFileWriter) {
         final RuntimeData data = new RuntimeData();
-        URLClassLoader classLoader;
+        this.addDefinitionsOfTestClasses(testClassesDirectory, fullQualifiedNameOfTestClass);
         try {
-            classLoader = new URLClassLoader(new URL[]
-                    {new File(testClassesDirectory).toURI().toURL()}, this.instrumentedClassLoader);
-        } catch (MalformedURLException e) {
-            throw new RuntimeException(e);
-        }
-        final String resource = ConstantsHelper.fullQualifiedNameToPath.apply(fullQualifiedNameOfTestClass) + ".class";
-        try {
-            this.instrumentedClassLoader.addDefinition(
-                    fullQualifiedNameOfTestClass,
-                    IOUtils.toByteArray(classLoader.getResourceAsStream(resource))
-            );
             this.runtime.startup(data);
             final CoveragePerTestMethod listener;
             if (this.isJUnit5) {
-                listener = new CoveragePerJUnit5TestMethod(data, classesDirectory);
-                JUnit5Runner.run(new String[]{fullQualifiedNameOfTestClass}, testMethodNames, Collections.emptyList(), (CoveragePerJUnit5TestMethod) listener, this.instrumentedClassLoader);
+                listener = new CoveragePerJUnit5TestMethod(data, classesDirectory, probeFileWriter);
+                JUnit5Runner.run(new String[]{fullQualifiedNameOfTestClass}, testMethodNames, Collections.emptyList(), (CoveragePerJUnit5TestMethod) listener, this.testClassLoader);
             } else {
-                listener = new CoveragePerJUnit4TestMethod(data, classesDirectory);
-                JUnit4Runner.run(new String[]{fullQualifiedNameOfTestClass}, testMethodNames, Collections.emptyList(), (CoveragePerJUnit4TestMethod) listener, this.instrumentedClassLoader);
+                listener = new CoveragePerJUnit4TestMethod(data, classesDirectory, probeFileWriter);
+                JUnit4Runner.run(new String[]{fullQualifiedNameOfTestClass}, testMethodNames, Collections.emptyList(), (CoveragePerJUnit4TestMethod) listener, this.testClassLoader);
             }
             if (!((TestResult) listener).getFailingTests().isEmpty()) {
                 System.err.println("Some test(s) failed during computation of coverage:\n" +
@@ -99,7 +116,8 @@ public class JacocoRunnerPerTestMethod extends JacocoRunner {
                 );
             }
             this.runtime.shutdown();
-            clearCache(this.instrumentedClassLoader);
+            this.checkInstrumentationByCoverageAgent();
+            clearCache(this.testClassLoader);
             return listener;
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -124,4 +142,29 @@ public class JacocoRunnerPerTestMethod extends JacocoRunner {
     public JacocoRunnerPerTestMethod(boolean isJUnit5, String classesDirectory, String testClassesDirectory, List<String> blackList) {
         super(isJUnit5, classesDirectory, testClassesDirectory, blackList);
     }
+
+    /**
+     * @param isJUnit5               tell if the given tests are JUnit5 or not
+     * @param classesDirectory       the path to the directory that contains the .class file of sources
+     * @param testClassesDirectory   the path to the directory that contains the .class file of test sources
+     * @param blackList              the names of the test methods to NOT be run.
+     * @param instrumentedClassCache the cache of the instrumented classes, or null to instrument all the classes
+     */
+    public JacocoRunnerPerTestMethod(boolean isJUnit5, String classesDirectory, String testClassesDirectory, List<String> blackList,
+                                     InstrumentedClassCache instrumentedClassCache) {
+        super(isJUnit5, classesDirectory, testClassesDirectory, blackList, instrumentedClassCache);
+    }
+
+    /**
+     * @param isJUnit5               tell if the given tests are JUnit5 or not
+     * @param classesDirectory       the path to the directory that contains the .class file of sources
+     * @param testClassesDirectory   the path to the directory that contains the .class file of test sources
+     * @param blackList              the names of the test methods to NOT be run.
+     * @param instrumentedClassCache the cache of the instrumented classes, or null to instrument all the classes
+     * @param useCoverageAgent       tell if the classes are instrumented by {@link CoverageAgent}, in which case the tests are loaded by the context class loader
+     */
+    public JacocoRunnerPerTestMethod(boolean isJUnit5, String classesDirectory, String testClassesDirectory, List<String> blackList,
+                                     InstrumentedClassCache instrumentedClassCache, boolean useCoverageAgent) {
+        super(isJUnit5, classesDirectory, testClassesDirectory, blackList, instrumentedClassCache, useCoverageAgent);
+    }
 }
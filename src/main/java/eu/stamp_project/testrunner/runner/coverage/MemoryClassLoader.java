@@ -1,16 +1,47 @@
 package eu.stamp_project.testrunner.runner.coverage;
 
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 class MemoryClassLoader extends URLClassLoader {
 
-    private final Map<String, byte[]> definitions = new HashMap<>();
+    static {
+        // the classes are loaded under the lock of their name, instead of the lock of this class loader
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    /**
+     * Instrument the bytes of a class, on its first load.
+     */
+    interface ClassInstrumenter {
+        byte[] instrument(byte[] originalBytes, String name) throws IOException;
+    }
+
+    private final Map<String, byte[]> definitions = new ConcurrentHashMap<>();
+
+    private final Map<String, URL> classFilesToInstrument = new ConcurrentHashMap<>();
+
+    private final ClassInstrumenter instrumenter;
 
     public MemoryClassLoader(URL[] urls) {
-        super(urls, ClassLoader.getSystemClassLoader());
+        this(urls, null);
+    }
+
+    /**
+     * @param urls         the urls of the classes
+     * @param instrumenter the instrumenter of the classes given to {@link MemoryClassLoader#addClassToInstrument(String, URL)}
+     */
+    public MemoryClassLoader(URL[] urls, ClassInstrumenter instrumenter) {
+        // the parent is the class loader of the classes of the request, that is not always the system class loader, e.g. in RunnerDaemon
+        super(urls, Thread.currentThread().getContextClassLoader());
+        this.instrumenter = instrumenter;
     }
 
     /**
@@ -23,18 +54,81 @@ class MemoryClassLoader extends URLClassLoader {
         definitions.put(name, bytes);
     }
 
+    /**
+     * Add a class to be instrumented the first time it is loaded, so only the classes used by the tests are instrumented.
+     *
+     * @param name      name of the class
+     * @param classFile the url of the .class file of the class, as compiled, in a directory or in a jar
+     */
+    public void addClassToInstrument(final String name, final URL classFile) {
+        classFilesToInstrument.put(name, classFile);
+    }
+
+    /**
+     * Instrument at once, in parallel on the common fork-join pool, the classes given to {@link MemoryClassLoader#addClassToInstrument(String, URL)}
+     * that are not loaded yet, instead of instrumenting them on their first load.
+     * Their instrumented bytes are kept as definitions, see {@link MemoryClassLoader#addDefinition(String, byte[])}.
+     */
+    public void instrumentAll() {
+        new ArrayList<>(classFilesToInstrument.keySet()).parallelStream().forEach(name -> {
+            // the same lock as the load of the class, so a class is instrumented once
+            synchronized (getClassLoadingLock(name)) {
+                final URL classFile = classFilesToInstrument.remove(name);
+                if (classFile != null && findLoadedClass(name) == null) {
+                    try {
+                        definitions.put(name, instrument(name, classFile));
+                    } catch (ClassNotFoundException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        });
+    }
+
+    /*
+        Each class is defined once, under the lock of its name: the next requests get the class defined by this class loader.
+        The bytes of a class are released once it is defined.
+     */
     @Override
-    public Class<?> loadClass(final String name)
+    protected Class<?> loadClass(final String name, final boolean resolve)
             throws ClassNotFoundException {
-        final byte[] bytes = definitions.get(name);
-        try {
-            if (bytes != null) {
-                return defineClass(name, bytes, 0, bytes.length);
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loadedClass = findLoadedClass(name);
+            if (loadedClass == null) {
+                final byte[] bytes = definitionOf(name);
+                if (bytes == null) {
+                    return super.loadClass(name, resolve);
+                }
+                loadedClass = defineClass(name, bytes, 0, bytes.length);
+            } else {
+                // a definition added after the class has been defined is not used
+                definitions.remove(name);
             }
-        } catch (java.lang.LinkageError error) {
-            return super.loadClass(name, false);
+            if (resolve) {
+                resolveClass(loadedClass);
+            }
+            return loadedClass;
+        }
+    }
+
+    private byte[] definitionOf(final String name) throws ClassNotFoundException {
+        final byte[] bytes = definitions.remove(name);
+        if (bytes != null) {
+            return bytes;
+        }
+        final URL classFile = classFilesToInstrument.remove(name);
+        if (classFile == null) {
+            return null;
+        }
+        return instrument(name, classFile);
+    }
+
+    private byte[] instrument(final String name, final URL classFile) throws ClassNotFoundException {
+        try (InputStream inputStream = classFile.openStream()) {
+            return instrumenter.instrument(IOUtils.toByteArray(inputStream), name);
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
         }
-        return super.loadClass(name, false);
     }
 
-}
\ No newline at end of file
+}
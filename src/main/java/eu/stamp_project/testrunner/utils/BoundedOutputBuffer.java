@@ -0,0 +1,87 @@
+package eu.stamp_project.testrunner.utils;
+
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * This class is an output stream that keeps only the last bytes written, up to its capacity.
+ * It is used to capture the output of a run, or of a test method, without holding an unbounded amount of memory.
+ */
+public class BoundedOutputBuffer extends OutputStream {
+
+    private final byte[] buffer;
+
+    private int start;
+
+    private int size;
+
+    private long totalSize;
+
+    public BoundedOutputBuffer(int capacity) {
+        this.buffer = new byte[capacity];
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        if (this.buffer.length == 0) {
+            this.totalSize++;
+            return;
+        }
+        this.buffer[(this.start + this.size) % this.buffer.length] = (byte) b;
+        if (this.size < this.buffer.length) {
+            this.size++;
+        } else {
+            this.start = (this.start + 1) % this.buffer.length;
+        }
+        this.totalSize++;
+    }
+
+    @Override
+    public synchronized void write(byte[] bytes, int offset, int length) {
+        this.totalSize += length;
+        if (length >= this.buffer.length) {
+            // only the last bytes fit
+            System.arraycopy(bytes, offset + length - this.buffer.length, this.buffer, 0, this.buffer.length);
+            this.start = 0;
+            this.size = this.buffer.length;
+            return;
+        }
+        final int end = (this.start + this.size) % this.buffer.length;
+        final int firstPart = Math.min(length, this.buffer.length - end);
+        System.arraycopy(bytes, offset, this.buffer, end, firstPart);
+        System.arraycopy(bytes, offset + firstPart, this.buffer, 0, length - firstPart);
+        final int overflow = this.size + length - this.buffer.length;
+        if (overflow > 0) {
+            this.start = (this.start + overflow) % this.buffer.length;
+            this.size = this.buffer.length;
+        } else {
+            this.size += length;
+        }
+    }
+
+    public synchronized void reset() {
+        this.start = 0;
+        this.size = 0;
+        this.totalSize = 0;
+    }
+
+    /**
+     * @return true if some bytes have been dropped because the capacity has been exceeded
+     */
+    public synchronized boolean isTruncated() {
+        return this.totalSize > this.size;
+    }
+
+    public synchronized byte[] toByteArray() {
+        final byte[] bytes = new byte[this.size];
+        final int firstPart = Math.min(this.size, this.buffer.length - this.start);
+        System.arraycopy(this.buffer, this.start, bytes, 0, firstPart);
+        System.arraycopy(this.buffer, 0, bytes, firstPart, this.size - firstPart);
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return new String(this.toByteArray(), Charset.defaultCharset());
+    }
+}
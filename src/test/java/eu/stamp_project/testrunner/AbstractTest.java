@@ -53,10 +53,13 @@ public class AbstractTest {
                 " src/test/resources/test-projects/src/test/java/example/ParametrizedTest.java" +
                 " src/test/resources/test-projects/src/test/java/junit5/ParametrizedTest.java" +
                 " src/test/resources/test-projects/src/test/java/failing/FailingTestClass.java" +
+                " src/test/resources/test-projects/src/test/java/failing/HangingTestClass.java" +
                 " src/test/resources/test-projects/src/test/java/example/TestSuiteExample2.java" +
+                " src/test/resources/test-projects/src/test/java/example/RunnerDaemonTestClass.java" +
                 " src/test/resources/test-projects/src/test/java/easymock/LoginControllerIntegrationTest.java" +
                 " src/test/resources/test-projects/src/test/java/junit5/TestSuiteExample.java" +
                 " src/test/resources/test-projects/src/test/java/junit5/FailingTestClass.java" +
+                " src/test/resources/test-projects/src/test/java/junit5/HangingTestClass.java" +
                 " src/test/resources/test-projects/src/test/java/junit5/TestSuiteExample2.java";
         System.out.println(command);
         if (Runtime.getRuntime().exec(command).waitFor() != 0) {
@@ -12,6 +12,7 @@ import org.junit.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.Assert.*;
 import static org.junit.Assert.assertEquals;
@@ -203,6 +204,13 @@ public class EntryPointJUnit5Test extends AbstractTest {
         );
         assertEquals(12, testResult.getPassingTests().size());
         assertEquals(0, testResult.getFailingTests().size());
+
+        // each test method, and each test class, is timed
+        assertEquals(12, testResult.getTimingsOfTestMethods().size());
+        assertNotNull(testResult.getTimingOfTestClass("junit5.TestSuiteExample"));
+        assertNotNull(testResult.getTimingOfTestClass("junit5.TestSuiteExample2"));
+        assertTrue(testResult.getTimingOfTestClass("junit5.TestSuiteExample").getStartTime() <=
+                testResult.getTimingOf("junit5.TestSuiteExample", "test3").getStartTime());
     }
 
     @Test
@@ -222,6 +230,72 @@ public class EntryPointJUnit5Test extends AbstractTest {
         assertEquals(0, testResult.getFailingTests().size());
     }
 
+    @Test
+    public void testRunTestTestClassInProcess() throws Exception {
+
+        /*
+            Test the method runTest() of EntryPoint, in process.
+                It should return the same result than in a new JVM.
+         */
+
+        EntryPoint.inProcess = true;
+        try {
+            final TestResult testResult = EntryPoint.runTests(
+                    JUNIT5_CP + ConstantsHelper.PATH_SEPARATOR +
+                            JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    "junit5.TestSuiteExample"
+            );
+            assertEquals(6, testResult.getPassingTests().size());
+            assertEquals(0, testResult.getFailingTests().size());
+        } finally {
+            EntryPoint.inProcess = false;
+        }
+    }
+
+    @Test
+    public void testRunTestMethodsOfSeveralTestClasses() throws Exception {
+
+        /*
+            Test the method runTests() of EntryPoint, with test methods of several test classes.
+                Each test method should be selected in the test class that declares it.
+         */
+
+        final TestResult testResult = EntryPoint.runTests(
+                JUNIT5_CP + ConstantsHelper.PATH_SEPARATOR +
+                        JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                new String[]{"junit5.TestSuiteExample", "junit5.FailingTestClass"},
+                new String[]{"test3", "testFailing"}
+        );
+        assertEquals(2, testResult.getRunningTests().size());
+        assertEquals(1, testResult.getPassingTests().size());
+        assertEquals(1, testResult.getFailingTests().size());
+        assertEquals("testFailing", testResult.getFailingTests().get(0).testCaseName);
+    }
+
+    @Test
+    public void testTestTimeout() throws Exception {
+
+        /*
+            Test the timeout of each test method, with JUnit5.
+                Only the hung test method fails, and the other test methods are still run.
+         */
+
+        EntryPoint.testTimeoutInMs = 500;
+        try {
+            final TestResult testResult = EntryPoint.runTests(
+                    JUNIT5_CP + ConstantsHelper.PATH_SEPARATOR +
+                            JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    "junit5.HangingTestClass"
+            );
+            assertEquals(2, testResult.getRunningTests().size());
+            assertEquals(1, testResult.getPassingTests().size());
+            assertEquals(1, testResult.getFailingTests().size());
+            assertEquals(TimeoutException.class.getName(), testResult.getFailureOf("testSleeping").fullQualifiedNameOfException);
+        } finally {
+            EntryPoint.testTimeoutInMs = 0;
+        }
+    }
+
     @Ignore
     @Test //TODO FIXME FLAKY
     public void testRunTestTestMethods() throws Exception {
@@ -2,8 +2,13 @@ package eu.stamp_project.testrunner;
 
 import eu.stamp_project.testrunner.listener.Coverage;
 import eu.stamp_project.testrunner.listener.CoveragePerTestMethod;
+import eu.stamp_project.testrunner.listener.TestEventListener;
 import eu.stamp_project.testrunner.listener.TestResult;
+import eu.stamp_project.testrunner.listener.TestTiming;
+import eu.stamp_project.testrunner.listener.impl.MappedCoveragePerTestMethod;
+import eu.stamp_project.testrunner.listener.junit4.JUnit4TestResult;
 import eu.stamp_project.testrunner.runner.Failure;
+import eu.stamp_project.testrunner.runner.TestJob;
 import eu.stamp_project.testrunner.utils.ConstantsHelper;
 import org.junit.After;
 import org.junit.Before;
@@ -11,10 +16,18 @@ import org.junit.Test;
 import org.junit.Ignore;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -185,6 +198,38 @@ public class EntryPointTest extends AbstractTest {
         }
     }
 
+    @Test
+    public void testFilterStackTrace() throws Exception {
+        /*
+            With the filter, the stack trace of a failure keeps the assertion and the test method,
+                but not the frames of JUnit and of the reflection that invoked the test method.
+            The max depth bounds the number of frames kept.
+         */
+
+        EntryPoint.filterStackTrace = true;
+        try {
+            TestResult testResult = EntryPoint.runTests(
+                    JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    "failing.FailingTestClass"
+            );
+            String stackTrace = testResult.getFailureOf("testFailing").getStackTrace();
+            assertTrue(stackTrace, stackTrace.contains("failing.FailingTestClass.testFailing"));
+            assertTrue(stackTrace, stackTrace.contains(" filtered"));
+            assertFalse(stackTrace, stackTrace.contains("org.junit.runners."));
+
+            EntryPoint.filterStackTrace = false;
+            EntryPoint.stackTraceMaxDepth = 1;
+            testResult = EntryPoint.runTests(
+                    JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    "failing.FailingTestClass"
+            );
+            assertEquals(1, testResult.getFailureOf("testFailing").getStructuredStackTrace().getFrames().size());
+        } finally {
+            EntryPoint.filterStackTrace = false;
+            EntryPoint.stackTraceMaxDepth = 0;
+        }
+    }
+
     @Test
     public void testTimeOut() {
         EntryPoint.timeoutInMs = 1;
@@ -214,6 +259,335 @@ public class EntryPointTest extends AbstractTest {
         );
         assertEquals(13, testResult.getPassingTests().size());
         assertEquals(0, testResult.getFailingTests().size());
+
+        // each test method, and each test class, is timed
+        assertEquals(13, testResult.getTimingsOfTestMethods().size());
+        assertEquals(2, testResult.getTimingsOfTestClasses().size());
+        final TestTiming timingOfTestClass = testResult.getTimingOfTestClass("example.TestSuiteExample");
+        final TestTiming timingOfTestMethod = testResult.getTimingOf("example.TestSuiteExample", "test3");
+        assertTrue(timingOfTestClass.getStartTime() <= timingOfTestMethod.getStartTime());
+        assertTrue(timingOfTestMethod.getEndTime() <= timingOfTestClass.getEndTime());
+        assertTrue(timingOfTestClass.getDuration() >= timingOfTestClass.getSetupTime() + timingOfTestClass.getTeardownTime());
+        assertEquals(13, testResult.getDurationStatistics().getCount());
+    }
+
+    @Test
+    public void testRunTestClassesInParallel() throws Exception {
+
+        /*
+            Test the method runTests() of EntryPoint, using several runner processes.
+                It should return the same result than a sequential execution, in a deterministic order.
+         */
+
+        EntryPoint.parallelism = 2;
+        try {
+            final String[] testClasses = {"example.TestSuiteExample", "failing.FailingTestClass", "example.TestSuiteExample2"};
+            final TestResult testResult = EntryPoint.runTests(
+                    JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    testClasses
+            );
+            assertEquals(16, testResult.getRunningTests().size());
+            assertEquals(14, testResult.getPassingTests().size());
+            assertEquals(1, testResult.getFailingTests().size());
+            assertEquals(1, testResult.getIgnoredTests().size());
+
+            final TestResult secondTestResult = EntryPoint.runTests(
+                    JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    testClasses
+            );
+            assertEquals(testResult.getRunningTests(), secondTestResult.getRunningTests());
+        } finally {
+            EntryPoint.parallelism = 1;
+        }
+    }
+
+    @Test
+    public void testTestEventListener() throws Exception {
+
+        /*
+            Test the events received while the tests are running.
+                The events should be consistent with the final result.
+         */
+
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        EntryPoint.testEventListener = new TestEventListener() {
+            @Override
+            public void testStarted(String testClassName, String testMethodName) {
+                events.add("started:" + testMethodName);
+            }
+
+            @Override
+            public void testFailed(Failure failure) {
+                events.add("failed:" + failure.testCaseName);
+            }
+
+            @Override
+            public void testIgnored(String testClassName, String testMethodName) {
+                events.add("ignored:" + testMethodName);
+            }
+
+            @Override
+            public void testCoverageComputed(String testClassName, String testMethodName, Coverage coverage) {
+                events.add("coverage:" + testMethodName + ":" + coverage.getInstructionsCovered());
+            }
+        };
+        try {
+            final TestResult testResult = EntryPoint.runTests(
+                    JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    "failing.FailingTestClass"
+            );
+            assertEquals(3, events.stream().filter(event -> event.startsWith("started:")).count());
+            assertTrue(events.contains("failed:testFailing"));
+            assertEquals(testResult.getIgnoredTests().size(), events.stream().filter(event -> event.startsWith("ignored:")).count());
+
+            events.clear();
+            final String classpath = MAVEN_HOME + "org/jacoco/org.jacoco.core/0.7.9/org.jacoco.core-0.7.9.jar" + ConstantsHelper.PATH_SEPARATOR +
+                    MAVEN_HOME + "org/ow2/asm/asm-debug-all/5.2/asm-debug-all-5.2.jar" + ConstantsHelper.PATH_SEPARATOR +
+                    MAVEN_HOME + "commons-io/commons-io/2.5/commons-io-2.5.jar" + ConstantsHelper.PATH_SEPARATOR +
+                    JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + JUNIT5_CP;
+            EntryPoint.runCoveragePerTestMethods(
+                    classpath + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    TEST_PROJECT_CLASSES,
+                    "example.TestSuiteExample",
+                    new String[]{"test8", "test3"}
+            );
+            assertTrue(events.contains("coverage:test8:23"));
+            assertTrue(events.contains("coverage:test3:23"));
+        } finally {
+            EntryPoint.testEventListener = null;
+        }
+    }
+
+    @Test
+    public void testRunTestsAsync() throws Exception {
+
+        /*
+            Test the method runTestsAsync() of EntryPoint.
+                Several executions can be in flight at the same time, and each future is completed with its own result.
+                A future is completed exceptionally with a TimeoutException when the execution takes too long.
+         */
+
+        final String classpath = JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES;
+        final CompletableFuture<TestResult> testResult =
+                EntryPoint.runTestsAsync(classpath, new String[]{"example.TestSuiteExample"}, new String[0]);
+        final CompletableFuture<TestResult> failingTestResult =
+                EntryPoint.runTestsAsync(classpath, new String[]{"failing.FailingTestClass"}, new String[0]);
+        final CompletableFuture<Coverage> coverage = EntryPoint.runCoverageAsync(
+                classpath + ConstantsHelper.PATH_SEPARATOR + JUNIT5_CP,
+                TEST_PROJECT_CLASSES,
+                new String[]{"example.TestSuiteExample"},
+                new String[]{"test8", "test3"}
+        );
+        assertEquals(7, testResult.get().getPassingTests().size());
+        assertEquals(1, failingTestResult.get().getFailingTests().size());
+        assertEquals(23, coverage.get().getInstructionsCovered());
+
+        final int timeoutInMs = EntryPoint.timeoutInMs;
+        EntryPoint.timeoutInMs = 1;
+        try {
+            EntryPoint.runTestsAsync(classpath, new String[]{"example.TestSuiteExample"}, new String[0]).get();
+            fail("should have thrown a TimeoutException");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        } finally {
+            EntryPoint.timeoutInMs = timeoutInMs;
+        }
+    }
+
+    @Test
+    public void testCaptureTestOutput() throws Exception {
+
+        /*
+            Test the capture of the output of each test method.
+                The output of each test method is attached to the TestResult, separately.
+         */
+
+        EntryPoint.captureTestOutput = true;
+        try {
+            final TestResult testResult = EntryPoint.runTests(
+                    JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    "failing.FailingTestClass"
+            );
+            assertEquals("output of testPassing", testResult.getOutputOf("testPassing").trim());
+            assertEquals("output of testFailing", testResult.getOutputOf("testFailing").trim());
+            assertTrue(testResult.getOutputOf("testAssumptionFailing").isEmpty());
+        } finally {
+            EntryPoint.captureTestOutput = false;
+        }
+        final TestResult testResult = EntryPoint.runTests(
+                JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                "failing.FailingTestClass"
+        );
+        assertTrue(testResult.getOutputOf("testPassing").isEmpty());
+    }
+
+    @Test
+    public void testTestTimeout() throws Exception {
+
+        /*
+            Test the timeout of each test method.
+                Only the hung test methods fail, whether they check the interruption or not,
+                and the other test methods are still run.
+         */
+
+        EntryPoint.testTimeoutInMs = 500;
+        try {
+            final TestResult testResult = EntryPoint.runTests(
+                    JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    "failing.HangingTestClass"
+            );
+            assertEquals(4, testResult.getRunningTests().size());
+            assertEquals(2, testResult.getPassingTests().size());
+            assertTrue(testResult.getPassingTests().contains("test4Passing"));
+            assertEquals(2, testResult.getFailingTests().size());
+            assertEquals(TimeoutException.class.getName(), testResult.getFailureOf("test2Sleeping").fullQualifiedNameOfException);
+            assertEquals(TimeoutException.class.getName(), testResult.getFailureOf("test3Looping").fullQualifiedNameOfException);
+        } finally {
+            EntryPoint.testTimeoutInMs = 0;
+        }
+    }
+
+    @Test
+    public void testPartialResultOnTimeout() throws Exception {
+
+        /*
+            Test the result of the test methods that finished before the timeout of the whole process.
+                The test method that was running is reported as failing.
+         */
+
+        EntryPoint.timeoutInMs = 3000;
+        EntryPoint.salvagePartialResults = true;
+        try {
+            EntryPoint.runTests(
+                    JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    new String[]{"failing.HangingTestClass"},
+                    new String[]{"test1Passing", "test2Sleeping"}
+            );
+            fail("Should have thrown a PartialResultTimeoutException");
+        } catch (PartialResultTimeoutException e) {
+            final TestResult partialResult = e.getPartialResult();
+            assertEquals(2, partialResult.getRunningTests().size());
+            assertEquals(Collections.singletonList("test1Passing"), partialResult.getPassingTests());
+            assertEquals(TimeoutException.class.getName(), partialResult.getFailureOf("test2Sleeping").fullQualifiedNameOfException);
+        } finally {
+            EntryPoint.timeoutInMs = 10000;
+            EntryPoint.salvagePartialResults = false;
+        }
+    }
+
+    @Test
+    public void testTimeoutHistory() throws Exception {
+
+        /*
+            Test the timeout derived from the durations of the previous executions.
+                Once there are enough durations, the timeout is the percentile of these durations, multiplied by the factor.
+                On timeout, the timeout itself is recorded, so the next timeout is longer.
+         */
+
+        final File historyFile = new File("target/timeout-history-test.txt");
+        historyFile.delete();
+        final String classpath = JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES;
+        final String key = TimeoutHistory.key(classpath, "eu.stamp_project.testrunner.runner.JUnit4Runner", new String[]{"example.TestSuiteExample"});
+        final TimeoutHistory timeoutHistory = new TimeoutHistory(historyFile, 20, 1, 0.99, 3.0, 1L);
+        assertEquals(10000L, timeoutHistory.getTimeoutInMs(key, 10000L));
+        timeoutHistory.record(key, 1L);
+        assertEquals(3L, timeoutHistory.getTimeoutInMs(key, 10000L));
+        EntryPoint.timeoutHistory = timeoutHistory;
+        try {
+            EntryPoint.runTests(classpath, "example.TestSuiteExample");
+            fail("Should have thrown a TimeoutException");
+        } catch (TimeoutException e) {
+            assertEquals(9L, timeoutHistory.getTimeoutInMs(key, 10000L));
+            timeoutHistory.close();
+            assertEquals(9L, new TimeoutHistory(historyFile, 20, 1, 0.99, 3.0, 1L).getTimeoutInMs(key, 10000L));
+        } finally {
+            EntryPoint.timeoutHistory = null;
+            historyFile.delete();
+        }
+    }
+
+    @Test
+    public void testTimeoutHistoryMaxKeys() throws Exception {
+
+        /*
+            Test that only the keys used the most recently are kept, also in the file.
+         */
+
+        final File historyFile = new File("target/timeout-history-max-keys-test.txt");
+        historyFile.delete();
+        try {
+            final TimeoutHistory timeoutHistory = new TimeoutHistory(historyFile, 20, 1, 0.99, 3.0, 1L, 2);
+            timeoutHistory.record("first", 1L);
+            timeoutHistory.record("second", 2L);
+            assertEquals(3L, timeoutHistory.getTimeoutInMs("first", 10000L));
+            timeoutHistory.record("third", 3L);
+            timeoutHistory.close();
+            final TimeoutHistory reloaded = new TimeoutHistory(historyFile, 20, 1, 0.99, 3.0, 1L, 2);
+            assertEquals(3L, reloaded.getTimeoutInMs("first", 10000L));
+            assertEquals(10000L, reloaded.getTimeoutInMs("second", 10000L));
+            assertEquals(9L, reloaded.getTimeoutInMs("third", 10000L));
+        } finally {
+            historyFile.delete();
+        }
+    }
+
+    @Test
+    public void testRunTestsInProcess() throws Exception {
+
+        /*
+            Test the method runTests() of EntryPoint, in process.
+                It should return the same result than in a new JVM, the listener being returned without serialization.
+         */
+
+        EntryPoint.inProcess = true;
+        try {
+            final TestResult testResult = EntryPoint.runTests(
+                    JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    "failing.FailingTestClass"
+            );
+            assertTrue(testResult instanceof JUnit4TestResult);
+            assertEquals(3, testResult.getRunningTests().size());
+            assertEquals(1, testResult.getPassingTests().size());
+            assertEquals(1, testResult.getFailingTests().size());
+            assertEquals(1, testResult.getAssumptionFailingTests().size());
+            assertEquals(1, testResult.getIgnoredTests().size());
+
+            EntryPoint.parallelism = 2;
+            final TestResult aggregatedTestResult = EntryPoint.runTests(
+                    JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    new String[]{"example.TestSuiteExample", "failing.FailingTestClass"}
+            );
+            assertEquals(10, aggregatedTestResult.getRunningTests().size());
+            assertEquals(1, aggregatedTestResult.getFailingTests().size());
+        } finally {
+            EntryPoint.inProcess = false;
+            EntryPoint.parallelism = 1;
+        }
+    }
+
+    @Test
+    public void testRunTestsInProcessIsolation() throws Exception {
+
+        /*
+            The classes of the given classpath are loaded in isolation, even if the test runner can load them too:
+                their static state is shared neither with the test runner, nor between two runs.
+         */
+
+        InProcessStaticState.numberOfRuns = 23;
+        EntryPoint.inProcess = true;
+        try {
+            for (int i = 0; i < 2; i++) {
+                final TestResult testResult = EntryPoint.runTests(
+                        JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + "target/test-classes/",
+                        InProcessStaticState.class.getName()
+                );
+                assertEquals(Collections.singletonList("testFirstRun"), testResult.getPassingTests());
+            }
+            assertEquals(23, InProcessStaticState.numberOfRuns);
+        } finally {
+            EntryPoint.inProcess = false;
+            InProcessStaticState.numberOfRuns = 0;
+        }
     }
 
     @Test
@@ -277,6 +651,33 @@ public class EntryPointTest extends AbstractTest {
         assertEquals(107, coverage.getInstructionsTotal());
     }
 
+    @Test
+    public void testRunCoverageWithEagerInstrumentation() throws Exception {
+
+        /*
+            Test the runCoverage() of EntryPoint, with all the classes instrumented at once, in parallel, before the tests.
+                It should return the same coverage than with the classes instrumented on their first load.
+         */
+        final String classpath = MAVEN_HOME + "org/jacoco/org.jacoco.core/0.7.9/org.jacoco.core-0.7.9.jar" + ConstantsHelper.PATH_SEPARATOR +
+                MAVEN_HOME + "org/ow2/asm/asm-debug-all/5.2/asm-debug-all-5.2.jar" + ConstantsHelper.PATH_SEPARATOR +
+                MAVEN_HOME + "commons-io/commons-io/2.5/commons-io-2.5.jar" + ConstantsHelper.PATH_SEPARATOR +
+                JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + JUNIT5_CP;
+
+        EntryPoint.eagerInstrumentation = true;
+        try {
+            final Coverage coverage = EntryPoint.runCoverage(
+                    classpath + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    TEST_PROJECT_CLASSES,
+                    "example.TestSuiteExample",
+                    new String[]{"test8", "test3"}
+            );
+            assertEquals(23, coverage.getInstructionsCovered());
+            assertEquals(107, coverage.getInstructionsTotal());
+        } finally {
+            EntryPoint.eagerInstrumentation = false;
+        }
+    }
+
     @Test
     public void testRunGlobalCoverage() throws Exception {
 
@@ -353,6 +754,268 @@ public class EntryPointTest extends AbstractTest {
         assertEquals(107, coveragePerTestMethod.getCoverageOf("test8").getInstructionsTotal());
     }
 
+    @Test
+    public void testRunCoverageWithCoverageAgent() throws Exception {
+
+        /*
+            Test the runCoverage() and the runCoveragePerTestMethods() of EntryPoint, using the coverage agent.
+                The coverage should be the same than the coverage computed with the dedicated class loader.
+         */
+        final String classpath = MAVEN_HOME + "org/jacoco/org.jacoco.core/0.7.9/org.jacoco.core-0.7.9.jar" + ConstantsHelper.PATH_SEPARATOR +
+                MAVEN_HOME + "org/ow2/asm/asm-debug-all/5.2/asm-debug-all-5.2.jar" + ConstantsHelper.PATH_SEPARATOR +
+                MAVEN_HOME + "commons-io/commons-io/2.5/commons-io-2.5.jar" + ConstantsHelper.PATH_SEPARATOR +
+                JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + JUNIT5_CP;
+
+        EntryPoint.useCoverageAgent = true;
+        try {
+            final Coverage coverage = EntryPoint.runCoverage(
+                    classpath + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    TEST_PROJECT_CLASSES,
+                    "example.TestSuiteExample",
+                    new String[]{"test8", "test3"}
+            );
+            assertEquals(23, coverage.getInstructionsCovered());
+            assertEquals(107, coverage.getInstructionsTotal());
+
+            final CoveragePerTestMethod coveragePerTestMethod = EntryPoint.runCoveragePerTestMethods(
+                    classpath + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    TEST_PROJECT_CLASSES,
+                    "example.TestSuiteExample",
+                    new String[]{"test8", "test3"}
+            );
+            assertEquals(23, coveragePerTestMethod.getCoverageOf("test3").getInstructionsCovered());
+            assertEquals(107, coveragePerTestMethod.getCoverageOf("test3").getInstructionsTotal());
+            assertEquals(23, coveragePerTestMethod.getCoverageOf("test8").getInstructionsCovered());
+        } finally {
+            EntryPoint.useCoverageAgent = false;
+        }
+    }
+
+    @Test
+    public void testRunCoveragePerTestMethodsWithProbeFile() throws Exception {
+
+        /*
+            Test the runCoveragePerTestMethods() of EntryPoint, using a probe file.
+                The coverage computed lazily from the raw probes should be the same than the coverage computed by the runner process.
+                The inputs of a parametrized test method are also aggregated under the name of the test method.
+         */
+        final String classpath = MAVEN_HOME + "org/jacoco/org.jacoco.core/0.7.9/org.jacoco.core-0.7.9.jar" + ConstantsHelper.PATH_SEPARATOR +
+                MAVEN_HOME + "org/ow2/asm/asm-debug-all/5.2/asm-debug-all-5.2.jar" + ConstantsHelper.PATH_SEPARATOR +
+                MAVEN_HOME + "commons-io/commons-io/2.5/commons-io-2.5.jar" + ConstantsHelper.PATH_SEPARATOR +
+                JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + JUNIT5_CP;
+
+        final CoveragePerTestMethod expected = EntryPoint.runCoveragePerTestMethods(
+                classpath + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                TEST_PROJECT_CLASSES,
+                "example.TestSuiteExample"
+        );
+        EntryPoint.useProbeFile = true;
+        try {
+            final CoveragePerTestMethod coveragePerTestMethod = EntryPoint.runCoveragePerTestMethods(
+                    classpath + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    TEST_PROJECT_CLASSES,
+                    "example.TestSuiteExample"
+            );
+            assertTrue(coveragePerTestMethod instanceof MappedCoveragePerTestMethod);
+            assertEquals(23, coveragePerTestMethod.getCoverageOf("test3").getInstructionsCovered());
+            assertEquals(107, coveragePerTestMethod.getCoverageOf("test3").getInstructionsTotal());
+            assertEquals(expected.getCoverageResultsMap().keySet(), coveragePerTestMethod.getCoverageResultsMap().keySet());
+            for (String testMethodName : expected.getCoverageResultsMap().keySet()) {
+                assertEquals(expected.getCoverageOf(testMethodName).getInstructionsCovered(), coveragePerTestMethod.getCoverageOf(testMethodName).getInstructionsCovered());
+                assertEquals(expected.getCoverageOf(testMethodName).getExecutionPath(), coveragePerTestMethod.getCoverageOf(testMethodName).getExecutionPath());
+            }
+
+            final CoveragePerTestMethod parametrized = EntryPoint.runCoveragePerTestMethods(
+                    classpath + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    TEST_PROJECT_CLASSES,
+                    "example.ParametrizedTestSuiteExample",
+                    new String[]{"test3"}
+            );
+            assertNotNull(parametrized.getCoverageOf("test3[0]"));
+            assertTrue(parametrized.getCoverageOf("test3").getInstructionsCovered() >= parametrized.getCoverageOf("test3[0]").getInstructionsCovered());
+        } finally {
+            EntryPoint.useProbeFile = false;
+        }
+    }
+
+    @Test
+    public void testRunJobs() throws Exception {
+
+        /*
+            Test the runJobs() of EntryPoint.
+                It should return one result per job, following the order of the jobs,
+                with the same values than running each job separately.
+         */
+        final String classpath = MAVEN_HOME + "org/jacoco/org.jacoco.core/0.7.9/org.jacoco.core-0.7.9.jar" + ConstantsHelper.PATH_SEPARATOR +
+                MAVEN_HOME + "org/ow2/asm/asm-debug-all/5.2/asm-debug-all-5.2.jar" + ConstantsHelper.PATH_SEPARATOR +
+                MAVEN_HOME + "commons-io/commons-io/2.5/commons-io-2.5.jar" + ConstantsHelper.PATH_SEPARATOR +
+                JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + JUNIT5_CP;
+
+        final List<TestJobResult> results = EntryPoint.runJobs(
+                classpath + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                TEST_PROJECT_CLASSES,
+                Arrays.asList(
+                        TestJob.runTests("failing.FailingTestClass", "testPassing", "testFailing"),
+                        TestJob.runTests("unknown.UnknownTestClass"),
+                        new TestJob(TestJob.Mode.TEST, new String[]{"example.TestSuiteExample", "example.TestSuiteExample2"}, new String[]{"test3"}),
+                        TestJob.runCoverage("example.TestSuiteExample", "test8", "test3"),
+                        TestJob.runCoveragePerTestMethods("example.TestSuiteExample", "test8", "test3")
+                )
+        );
+        assertEquals(5, results.size());
+
+        final TestResult failingTestResult = results.get(0).getTestResult();
+        assertEquals(2, failingTestResult.getRunningTests().size());
+        assertEquals(1, failingTestResult.getFailingTests().size());
+
+        // the job that cannot be run has its own entry, and the next jobs are still run
+        assertTrue(results.get(1).isFailed());
+        assertTrue(results.get(1).getError().contains("unknown.UnknownTestClass"));
+
+        final TestResult testResult = results.get(2).getTestResult();
+        assertEquals(2, testResult.getRunningTests().size());
+        assertEquals(2, testResult.getPassingTests().size());
+
+        final Coverage coverage = results.get(3).getCoverage();
+        assertEquals(23, coverage.getInstructionsCovered());
+        assertEquals(107, coverage.getInstructionsTotal());
+
+        final CoveragePerTestMethod coveragePerTestMethod = results.get(4).getCoveragePerTestMethod();
+        assertEquals(23, coveragePerTestMethod.getCoverageOf("test3").getInstructionsCovered());
+        assertEquals(23, coveragePerTestMethod.getCoverageOf("test8").getInstructionsCovered());
+    }
+
+    @Test
+    public void testTestJobWithUnsupportedTests() throws Exception {
+
+        /*
+            The jobs that compute the coverage refuse the test classes and test methods they cannot run.
+         */
+
+        try {
+            new TestJob(TestJob.Mode.COVERAGE, new String[]{"example.TestSuiteExample", "example.TestSuiteExample2"}, new String[]{"test3"});
+            fail("Should have thrown an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(true); // expected, the test methods can only be selected in a single test class
+        }
+        try {
+            new TestJob(TestJob.Mode.COVERAGE_PER_TEST_METHOD, new String[]{"example.TestSuiteExample", "example.TestSuiteExample2"}, new String[0]);
+            fail("Should have thrown an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(true); // expected, the coverage per test method is computed on a single test class
+        }
+        assertEquals(2, new TestJob(TestJob.Mode.COVERAGE, new String[]{"example.TestSuiteExample", "example.TestSuiteExample2"}, new String[0])
+                .getFullQualifiedNameOfTestClasses().length);
+    }
+
+    @Test
+    public void testRunnerDaemon() throws Exception {
+
+        /*
+            Test the reuse of a warm runner process.
+                Consecutive calls should give the same results than using a new JVM for each call.
+         */
+
+        EntryPoint.useRunnerDaemon = true;
+        try {
+            TestResult testResult = EntryPoint.runTests(
+                    JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    "example.TestSuiteExample"
+            );
+            assertEquals(7, testResult.getPassingTests().size());
+            assertEquals(0, testResult.getFailingTests().size());
+
+            testResult = EntryPoint.runTests(
+                    JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    "failing.FailingTestClass"
+            );
+            assertEquals(3, testResult.getRunningTests().size());
+            assertEquals(1, testResult.getFailingTests().size());
+
+            final String classpath = MAVEN_HOME + "org/jacoco/org.jacoco.core/0.7.9/org.jacoco.core-0.7.9.jar" + ConstantsHelper.PATH_SEPARATOR +
+                    MAVEN_HOME + "org/ow2/asm/asm-debug-all/5.2/asm-debug-all-5.2.jar" + ConstantsHelper.PATH_SEPARATOR +
+                    MAVEN_HOME + "commons-io/commons-io/2.5/commons-io-2.5.jar" + ConstantsHelper.PATH_SEPARATOR +
+                    JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + JUNIT5_CP;
+            for (int i = 0; i < 2; i++) {
+                final Coverage coverage = EntryPoint.runCoverage(
+                        classpath + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                        TEST_PROJECT_CLASSES,
+                        "example.TestSuiteExample"
+                );
+                assertEquals(30, coverage.getInstructionsCovered());
+                assertEquals(107, coverage.getInstructionsTotal());
+            }
+        } finally {
+            EntryPoint.useRunnerDaemon = false;
+            EntryPoint.shutdownRunnerDaemons();
+        }
+    }
+
+    @Test
+    public void testRunnerDaemonSharedClasses() throws Exception {
+
+        /*
+            Test that a warm runner process loads the classes of JUnit once, for all the calls,
+                while the test classes are loaded again by each call, with a fresh static state.
+         */
+
+        EntryPoint.shutdownRunnerDaemons();
+        EntryPoint.useRunnerDaemon = true;
+        try {
+            for (int i = 0; i < 3; i++) {
+                final TestResult testResult = EntryPoint.runTests(
+                        JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                        "example.RunnerDaemonTestClass"
+                );
+                assertEquals(1, testResult.getPassingTests().size());
+                assertEquals(0, testResult.getFailingTests().size());
+                assertEquals(1, RunnerDaemonProcess.getNumberOfProcesses());
+            }
+        } finally {
+            EntryPoint.useRunnerDaemon = false;
+            EntryPoint.shutdownRunnerDaemons();
+        }
+    }
+
+    @Test
+    public void testForkReusePolicy() throws Exception {
+
+        /*
+            Test the recycling of the warm runner processes, and the execution of each test class in its own runner process.
+                With maxRunsPerFork = 1, no runner process is kept after a call.
+                Whatever the runner processes, the aggregated result is the same than running all the test classes in a single one.
+         */
+
+        EntryPoint.shutdownRunnerDaemons();
+        EntryPoint.useRunnerDaemon = true;
+        EntryPoint.forkPerTestClass = true;
+        try {
+            TestResult testResult = EntryPoint.runTests(
+                    JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    new String[]{"example.TestSuiteExample", "failing.FailingTestClass"},
+                    new String[0]
+            );
+            assertEquals(10, testResult.getRunningTests().size());
+            assertEquals(1, testResult.getFailingTests().size());
+            assertEquals(1, RunnerDaemonProcess.getNumberOfProcesses());
+
+            EntryPoint.maxRunsPerFork = 1;
+            testResult = EntryPoint.runTests(
+                    JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES,
+                    new String[]{"example.TestSuiteExample", "failing.FailingTestClass"},
+                    new String[0]
+            );
+            assertEquals(10, testResult.getRunningTests().size());
+            assertEquals(1, testResult.getFailingTests().size());
+            assertEquals(0, RunnerDaemonProcess.getNumberOfProcesses());
+        } finally {
+            EntryPoint.useRunnerDaemon = false;
+            EntryPoint.forkPerTestClass = false;
+            EntryPoint.maxRunsPerFork = 0;
+            EntryPoint.shutdownRunnerDaemons();
+        }
+    }
+
     @Test
     public void testOnParametrized() throws TimeoutException {
 
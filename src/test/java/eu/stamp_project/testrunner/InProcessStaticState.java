@@ -0,0 +1,20 @@
+package eu.stamp_project.testrunner;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This test class is run in process by {@link EntryPointTest#testRunTestsInProcessIsolation()}.
+ * It is on the classpath of the test runner, and on the classpath given to the run.
+ */
+public class InProcessStaticState {
+
+    public static int numberOfRuns = 0;
+
+    @Test
+    public void testFirstRun() {
+        assertEquals(0, numberOfRuns);
+        numberOfRuns++;
+    }
+}
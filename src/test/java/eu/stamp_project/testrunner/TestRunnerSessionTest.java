@@ -0,0 +1,89 @@
+package eu.stamp_project.testrunner;
+
+import eu.stamp_project.testrunner.listener.TestResult;
+import eu.stamp_project.testrunner.utils.ConstantsHelper;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Tests of {@link TestRunnerSession}, run concurrently: several sessions, and several invocations of a session.
+ */
+public class TestRunnerSessionTest extends AbstractTest {
+
+    @Test
+    public void testConcurrentSessions() throws Exception {
+
+        /*
+            Two sessions, with different configurations, run concurrently in the same JVM.
+                Each of them must obtain the result of its own execution.
+         */
+
+        final TestRunnerSession session = TestRunnerSession.builder()
+                .verbose(true)
+                .build();
+        final TestRunnerSession sessionWithBlackList = TestRunnerSession.builder()
+                .verbose(true)
+                .blackList(Collections.singletonList("testFailing"))
+                .build();
+        assertNotEquals(session.getOutputDirectory(), sessionWithBlackList.getOutputDirectory());
+
+        final String classpath = JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES;
+        final CompletableFuture<TestResult> testResult = CompletableFuture.supplyAsync(() -> {
+            try {
+                return session.runTests(classpath, "failing.FailingTestClass");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        final CompletableFuture<TestResult> testResultWithBlackList = CompletableFuture.supplyAsync(() -> {
+            try {
+                return sessionWithBlackList.runTests(classpath, "failing.FailingTestClass");
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        assertEquals(3, testResult.get().getRunningTests().size());
+        assertEquals(1, testResult.get().getFailingTests().size());
+        assertEquals(2, testResultWithBlackList.get().getRunningTests().size());
+        assertEquals(0, testResultWithBlackList.get().getFailingTests().size());
+    }
+
+    @Test
+    public void testConcurrentInvocationsOfASession() throws Exception {
+
+        /*
+            The same session is invoked several times concurrently.
+                Each invocation has its own directory, so each of them must obtain the result of its own execution,
+                and the output directory of the session is deleted once they are all done.
+         */
+
+        final TestRunnerSession session = TestRunnerSession.builder().build();
+        final String classpath = JUNIT_CP + ConstantsHelper.PATH_SEPARATOR + TEST_PROJECT_CLASSES;
+        final TestResult expectedTestResult = session.runTests(classpath, "example.TestSuiteExample");
+        final List<CompletableFuture<TestResult>> failingTestResults = new ArrayList<>();
+        final List<CompletableFuture<TestResult>> testResults = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            failingTestResults.add(session.runTestsAsync(classpath, new String[]{"failing.FailingTestClass"}, new String[0]));
+            testResults.add(session.runTestsAsync(classpath, new String[]{"example.TestSuiteExample"}, new String[0]));
+        }
+        for (CompletableFuture<TestResult> failingTestResult : failingTestResults) {
+            assertEquals(3, failingTestResult.get().getRunningTests().size());
+            assertEquals(1, failingTestResult.get().getFailingTests().size());
+        }
+        for (CompletableFuture<TestResult> testResult : testResults) {
+            assertEquals(expectedTestResult.getRunningTests(), testResult.get().getRunningTests());
+            assertEquals(expectedTestResult.getPassingTests(), testResult.get().getPassingTests());
+        }
+        assertFalse(new File(session.getOutputDirectory()).exists());
+    }
+}
@@ -0,0 +1,230 @@
+package eu.stamp_project.testrunner.listener.impl;
+
+import eu.stamp_project.testrunner.listener.Coverage;
+import eu.stamp_project.testrunner.listener.TestResult;
+import eu.stamp_project.testrunner.listener.TestTiming;
+import eu.stamp_project.testrunner.listener.junit4.JUnit4Coverage;
+import eu.stamp_project.testrunner.runner.Failure;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link BinaryResultFormat}, the binary format of the results written by the runners.
+ */
+public class BinaryResultFormatTest {
+
+    private static final String STACK_TRACE = "java.lang.AssertionError: expected:<1> but was:<2>\n" +
+            "\tat org.junit.Assert.fail(Assert.java:88)\n" +
+            "\tat org.junit.Assert.failNotEquals(Assert.java:834)\n" +
+            "\tat example.TestSuiteExample.test(TestSuiteExample.java:12)\n";
+
+    private static final String EXECUTION_PATH = "example/Example:2,0,0,4,4,0,7,2,0,2,5,1,0,3;tobemocked/LoginController:0,0,0,0,0,0;";
+
+    @Test
+    public void testTestResult() throws Exception {
+
+        /*
+            A test result should be read as it has been written, including the null strings and the outputs.
+         */
+
+        final TestResultImpl testResult = new TestResultImpl();
+        testResult.getRunningTests().addAll(Arrays.asList("test1", "test2", "test3", "test4"));
+        testResult.getFailingTests().add(new Failure("test2", "example.TestSuiteExample", "java.lang.AssertionError", null, STACK_TRACE));
+        testResult.getAssumptionFailingTests().add(new Failure("test3", "example.TestSuiteExample", "org.junit.AssumptionViolatedException", "assumption", null));
+        testResult.getIgnoredTests().add("test5");
+        testResult.putOutputOf("test1", "output of test1 with non ASCII characters: éàü");
+        testResult.putTiming(new TestTiming("example.TestSuiteExample", 1_600_000_000_000_000_000L, 1_600_000_000_500_000_000L, 100_000L, 200_000L));
+        testResult.putTiming(new TestTiming("example.TestSuiteExample", "test1", 1_600_000_000_000_100_000L, 1_600_000_000_000_200_000L));
+
+        final TestResult load = (TestResult) readBinary(writeBinary(testResult));
+        assertEquals(testResult.getRunningTests(), load.getRunningTests());
+        assertEquals(Arrays.asList("test1", "test4"), load.getPassingTests());
+        assertEquals(testResult.getFailingTests(), load.getFailingTests());
+        assertNull(load.getFailureOf("test2").messageOfFailure);
+        assertEquals(STACK_TRACE, load.getFailureOf("test2").getStackTrace());
+        assertEquals("example.TestSuiteExample", load.getFailureOf("test2").testClassName);
+        assertEquals(testResult.getAssumptionFailingTests(), load.getAssumptionFailingTests());
+        assertNull(load.getAssumptionFailingTests().get(0).getStackTrace());
+        assertEquals(testResult.getIgnoredTests(), load.getIgnoredTests());
+        assertEquals(testResult.getOutputOf("test1"), load.getOutputOf("test1"));
+        assertEquals(testResult.getTimingsOfTestClasses(), load.getTimingsOfTestClasses());
+        assertEquals(testResult.getTimingsOfTestMethods(), load.getTimingsOfTestMethods());
+    }
+
+    @Test
+    public void testStructuredStackTrace() throws Exception {
+
+        /*
+            A structured stack trace should be read as it has been written, including its cause, and rendered the same way.
+         */
+
+        final Throwable exception = new IllegalStateException("wrapper", new AssertionError("expected:<1> but was:<2>"));
+        final TestResultImpl testResult = new TestResultImpl();
+        testResult.addRunningTest("example.TestSuiteExample", "test1");
+        testResult.getFailingTests().add(new Failure("test1", "example.TestSuiteExample", exception));
+
+        final TestResult load = (TestResult) readBinary(writeBinary(testResult));
+        final Failure failure = load.getFailureOf("test1");
+        assertEquals(testResult.getFailingTests().get(0).getStackTrace(), failure.getStackTrace());
+        assertEquals("java.lang.AssertionError: expected:<1> but was:<2>", failure.getStructuredStackTrace().getCause().getDescription());
+        assertEquals(exception.getStackTrace().length, failure.getStructuredStackTrace().getFrames().size());
+    }
+
+    @Test
+    public void testCoverage() throws Exception {
+        final CoverageImpl coverage = new CoverageImpl(30, 107);
+        coverage.setExecutionPath(EXECUTION_PATH);
+        final Coverage load = (Coverage) readBinary(writeBinary(coverage));
+        assertEquals(30, load.getInstructionsCovered());
+        assertEquals(107, load.getInstructionsTotal());
+        assertEquals(EXECUTION_PATH, load.getExecutionPath());
+    }
+
+    @Test
+    public void testCoveragePerTestMethod() throws Exception {
+        final CoveragePerTestMethodImpl coveragePerTestMethod = createCoveragePerTestMethod(3);
+        final CoveragePerTestMethodImpl load = (CoveragePerTestMethodImpl) readBinary(writeBinary(coveragePerTestMethod));
+        assertEquals("target/classes/", load.getClassesDirectory());
+        assertEquals(coveragePerTestMethod.getCoverageResultsMap().keySet(), load.getCoverageResultsMap().keySet());
+        for (String testMethodName : coveragePerTestMethod.getCoverageResultsMap().keySet()) {
+            assertEquals(coveragePerTestMethod.getCoverageOf(testMethodName).getInstructionsCovered(), load.getCoverageOf(testMethodName).getInstructionsCovered());
+            assertEquals(coveragePerTestMethod.getCoverageOf(testMethodName).getInstructionsTotal(), load.getCoverageOf(testMethodName).getInstructionsTotal());
+            assertEquals(coveragePerTestMethod.getCoverageOf(testMethodName).getExecutionPath(), load.getCoverageOf(testMethodName).getExecutionPath());
+        }
+    }
+
+    @Test
+    public void testUnsupportedVersion() throws Exception {
+
+        /*
+            A reader should refuse a result written with a newer version of the format, instead of misreading it.
+         */
+
+        final byte[] bytes = writeBinary(new TestResultImpl());
+        bytes[Integer.BYTES] = (byte) (BinaryResultFormat.VERSION + 1);
+        try {
+            readBinary(bytes);
+            fail("Should have thrown an IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("version"));
+        }
+        final ByteArrayInputStream javaSerialization = new ByteArrayInputStream(writeJava(new TestResultImpl()));
+        assertTrue(!BinaryResultFormat.isBinaryResult(javaSerialization));
+    }
+
+    @Test
+    public void testCompareWithJavaSerialization() throws Exception {
+
+        /*
+            This format is smaller than the java serialization, which was used before.
+                The coverage per test method is the worst case of the java serialization: each value is a whole JUnit4Coverage.
+         */
+
+        final TestResultImpl testResult = new TestResultImpl();
+        for (int i = 0; i < 500; i++) {
+            testResult.getRunningTests().add("test" + i);
+            if (i % 10 == 0) {
+                testResult.getFailingTests().add(new Failure("test" + i, "example.TestSuiteExample", "java.lang.AssertionError", "expected:<1> but was:<2>", STACK_TRACE));
+            }
+        }
+        final CoveragePerTestMethodImpl coveragePerTestMethod = createCoveragePerTestMethod(500);
+        for (Object result : new Object[]{testResult, coveragePerTestMethod}) {
+            assertTrue(writeBinary(result).length < writeJava(result).length);
+        }
+    }
+
+    @Ignore("benchmark, run it explicitly")
+    @Test
+    public void benchmarkCompareWithJavaSerialization() throws Exception {
+
+        /*
+            Compare the throughput of this format with the java serialization, which was used before, on the results of testCompareWithJavaSerialization.
+                Each round trip writes the result, then reads it. The round trips of the first second are not measured, to warm up the JIT.
+                Nothing is asserted, the sizes and the round trips per second are printed.
+         */
+
+        final TestResultImpl testResult = new TestResultImpl();
+        for (int i = 0; i < 500; i++) {
+            testResult.getRunningTests().add("test" + i);
+            if (i % 10 == 0) {
+                testResult.getFailingTests().add(new Failure("test" + i, "example.TestSuiteExample", "java.lang.AssertionError", "expected:<1> but was:<2>", STACK_TRACE));
+            }
+        }
+        final CoveragePerTestMethodImpl coveragePerTestMethod = createCoveragePerTestMethod(500);
+        for (Object result : new Object[]{testResult, coveragePerTestMethod}) {
+            System.out.println(String.format("%s: binary format %d bytes, java serialization %d bytes",
+                    result.getClass().getSimpleName(), writeBinary(result).length, writeJava(result).length));
+            roundTripsPerSecond(() -> readBinary(writeBinary(result)));
+            roundTripsPerSecond(() -> readJava(writeJava(result)));
+            System.out.println(String.format("%s: binary format %d round trips/s, java serialization %d round trips/s",
+                    result.getClass().getSimpleName(),
+                    roundTripsPerSecond(() -> readBinary(writeBinary(result))),
+                    roundTripsPerSecond(() -> readJava(writeJava(result)))
+            ));
+        }
+    }
+
+    private interface RoundTrip {
+        Object run() throws Exception;
+    }
+
+    private static long roundTripsPerSecond(RoundTrip roundTrip) throws Exception {
+        long numberOfRoundTrips = 0;
+        final long start = System.nanoTime();
+        long elapsed;
+        do {
+            roundTrip.run();
+            numberOfRoundTrips++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < 1_000_000_000L);
+        return numberOfRoundTrips * 1_000_000_000L / elapsed;
+    }
+
+    private static CoveragePerTestMethodImpl createCoveragePerTestMethod(int numberOfTestMethods) {
+        final Map<String, Coverage> coverageResultsMap = new LinkedHashMap<>();
+        for (int i = 0; i < numberOfTestMethods; i++) {
+            final JUnit4Coverage coverage = new JUnit4Coverage(20 + i % 10, 107);
+            coverage.setExecutionPath(EXECUTION_PATH + (i % 10));
+            coverageResultsMap.put("test" + i, coverage);
+        }
+        return new CoveragePerTestMethodImpl("target/classes/", coverageResultsMap);
+    }
+
+    private static byte[] writeBinary(Object result) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BinaryResultFormat.write(result, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static Object readBinary(byte[] bytes) throws IOException {
+        return BinaryResultFormat.read(new ByteArrayInputStream(bytes));
+    }
+
+    private static byte[] writeJava(Object result) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+            objectOutputStream.writeObject(result);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static Object readJava(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return objectInputStream.readObject();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package eu.stamp_project.testrunner.listener.impl;
+
+import eu.stamp_project.testrunner.listener.TestResult;
+import eu.stamp_project.testrunner.listener.TestStatus;
+import eu.stamp_project.testrunner.listener.TestTiming;
+import eu.stamp_project.testrunner.runner.Failure;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LongSummaryStatistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link TestResultImpl}.
+ */
+public class TestResultImplTest {
+
+    private static final String TEST_CLASS_NAME = "example.TestSuiteExample";
+
+    private static final String OTHER_TEST_CLASS_NAME = "example.TestSuiteExample2";
+
+    @Test
+    public void testStatus() {
+
+        /*
+            The status, the failure and the counts of each test method are given by the indexes,
+                and they match the lists.
+         */
+
+        final TestResultImpl testResult = createTestResult();
+        assertEquals(TestStatus.PASSING, testResult.getStatusOf("test1"));
+        assertEquals(TestStatus.FAILING, testResult.getStatusOf("test2"));
+        assertEquals(TestStatus.ASSUMPTION_FAILING, testResult.getStatusOf("test3"));
+        assertEquals(TestStatus.IGNORED, testResult.getStatusOf("test5"));
+        assertNull(testResult.getStatusOf("unknown"));
+        assertEquals(Arrays.asList("test1", "test4"), testResult.getPassingTests());
+        assertEquals(2, testResult.getNumberOfTests(TestStatus.PASSING));
+        assertEquals(1, testResult.getNumberOfTests(TestStatus.FAILING));
+        assertEquals(1, testResult.getNumberOfTests(TestStatus.ASSUMPTION_FAILING));
+        assertEquals(1, testResult.getNumberOfTests(TestStatus.IGNORED));
+        assertEquals("java.lang.AssertionError", testResult.getFailureOf("test2").fullQualifiedNameOfException);
+        try {
+            testResult.getFailureOf("test1");
+            fail("Should have thrown an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("test1"));
+        }
+
+        // the same names are stored once
+        testResult.addRunningTest(TEST_CLASS_NAME, new String("test1"));
+        assertSame(testResult.getRunningTests().get(0), testResult.getRunningTests().get(4));
+    }
+
+    @Test
+    public void testStatusPerTestClass() {
+
+        /*
+            Two test classes can have a test method with the same name.
+                By name, the test method is failing if one of them failed.
+                By test class and name, each test method has its own status.
+         */
+
+        final TestResultImpl testResult = createTestResult();
+        testResult.addRunningTest(OTHER_TEST_CLASS_NAME, "test2");
+        assertEquals(TestStatus.FAILING, testResult.getStatusOf("test2"));
+        assertEquals(TestStatus.FAILING, testResult.getStatusOf(TEST_CLASS_NAME, "test2"));
+        assertEquals(TestStatus.PASSING, testResult.getStatusOf(OTHER_TEST_CLASS_NAME, "test2"));
+        assertEquals(TestStatus.IGNORED, testResult.getStatusOf(TEST_CLASS_NAME, "test5"));
+        assertNull(testResult.getStatusOf(OTHER_TEST_CLASS_NAME, "test1"));
+        assertNull(testResult.getStatusOf("unknown.TestClass", "test1"));
+    }
+
+    @Test
+    public void testModifyTheLists() {
+
+        /*
+            The lists returned remain modifiable, and the indexes follow their modifications.
+         */
+
+        final TestResultImpl testResult = createTestResult();
+        testResult.getFailingTests().remove(0);
+        assertEquals(TestStatus.PASSING, testResult.getStatusOf("test2"));
+        assertEquals(Arrays.asList("test1", "test2", "test4"), testResult.getPassingTests());
+        assertEquals(3, testResult.getNumberOfTests(TestStatus.PASSING));
+
+        final Iterator<String> iterator = testResult.getRunningTests().iterator();
+        iterator.next();
+        iterator.remove();
+        assertNull(testResult.getStatusOf("test1"));
+        assertEquals(2, testResult.getNumberOfTests(TestStatus.PASSING));
+
+        testResult.getAssumptionFailingTests().clear();
+        assertEquals(Arrays.asList("test2", "test3", "test4"), testResult.getPassingTests());
+        assertEquals(3, testResult.getNumberOfTests(TestStatus.PASSING));
+
+        testResult.getRunningTests().set(0, "test6");
+        assertEquals(TestStatus.PASSING, testResult.getStatusOf("test6"));
+        assertNull(testResult.getStatusOf("test2"));
+        assertEquals(testResult.getPassingTests().size(), testResult.getNumberOfTests(TestStatus.PASSING));
+    }
+
+    @Test
+    public void testAggregateAndSerialize() throws Exception {
+
+        /*
+            The aggregation and the java serialization keep the indexes, including the test classes.
+         */
+
+        final TestResultImpl testResult = createTestResult();
+        final TestResultImpl other = new TestResultImpl();
+        other.addRunningTest(OTHER_TEST_CLASS_NAME, "test7");
+        other.getFailingTests().add(new Failure("test7", OTHER_TEST_CLASS_NAME, "java.lang.AssertionError", null, null));
+        testResult.aggregate(other);
+        testResult.aggregate(testResult);
+        assertEquals(10, testResult.getRunningTests().size());
+        assertEquals(Arrays.asList("test1", "test4", "test1", "test4"), testResult.getPassingTests());
+        assertEquals(4, testResult.getNumberOfTests(TestStatus.PASSING));
+        assertEquals(TestStatus.FAILING, testResult.getStatusOf(OTHER_TEST_CLASS_NAME, "test7"));
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+            objectOutputStream.writeObject(testResult);
+        }
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            final TestResult load = (TestResult) objectInputStream.readObject();
+            assertEquals(testResult.getRunningTests(), load.getRunningTests());
+            assertEquals(testResult.getPassingTests(), load.getPassingTests());
+            assertEquals(4, load.getNumberOfTests(TestStatus.PASSING));
+            assertEquals(TestStatus.FAILING, load.getStatusOf(OTHER_TEST_CLASS_NAME, "test7"));
+            assertEquals(TestStatus.PASSING, load.getStatusOf(TEST_CLASS_NAME, "test4"));
+            load.getRunningTests().add("test8");
+            assertEquals(TestStatus.PASSING, load.getStatusOf("test8"));
+        }
+    }
+
+    @Test
+    public void testManyTests() {
+
+        /*
+            The status of 20 000 tests, including 2 000 failing tests, are queried from the indexes,
+                while the lists used to be scanned for each query.
+         */
+
+        final int numberOfTests = 20_000;
+        final TestResultImpl testResult = new TestResultImpl();
+        for (int i = 0; i < numberOfTests; i++) {
+            testResult.addRunningTest(TEST_CLASS_NAME, "test" + i);
+            if (i % 10 == 0) {
+                testResult.getFailingTests().add(new Failure("test" + i, TEST_CLASS_NAME, "java.lang.AssertionError", null, null));
+            }
+        }
+        assertEquals(numberOfTests - numberOfTests / 10, testResult.getPassingTests().size());
+        for (int i = 0; i < numberOfTests; i++) {
+            assertEquals(i % 10 == 0 ? TestStatus.FAILING : TestStatus.PASSING, testResult.getStatusOf(TEST_CLASS_NAME, "test" + i));
+            if (i % 10 == 0) {
+                assertEquals("test" + i, testResult.getFailureOf("test" + i).testCaseName);
+            }
+        }
+        assertEquals(Collections.emptyList(), testResult.getAssumptionFailingTests());
+    }
+
+    @Test
+    public void testTimings() throws Exception {
+
+        /*
+            The test methods and the test classes are timed.
+                The setup and the teardown of a test class are the times spent before its first test method and after its last test method.
+                The aggregation keeps the last run of each test method.
+         */
+
+        final TestResultImpl testResult = new TestResultImpl();
+        testResult.startTimingOfTestClass(TEST_CLASS_NAME);
+        Thread.sleep(20L);
+        testResult.startTimingOf(TEST_CLASS_NAME, "test1");
+        Thread.sleep(10L);
+        testResult.stopTimingOf(TEST_CLASS_NAME, "test1");
+        testResult.startTimingOf(TEST_CLASS_NAME, "test2");
+        Thread.sleep(30L);
+        testResult.stopTimingOf(TEST_CLASS_NAME, "test2");
+        Thread.sleep(20L);
+        testResult.stopTimingOfTestClass(TEST_CLASS_NAME);
+        // not started
+        testResult.stopTimingOf(TEST_CLASS_NAME, "test3");
+
+        final TestTiming timingOfTest1 = testResult.getTimingOf(TEST_CLASS_NAME, "test1");
+        final TestTiming timingOfTest2 = testResult.getTimingOf(TEST_CLASS_NAME, "test2");
+        assertTrue(timingOfTest1.getDuration() >= 10_000_000L);
+        assertTrue(timingOfTest2.getDuration() >= 30_000_000L);
+        assertTrue(timingOfTest1.getEndTime() <= timingOfTest2.getStartTime());
+        assertNull(testResult.getTimingOf(TEST_CLASS_NAME, "test3"));
+        assertNull(testResult.getTimingOf(OTHER_TEST_CLASS_NAME, "test1"));
+
+        final TestTiming timingOfTestClass = testResult.getTimingOfTestClass(TEST_CLASS_NAME);
+        assertNull(timingOfTestClass.getTestMethodName());
+        assertEquals(timingOfTest1.getStartTime() - timingOfTestClass.getStartTime(), timingOfTestClass.getSetupTime());
+        assertEquals(timingOfTestClass.getEndTime() - timingOfTest2.getEndTime(), timingOfTestClass.getTeardownTime());
+        assertTrue(timingOfTestClass.getSetupTime() >= 20_000_000L);
+        assertTrue(timingOfTestClass.getTeardownTime() >= 20_000_000L);
+
+        assertEquals(Arrays.asList(timingOfTest2, timingOfTest1), testResult.getSlowestTests(2));
+        final LongSummaryStatistics durationStatistics = testResult.getDurationStatistics();
+        assertEquals(2, durationStatistics.getCount());
+        assertEquals(timingOfTest2.getDuration(), durationStatistics.getMax());
+
+        final TestResultImpl other = new TestResultImpl();
+        other.startTimingOf(TEST_CLASS_NAME, "test1");
+        other.stopTimingOf(TEST_CLASS_NAME, "test1");
+        testResult.aggregate(other);
+        assertEquals(other.getTimingOf(TEST_CLASS_NAME, "test1"), testResult.getTimingOf(TEST_CLASS_NAME, "test1"));
+        assertEquals(Arrays.asList(timingOfTest2, other.getTimingOf(TEST_CLASS_NAME, "test1")), testResult.getTimingsOfTestMethods());
+        assertNotNull(testResult.getTimingOfTestClass(TEST_CLASS_NAME));
+    }
+
+    private static TestResultImpl createTestResult() {
+        final TestResultImpl testResult = new TestResultImpl();
+        for (String testMethodName : Arrays.asList("test1", "test2", "test3", "test4")) {
+            testResult.addRunningTest(TEST_CLASS_NAME, testMethodName);
+        }
+        testResult.getFailingTests().add(new Failure(new String("test2"), TEST_CLASS_NAME, "java.lang.AssertionError", null, null));
+        testResult.getAssumptionFailingTests().add(new Failure("test3", TEST_CLASS_NAME, "org.junit.AssumptionViolatedException", "assumption", null));
+        testResult.addIgnoredTest(TEST_CLASS_NAME, "test5");
+        return testResult;
+    }
+}
@@ -0,0 +1,113 @@
+package eu.stamp_project.testrunner.runner;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link StackTrace}, the stack traces of the failures sent by the runners.
+ */
+public class StackTraceTest {
+
+    @After
+    public void tearDown() {
+        StackTrace.configure(StackTrace.UNLIMITED_DEPTH, false);
+    }
+
+    @Test
+    public void testRender() {
+
+        /*
+            By default, the stack trace is rendered as printed by Throwable#printStackTrace(), including the causes.
+         */
+
+        final Throwable exception = new RuntimeException("wrapper", new IllegalStateException("cause"));
+        final Failure failure = new Failure("testRender", StackTraceTest.class.getName(), exception);
+        assertEquals(printStackTrace(exception), failure.getStackTrace());
+        assertSame(failure.getStackTrace(), failure.getStackTrace());
+        assertEquals("java.lang.IllegalStateException: cause", failure.getStructuredStackTrace().getCause().getDescription());
+        assertTrue(failure.getStructuredStackTrace().getCause().getNumberOfFramesInCommon() > 0);
+
+        final Failure failureFromText = new Failure("testRender", StackTraceTest.class.getName(), "java.lang.AssertionError", null, (String) null);
+        assertNull(failureFromText.getStackTrace());
+        assertNull(failureFromText.getStructuredStackTrace());
+    }
+
+    @Test
+    public void testSharedFrames() {
+
+        /*
+            Two failures thrown from the same place share the strings of their frames.
+         */
+
+        final StackTrace[] stackTraces = new StackTrace[2];
+        for (int i = 0; i < stackTraces.length; i++) {
+            stackTraces[i] = StackTrace.of(new IllegalStateException("same place"));
+        }
+        final StackTrace first = stackTraces[0];
+        final StackTrace second = stackTraces[1];
+        assertEquals(first.getFrames(), second.getFrames());
+        for (int i = 0; i < first.getFrames().size(); i++) {
+            assertSame(first.getFrames().get(i), second.getFrames().get(i));
+        }
+    }
+
+    @Test
+    public void testMaxDepthAndFilter() throws Exception {
+
+        /*
+            With a max depth, only the first frames are kept.
+            With the filter, the frames of JUnit, of the reflection and of the test runner below the tested code are removed,
+                but not the frames above the tested code.
+                Here, the tested code is java.util.Optional, called by this test class, that belongs to the test runner.
+            In both cases, the number of omitted frames is rendered.
+         */
+
+        final Throwable exception = invokeAssertion();
+        StackTrace.configure(2, false);
+        StackTrace stackTrace = StackTrace.of(exception);
+        assertEquals(2, stackTrace.getFrames().size());
+        assertEquals(exception.getStackTrace().length - 2, stackTrace.getNumberOfOmittedFrames());
+        assertTrue(stackTrace.toString().contains("\t... " + (exception.getStackTrace().length - 2) + " filtered"));
+
+        StackTrace.configure(StackTrace.UNLIMITED_DEPTH, true);
+        stackTrace = StackTrace.of(exception);
+        assertEquals(2, stackTrace.getFrames().size());
+        assertTrue(stackTrace.getFrames().get(0).startsWith(StackTraceTest.class.getName() + ".lambda$assertion"));
+        assertTrue(stackTrace.getFrames().get(1).startsWith("java.util.Optional.orElseThrow"));
+        assertFalse(stackTrace.getFrames().stream().anyMatch(frame -> frame.startsWith("sun.reflect.") || frame.startsWith("java.lang.reflect.")));
+        assertFalse(stackTrace.getFrames().stream().anyMatch(frame -> frame.startsWith("org.junit.runners.")));
+        assertEquals(exception.getStackTrace().length, stackTrace.getFrames().size() + stackTrace.getNumberOfOmittedFrames());
+    }
+
+    public static void assertion() {
+        Optional.empty().orElseThrow(() -> new AssertionError("assertion"));
+    }
+
+    private static Throwable invokeAssertion() throws Exception {
+        final Method assertion = StackTraceTest.class.getMethod("assertion");
+        try {
+            assertion.invoke(null);
+        } catch (InvocationTargetException e) {
+            return e.getCause();
+        }
+        throw new AssertionError("The assertion should have failed");
+    }
+
+    private static String printStackTrace(Throwable exception) {
+        final StringWriter stringWriter = new StringWriter();
+        exception.printStackTrace(new PrintWriter(stringWriter));
+        return stringWriter.toString();
+    }
+}
@@ -0,0 +1,59 @@
+package eu.stamp_project.testrunner.runner.coverage;
+
+import eu.stamp_project.testrunner.AbstractTest;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of {@link CoverageAgent}, that instruments the classes when they are loaded.
+ */
+public class CoverageAgentTest extends AbstractTest {
+
+    private static final String CLASSES_DIRECTORY = "src/test/resources/test-projects/target/classes/";
+
+    private static final String TEST_CLASSES_DIRECTORY = "src/test/resources/test-projects/target/test-classes/";
+
+    @Test
+    public void testInstrumentationFailure() throws Exception {
+
+        /*
+            A class that can not be instrumented is loaded as it is, and its error is recorded:
+                the coverage runner fails with it, instead of computing a coverage without this class.
+         */
+
+        final CoverageAgent coverageAgent = new CoverageAgent(Collections.singleton("example/Example"));
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        final URLClassLoader testClassLoader = new URLClassLoader(new URL[]{
+                new File(CLASSES_DIRECTORY).toURI().toURL(),
+                new File(TEST_CLASSES_DIRECTORY).toURI().toURL()
+        }, contextClassLoader);
+        Thread.currentThread().setContextClassLoader(testClassLoader);
+        try {
+            final JacocoRunner jacocoRunner = new JacocoRunner(false, CLASSES_DIRECTORY, TEST_CLASSES_DIRECTORY,
+                    Collections.emptyList(), null, true);
+            assertNull(coverageAgent.transform(testClassLoader, "example/Example", null, null, new byte[]{0, 1, 2}));
+            assertEquals(Collections.singleton("example.Example"), CoverageAgent.getInstrumentationFailures().keySet());
+            try {
+                jacocoRunner.run(CLASSES_DIRECTORY, TEST_CLASSES_DIRECTORY, new String[]{"example.TestSuiteExample"});
+                fail("Should have thrown an exception since example.Example could not be instrumented");
+            } catch (RuntimeException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+                assertTrue(e.getCause().getMessage().contains("example.Example"));
+                assertEquals(1, e.getCause().getSuppressed().length);
+            }
+        } finally {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+            testClassLoader.close();
+            CoverageAgent.getInstrumentationFailures().clear();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package eu.stamp_project.testrunner.runner.coverage;
+
+import eu.stamp_project.testrunner.AbstractTest;
+import eu.stamp_project.testrunner.listener.impl.CoverageImpl;
+import org.apache.commons.io.FileUtils;
+import org.jacoco.core.JaCoCo;
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.internal.data.CRC64;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of {@link CoverageModel}, against the analysis of jacoco.
+ */
+public class CoverageModelTest extends AbstractTest {
+
+    private static final File CLASSES_DIRECTORY = new File("src/test/resources/test-projects/target/classes/");
+
+    private static final File TEST_CLASSES_DIRECTORY = new File("src/test/resources/test-projects/target/test-classes/");
+
+    @Test
+    public void testJacocoVersion() {
+
+        /*
+            The model mirrors the internals of the analysis of a given version of jacoco.
+            Upgrading jacoco requires to check again the model against the analysis of the new version.
+         */
+
+        assertEquals("CoverageModel mirrors the analysis of jacoco " + CoverageModel.JACOCO_VERSION +
+                        " but jacoco " + JaCoCo.VERSION + " is used: check CoverageModel against the analysis of this version, then update CoverageModel.JACOCO_VERSION",
+                CoverageModel.JACOCO_VERSION,
+                JaCoCo.VERSION
+        );
+    }
+
+    @Test
+    public void testSameCoverageAsAnalyzer() throws Exception {
+
+        /*
+            The coverage computed from the model, built once, is the same as the coverage computed by the analyzer of jacoco,
+                for any probes, and in the same order, on every class of the test project: its classes and its test classes.
+         */
+
+        for (File classesDirectory : new File[]{CLASSES_DIRECTORY, TEST_CLASSES_DIRECTORY}) {
+            final CoverageModel coverageModel = CoverageModel.build(classesDirectory.getPath(), CoverageFilter.ALL);
+            assertTrue(coverageModel.isMirroringAnalysis());
+            assertSameCoverageAsAnalyzer(classesDirectory, coverageModel);
+        }
+    }
+
+    @Test
+    public void testFallbackToAnalyzer() throws Exception {
+
+        /*
+            With another version of jacoco, the model is not built, and the coverage is computed by the analyzer of jacoco.
+         */
+
+        final CoverageModel coverageModel = CoverageModel.build(CLASSES_DIRECTORY.getPath(), CoverageFilter.ALL, "0.8.0.201801022044");
+        assertFalse(coverageModel.isMirroringAnalysis());
+        assertSameCoverageAsAnalyzer(CLASSES_DIRECTORY, coverageModel);
+        assertEquals(107, coverageModel.coverageOf(new ExecutionDataStore()).stream()
+                .flatMap(classCoverage -> classCoverage.getTotalCounts().stream()).mapToInt(Integer::intValue).sum());
+    }
+
+    private static void assertSameCoverageAsAnalyzer(File classesDirectory, CoverageModel coverageModel) throws Exception {
+        final Collection<File> classFiles = FileUtils.listFiles(classesDirectory, new String[]{"class"}, true);
+        final Random random = new Random(23L);
+        for (int i = 0; i < 20; i++) {
+            final ExecutionDataStore executionData = new ExecutionDataStore();
+            if (i > 0) {
+                for (File classFile : classFiles) {
+                    final String name = classesDirectory.toPath().relativize(classFile.toPath()).toString().replace(".class", "");
+                    final boolean[] probes = executionData.get(CRC64.checksum(Files.readAllBytes(classFile.toPath())), name, 64).getProbes();
+                    for (int j = 0; j < probes.length; j++) {
+                        probes[j] = random.nextInt(4) == 0;
+                    }
+                }
+            }
+            final CoverageBuilder coverageBuilder = new CoverageBuilder();
+            new Analyzer(executionData, coverageBuilder).analyzeAll(classesDirectory);
+            final List<CoverageModel.ClassCoverage> classCoverages = coverageModel.coverageOf(executionData);
+            assertEquals(
+                    coverageBuilder.getClasses().stream().map(IClassCoverage::getName).collect(Collectors.toList()),
+                    classCoverages.stream().map(CoverageModel.ClassCoverage::getName).collect(Collectors.toList())
+            );
+            for (CoverageModel.ClassCoverage classCoverage : classCoverages) {
+                final IClassCoverage expected = coverageBuilder.getClasses()
+                        .stream()
+                        .filter(coverage -> coverage.getName().equals(classCoverage.getName()))
+                        .findFirst()
+                        .get();
+                assertEquals(classCoverage.getName(), CoverageImpl.getListOfCountForCounterFunction(expected, ICounter::getCoveredCount), classCoverage.getCoveredCounts());
+                assertEquals(classCoverage.getName(), CoverageImpl.getListOfCountForCounterFunction(expected, ICounter::getTotalCount), classCoverage.getTotalCounts());
+            }
+        }
+    }
+
+    @Test
+    public void testWithoutExecution() throws Exception {
+
+        /*
+            Without probes, no instruction is covered.
+         */
+
+        final List<CoverageModel.ClassCoverage> classCoverages =
+                CoverageModel.build(CLASSES_DIRECTORY.getPath(), CoverageFilter.ALL).coverageOf(new ExecutionDataStore());
+        assertEquals(107, classCoverages.stream().flatMap(classCoverage -> classCoverage.getTotalCounts().stream()).mapToInt(Integer::intValue).sum());
+        for (CoverageModel.ClassCoverage classCoverage : classCoverages) {
+            assertEquals(Collections.nCopies(classCoverage.getTotalCounts().size(), 0), classCoverage.getCoveredCounts());
+        }
+    }
+}
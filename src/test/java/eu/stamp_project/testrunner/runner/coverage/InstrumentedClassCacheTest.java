@@ -0,0 +1,118 @@
+package eu.stamp_project.testrunner.runner.coverage;
+
+import eu.stamp_project.testrunner.AbstractTest;
+import eu.stamp_project.testrunner.listener.Coverage;
+import eu.stamp_project.testrunner.listener.impl.CoverageImpl;
+import eu.stamp_project.testrunner.runner.ParserOptions;
+import eu.stamp_project.testrunner.utils.ConstantsHelper;
+import org.apache.commons.io.FileUtils;
+import org.jacoco.core.instr.Instrumenter;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests of {@link InstrumentedClassCache}, the persistent cache of the classes instrumented by jacoco.
+ */
+public class InstrumentedClassCacheTest extends AbstractTest {
+
+    private static final File CACHE_DIRECTORY = new File("target/instrumented-classes-cache-test/");
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(CACHE_DIRECTORY);
+    }
+
+    @Test
+    public void testCache() throws Exception {
+
+        /*
+            A class is instrumented once, then read from the cache, with the same bytes.
+                A class that changed is instrumented again.
+         */
+
+        final Instrumenter instrumenter = new Instrumenter(new CoverageRuntime());
+        final byte[] originalBytes = Files.readAllBytes(new File("src/test/resources/test-projects/target/classes/example/Example.class").toPath());
+        final InstrumentedClassCache cache = new InstrumentedClassCache(CACHE_DIRECTORY);
+        final byte[] instrumentedBytes = cache.instrument(instrumenter, originalBytes, "example.Example");
+        assertFalse(Arrays.equals(originalBytes, instrumentedBytes));
+        assertEquals(0, cache.getNumberOfHits());
+        assertEquals(1, cache.getNumberOfMisses());
+
+        final InstrumentedClassCache otherCache = new InstrumentedClassCache(CACHE_DIRECTORY);
+        assertArrayEquals(instrumentedBytes, otherCache.instrument(instrumenter, originalBytes, "example.Example"));
+        assertEquals(1, otherCache.getNumberOfHits());
+        // the instrumentation does not depend on the runtime instance
+        assertArrayEquals(instrumentedBytes, new Instrumenter(new CoverageRuntime()).instrument(originalBytes, "example.Example"));
+
+        final byte[] changedBytes = Files.readAllBytes(new File("src/test/resources/test-projects/target/classes/tobemocked/LoginController.class").toPath());
+        otherCache.instrument(instrumenter, changedBytes, "tobemocked.LoginController");
+        assertEquals(1, otherCache.getNumberOfMisses());
+        final Collection<File> entries = FileUtils.listFiles(CACHE_DIRECTORY, null, true);
+        assertEquals(2, entries.size());
+    }
+
+    @Test
+    public void testCoverageWithCache() throws Exception {
+
+        /*
+            The coverage computed from the cached classes is the same as the coverage computed from freshly instrumented classes.
+         */
+
+        for (int i = 0; i < 2; i++) {
+            JacocoRunner.main(new String[]{
+                            ParserOptions.FLAG_pathToCompiledClassesOfTheProject, TEST_PROJECT_CLASSES,
+                            ParserOptions.FLAG_fullQualifiedNameOfTestClassToRun, "example.TestSuiteExample",
+                            ParserOptions.FLAG_instrumentedClassesCache, CACHE_DIRECTORY.getPath()
+                    }
+            );
+            final Coverage load = CoverageImpl.load();
+            assertEquals(30, load.getInstructionsCovered());
+            assertEquals(107, load.getInstructionsTotal());
+        }
+        // the classes are instrumented on their first load: only example.Example is used by the tests
+        assertEquals(1, FileUtils.listFiles(CACHE_DIRECTORY, null, true).size());
+    }
+
+    @Test
+    public void testInstrumentAll() throws Exception {
+
+        /*
+            All the classes are instrumented at once in the cache, in parallel, and only once.
+                The coverage computed from these classes is the same.
+         */
+
+        final Map<String, URL> classFiles = CoverageTargets.classFilesOf(TEST_PROJECT_CLASSES.split(ConstantsHelper.PATH_SEPARATOR)[0]);
+        final InstrumentedClassCache cache = new InstrumentedClassCache(CACHE_DIRECTORY);
+        final Instrumenter instrumenter = new Instrumenter(new CoverageRuntime());
+        assertEquals(classFiles.size(), cache.instrumentAll(instrumenter, classFiles, CoverageFilter.ALL));
+        assertEquals(classFiles.size(), FileUtils.listFiles(CACHE_DIRECTORY, null, true).size());
+        assertEquals(0, new InstrumentedClassCache(CACHE_DIRECTORY).instrumentAll(instrumenter, classFiles, CoverageFilter.ALL));
+
+        final InstrumentedClassCache otherCache = new InstrumentedClassCache(CACHE_DIRECTORY);
+        final byte[] originalBytes = Files.readAllBytes(new File("src/test/resources/test-projects/target/classes/example/Example.class").toPath());
+        assertArrayEquals(instrumenter.instrument(originalBytes, "example.Example"), otherCache.instrument(instrumenter, originalBytes, "example.Example"));
+        assertEquals(1, otherCache.getNumberOfHits());
+
+        JacocoRunner.main(new String[]{
+                        ParserOptions.FLAG_pathToCompiledClassesOfTheProject, TEST_PROJECT_CLASSES,
+                        ParserOptions.FLAG_fullQualifiedNameOfTestClassToRun, "example.TestSuiteExample",
+                        ParserOptions.FLAG_instrumentedClassesCache, CACHE_DIRECTORY.getPath()
+                }
+        );
+        final Coverage load = CoverageImpl.load();
+        assertEquals(30, load.getInstructionsCovered());
+        assertEquals(107, load.getInstructionsTotal());
+        assertEquals(classFiles.size(), FileUtils.listFiles(CACHE_DIRECTORY, null, true).size());
+    }
+}
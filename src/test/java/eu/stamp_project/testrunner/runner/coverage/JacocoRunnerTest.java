@@ -6,9 +6,18 @@ import eu.stamp_project.testrunner.listener.impl.CoverageImpl;
 import eu.stamp_project.testrunner.runner.JUnit4Runner;
 import eu.stamp_project.testrunner.runner.ParserOptions;
 import eu.stamp_project.testrunner.utils.ConstantsHelper;
+import org.apache.commons.io.FileUtils;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 /**
  * Created by Benjamin DANGLOT
@@ -54,4 +63,65 @@ public class JacocoRunnerTest extends AbstractTest {
         assertEquals(107, load.getInstructionsTotal());
         System.out.println(load.getExecutionPath());
     }
+
+    @Test
+    public void testWithSeveralCoverageTargets() throws Exception {
+
+        /*
+            Using the api to compute the coverage on a directory and a jar, as for a project of several modules:
+                the coverage is the same as the coverage on the single directory that contains all the classes.
+         */
+
+        final File coverageTargets = new File("target/coverage-targets-test/");
+        final File classesDirectory = new File(coverageTargets, "classes");
+        final File jar = new File(coverageTargets, "tobemocked.jar");
+        try {
+            FileUtils.copyDirectory(new File(TEST_PROJECT_CLASSES.split(ConstantsHelper.PATH_SEPARATOR)[0], "example"), new File(classesDirectory, "example"));
+            try (JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(jar))) {
+                for (File classFile : FileUtils.listFiles(new File(TEST_PROJECT_CLASSES.split(ConstantsHelper.PATH_SEPARATOR)[0], "tobemocked"), new String[]{"class"}, false)) {
+                    jarOutputStream.putNextEntry(new JarEntry("tobemocked/" + classFile.getName()));
+                    jarOutputStream.write(Files.readAllBytes(classFile.toPath()));
+                    jarOutputStream.closeEntry();
+                }
+            }
+            JacocoRunner.main(new String[]{
+                            ParserOptions.FLAG_pathToCompiledClassesOfTheProject, String.join(ConstantsHelper.PATH_SEPARATOR,
+                                    classesDirectory.getPath(),
+                                    jar.getPath(),
+                                    TEST_PROJECT_CLASSES.split(ConstantsHelper.PATH_SEPARATOR)[1]
+                            ),
+                            ParserOptions.FLAG_fullQualifiedNameOfTestClassToRun, "example.TestSuiteExample"
+                    }
+            );
+            final Coverage load = CoverageImpl.load();
+            assertEquals(30, load.getInstructionsCovered());
+            assertEquals(107, load.getInstructionsTotal());
+        } finally {
+            FileUtils.deleteDirectory(coverageTargets);
+        }
+    }
+
+    @Test
+    public void testWithCoverageFilter() throws Exception {
+
+        /*
+            Using the api to compute the coverage on the classes that are not excluded:
+                the classes of the package tobemocked are neither instrumented nor analyzed.
+         */
+
+        try {
+            JacocoRunner.main(new String[]{
+                            ParserOptions.FLAG_pathToCompiledClassesOfTheProject, TEST_PROJECT_CLASSES,
+                            ParserOptions.FLAG_fullQualifiedNameOfTestClassToRun, "example.TestSuiteExample",
+                            ParserOptions.FLAG_coverageExcludes, "tobemocked.*"
+                    }
+            );
+            final Coverage load = CoverageImpl.load();
+            assertEquals(30, load.getInstructionsCovered());
+            assertEquals(34, load.getInstructionsTotal());
+            assertFalse(load.getExecutionPath().contains("tobemocked"));
+        } finally {
+            CoverageFilter.configure(Collections.emptyList(), Collections.emptyList());
+        }
+    }
 }
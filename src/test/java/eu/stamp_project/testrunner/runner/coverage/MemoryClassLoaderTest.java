@@ -0,0 +1,81 @@
+package eu.stamp_project.testrunner.runner.coverage;
+
+import eu.stamp_project.testrunner.AbstractTest;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of {@link MemoryClassLoader}, that instruments the classes on their first load, or all at once.
+ */
+public class MemoryClassLoaderTest extends AbstractTest {
+
+    private static final File CLASSES_DIRECTORY = new File("src/test/resources/test-projects/target/classes/");
+
+    @Test
+    public void testDefinedOnce() throws Exception {
+
+        /*
+            A class is defined once: the next loads, even concurrent, and even after a new definition, get the same class.
+         */
+
+        final MemoryClassLoader memoryClassLoader = new MemoryClassLoader(new URL[]{CLASSES_DIRECTORY.toURI().toURL()});
+        final byte[] bytes = Files.readAllBytes(new File(CLASSES_DIRECTORY, "example/Example.class").toPath());
+        memoryClassLoader.addDefinition("example.Example", bytes);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Class<?>>> loads = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                loads.add(executor.submit(() -> memoryClassLoader.loadClass("example.Example")));
+            }
+            final Class<?> loadedClass = loads.get(0).get();
+            assertSame(memoryClassLoader, loadedClass.getClassLoader());
+            for (Future<Class<?>> load : loads) {
+                assertSame(loadedClass, load.get());
+            }
+            memoryClassLoader.addDefinition("example.Example", bytes);
+            assertSame(loadedClass, memoryClassLoader.loadClass("example.Example"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testInstrumentAll() throws Exception {
+
+        /*
+            The classes are instrumented at once, each one exactly once, except the classes already loaded.
+                The next loads define the instrumented classes, without instrumenting them again.
+         */
+
+        final AtomicInteger numberOfInstrumentations = new AtomicInteger();
+        final MemoryClassLoader memoryClassLoader = new MemoryClassLoader(new URL[]{CLASSES_DIRECTORY.toURI().toURL()}, (originalBytes, name) -> {
+            numberOfInstrumentations.incrementAndGet();
+            return originalBytes;
+        });
+        final Map<String, URL> classFiles = CoverageTargets.classFilesOf(CLASSES_DIRECTORY.getPath());
+        classFiles.forEach(memoryClassLoader::addClassToInstrument);
+        assertSame(memoryClassLoader, memoryClassLoader.loadClass("example.Example").getClassLoader());
+        assertEquals(1, numberOfInstrumentations.get());
+
+        memoryClassLoader.instrumentAll();
+        assertEquals(classFiles.size(), numberOfInstrumentations.get());
+        for (String name : classFiles.keySet()) {
+            assertSame(memoryClassLoader, memoryClassLoader.loadClass(name).getClassLoader());
+        }
+        memoryClassLoader.instrumentAll();
+        assertEquals(classFiles.size(), numberOfInstrumentations.get());
+    }
+}
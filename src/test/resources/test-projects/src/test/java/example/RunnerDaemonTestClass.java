@@ -0,0 +1,29 @@
+package example;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This test class is run several times by the same runner process, see EntryPointTest#testRunnerDaemonSharedClasses.
+ * The classes of JUnit are loaded once by the runner process, while this class is loaded again by each run.
+ */
+public class RunnerDaemonTestClass {
+
+    private static final String JUNIT_CLASS_LOADER_PROPERTY = "example.RunnerDaemonTestClass.junitClassLoader";
+
+    public static int numberOfRuns = 0;
+
+    @Test
+    public void testClassesOfJUnitAreShared() {
+        assertEquals(0, numberOfRuns);
+        numberOfRuns++;
+        // the system properties are the only state shared by the runs
+        final String junitClassLoader = String.valueOf(System.identityHashCode(Test.class.getClassLoader()));
+        final String junitClassLoaderOfThePreviousRun = System.getProperty(JUNIT_CLASS_LOADER_PROPERTY);
+        System.setProperty(JUNIT_CLASS_LOADER_PROPERTY, junitClassLoader);
+        if (junitClassLoaderOfThePreviousRun != null) {
+            assertEquals(junitClassLoaderOfThePreviousRun, junitClassLoader);
+        }
+    }
+}
@@ -15,6 +15,7 @@ public class FailingTestClass {
 
     @Test
     public void testPassing() throws Exception {
+        System.out.println("output of testPassing");
         assertTrue(true);
     }
 
@@ -25,6 +26,7 @@ public class FailingTestClass {
 
     @Test
     public void testFailing() throws Exception {
+        System.err.println("output of testFailing");
         assertTrue(false);
     }
 
@@ -0,0 +1,38 @@
+package failing;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This test class hangs, in a test that can be interrupted and in a test that cannot, to test the timeouts of the test runner.
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class HangingTestClass {
+
+    private static volatile boolean loop = true;
+
+    @Test
+    public void test1Passing() throws Exception {
+        assertTrue(true);
+    }
+
+    @Test
+    public void test2Sleeping() throws Exception {
+        Thread.sleep(Long.MAX_VALUE);
+    }
+
+    @Test
+    public void test3Looping() throws Exception {
+        while (loop) {
+            // does not check the interruption
+        }
+    }
+
+    @Test
+    public void test4Passing() throws Exception {
+        assertTrue(true);
+    }
+}
@@ -0,0 +1,21 @@
+package junit5;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This test class hangs, to test the timeouts of the test runner.
+ */
+public class HangingTestClass {
+
+    @Test
+    public void testPassing() throws Exception {
+        assertTrue(true);
+    }
+
+    @Test
+    public void testSleeping() throws Exception {
+        Thread.sleep(Long.MAX_VALUE);
+    }
+}